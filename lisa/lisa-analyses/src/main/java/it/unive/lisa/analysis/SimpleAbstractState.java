@@ -14,11 +14,14 @@ import it.unive.lisa.symbolic.value.ValueExpression;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.util.representation.ObjectRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
+import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * An abstract state of the analysis, composed by a heap state modeling the
@@ -145,8 +148,8 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 		}
 
 		MutableOracle<H, V, T> mo = new MutableOracle<>(heapState, valueState, typeState);
-		mo.heap = mo.heap.assign(id, expression, pp, mo);
-		ExpressionSet exprs = mo.heap.rewrite(expression, pp, mo);
+		Pair<H, ExpressionSet> sem = mo.heap.assignAndRewrite(id, expression, pp, mo);
+		ExpressionSet exprs = mo.rewritten(sem, expression, pp);
 		if (exprs.isEmpty())
 			return bottom();
 
@@ -162,18 +165,20 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 			return new SimpleAbstractState<>(mo.heap, v, t);
 		}
 
-		T typeRes = mo.type.bottom();
-		V valueRes = mo.value.bottom();
+		List<T> types = new ArrayList<>(exprs.elements.size());
+		List<V> values = new ArrayList<>(exprs.elements.size());
 		for (SymbolicExpression expr : exprs) {
 			if (!(expr instanceof ValueExpression))
 				throw new SemanticException("Rewriting failed for expression " + expr);
 			ValueExpression ve = (ValueExpression) expr;
 			T t = mo.type.assign(id, ve, pp, mo);
 			V v = mo.value.assign(id, ve, pp, mo);
-			typeRes = typeRes.lub(t);
-			valueRes = valueRes.lub(v);
+			types.add(t);
+			values.add(v);
 		}
 
+		T typeRes = mo.type.bottom().lubAll(types);
+		V valueRes = mo.value.bottom().lubAll(values);
 		return new SimpleAbstractState<>(mo.heap, valueRes, typeRes);
 	}
 
@@ -192,8 +197,8 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 		}
 
 		MutableOracle<H, V, T> mo = new MutableOracle<>(heapState, valueState, typeState);
-		mo.heap = mo.heap.smallStepSemantics(expression, pp, mo);
-		ExpressionSet exprs = mo.heap.rewrite(expression, pp, mo);
+		Pair<H, ExpressionSet> sem = mo.heap.smallStepSemanticsAndRewrite(expression, pp, mo);
+		ExpressionSet exprs = mo.rewritten(sem, expression, pp);
 		if (exprs.isEmpty())
 			return bottom();
 
@@ -213,8 +218,8 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 			return new SimpleAbstractState<>(mo.heap, v, t);
 		}
 
-		T typeRes = mo.type.bottom();
-		V valueRes = mo.value.bottom();
+		List<T> types = new ArrayList<>(exprs.elements.size());
+		List<V> values = new ArrayList<>(exprs.elements.size());
 		for (SymbolicExpression expr : exprs) {
 			if (!(expr instanceof ValueExpression))
 				throw new SemanticException("Rewriting failed for expression " + expr);
@@ -225,10 +230,12 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 				// registered in the type domain
 				t = t.assign((Identifier) ve, ve, pp, mo);
 			V v = mo.value.smallStepSemantics(ve, pp, mo);
-			typeRes = typeRes.lub(t);
-			valueRes = valueRes.lub(v);
+			types.add(t);
+			values.add(v);
 		}
 
+		T typeRes = mo.type.bottom().lubAll(types);
+		V valueRes = mo.value.bottom().lubAll(values);
 		return new SimpleAbstractState<>(mo.heap, valueRes, typeRes);
 	}
 
@@ -272,10 +279,10 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 		}
 
 		MutableOracle<H, V, T> mo = new MutableOracle<>(heapState, valueState, typeState);
-		mo.heap = mo.heap.assume(expression, src, dest, mo);
-		if (mo.heap.isBottom())
+		Pair<H, ExpressionSet> sem = mo.heap.assumeAndRewrite(expression, src, dest, mo);
+		if (sem.getLeft().isBottom())
 			return bottom();
-		ExpressionSet exprs = mo.heap.rewrite(expression, src, mo);
+		ExpressionSet exprs = mo.rewritten(sem, expression, src);
 		if (exprs.isEmpty())
 			return bottom();
 
@@ -295,18 +302,21 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 			return new SimpleAbstractState<>(mo.heap, v, t);
 		}
 
-		T typeRes = mo.type.bottom();
-		V valueRes = mo.value.bottom();
+		List<T> types = new ArrayList<>(exprs.elements.size());
+		List<V> values = new ArrayList<>(exprs.elements.size());
 		for (SymbolicExpression expr : exprs) {
 			if (!(expr instanceof ValueExpression))
 				throw new SemanticException("Rewriting failed for expression " + expr);
 			ValueExpression ve = (ValueExpression) expr;
 			T t = mo.type.assume(ve, src, dest, mo);
 			V v = mo.value.assume(ve, src, dest, mo);
-			typeRes = typeRes.lub(t);
-			valueRes = valueRes.lub(v);
+			types.add(t);
+			values.add(v);
 		}
 
+		T typeRes = mo.type.bottom().lubAll(types);
+		V valueRes = mo.value.bottom().lubAll(values);
+
 		if (typeRes.isBottom() || valueRes.isBottom())
 			return bottom();
 
@@ -411,6 +421,42 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 				typeState.glb(other.typeState));
 	}
 
+	@Override
+	public SimpleAbstractState<H, V, T> lubAllAux(
+			List<SimpleAbstractState<H, V, T>> others)
+			throws SemanticException {
+		List<H> heaps = new ArrayList<>(others.size());
+		List<V> values = new ArrayList<>(others.size());
+		List<T> types = new ArrayList<>(others.size());
+		for (SimpleAbstractState<H, V, T> other : others) {
+			heaps.add(other.heapState);
+			values.add(other.valueState);
+			types.add(other.typeState);
+		}
+		return new SimpleAbstractState<>(
+				heapState.lubAll(heaps),
+				valueState.lubAll(values),
+				typeState.lubAll(types));
+	}
+
+	@Override
+	public SimpleAbstractState<H, V, T> glbAllAux(
+			List<SimpleAbstractState<H, V, T>> others)
+			throws SemanticException {
+		List<H> heaps = new ArrayList<>(others.size());
+		List<V> values = new ArrayList<>(others.size());
+		List<T> types = new ArrayList<>(others.size());
+		for (SimpleAbstractState<H, V, T> other : others) {
+			heaps.add(other.heapState);
+			values.add(other.valueState);
+			types.add(other.typeState);
+		}
+		return new SimpleAbstractState<>(
+				heapState.glbAll(heaps),
+				valueState.glbAll(values),
+				typeState.glbAll(types));
+	}
+
 	@Override
 	public SimpleAbstractState<H, V, T> wideningAux(
 			SimpleAbstractState<H, V, T> other)
@@ -608,6 +654,20 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 		return new SimpleAbstractState<>(heapState, valueState, typeState.top());
 	}
 
+	/**
+	 * A {@link SemanticOracle} whose components can be updated during a single
+	 * transfer function. Rewritings of expressions are cached for the duration
+	 * of the transfer: entries are keyed by the identity of the expression and
+	 * refer to a specific program point and to specific instances of the three
+	 * components (since heap domains can query the oracle while rewriting),
+	 * and the whole cache is dropped as soon as any of them changes.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <H> the type of {@link HeapDomain}
+	 * @param <V> the type of {@link ValueDomain}
+	 * @param <T> the type of {@link TypeDomain}
+	 */
 	private static class MutableOracle<H extends HeapDomain<H>,
 			V extends ValueDomain<V>,
 			T extends TypeDomain<T>> implements SemanticOracle {
@@ -616,6 +676,12 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 		private V value;
 		private T type;
 
+		private final Map<SymbolicExpression, ExpressionSet> rewritings = new IdentityHashMap<>();
+		private H rewritingHeap;
+		private V rewritingValue;
+		private T rewritingType;
+		private ProgramPoint rewritingPoint;
+
 		public MutableOracle(
 				H heap,
 				V value,
@@ -625,6 +691,50 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 			this.type = type;
 		}
 
+		// drops the cached rewritings if they do not refer to the current
+		// components and to the given program point, yielding whether they do
+		private boolean refreshCache(
+				ProgramPoint pp) {
+			if (rewritingHeap == heap && rewritingValue == value && rewritingType == type && rewritingPoint == pp)
+				return true;
+			rewritings.clear();
+			rewritingHeap = heap;
+			rewritingValue = value;
+			rewritingType = type;
+			rewritingPoint = pp;
+			return false;
+		}
+
+		/**
+		 * Installs the heap produced by a combined semantics and rewrite
+		 * operation, and yields the rewriting of {@code expression} in it. If
+		 * the operation computed the rewriting, this is recorded so that later
+		 * requests for it are answered without visiting the expression again.
+		 * Otherwise, the expression is rewritten after the heap has been
+		 * installed.
+		 * 
+		 * @param sem        the post-state of the heap and the rewriting of
+		 *                       the expression, if computed
+		 * @param expression the expression to rewrite
+		 * @param pp         the program point where the rewriting happens
+		 * 
+		 * @return the rewriting of the expression
+		 * 
+		 * @throws SemanticException if an error occurs during the rewriting
+		 */
+		private ExpressionSet rewritten(
+				Pair<H, ExpressionSet> sem,
+				SymbolicExpression expression,
+				ProgramPoint pp)
+				throws SemanticException {
+			heap = sem.getLeft();
+			if (sem.getRight() == null)
+				return rewrite(expression, pp, this);
+			refreshCache(pp);
+			rewritings.put(expression, sem.getRight());
+			return sem.getRight();
+		}
+
 		@Override
 		public ExpressionSet rewrite(
 				SymbolicExpression expression,
@@ -633,7 +743,12 @@ public class SimpleAbstractState<H extends HeapDomain<H>,
 				throws SemanticException {
 			if (!expression.mightNeedRewriting())
 				return new ExpressionSet(expression);
-			return heap.rewrite(expression, pp, this);
+			ExpressionSet result = refreshCache(pp) ? rewritings.get(expression) : null;
+			if (result == null) {
+				result = heap.rewrite(expression, pp, this);
+				rewritings.put(expression, result);
+			}
+			return result;
 		}
 
 		@Override
@@ -0,0 +1,715 @@
+package it.unive.lisa.analysis.dataflow;
+
+import static java.lang.String.format;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.heap.HeapDomain;
+import it.unive.lisa.analysis.type.TypeDomain;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.interprocedural.ScopeId;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.fixpoints.AscendingFixpoint;
+import it.unive.lisa.program.cfg.fixpoints.BackwardAscendingFixpoint;
+import it.unive.lisa.program.cfg.fixpoints.CFGFixpoint.CompoundState;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.collections.workset.WorkingSet;
+import it.unive.lisa.util.datastructures.graph.algorithms.Fixpoint.FixpointImplementation;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A dedicated solver for {@link PossibleDataflowDomain}s and
+ * {@link DefiniteDataflowDomain}s, that computes the same results of
+ * {@link CFG#fixpoint} and {@link CFG#backwardFixpoint} without evaluating the
+ * semantics of statements at each iteration. Instead, the transfer function of
+ * each statement, inner expression and edge is reduced once per cfg to a pair
+ * of <i>gen</i> and <i>kill</i> bit vectors over a dense numbering of the
+ * {@link DataflowElement}s it can produce, and the fixpoint is then computed
+ * with a bitset-based worklist that visits nodes in reverse postorder, joining
+ * states through union (for possible domains) or intersection (for definite
+ * ones).<br>
+ * <br>
+ * Gen and kill sets are extracted by evaluating each transfer function twice:
+ * once on the top element of the domain, whose result are the generated
+ * elements, and once on the set of all the elements that can reach the
+ * statement, where the missing ones are the killed elements. This is exact
+ * only for transfer functions that have the form {@code (in \ kill) U gen},
+ * where both sets do not depend on {@code in}: this holds for the
+ * {@link DataflowElement}s whose {@link DataflowElement#gen} and
+ * {@link DataflowElement#kill} do not inspect the contents of the domain, or
+ * that only inspect it to select elements to kill (as
+ * {@link ReachingDefinitions}, {@link AvailableExpressions} and
+ * {@link Liveness} do), but not, e.g., for {@link ConstantPropagation}.
+ * Moreover, the heap and type components of the states used for the
+ * evaluations are computed beforehand by a fixpoint iteration (applying
+ * widening after {@link FixpointConfiguration#wideningThreshold} joins on the
+ * same node) where the transfer functions are evaluated with the top dataflow
+ * element, and whose last round also provides the evaluations on top: each
+ * statement is thus evaluated once per change of its context, each edge once
+ * per round, and both once more on the set of all elements. These are sound
+ * over-approximations of the heap and type components that
+ * {@link CFG#fixpoint} would compute, but they can be less precise since the
+ * conditions on edges cannot filter dataflow information.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <H> the type of {@link HeapDomain} of the analysis
+ * @param <D> the type of {@link DataflowDomain} of the analysis
+ * @param <E> the type of {@link DataflowElement} contained in the domain
+ * @param <T> the type of {@link TypeDomain} of the analysis
+ */
+public final class GenKillSolver<H extends HeapDomain<H>,
+		D extends DataflowDomain<D, E>,
+		E extends DataflowElement<D, E>,
+		T extends TypeDomain<T>> {
+
+	private static final String ERROR = "Exception while %s of '%s' in '%s'";
+
+	/**
+	 * The state used to represent the top element of the domain during the
+	 * solution.
+	 */
+	private static final BitSet TOP = new BitSet();
+
+	private final CFG cfg;
+
+	private final boolean backward;
+
+	private final boolean definite;
+
+	private final AnalysisState<SimpleAbstractState<H, D, T>> context;
+
+	private final D singleton;
+
+	private final FixpointImplementation<Statement, Edge, CompoundState<SimpleAbstractState<H, D, T>>> impl;
+
+	private final List<E> elements = new ArrayList<>();
+
+	private final Map<E, Integer> ids = new HashMap<>();
+
+	private final FixpointConfiguration conf;
+
+	/**
+	 * The transfer function of a statement, an inner expression or an edge.
+	 */
+	private final class Transfer {
+
+		/**
+		 * The result of the evaluation on the top element, whose heap and type
+		 * components are used to build the results.
+		 */
+		private final AnalysisState<SimpleAbstractState<H, D, T>> post;
+
+		private final BitSet gen = new BitSet();
+
+		private final BitSet kill = new BitSet();
+
+		/**
+		 * Whether or not the transfer function preserves the top element.
+		 */
+		private final boolean keepsTop;
+
+		/**
+		 * Whether or not the transfer function always yields bottom.
+		 */
+		private final boolean blocks;
+
+		private Transfer(
+				AnalysisState<SimpleAbstractState<H, D, T>> post) {
+			this.post = post;
+			D result = post.getState().getValueState();
+			this.blocks = result.isBottom();
+			this.keepsTop = result.isTop();
+			if (!blocks)
+				for (E e : result.getDataflowElements())
+					gen.set(ids.computeIfAbsent(e, k -> {
+						elements.add(k);
+						return elements.size() - 1;
+					}));
+		}
+
+		private void setKills(
+				AnalysisState<SimpleAbstractState<H, D, T>> universe) {
+			D result = universe.getState().getValueState();
+			if (blocks || result.isBottom() || result.isTop())
+				return;
+			kill.set(0, elements.size());
+			for (E e : result.getDataflowElements()) {
+				Integer id = ids.get(e);
+				if (id != null)
+					kill.clear(id);
+			}
+		}
+
+		private BitSet apply(
+				BitSet in) {
+			if (in == null || blocks)
+				return null;
+			if (in == TOP && keepsTop)
+				return TOP;
+			BitSet out = in == TOP ? new BitSet() : (BitSet) in.clone();
+			out.andNot(kill);
+			out.or(gen);
+			return out;
+		}
+	}
+
+	/**
+	 * The transfer functions of a statement and of its inner expressions.
+	 */
+	private final class Node {
+
+		private final Statement st;
+
+		/**
+		 * The state whose heap and type components are used to evaluate the
+		 * transfer functions of the node.
+		 */
+		private final AnalysisState<SimpleAbstractState<H, D, T>> context;
+
+		private final Transfer transfer;
+
+		private final Map<Statement, Transfer> inner = new HashMap<>();
+
+		/**
+		 * The edges reaching this node, in the direction of the analysis,
+		 * indexed by the position of their other endpoint in the reverse
+		 * postorder.
+		 */
+		private final Map<Integer, Transfer> edges = new HashMap<>();
+
+		private BitSet in;
+
+		private BitSet out;
+
+		private Node(
+				Statement st,
+				AnalysisState<SimpleAbstractState<H, D, T>> context,
+				CompoundState<SimpleAbstractState<H, D, T>> post) {
+			this.st = st;
+			this.context = context;
+			this.transfer = new Transfer(post.postState);
+			for (Entry<Statement, AnalysisState<SimpleAbstractState<H, D, T>>> e : post.intermediateStates)
+				inner.put(e.getKey(), new Transfer(e.getValue()));
+		}
+	}
+
+	private GenKillSolver(
+			CFG cfg,
+			AnalysisState<SimpleAbstractState<H, D, T>> context,
+			InterproceduralAnalysis<SimpleAbstractState<H, D, T>> interprocedural,
+			FixpointConfiguration conf,
+			boolean backward) {
+		this.cfg = cfg;
+		this.backward = backward;
+		this.context = context;
+		this.conf = conf;
+		this.singleton = context.getState().getValueState();
+		if (singleton instanceof DefiniteDataflowDomain)
+			this.definite = true;
+		else if (singleton instanceof PossibleDataflowDomain)
+			this.definite = false;
+		else
+			throw new IllegalArgumentException("Unsupported dataflow domain: " + singleton.getClass().getName());
+		this.impl = backward
+				? new BackwardAscendingFixpoint<>(cfg, interprocedural, conf)
+				: new AscendingFixpoint<>(cfg, interprocedural, conf);
+	}
+
+	/**
+	 * Computes a forward fixpoint over the given cfg, starting from its
+	 * entrypoints with {@code entryState} as entry state. The returned
+	 * {@link AnalyzedCFG} contains the same dataflow elements that
+	 * {@link CFG#fixpoint} would compute for the value component of the states
+	 * (under the assumptions detailed in the documentation of this class).
+	 * 
+	 * @param <H>             the type of {@link HeapDomain} of the analysis
+	 * @param <D>             the type of {@link DataflowDomain} of the
+	 *                            analysis
+	 * @param <E>             the type of {@link DataflowElement} contained in
+	 *                            the domain
+	 * @param <T>             the type of {@link TypeDomain} of the analysis
+	 * @param cfg             the cfg to analyze
+	 * @param entryState      the entry state of the entrypoints, also used as
+	 *                            context for the evaluation of the transfer
+	 *                            functions
+	 * @param interprocedural the interprocedural analysis to query when a call
+	 *                            is encountered
+	 * @param conf            the {@link FixpointConfiguration} to use
+	 * @param id              the {@link ScopeId} to embed in the result
+	 * 
+	 * @return the analyzed cfg
+	 * 
+	 * @throws FixpointException        if an error occurs while evaluating the
+	 *                                      transfer functions
+	 * @throws IllegalArgumentException if the value domain is neither a
+	 *                                      {@link PossibleDataflowDomain} nor
+	 *                                      a {@link DefiniteDataflowDomain}
+	 */
+	public static <H extends HeapDomain<H>,
+			D extends DataflowDomain<D, E>,
+			E extends DataflowElement<D, E>,
+			T extends TypeDomain<T>> AnalyzedCFG<SimpleAbstractState<H, D, T>> fixpoint(
+					CFG cfg,
+					AnalysisState<SimpleAbstractState<H, D, T>> entryState,
+					InterproceduralAnalysis<SimpleAbstractState<H, D, T>> interprocedural,
+					FixpointConfiguration conf,
+					ScopeId id)
+					throws FixpointException {
+		return new GenKillSolver<>(cfg, entryState, interprocedural, conf, false).solve(cfg.getEntrypoints(), id);
+	}
+
+	/**
+	 * Computes a backward fixpoint over the given cfg, starting from all of its
+	 * exitpoints with {@code exitState} as exit state. The returned
+	 * {@link AnalyzedCFG} contains the same dataflow elements that
+	 * {@link CFG#backwardFixpoint} would compute for the value component of
+	 * the states (under the assumptions detailed in the documentation of this
+	 * class).
+	 * 
+	 * @param <H>             the type of {@link HeapDomain} of the analysis
+	 * @param <D>             the type of {@link DataflowDomain} of the
+	 *                            analysis
+	 * @param <E>             the type of {@link DataflowElement} contained in
+	 *                            the domain
+	 * @param <T>             the type of {@link TypeDomain} of the analysis
+	 * @param cfg             the cfg to analyze
+	 * @param exitState       the exit state of the exitpoints, also used as
+	 *                            context for the evaluation of the transfer
+	 *                            functions
+	 * @param interprocedural the interprocedural analysis to query when a call
+	 *                            is encountered
+	 * @param conf            the {@link FixpointConfiguration} to use
+	 * @param id              the {@link ScopeId} to embed in the result
+	 * 
+	 * @return the analyzed cfg
+	 * 
+	 * @throws FixpointException        if an error occurs while evaluating the
+	 *                                      transfer functions
+	 * @throws IllegalArgumentException if the value domain is neither a
+	 *                                      {@link PossibleDataflowDomain} nor
+	 *                                      a {@link DefiniteDataflowDomain}
+	 */
+	public static <H extends HeapDomain<H>,
+			D extends DataflowDomain<D, E>,
+			E extends DataflowElement<D, E>,
+			T extends TypeDomain<T>> AnalyzedCFG<SimpleAbstractState<H, D, T>> backwardFixpoint(
+					CFG cfg,
+					AnalysisState<SimpleAbstractState<H, D, T>> exitState,
+					InterproceduralAnalysis<SimpleAbstractState<H, D, T>> interprocedural,
+					FixpointConfiguration conf,
+					ScopeId id)
+					throws FixpointException {
+		return new GenKillSolver<>(cfg, exitState, interprocedural, conf, true).solve(cfg.getAllExitpoints(), id);
+	}
+
+	/**
+	 * Yields whether or not the fixpoints starting from the given state should
+	 * be computed by a {@link GenKillSolver}, that is, if
+	 * {@link FixpointConfiguration#genKillSolver} holds,
+	 * {@link FixpointConfiguration#optimize} does not, and the state is a
+	 * {@link SimpleAbstractState} whose value component is either a
+	 * {@link PossibleDataflowDomain} or a {@link DefiniteDataflowDomain}.
+	 * 
+	 * @param state the entry (or exit) state of the fixpoint
+	 * @param conf  the {@link FixpointConfiguration} to use
+	 * 
+	 * @return whether or not a {@link GenKillSolver} should be used
+	 */
+	public static boolean isApplicable(
+			AnalysisState<?> state,
+			FixpointConfiguration conf) {
+		if (!conf.genKillSolver || conf.optimize || !(state.getState() instanceof SimpleAbstractState))
+			return false;
+		Object value = ((SimpleAbstractState<?, ?, ?>) state.getState()).getValueState();
+		return value instanceof PossibleDataflowDomain || value instanceof DefiniteDataflowDomain;
+	}
+
+	/**
+	 * Computes a forward fixpoint over the given cfg, starting from its
+	 * entrypoints with {@code entryState} as entry state. This uses a
+	 * {@link GenKillSolver} if
+	 * {@link #isApplicable(AnalysisState, FixpointConfiguration)} holds, and
+	 * {@link CFG#fixpoint} otherwise.
+	 * 
+	 * @param <A>             the type of {@link AbstractState} of the analysis
+	 * @param cfg             the cfg to analyze
+	 * @param entryState      the entry state of the entrypoints
+	 * @param interprocedural the interprocedural analysis to query when a call
+	 *                            is encountered
+	 * @param ws              the {@link WorkingSet} to use if the fixpoint is
+	 *                            computed by {@link CFG#fixpoint}
+	 * @param conf            the {@link FixpointConfiguration} to use
+	 * @param id              the {@link ScopeId} to embed in the result
+	 * 
+	 * @return the analyzed cfg
+	 * 
+	 * @throws FixpointException if an error occurs during the computation
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static <A extends AbstractState<A>> AnalyzedCFG<A> fixpoint(
+			CFG cfg,
+			AnalysisState<A> entryState,
+			InterproceduralAnalysis<A> interprocedural,
+			WorkingSet<Statement> ws,
+			FixpointConfiguration conf,
+			ScopeId id)
+			throws FixpointException {
+		if (!isApplicable(entryState, conf))
+			return cfg.fixpoint(entryState, interprocedural, ws, conf, id);
+		return (AnalyzedCFG<A>) fixpoint(cfg, (AnalysisState) entryState, (InterproceduralAnalysis) interprocedural,
+				conf, id);
+	}
+
+	/**
+	 * Computes a backward fixpoint over the given cfg, starting from all of its
+	 * exitpoints with {@code exitState} as exit state. This uses a
+	 * {@link GenKillSolver} if
+	 * {@link #isApplicable(AnalysisState, FixpointConfiguration)} holds, and
+	 * {@link CFG#backwardFixpoint} otherwise.
+	 * 
+	 * @param <A>             the type of {@link AbstractState} of the analysis
+	 * @param cfg             the cfg to analyze
+	 * @param exitState       the exit state of the exitpoints
+	 * @param interprocedural the interprocedural analysis to query when a call
+	 *                            is encountered
+	 * @param ws              the {@link WorkingSet} to use if the fixpoint is
+	 *                            computed by {@link CFG#backwardFixpoint}
+	 * @param conf            the {@link FixpointConfiguration} to use
+	 * @param id              the {@link ScopeId} to embed in the result
+	 * 
+	 * @return the analyzed cfg
+	 * 
+	 * @throws FixpointException if an error occurs during the computation
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static <A extends AbstractState<A>> AnalyzedCFG<A> backwardFixpoint(
+			CFG cfg,
+			AnalysisState<A> exitState,
+			InterproceduralAnalysis<A> interprocedural,
+			WorkingSet<Statement> ws,
+			FixpointConfiguration conf,
+			ScopeId id)
+			throws FixpointException {
+		if (!isApplicable(exitState, conf))
+			return cfg.backwardFixpoint(exitState, interprocedural, ws, conf, id);
+		return (AnalyzedCFG<A>) backwardFixpoint(cfg, (AnalysisState) exitState,
+				(InterproceduralAnalysis) interprocedural, conf, id);
+	}
+
+	private Collection<Statement> next(
+			Statement node) {
+		return backward ? cfg.predecessorsOf(node) : cfg.followersOf(node);
+	}
+
+	private Collection<Statement> previous(
+			Statement node) {
+		return backward ? cfg.followersOf(node) : cfg.predecessorsOf(node);
+	}
+
+	private static <H extends HeapDomain<H>,
+			D extends DataflowDomain<D, E>,
+			E extends DataflowElement<D, E>,
+			T extends TypeDomain<T>> AnalysisState<SimpleAbstractState<H, D, T>> withValue(
+					AnalysisState<SimpleAbstractState<H, D, T>> context,
+					D value) {
+		SimpleAbstractState<H, D, T> state = context.getState();
+		return new AnalysisState<>(
+				new SimpleAbstractState<>(state.getHeapState(), value, state.getTypeState()),
+				context.getComputedExpressions(),
+				context.getFixpointInformation());
+	}
+
+	private CompoundState<SimpleAbstractState<H, D, T>> probe(
+			Statement node,
+			AnalysisState<SimpleAbstractState<H, D, T>> context,
+			D value)
+			throws FixpointException {
+		AnalysisState<SimpleAbstractState<H, D, T>> state = withValue(context, value);
+		try {
+			return impl.semantics(node, CompoundState.of(state, new StatementStore<>(state.bottom())));
+		} catch (Exception e) {
+			throw new FixpointException(format(ERROR, "computing semantics", node, cfg), e);
+		}
+	}
+
+	private AnalysisState<SimpleAbstractState<H, D, T>> probe(
+			Edge edge,
+			AnalysisState<SimpleAbstractState<H, D, T>> context,
+			D value)
+			throws FixpointException {
+		AnalysisState<SimpleAbstractState<H, D, T>> state = withValue(context, value);
+		try {
+			return impl.traverse(edge, CompoundState.of(state, new StatementStore<>(state.bottom()))).postState;
+		} catch (Exception e) {
+			throw new FixpointException(format(ERROR, "computing edge semantics", edge, cfg), e);
+		}
+	}
+
+	private Edge edge(
+			Statement node,
+			Statement previous) {
+		return backward ? cfg.getEdgeConnecting(node, previous) : cfg.getEdgeConnecting(previous, node);
+	}
+
+	private List<Statement> reversePostorder(
+			Collection<Statement> starting) {
+		List<Statement> postorder = new ArrayList<>(cfg.getNodesCount());
+		Map<Statement, Iterator<Statement>> visiting = new HashMap<>();
+		Deque<Statement> stack = new ArrayDeque<>();
+		for (Statement start : starting) {
+			if (visiting.containsKey(start))
+				continue;
+			visiting.put(start, next(start).iterator());
+			stack.push(start);
+			while (!stack.isEmpty()) {
+				Iterator<Statement> it = visiting.get(stack.peek());
+				if (!it.hasNext()) {
+					postorder.add(stack.pop());
+					continue;
+				}
+				Statement follower = it.next();
+				if (!visiting.containsKey(follower)) {
+					visiting.put(follower, next(follower).iterator());
+					stack.push(follower);
+				}
+			}
+		}
+
+		List<Statement> result = new ArrayList<>(postorder.size());
+		for (int i = postorder.size() - 1; i >= 0; i--)
+			result.add(postorder.get(i));
+		return result;
+	}
+
+	private BitSet bits(
+			D value) {
+		if (value.isBottom())
+			return null;
+		if (value.isTop())
+			return TOP;
+		BitSet result = new BitSet();
+		for (E e : value.getDataflowElements())
+			result.set(ids.get(e));
+		return result;
+	}
+
+	private D value(
+			BitSet bits) {
+		if (bits == null)
+			return singleton.bottom();
+		if (bits == TOP)
+			return singleton.top();
+		List<E> result = new ArrayList<>(bits.cardinality());
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+			result.add(elements.get(i));
+		return singleton.mk(singleton.domain, singleton.getCache().mkSet(result), false, false);
+	}
+
+	private BitSet join(
+			BitSet left,
+			BitSet right) {
+		if (left == null)
+			return right;
+		if (right == null)
+			return left;
+		if (left == TOP || right == TOP)
+			return TOP;
+		BitSet result = (BitSet) left.clone();
+		if (definite)
+			result.and(right);
+		else
+			result.or(right);
+		return result;
+	}
+
+	private static boolean same(
+			BitSet left,
+			BitSet right) {
+		if (left == right)
+			return true;
+		if (left == null || right == null || left == TOP || right == TOP)
+			return false;
+		return left.equals(right);
+	}
+
+	/**
+	 * Computes the heap and type components of the states used to evaluate the
+	 * transfer functions through a fixpoint iteration along the reverse
+	 * postorder, where the transfer functions are evaluated on top, and builds
+	 * the nodes holding them. The evaluations of the last round, that did not
+	 * change any state, are reused as the results on top of the transfer
+	 * functions of statements and edges.
+	 */
+	private List<Node> nodes(
+			List<Statement> order,
+			Map<Statement, Integer> positions,
+			Map<Statement, AnalysisState<SimpleAbstractState<H, D, T>>> entryStates,
+			D top)
+			throws FixpointException {
+		List<AnalysisState<SimpleAbstractState<H, D, T>>> contexts = new ArrayList<>(order.size());
+		List<CompoundState<SimpleAbstractState<H, D, T>>> posts = new ArrayList<>(order.size());
+		List<Map<Integer, AnalysisState<SimpleAbstractState<H, D, T>>>> incoming = new ArrayList<>(order.size());
+		for (int i = 0; i < order.size(); i++) {
+			contexts.add(null);
+			posts.add(null);
+			incoming.add(null);
+		}
+
+		Map<Statement, Integer> lubs = new HashMap<>();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < order.size(); i++) {
+				Statement st = order.get(i);
+				AnalysisState<SimpleAbstractState<H, D, T>> ctx = entryStates.get(st);
+				AnalysisState<SimpleAbstractState<H, D, T>> old = contexts.get(i);
+				Map<Integer, AnalysisState<SimpleAbstractState<H, D, T>>> edges = new HashMap<>();
+				try {
+					for (Statement prev : previous(st)) {
+						Integer pos = positions.get(prev);
+						if (pos == null || posts.get(pos) == null)
+							continue;
+						AnalysisState<SimpleAbstractState<H, D, T>> edge = probe(edge(st, prev),
+								posts.get(pos).postState, top);
+						edges.put(pos, edge);
+						ctx = ctx == null ? edge : ctx.lub(edge);
+					}
+					incoming.set(i, edges);
+
+					if (ctx == null)
+						ctx = context.bottom();
+					if (old != null) {
+						if (ctx.lessOrEqual(old))
+							continue;
+						int lub = lubs.merge(st, 1, Integer::sum);
+						if (conf.wideningThreshold >= 0 && lub > conf.wideningThreshold)
+							ctx = old.widening(ctx);
+						else
+							ctx = old.lub(ctx);
+					}
+				} catch (SemanticException e) {
+					throw new FixpointException(format(ERROR, "joining states", st, cfg), e);
+				}
+
+				contexts.set(i, ctx);
+				posts.set(i, probe(st, ctx, top));
+				changed = true;
+			}
+		}
+
+		List<Node> nodes = new ArrayList<>(order.size());
+		for (int i = 0; i < order.size(); i++) {
+			Node node = new Node(order.get(i), contexts.get(i), posts.get(i));
+			for (Entry<Integer, AnalysisState<SimpleAbstractState<H, D, T>>> edge : incoming.get(i).entrySet())
+				node.edges.put(edge.getKey(), new Transfer(edge.getValue()));
+			nodes.add(node);
+		}
+		return nodes;
+	}
+
+	private AnalyzedCFG<SimpleAbstractState<H, D, T>> solve(
+			Collection<Statement> starting,
+			ScopeId id)
+			throws FixpointException {
+		Map<Statement, AnalysisState<SimpleAbstractState<H, D, T>>> entryStates = new HashMap<>();
+		starting.forEach(st -> entryStates.put(st, context));
+		List<Statement> order = reversePostorder(starting);
+		Map<Statement, Integer> positions = new HashMap<>(order.size());
+		for (int i = 0; i < order.size(); i++)
+			positions.put(order.get(i), i);
+
+		// first, the transfer functions are evaluated on top to collect the
+		// generated elements and number them
+		D top = singleton.top();
+		for (E e : singleton.getDataflowElements())
+			ids.computeIfAbsent(e, k -> {
+				elements.add(k);
+				return elements.size() - 1;
+			});
+		BitSet start = bits(singleton);
+
+		// the heap and type components are computed through a fixpoint
+		// iteration along the reverse postorder, where the transfer
+		// functions are evaluated on top: the dataflow component is ignored
+		// here, and it is computed by the bitset-based fixpoint later on
+		List<Node> nodes = nodes(order, positions, entryStates, top);
+
+		// then, they are evaluated on all the known elements to find the
+		// killed ones
+		BitSet all = new BitSet(elements.size());
+		all.set(0, elements.size());
+		D universe = value(all);
+		for (Node node : nodes) {
+			CompoundState<SimpleAbstractState<H, D, T>> post = probe(node.st, node.context, universe);
+			node.transfer.setKills(post.postState);
+			for (Entry<Statement, AnalysisState<SimpleAbstractState<H, D, T>>> inner : post.intermediateStates) {
+				Transfer transfer = node.inner.get(inner.getKey());
+				if (transfer != null)
+					transfer.setKills(inner.getValue());
+			}
+			for (Entry<Integer, Transfer> edge : node.edges.entrySet()) {
+				Node prev = nodes.get(edge.getKey());
+				edge.getValue().setKills(probe(edge(node.st, prev.st), prev.transfer.post, universe));
+			}
+		}
+
+		BitSet ws = new BitSet(nodes.size());
+		ws.set(0, nodes.size());
+		for (int i = ws.nextSetBit(0); i >= 0; i = ws.nextSetBit(0)) {
+			ws.clear(i);
+			Node node = nodes.get(i);
+			BitSet in = entryStates.containsKey(node.st) ? start : null;
+			for (Entry<Integer, Transfer> edge : node.edges.entrySet())
+				in = join(in, edge.getValue().apply(nodes.get(edge.getKey()).out));
+			node.in = in;
+			BitSet out = node.transfer.apply(in);
+			if (same(out, node.out))
+				continue;
+			node.out = out;
+			for (Statement follower : next(node.st)) {
+				Integer pos = positions.get(follower);
+				if (pos != null)
+					ws.set(pos);
+			}
+		}
+
+		Map<Statement, AnalysisState<SimpleAbstractState<H, D, T>>> results = new HashMap<>();
+		for (Node node : nodes) {
+			results.put(node.st, result(node.transfer, node.in));
+			for (Entry<Statement, Transfer> inner : node.inner.entrySet())
+				results.put(inner.getKey(), result(inner.getValue(), node.in));
+		}
+
+		return new AnalyzedCFG<>(cfg, id, context, entryStates, results);
+	}
+
+	private AnalysisState<SimpleAbstractState<H, D, T>> result(
+			Transfer transfer,
+			BitSet in) {
+		BitSet out = transfer.apply(in);
+		if (out == null)
+			return transfer.post.bottom();
+		SimpleAbstractState<H, D, T> state = transfer.post.getState();
+		return new AnalysisState<>(
+				new SimpleAbstractState<>(state.getHeapState(), value(out), state.getTypeState()),
+				transfer.post.getComputedExpressions(),
+				transfer.post.getFixpointInformation());
+	}
+}
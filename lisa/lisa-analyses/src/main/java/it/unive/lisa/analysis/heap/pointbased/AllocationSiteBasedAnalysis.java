@@ -32,6 +32,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * A base class for heap analyses based on the allocation sites of the objects
@@ -114,14 +115,57 @@ public abstract class AllocationSiteBasedAnalysis<A extends AllocationSiteBasedA
 			SemanticOracle oracle)
 			throws SemanticException {
 		A sss = smallStepSemantics(expression, pp, oracle);
-		A result = bottom();
-		List<HeapReplacement> replacements = new LinkedList<>();
-		ExpressionSet rhsExps;
+		return assign(sss, id, rewriteIfNeeded(expression, pp, oracle), pp, oracle);
+	}
+
+	@Override
+	public Pair<A, ExpressionSet> assignAndRewrite(
+			Identifier id,
+			SymbolicExpression expression,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException {
+		A sss = smallStepSemantics(expression, pp, oracle);
+		ExpressionSet rhsExps = rewriteIfNeeded(expression, pp, oracle);
+		A result = assign(sss, id, rhsExps, pp, oracle);
+
+		// rewritings only depend on the heap environment: if the assignment
+		// left it untouched, the rewriting computed on this state still holds
+		if (result.heapEnv == heapEnv)
+			return Pair.of(result, rhsExps);
+		return Pair.of(result, null);
+	}
+
+	@Override
+	public Pair<A, ExpressionSet> assumeAndRewrite(
+			SymbolicExpression expression,
+			ProgramPoint src,
+			ProgramPoint dest,
+			SemanticOracle oracle)
+			throws SemanticException {
+		// assumptions are evaluated as plain expressions
+		return smallStepSemanticsAndRewrite(expression, src, oracle);
+	}
+
+	private ExpressionSet rewriteIfNeeded(
+			SymbolicExpression expression,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException {
 		if (expression.mightNeedRewriting())
-			rhsExps = rewrite(expression, pp, oracle);
-		else
-			rhsExps = new ExpressionSet(expression);
+			return rewrite(expression, pp, oracle);
+		return new ExpressionSet(expression);
+	}
 
+	private A assign(
+			A sss,
+			Identifier id,
+			ExpressionSet rhsExps,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException {
+		A result = bottom();
+		List<HeapReplacement> replacements = new LinkedList<>();
 		for (SymbolicExpression rhs : rhsExps)
 			if (rhs instanceof MemoryPointer) {
 				HeapLocation rhs_ref = ((MemoryPointer) rhs).getReferencedLocation();
@@ -3,17 +3,19 @@ package it.unive.lisa.analysis.heap.pointbased;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.SemanticOracle;
 import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.lattices.ExternalSetLattice;
 import it.unive.lisa.analysis.lattices.Satisfiability;
-import it.unive.lisa.analysis.lattices.SetLattice;
 import it.unive.lisa.analysis.nonrelational.heap.HeapEnvironment;
 import it.unive.lisa.analysis.nonrelational.heap.NonRelationalHeapDomain;
 import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -21,27 +23,28 @@ import java.util.Set;
 import java.util.function.Predicate;
 
 /**
- * A heap domain tracking sets of {@link AllocationSite}.
+ * A heap domain tracking sets of {@link AllocationSite}. Sets are stored as
+ * bitsets over a cache of allocation sites that is shared by all instances
+ * derived from the same one (see {@link ExternalSetLattice}).
  * 
  * @author <a href="mailto:vincenzo.arceri@unive.it">Vincenzo Arceri</a>
  */
-public class AllocationSites extends SetLattice<AllocationSites, AllocationSite>
+public class AllocationSites extends ExternalSetLattice<AllocationSites, AllocationSite>
 		implements
 		NonRelationalHeapDomain<AllocationSites> {
 
-	private static final AllocationSites TOP = new AllocationSites(new HashSet<>(), true);
-	private static final AllocationSites BOTTOM = new AllocationSites(new HashSet<>(), false);
-
 	/**
 	 * Builds an instance of HeapIdentiferSetLattice, corresponding to the top
 	 * element.
 	 */
 	public AllocationSites() {
-		this(new HashSet<>(), true);
+		this(new ExternalSetCache<AllocationSite>().mkEmptySet(), true);
 	}
 
 	/**
-	 * Builds an instance of this class to hold the given sites.
+	 * Builds an instance of this class to hold the given sites. If
+	 * {@code set} is not an {@link ExternalSet}, a new cache is created to
+	 * store its elements.
 	 * 
 	 * @param set   the set of {@link AllocationSite}s
 	 * @param isTop whether this instance is the top of the lattice
@@ -54,18 +57,18 @@ public class AllocationSites extends SetLattice<AllocationSites, AllocationSite>
 
 	@Override
 	public AllocationSites top() {
-		return TOP;
+		return isTop() ? this : new AllocationSites(getCache().mkEmptySet(), true);
 	}
 
 	@Override
 	public AllocationSites bottom() {
-		return BOTTOM;
+		return isBottom() ? this : new AllocationSites(getCache().mkEmptySet(), false);
 	}
 
 	@Override
 	public AllocationSites mk(
 			Set<AllocationSite> set) {
-		return new AllocationSites(set, false);
+		return new AllocationSites(toExternalSet(set), false);
 	}
 
 	@Override
@@ -79,7 +82,7 @@ public class AllocationSites extends SetLattice<AllocationSites, AllocationSite>
 			HeapEnvironment<AllocationSites> environment,
 			ProgramPoint pp,
 			SemanticOracle oracle) {
-		return new AllocationSites(Collections.singleton((AllocationSite) expression), false);
+		return new AllocationSites(getCache().mkSingletonSet((AllocationSite) expression), false);
 	}
 
 	@Override
@@ -100,24 +103,42 @@ public class AllocationSites extends SetLattice<AllocationSites, AllocationSite>
 	public AllocationSites lubAux(
 			AllocationSites other)
 			throws SemanticException {
-		Map<String, AllocationSite> lub = new HashMap<>();
+		return lubAllAux(List.of(other));
+	}
 
-		// all weak identifiers are part of the lub
-		elements.stream().filter(AllocationSite::isWeak).forEach(e -> lub.put(e.getName(), e));
-		// common ones will be overwritten
-		other.elements.stream().filter(AllocationSite::isWeak).forEach(e -> lub.put(e.getName(), e));
+	@Override
+	public AllocationSites lubAllAux(
+			List<AllocationSites> others)
+			throws SemanticException {
+		ExternalSet<AllocationSite> union = elements().copy();
+		for (AllocationSites other : others)
+			union.addAll(toExternalSet(other.elements));
+		Map<String, AllocationSite> lub = new HashMap<>();
+		boolean clash = false;
+		for (AllocationSite site : union)
+			clash |= lub.put(site.getName(), site) != null;
+		if (!clash)
+			// no weak and strong identifiers with the same name
+			return new AllocationSites(union, false);
+
+		List<AllocationSites> operands = new ArrayList<>(others.size() + 1);
+		operands.add(this);
+		operands.addAll(others);
+
+		lub.clear();
+		// all weak identifiers are part of the lub, and common ones will be
+		// overwritten
+		for (AllocationSites operand : operands)
+			operand.elements.stream().filter(AllocationSite::isWeak).forEach(e -> lub.put(e.getName(), e));
 
 		// strong identifiers are only added if we did not consider a
 		// weak identifier with the same name
-		elements.stream().filter(Predicate.not(AllocationSite::isWeak))
-				.filter(e -> !lub.containsKey(e.getName()))
-				.forEach(e -> lub.put(e.getName(), e));
-
-		other.elements.stream().filter(Predicate.not(AllocationSite::isWeak))
-				.filter(e -> !lub.containsKey(e.getName()))
-				.forEach(e -> lub.put(e.getName(), e));
+		for (AllocationSites operand : operands)
+			operand.elements.stream().filter(Predicate.not(AllocationSite::isWeak))
+					.filter(e -> !lub.containsKey(e.getName()))
+					.forEach(e -> lub.put(e.getName(), e));
 
-		return new AllocationSites(new HashSet<>(lub.values()), false);
+		return new AllocationSites(getCache().mkSet(lub.values()), false);
 	}
 
 	@Override
@@ -169,7 +190,7 @@ public class AllocationSites extends SetLattice<AllocationSites, AllocationSite>
 		if (isTop() || isBottom() || r.getSources().isEmpty())
 			return this;
 
-		Set<AllocationSite> copy = new HashSet<>(elements);
+		ExternalSet<AllocationSite> copy = elements().copy();
 		if (copy.removeAll(r.getSources())) {
 			r.getTargets().stream()
 					.filter(AllocationSite.class::isInstance)
@@ -23,6 +23,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Predicate;
+import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * A field-insensitive program point-based {@link AllocationSiteBasedAnalysis}.
@@ -167,38 +168,14 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 			SemanticOracle oracle)
 			throws SemanticException {
 		if (expression instanceof AccessChild) {
-			FieldSensitivePointBasedHeap sss = (FieldSensitivePointBasedHeap) super.smallStepSemantics(
-					expression,
-					pp,
-					oracle);
-
 			AccessChild accessChild = (AccessChild) expression;
-			Map<AllocationSite, ExpressionSet> mapping = new HashMap<>(sss.fields.getMap());
-
 			ExpressionSet exprs;
 			if (accessChild.getContainer().mightNeedRewriting())
 				exprs = rewrite(accessChild.getContainer(), pp, oracle);
 			else
 				exprs = new ExpressionSet(accessChild.getContainer());
 
-			for (SymbolicExpression rec : exprs)
-				if (rec instanceof MemoryPointer) {
-					AllocationSite site = (AllocationSite) ((MemoryPointer) rec).getReferencedLocation();
-					ExpressionSet childs = rewrite(accessChild.getChild(), pp, oracle);
-
-					for (SymbolicExpression child : childs)
-						addField(site, child, mapping);
-
-				} else if (rec instanceof AllocationSite) {
-					AllocationSite site = (AllocationSite) rec;
-					ExpressionSet childs = rewrite(accessChild.getChild(), pp, oracle);
-
-					for (SymbolicExpression child : childs)
-						addField(site, child, mapping);
-				}
-
-			return mk(new FieldSensitivePointBasedHeap(heapEnv, heapEnv.getSubstitution(),
-					new GenericMapLattice<>(fields.lattice, mapping)));
+			return access(accessChild, exprs, null, pp, oracle);
 		} else if (expression instanceof MemoryAllocation) {
 			String loc = expression.getCodeLocation().getCodeLocation();
 			Set<AllocationSite> alreadyAllocated = getAllocatedAt(loc);
@@ -253,6 +230,62 @@ public class FieldSensitivePointBasedHeap extends AllocationSiteBasedAnalysis<Fi
 		return mk(new FieldSensitivePointBasedHeap(sss.heapEnv, fields));
 	}
 
+	@Override
+	public Pair<FieldSensitivePointBasedHeap, ExpressionSet> smallStepSemanticsAndRewrite(
+			SymbolicExpression expression,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException {
+		if (!(expression instanceof AccessChild))
+			return super.smallStepSemanticsAndRewrite(expression, pp, oracle);
+
+		// accessing a child does not change the heap environment, that is the
+		// only thing rewritings depend on: the rewritings of the container
+		// and of the child are thus computed once, and used both to record
+		// the accessed field and to rewrite the whole expression
+		AccessChild accessChild = (AccessChild) expression;
+		ExpressionSet receivers = rewrite(accessChild.getContainer(), pp, oracle);
+		ExpressionSet childs = rewrite(accessChild.getChild(), pp, oracle);
+		FieldSensitivePointBasedHeap sss = access(
+				accessChild,
+				accessChild.getContainer().mightNeedRewriting()
+						? receivers
+						: new ExpressionSet(accessChild.getContainer()),
+				childs,
+				pp,
+				oracle);
+		return Pair.of(sss, new Rewriter().visit(accessChild, receivers, childs, pp, oracle));
+	}
+
+	private FieldSensitivePointBasedHeap access(
+			AccessChild accessChild,
+			ExpressionSet receivers,
+			ExpressionSet childs,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException {
+		FieldSensitivePointBasedHeap sss = (FieldSensitivePointBasedHeap) super.smallStepSemantics(
+				accessChild,
+				pp,
+				oracle);
+		Map<AllocationSite, ExpressionSet> mapping = new HashMap<>(sss.fields.getMap());
+
+		for (SymbolicExpression rec : receivers)
+			if (rec instanceof MemoryPointer || rec instanceof AllocationSite) {
+				AllocationSite site = rec instanceof MemoryPointer
+						? (AllocationSite) ((MemoryPointer) rec).getReferencedLocation()
+						: (AllocationSite) rec;
+				if (childs == null)
+					childs = rewrite(accessChild.getChild(), pp, oracle);
+
+				for (SymbolicExpression child : childs)
+					addField(site, child, mapping);
+			}
+
+		return mk(new FieldSensitivePointBasedHeap(heapEnv, heapEnv.getSubstitution(),
+				new GenericMapLattice<>(fields.lattice, mapping)));
+	}
+
 	private void addField(
 			AllocationSite site,
 			SymbolicExpression field,
@@ -13,6 +13,7 @@ import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.util.representation.StringRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -125,6 +126,22 @@ public abstract class NonRedundantPowerset<C extends NonRedundantPowerset<C, T,
 		return mk(lubSet).removeRedundancy();
 	}
 
+	/**
+	 * Performs the least upper bound between this non redundant set and all
+	 * the given ones, as the union of all the sets removed of redundancy. Since
+	 * an element that is redundant in the union of some of the sets is also
+	 * redundant in the union of all of them, redundancy is removed only once.
+	 */
+	@Override
+	public C lubAllAux(
+			List<C> others)
+			throws SemanticException {
+		Set<T> lubSet = new HashSet<T>(this.elements);
+		for (C other : others)
+			lubSet.addAll(other.elements);
+		return mk(lubSet).removeRedundancy();
+	}
+
 	@Override
 	public C glbAux(
 			C other)
@@ -157,12 +174,7 @@ public abstract class NonRedundantPowerset<C extends NonRedundantPowerset<C, T,
 			throws SemanticException {
 		Set<T> unionSet = new HashSet<T>(this.elements);
 		unionSet.addAll(other.elements);
-		T completeLub = valueDomain.bottom();
-		if (!unionSet.isEmpty()) {
-			for (T element : unionSet) {
-				completeLub = completeLub.lub(element);
-			}
-		}
+		T completeLub = valueDomain.bottom().lubAll(unionSet);
 		Set<T> newSet = new TreeSet<>();
 		if (completeLub != null)
 			newSet.add(completeLub);
@@ -221,9 +221,7 @@ public final class SimpleAutomaton extends Automaton<SimpleAutomaton, StringSymb
 				}
 
 			result.removeTransitions(toRemove);
-			result.getTransitions().addAll(toAdd);
-
-			result.minimize();
+			toAdd.forEach(result::addTransition);
 
 			boolean b = false;
 			for (Transition<StringSymbol> t : result.getOutgoingTransitionsFrom(result.getInitialState())) {
@@ -264,9 +262,7 @@ public final class SimpleAutomaton extends Automaton<SimpleAutomaton, StringSymb
 			}
 
 			result.removeTransitions(toRemove);
-			result.getTransitions().addAll(toAdd);
-
-			result.minimize();
+			toAdd.forEach(result::addTransition);
 
 			boolean b = false;
 			for (State qf : result.getFinalStates()) {
@@ -465,7 +461,6 @@ public final class SimpleAutomaton extends Automaton<SimpleAutomaton, StringSymb
 					states.add(newState);
 					delta.add(new Transition<>(newState, newState, t.getSymbol()));
 				}
-				second.minimize();
 			}
 		} else {
 			for (State s : second.getStates()) {
@@ -22,7 +22,6 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.Vector;
-import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * A class that describes an generic automaton(dfa, nfa, epsilon nfa) using an
@@ -293,39 +292,16 @@ public class RegexAutomaton extends Automaton<RegexAutomaton, RegularExpression>
 	}
 
 	@Override
-	public RegexAutomaton intersection(
-			RegexAutomaton other) {
-		if (this == other)
-			return this;
-
-		int code = 0;
-		Map<State, Pair<State, State>> stateMapping = new HashMap<>();
-		SortedSet<State> newStates = new TreeSet<>();
-		SortedSet<Transition<RegularExpression>> newDelta = new TreeSet<Transition<RegularExpression>>();
-
-		for (State s1 : states)
-			for (State s2 : other.states) {
-				State s = new State(code++, s1.isInitial() && s2.isInitial(), s1.isFinal() && s2.isFinal());
-				stateMapping.put(s, Pair.of(s1, s2));
-				newStates.add(s);
-			}
-
-		for (Transition<RegularExpression> t1 : getTransitions()) {
-			for (Transition<RegularExpression> t2 : other.getTransitions()) {
-				State from = getStateFromPair(stateMapping, Pair.of(t1.getSource(), t2.getSource()));
-				State to = getStateFromPair(stateMapping, Pair.of(t1.getDestination(), t2.getDestination()));
-
-				if (t1.getSymbol().equals(t2.getSymbol()))
-					newDelta.add(new Transition<RegularExpression>(from, to, t1.getSymbol()));
-				else if (t1.getSymbol() == TopAtom.INSTANCE && t2.getSymbol() != TopAtom.INSTANCE)
-					newDelta.add(new Transition<RegularExpression>(from, to, t2.getSymbol()));
-				else if (t1.getSymbol() != TopAtom.INSTANCE && t2.getSymbol() == TopAtom.INSTANCE)
-					newDelta.add(new Transition<RegularExpression>(from, to, t1.getSymbol()));
-			}
-		}
-
-		RegexAutomaton result = from(newStates, newDelta).minimize();
-		return result;
+	protected RegularExpression intersectSymbols(
+			RegularExpression first,
+			RegularExpression second) {
+		if (first.equals(second))
+			return first;
+		else if (first == TopAtom.INSTANCE && second != TopAtom.INSTANCE)
+			return second;
+		else if (first != TopAtom.INSTANCE && second == TopAtom.INSTANCE)
+			return first;
+		return null;
 	}
 
 	/**
@@ -41,7 +41,7 @@ public class StringReplacer {
 	 */
 	public StringReplacer(
 			RegexAutomaton origin) {
-		this.origin = origin.explode();
+		this.origin = origin.explode().copy();
 		searcher = new StringSearcher(origin);
 	}
 
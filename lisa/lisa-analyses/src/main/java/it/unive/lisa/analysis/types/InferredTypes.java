@@ -27,6 +27,7 @@ import it.unive.lisa.type.NullType;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.TypeSystem;
 import it.unive.lisa.type.TypeTokenType;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
 import it.unive.lisa.util.representation.SetRepresentation;
 import it.unive.lisa.util.representation.StringRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
@@ -38,7 +39,10 @@ import java.util.stream.Collectors;
 
 /**
  * An {@link InferredValue} holding a set of {@link Type}s, representing the
- * inferred runtime types of an {@link Expression}.
+ * inferred runtime types of an {@link Expression}. Instances built with a
+ * {@link TypeSystem} store their types as bitsets over
+ * {@link TypeSystem#getTypesCache()}, making lattice operations among them
+ * word-wise operations.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
@@ -76,13 +80,16 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 	 * {@link Type}s.
 	 * 
 	 * @param typeSystem the type system knowing about the types of the program
-	 *                       where this element is created
+	 *                       where this element is created (if not
+	 *                       {@code null}, {@code types} are stored in its
+	 *                       {@link TypeSystem#getTypesCache()})
 	 * @param types      the types to be included in the set of inferred types
 	 */
 	public InferredTypes(
 			TypeSystem typeSystem,
 			Set<Type> types) {
-		this(typeSystem != null && types.equals(typeSystem.getTypes()), types);
+		this(typeSystem != null && types.equals(typeSystem.getTypes()),
+				typeSystem == null ? types : typeSystem.getTypesCache().convert(types));
 	}
 
 	/**
@@ -336,8 +343,13 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 	public InferredTypes lubAux(
 			InferredTypes other)
 			throws SemanticException {
-		Set<Type> lub = new HashSet<>(elements);
-		lub.addAll(other.elements);
+		Set<Type> lub;
+		if (sameCache(elements, other.elements))
+			lub = ((ExternalSet<Type>) elements).union((ExternalSet<Type>) other.elements);
+		else {
+			lub = new HashSet<>(elements);
+			lub.addAll(other.elements);
+		}
 		return new InferredTypes(null, lub);
 	}
 
@@ -345,9 +357,19 @@ public class InferredTypes implements BaseNonRelationalTypeDomain<InferredTypes>
 	public boolean lessOrEqualAux(
 			InferredTypes other)
 			throws SemanticException {
+		if (sameCache(elements, other.elements))
+			return ((ExternalSet<Type>) other.elements).contains((ExternalSet<Type>) elements);
 		return other.elements.containsAll(elements);
 	}
 
+	private static boolean sameCache(
+			Set<Type> left,
+			Set<Type> right) {
+		return left instanceof ExternalSet
+				&& right instanceof ExternalSet
+				&& ((ExternalSet<Type>) left).getCache() == ((ExternalSet<Type>) right).getCache();
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
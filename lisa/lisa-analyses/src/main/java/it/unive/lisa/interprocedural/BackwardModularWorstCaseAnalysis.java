@@ -6,6 +6,7 @@ import it.unive.lisa.analysis.AnalyzedCFG;
 import it.unive.lisa.analysis.OptimizedAnalyzedCFG;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.dataflow.GenKillSolver;
 import it.unive.lisa.analysis.lattices.ExpressionSet;
 import it.unive.lisa.analysis.symbols.SymbolAliasing;
 import it.unive.lisa.conf.FixpointConfiguration;
@@ -96,7 +97,8 @@ public class BackwardModularWorstCaseAnalysis<A extends AbstractState<A>> implem
 					this.results = new FixpointResults<>(value.top());
 				}
 
-				results.putResult(cfg, ID, cfg.backwardFixpoint(
+				results.putResult(cfg, ID, GenKillSolver.backwardFixpoint(
+						cfg,
 						entryState,
 						this,
 						WorkingSet.of(fixpointWorkingSet),
@@ -6,6 +6,7 @@ import it.unive.lisa.analysis.AnalyzedCFG;
 import it.unive.lisa.analysis.OptimizedAnalyzedCFG;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.dataflow.GenKillSolver;
 import it.unive.lisa.analysis.lattices.ExpressionSet;
 import it.unive.lisa.analysis.symbols.SymbolAliasing;
 import it.unive.lisa.conf.FixpointConfiguration;
@@ -25,15 +26,36 @@ import it.unive.lisa.program.cfg.statement.call.OpenCall;
 import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.util.collections.workset.WorkingSet;
+import it.unive.lisa.util.datastructures.automaton.Automaton;
 import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
  * A worst case modular analysis were all cfg calls are treated as open calls.
+ * Since the result of each call is computed by the {@link OpenCallPolicy}, the
+ * fixpoints of different cfgs are independent from each other: when
+ * instantiated with a parallelism level greater than one or with an
+ * {@link ExecutorService}, this analysis computes them concurrently. Results
+ * are always stored in the same order used by the sequential analysis, thus
+ * yielding the same outcome.<br>
+ * <br>
+ * When running concurrently, abstract values might be shared between the
+ * threads analyzing different cfgs, and thus they must not be modified after
+ * being created. This is the case for the automata used by string domains
+ * that are shared through {@link Automaton#CACHE}: they are frozen, rejecting
+ * any modification, and the information they compute lazily is safely
+ * published to other threads.
  * 
  * @param <A> the {@link AbstractState} of the analysis
  */
@@ -59,9 +81,53 @@ public class ModularWorstCaseAnalysis<A extends AbstractState<A>> implements Int
 	private FixpointResults<A> results;
 
 	/**
-	 * Builds the interprocedural analysis.
+	 * The observer of the fixpoints, notified of the results of calls.
+	 */
+	private FixpointObserver<CFG, Statement> observer;
+
+	/**
+	 * The number of cfgs to analyze concurrently, used to create a fresh
+	 * {@link ForkJoinPool} for each fixpoint if {@link #executor} is
+	 * {@code null}.
+	 */
+	private final int parallelism;
+
+	/**
+	 * The executor used to analyze cfgs concurrently, if provided by the user.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Builds the interprocedural analysis. Cfgs will be analyzed sequentially.
 	 */
 	public ModularWorstCaseAnalysis() {
+		this(1);
+	}
+
+	/**
+	 * Builds the interprocedural analysis, analyzing at most
+	 * {@code parallelism} cfgs concurrently. A dedicated {@link ForkJoinPool}
+	 * is created at each fixpoint and shut down when the fixpoint terminates.
+	 * 
+	 * @param parallelism the number of cfgs to analyze concurrently; values
+	 *                        lower than {@code 2} cause a sequential analysis
+	 */
+	public ModularWorstCaseAnalysis(
+			int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+		this.executor = null;
+	}
+
+	/**
+	 * Builds the interprocedural analysis, analyzing cfgs concurrently on the
+	 * given executor. The executor is not shut down by this analysis.
+	 * 
+	 * @param executor the executor to submit the analysis of each cfg to
+	 */
+	public ModularWorstCaseAnalysis(
+			ExecutorService executor) {
+		this.parallelism = 1;
+		this.executor = executor;
 	}
 
 	@Override
@@ -77,40 +143,96 @@ public class ModularWorstCaseAnalysis<A extends AbstractState<A>> implements Int
 			throws FixpointException {
 		// new fixpoint iteration: restart
 		this.results = null;
+		this.observer = conf.fixpointObserver;
 
 		Collection<CFG> all = new TreeSet<>((
 				c1,
 				c2) -> c1.getDescriptor().getLocation()
 						.compareTo(c2.getDescriptor().getLocation()));
 		all.addAll(app.getAllCFGs());
+		if (all.isEmpty())
+			return;
 
-		for (CFG cfg : IterationLogger.iterate(LOG, all, "Computing fixpoint over the whole program",
-				"cfgs"))
-			try {
-				AnalysisState<A> st = entryState.bottom();
-				StatementStore<A> store = new StatementStore<>(st);
-
-				if (results == null) {
-					AnalyzedCFG<A> graph = conf.optimize
-							? new OptimizedAnalyzedCFG<>(cfg, ID, st, this)
-							: new AnalyzedCFG<>(cfg, ID, entryState);
-					CFGResults<A> value = new CFGResults<>(graph);
-					this.results = new FixpointResults<>(value.top());
-				}
-
-				AnalysisState<A> prepared = entryState;
-				for (Parameter arg : cfg.getDescriptor().getFormals()) {
-					CodeLocation loc = arg.getLocation();
-					Assignment a = new Assignment(cfg, loc,
-							new VariableRef(cfg, loc, arg.getName()),
-							arg.getStaticType().unknownValue(cfg, loc));
-					prepared = a.forwardSemantics(prepared, this, store);
-				}
-
-				results.putResult(cfg, ID, cfg.fixpoint(prepared, this, WorkingSet.of(fixpointWorkingSet), conf, ID));
-			} catch (SemanticException e) {
-				throw new FixpointException("Error while creating the entrystate for " + cfg, e);
+		CFG first = all.iterator().next();
+		AnalyzedCFG<A> graph = conf.optimize
+				? new OptimizedAnalyzedCFG<>(first, ID, entryState.bottom(), this)
+				: new AnalyzedCFG<>(first, ID, entryState);
+		CFGResults<A> value = new CFGResults<>(graph);
+		this.results = new FixpointResults<>(value.top());
+
+		if (executor == null && parallelism == 1) {
+			for (CFG cfg : IterationLogger.iterate(LOG, all, "Computing fixpoint over the whole program",
+					"cfgs"))
+				store(cfg, analyze(cfg, entryState, fixpointWorkingSet, conf));
+			return;
+		}
+
+		ExecutorService pool = executor == null ? new ForkJoinPool(parallelism) : executor;
+		try {
+			List<Future<AnalyzedCFG<A>>> tasks = new ArrayList<>(all.size());
+			for (CFG cfg : all)
+				tasks.add(pool.submit(() -> analyze(cfg, entryState, fixpointWorkingSet, conf)));
+
+			// results are collected following the same order of the
+			// sequential analysis, from this thread only
+			int i = 0;
+			for (CFG cfg : IterationLogger.iterate(LOG, all, "Computing fixpoint over the whole program",
+					"cfgs"))
+				store(cfg, join(cfg, tasks.get(i++)));
+		} finally {
+			if (executor == null)
+				pool.shutdownNow();
+		}
+	}
+
+	private AnalyzedCFG<A> analyze(
+			CFG cfg,
+			AnalysisState<A> entryState,
+			Class<? extends WorkingSet<Statement>> fixpointWorkingSet,
+			FixpointConfiguration conf)
+			throws FixpointException {
+		try {
+			StatementStore<A> store = new StatementStore<>(entryState.bottom());
+			AnalysisState<A> prepared = entryState;
+			for (Parameter arg : cfg.getDescriptor().getFormals()) {
+				CodeLocation loc = arg.getLocation();
+				Assignment a = new Assignment(cfg, loc,
+						new VariableRef(cfg, loc, arg.getName()),
+						arg.getStaticType().unknownValue(cfg, loc));
+				prepared = a.forwardSemantics(prepared, this, store);
 			}
+
+			return GenKillSolver.fixpoint(cfg, prepared, this, WorkingSet.of(fixpointWorkingSet), conf, ID);
+		} catch (SemanticException e) {
+			throw new FixpointException("Error while creating the entrystate for " + cfg, e);
+		}
+	}
+
+	private AnalyzedCFG<A> join(
+			CFG cfg,
+			Future<AnalyzedCFG<A>> task)
+			throws FixpointException {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FixpointException("Interrupted while computing the fixpoint over " + cfg, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof FixpointException)
+				throw (FixpointException) e.getCause();
+			throw new FixpointException("Error while computing the fixpoint over " + cfg, e.getCause());
+		}
+	}
+
+	private void store(
+			CFG cfg,
+			AnalyzedCFG<A> result)
+			throws FixpointException {
+		try {
+			results.putResult(cfg, ID, result);
+		} catch (SemanticException e) {
+			throw new FixpointException("Error while storing the results of " + cfg, e);
+		}
 	}
 
 	@Override
@@ -126,6 +248,12 @@ public class ModularWorstCaseAnalysis<A extends AbstractState<A>> implements Int
 			ExpressionSet[] parameters,
 			StatementStore<A> expressions)
 			throws SemanticException {
+		if (observer != null)
+			// results of other cfgs are never used: the one of the call is
+			// always computed by the policy
+			for (CFG target : call.getTargetedCFGs())
+				observer.callResultLookup(target, false);
+
 		OpenCall open = new OpenCall(call.getCFG(), call.getLocation(), call.getCallType(), call.getQualifier(),
 				call.getTargetName(), call.getStaticType(), call.getParameters());
 		return getAbstractResultOf(open, entryState, parameters, expressions);
@@ -150,6 +278,7 @@ public class ModularWorstCaseAnalysis<A extends AbstractState<A>> implements Int
 		this.app = app;
 		this.policy = policy;
 		this.results = null;
+		this.observer = null;
 	}
 
 	@Override
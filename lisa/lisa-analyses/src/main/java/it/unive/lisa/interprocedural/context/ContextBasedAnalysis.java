@@ -9,6 +9,7 @@ import it.unive.lisa.analysis.OptimizedAnalyzedCFG;
 import it.unive.lisa.analysis.ScopeToken;
 import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.StatementStore;
+import it.unive.lisa.analysis.dataflow.GenKillSolver;
 import it.unive.lisa.analysis.lattices.ExpressionSet;
 import it.unive.lisa.conf.FixpointConfiguration;
 import it.unive.lisa.interprocedural.CFGResults;
@@ -38,8 +39,10 @@ import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
@@ -52,7 +55,20 @@ import org.apache.logging.log4j.Logger;
  * A context sensitive interprocedural analysis. The context sensitivity is
  * tuned by the kind of {@link ContextSensitivityToken} used. Recursions are
  * approximated applying the iterates of the recursion starting from bottom and
- * using the same widening threshold of cfg fixpoints.
+ * using the same widening threshold of cfg fixpoints.<br>
+ * <br>
+ * By default, each fixpoint iteration restarts from all the entrypoints of the
+ * program. If SCC scheduling is enabled (see
+ * {@link #ContextBasedAnalysis(ContextSensitivityToken, boolean)}), the
+ * entrypoints are processed only once, and the analysis records which results
+ * (identified by cfg and token) have been used by the computation of each
+ * other result. Results whose dependencies changed are then recomputed from
+ * their own entry states, one strongly connected component of the call graph
+ * at a time, following their reverse topological order (that is, callees
+ * first): each component is iterated until none of its results is stale
+ * before moving to the next one, and since only callers can depend on the
+ * results of a component, components that have been stabilized are not
+ * visited again.
  * 
  * @param <A> the {@link AbstractState} of the analysis
  */
@@ -93,6 +109,26 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 	 */
 	protected FixpointConfiguration conf;
 
+	/**
+	 * Whether or not fixpoint iterations should be scheduled following the
+	 * strongly connected components of the call graph.
+	 */
+	private final boolean sccScheduling;
+
+	/**
+	 * For each result, identified by its cfg and token, the results whose
+	 * computation used it as the result of a call. This is only populated if
+	 * {@link #sccScheduling} is enabled.
+	 */
+	private final Map<Pair<CFG, ScopeId>, Set<Pair<CFG, ScopeId>>> dependents;
+
+	/**
+	 * The results, identified by their cfg and token, that changed since their
+	 * dependents have been computed. This is only populated if
+	 * {@link #sccScheduling} is enabled.
+	 */
+	private final Set<Pair<CFG, ScopeId>> changed;
+
 	/**
 	 * Builds the analysis, using {@link LastCallToken}s.
 	 */
@@ -108,8 +144,28 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 	 */
 	public ContextBasedAnalysis(
 			ContextSensitivityToken token) {
+		this(token, false);
+	}
+
+	/**
+	 * Builds the analysis.
+	 *
+	 * @param token         an instance of the tokens to be used to partition
+	 *                          w.r.t. context sensitivity
+	 * @param sccScheduling whether or not, after processing the entrypoints
+	 *                          once, stale results should be recomputed one
+	 *                          strongly connected component of the call graph
+	 *                          at a time, in reverse topological order,
+	 *                          instead of restarting from the entrypoints
+	 */
+	public ContextBasedAnalysis(
+			ContextSensitivityToken token,
+			boolean sccScheduling) {
 		this.token = token;
+		this.sccScheduling = sccScheduling;
 		triggers = new HashSet<>();
+		dependents = new HashMap<>();
+		changed = new HashSet<>();
 	}
 
 	/**
@@ -125,6 +181,9 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 		this.token = other.token;
 		this.triggers = other.triggers;
 		this.workingSet = other.workingSet;
+		this.sccScheduling = other.sccScheduling;
+		this.dependents = other.dependents;
+		this.changed = other.changed;
 		this.pendingRecursions = false;
 	}
 
@@ -141,6 +200,8 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 		this.workingSet = null;
 		this.pendingRecursions = false;
 		this.triggers.clear();
+		this.dependents.clear();
+		this.changed.clear();
 	}
 
 	@Override
@@ -166,21 +227,22 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 						c2) -> c1.getDescriptor().getLocation().compareTo(c2.getDescriptor().getLocation()));
 		entryPoints.addAll(app.getEntryPoints());
 
+		if (sccScheduling) {
+			triggers.clear();
+			pendingRecursions = false;
+			processEntrypoints(entryState, empty, entryPoints);
+			solvePendingRecursions(entryState);
+			stabilize(entryState);
+			return;
+		}
+
 		do {
 			LOG.info("Performing {} fixpoint iteration", StringUtilities.ordinal(iter + 1));
 			triggers.clear();
 			pendingRecursions = false;
 
 			processEntrypoints(entryState, empty, entryPoints);
-
-			if (pendingRecursions) {
-				Set<Recursion<A>> recursions = new HashSet<>();
-
-				for (Collection<CodeMember> rec : callgraph.getRecursions())
-					buildRecursion(entryState, recursions, rec);
-
-				solveRecursions(recursions);
-			}
+			solvePendingRecursions(entryState);
 
 			// starting from the callers of the cfgs that needed a lub,
 			// find out the complete set of cfgs that might need to be
@@ -193,6 +255,96 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 		} while (!triggers.isEmpty());
 	}
 
+	private void solvePendingRecursions(
+			AnalysisState<A> entryState) {
+		if (!pendingRecursions)
+			return;
+
+		Set<Recursion<A>> recursions = new HashSet<>();
+		for (Collection<CodeMember> rec : callgraph.getRecursions())
+			buildRecursion(entryState, recursions, rec);
+		solveRecursions(recursions);
+	}
+
+	/**
+	 * Recomputes the results whose dependencies changed since they have been
+	 * computed, until no stale result exists. At each step, the stale results
+	 * belonging to the first strongly connected component of the call graph
+	 * (in reverse topological order) that has any are recomputed, starting
+	 * from their own entry states: as results of a component can only be used
+	 * by the component itself or by its callers, this iterates each component
+	 * to stability before moving on to the following ones.
+	 * 
+	 * @param entryState the entry state of the analysis, used to build the
+	 *                       recursions that are discovered while
+	 *                       recomputing results
+	 */
+	private void stabilize(
+			AnalysisState<A> entryState) {
+		Set<Pair<CFG, ScopeId>> stale = new HashSet<>();
+		List<Collection<CodeMember>> components = null;
+		Map<CodeMember, Integer> ranks = new HashMap<>();
+		while (true) {
+			// recursions are solved for all of their members
+			for (Pair<CFG, ScopeId> res : dependents.keySet())
+				if (triggers.contains(res.getLeft()))
+					changed.add(res);
+			triggers.clear();
+			for (Pair<CFG, ScopeId> res : changed)
+				stale.addAll(dependents.getOrDefault(res, Collections.emptySet()));
+			changed.clear();
+			if (stale.isEmpty())
+				return;
+
+			if (components != callgraph.getComponents()) {
+				// the components of the call graph changed
+				components = callgraph.getComponents();
+				ranks.clear();
+				for (int i = 0; i < components.size(); i++)
+					for (CodeMember cm : components.get(i))
+						ranks.put(cm, i);
+			}
+
+			int rank = Integer.MAX_VALUE;
+			for (Pair<CFG, ScopeId> res : stale)
+				rank = Math.min(rank, ranks.getOrDefault(res.getLeft(), -1));
+			List<Pair<CFG, ScopeId>> current = new ArrayList<>();
+			for (Pair<CFG, ScopeId> res : stale)
+				if (ranks.getOrDefault(res.getLeft(), -1) == rank)
+					current.add(res);
+			stale.removeAll(current);
+			LOG.debug("Recomputing {} stale results in component {} of the call graph", current.size(), rank);
+
+			pendingRecursions = false;
+			for (Pair<CFG, ScopeId> res : current)
+				recompute(res.getLeft(), (ContextSensitivityToken) res.getRight());
+			solvePendingRecursions(entryState);
+		}
+	}
+
+	private void recompute(
+			CFG cfg,
+			ContextSensitivityToken token) {
+		CFGResults<A> localResults = results.get(cfg);
+		AnalyzedCFG<A> previous = localResults == null ? null : localResults.get(token);
+		if (previous == null)
+			// the dependency has been recorded by a computation whose results
+			// are not stored
+			return;
+
+		ContextSensitivityToken currentToken = this.token;
+		try {
+			this.token = token;
+			computeFixpoint(cfg, token, previous.getEntryState());
+		} catch (SemanticException e) {
+			throw new AnalysisExecutionException("Error while recomputing the results of " + cfg, e);
+		} catch (FixpointException e) {
+			throw new AnalysisExecutionException("Error while computing fixpoint for " + cfg, e);
+		} finally {
+			this.token = currentToken;
+		}
+	}
+
 	private void solveRecursions(
 			Set<Recursion<A>> recursions) {
 		List<Recursion<A>> orderedRecursions = new ArrayList<>(recursions.size());
@@ -243,9 +395,13 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 				StatementStore<A> params = new StatementStore<>(entryState.bottom());
 				Expression[] parameters = starter.getParameters();
 				if (conf.optimize)
-					for (Expression actual : parameters)
-						params.put(actual, ((OptimizedAnalyzedCFG<A>) res.getValue())
-								.getUnwindedAnalysisStateAfter(actual, conf));
+					try {
+						for (Expression actual : parameters)
+							params.put(actual, ((OptimizedAnalyzedCFG<A>) res.getValue())
+									.getUnwindedAnalysisStateAfter(actual, conf));
+					} catch (SemanticException e) {
+						throw new AnalysisExecutionException("Unable to unwind the results of " + res.getValue(), e);
+					}
 				else
 					for (Expression actual : parameters)
 						params.put(actual, res.getValue().getAnalysisStateAfter(actual));
@@ -284,7 +440,7 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 				token = empty;
 				AnalysisState<A> entryStateCFG = prepareEntryStateOfEntryPoint(entryState, cfg);
 				results.putResult(cfg, empty,
-						cfg.fixpoint(entryStateCFG, this, WorkingSet.of(workingSet), conf, empty));
+						GenKillSolver.fixpoint(cfg, entryStateCFG, this, WorkingSet.of(workingSet), conf, empty));
 			} catch (SemanticException e) {
 				throw new AnalysisExecutionException("Error while creating the entrystate for " + cfg, e);
 			} catch (FixpointException e) {
@@ -320,7 +476,8 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 			AnalysisState<A> entryState)
 			throws FixpointException,
 			SemanticException {
-		AnalyzedCFG<A> fixpointResult = cfg.fixpoint(
+		AnalyzedCFG<A> fixpointResult = GenKillSolver.fixpoint(
+				cfg,
 				entryState,
 				this,
 				WorkingSet.of(workingSet),
@@ -328,8 +485,11 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 				token);
 		if (shouldStoreFixpointResults()) {
 			Pair<Boolean, AnalyzedCFG<A>> res = results.putResult(cfg, token, fixpointResult);
-			if (shouldStoreFixpointResults() && Boolean.TRUE.equals(res.getLeft()))
+			if (shouldStoreFixpointResults() && Boolean.TRUE.equals(res.getLeft())) {
 				triggers.add(cfg);
+				if (sccScheduling)
+					changed.add(Pair.of(cfg, token));
+			}
 			fixpointResult = res.getRight();
 		}
 		return fixpointResult;
@@ -414,13 +574,15 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 			throws SemanticException {
 		callgraph.registerCall(call);
 
-		if (shouldCheckForRecursions() && (call.getTargetedCFGs().stream().anyMatch(call.getCFG()::equals)
-				|| callgraph.getCalleesTransitively(call.getTargets()).contains(call.getCFG()))) {
+		if (shouldCheckForRecursions() && callgraph.isRecursive(call)) {
 			// this calls introduces a loop in the call graph -> recursion
 			// we need a special fixpoint to compute its result
 			// we compute that at the end of each fixpoint iteration
 			pendingRecursions = true;
 			LOG.info("Found recursion at " + call.getLocation());
+			if (conf.fixpointObserver != null)
+				for (CFG cfg : call.getTargetedCFGs())
+					conf.fixpointObserver.callResultLookup(cfg, false);
 
 			// we return bottom for now
 			if (returnsVoid(call, null))
@@ -435,11 +597,14 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 		ContextSensitivityToken callerToken = token;
 		token = token.push(call);
 		ScopeToken scope = new ScopeToken(call);
-		AnalysisState<A> result = entryState.bottom();
+		List<AnalysisState<A>> exits = new ArrayList<>();
 
 		// compute the result over all possible targets, and take the lub of
 		// the results
 		for (CFG cfg : call.getTargetedCFGs()) {
+			if (sccScheduling)
+				dependents.computeIfAbsent(Pair.of(cfg, token), k -> new HashSet<>())
+						.add(Pair.of(call.getCFG(), callerToken));
 			CFGResults<A> localResults = results.get(cfg);
 			AnalyzedCFG<A> states = localResults == null ? null : localResults.get(token);
 			Pair<AnalysisState<A>, ExpressionSet[]> prepared = prepareEntryState(
@@ -451,7 +616,12 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 					cfg);
 
 			AnalysisState<A> exitState;
-			if (canShortcut(cfg) && states != null && prepared.getLeft().lessOrEqual(states.getEntryState()))
+			boolean shortcut = canShortcut(cfg)
+					&& states != null
+					&& prepared.getLeft().lessOrEqual(states.getEntryState());
+			if (conf.fixpointObserver != null)
+				conf.fixpointObserver.callResultLookup(cfg, shortcut);
+			if (shortcut)
 				// no need to compute the fixpoint: we already have an
 				// (over-)approximation of the result computed starting from
 				// an over-approximation of the entry state
@@ -469,10 +639,10 @@ public class ContextBasedAnalysis<A extends AbstractState<A>> extends CallGraphB
 			}
 
 			// save the resulting state
-			result = result.lub(unscope(call, scope, exitState));
+			exits.add(unscope(call, scope, exitState));
 		}
 
 		token = callerToken;
-		return result;
+		return entryState.bottom().lubAll(exits);
 	}
 }
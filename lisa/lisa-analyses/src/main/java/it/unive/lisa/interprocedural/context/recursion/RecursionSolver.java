@@ -117,6 +117,8 @@ public class RecursionSolver<A extends AbstractState<A>> extends ContextBasedAna
 			AnalysisState<A> approx = null;
 			if (recursiveApprox.getMap() != null)
 				approx = recursiveApprox.getMap().get(call);
+			if (conf.fixpointObserver != null)
+				conf.fixpointObserver.callResultLookup(recursion.getRecursionHead(), approx != null);
 			if (approx == null)
 				// no state: we must start with the base cases
 				approx = transferToCallsite(recursion.getInvocation(), call, base);
@@ -81,8 +81,14 @@ import it.unive.lisa.program.cfg.statement.call.Call.CallType;
 import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
 import it.unive.lisa.program.type.Int32Type;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapDereference;
+import it.unive.lisa.symbolic.heap.HeapReference;
+import it.unive.lisa.symbolic.value.BinaryExpression;
 import it.unive.lisa.symbolic.value.HeapLocation;
 import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.TernaryExpression;
+import it.unive.lisa.symbolic.value.UnaryExpression;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.TypeTokenType;
 import it.unive.lisa.type.Untyped;
@@ -177,6 +183,10 @@ public class EqualityContractVerificationTest {
 	private static final Set<Type> s1 = Collections.singleton(Untyped.INSTANCE);
 	private static final Set<Type> s2 = Collections.singleton(Int32Type.INSTANCE);
 
+	private static final List<Class<? extends SymbolicExpression>> cachedHash = List.of(UnaryExpression.class,
+			BinaryExpression.class, TernaryExpression.class, AccessChild.class, HeapDereference.class,
+			HeapReference.class);
+
 	private static final Collection<Class<?>> tested = new HashSet<>();
 
 	@BeforeClass
@@ -375,6 +385,12 @@ public class EqualityContractVerificationTest {
 			else if (Identifier.class.isAssignableFrom(expr))
 				// identifiers use only their name for equality
 				verify(expr, verifier -> verifier.withOnlyTheseFields("name"));
+			else if (cachedHash.stream().anyMatch(cls -> cls.isAssignableFrom(expr)))
+				// location is excluded on purpose: it only brings syntactic
+				// information. these expressions cache their hash code and
+				// use it in equals to quickly tell different trees apart
+				verify(expr, verifier -> verifier.withIgnoredFields("location"), Warning.STRICT_HASHCODE,
+						Warning.NONFINAL_FIELDS);
 			else
 				// location is excluded on purpose: it only brings syntactic
 				// information
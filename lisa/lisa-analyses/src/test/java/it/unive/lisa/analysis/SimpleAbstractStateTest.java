@@ -0,0 +1,103 @@
+package it.unive.lisa.analysis;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.nonrelational.value.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.types.InferredTypes;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.program.cfg.ProgramPoint;
+import it.unive.lisa.program.type.Int32Type;
+import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.symbolic.value.operator.binary.NumericNonOverflowingAdd;
+import it.unive.lisa.type.Untyped;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class SimpleAbstractStateTest {
+
+	private static final CodeLocation LOC = new SourceCodeLocation("fake", 1, 1);
+
+	private static final ProgramPoint PP = new ProgramPoint() {
+
+		@Override
+		public CodeLocation getLocation() {
+			return LOC;
+		}
+
+		@Override
+		public CFG getCFG() {
+			return null;
+		}
+	};
+
+	private static class CountingHeap extends MonolithicHeap {
+
+		private int rewrites = 0;
+
+		@Override
+		public MonolithicHeap smallStepSemantics(
+				SymbolicExpression expression,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			return this;
+		}
+
+		@Override
+		public ExpressionSet rewrite(
+				SymbolicExpression expression,
+				ProgramPoint pp,
+				SemanticOracle oracle)
+				throws SemanticException {
+			rewrites++;
+			return super.rewrite(expression, pp, oracle);
+		}
+	}
+
+	@Test
+	public void testRewritingCache() throws SemanticException {
+		// x is untyped, so x + 1 needs to be rewritten by the heap
+		Variable x = new Variable(Untyped.INSTANCE, "x", LOC);
+		BinaryExpression sum = new BinaryExpression(Untyped.INSTANCE, x, new Constant(Int32Type.INSTANCE, 1, LOC),
+				NumericNonOverflowingAdd.INSTANCE, LOC);
+
+		CountingHeap heap = new CountingHeap();
+		List<ExpressionSet> requested = new ArrayList<>();
+		ValueEnvironment<Interval> values = new ValueEnvironment<Interval>(new Interval()) {
+
+			@Override
+			public ValueEnvironment<Interval> smallStepSemantics(
+					ValueExpression expression,
+					ProgramPoint pp,
+					SemanticOracle oracle)
+					throws SemanticException {
+				// the value domain asks for the rewriting of the original
+				// expression, as domains querying the oracle do
+				requested.add(oracle.rewrite(sum, pp, oracle));
+				requested.add(oracle.rewrite(sum, pp, oracle));
+				return this;
+			}
+		};
+
+		SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>, TypeEnvironment<InferredTypes>> state;
+		state = new SimpleAbstractState<>(heap, values, new TypeEnvironment<>(new InferredTypes()));
+		state.smallStepSemantics(sum, PP, state);
+
+		// the heap rewrote the expression once when computing the semantics,
+		// and both requests of the value domain hit the cache
+		ExpressionSet expected = new MonolithicHeap().rewrite(sum, PP, state);
+		assertEquals(1, heap.rewrites);
+		assertEquals(List.of(expected, expected), requested);
+	}
+}
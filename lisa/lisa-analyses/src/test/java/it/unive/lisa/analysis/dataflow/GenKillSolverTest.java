@@ -0,0 +1,281 @@
+package it.unive.lisa.analysis.dataflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SimpleAbstractState;
+import it.unive.lisa.analysis.heap.MonolithicHeap;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.analysis.nonrelational.value.TypeEnvironment;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.types.InferredTypes;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.imp.IMPFeatures;
+import it.unive.lisa.imp.types.IMPTypeSystem;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
+import it.unive.lisa.interprocedural.InterproceduralAnalysisException;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
+import it.unive.lisa.interprocedural.UniqueScope;
+import it.unive.lisa.interprocedural.WorstCasePolicy;
+import it.unive.lisa.interprocedural.callgraph.CallGraphConstructionException;
+import it.unive.lisa.interprocedural.callgraph.RTACallGraph;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.ClassUnit;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeMemberDescriptor;
+import it.unive.lisa.program.cfg.controlFlow.ControlFlowExtractor;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.program.cfg.statement.comparison.LessThan;
+import it.unive.lisa.program.cfg.statement.literal.Int32Literal;
+import it.unive.lisa.program.cfg.statement.literal.StringLiteral;
+import it.unive.lisa.program.cfg.statement.numeric.Addition;
+import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.util.List;
+import org.junit.Test;
+
+public class GenKillSolverTest {
+
+	private final Program program = new Program(new IMPFeatures(), new IMPTypeSystem());
+
+	private final ClassUnit unit = new ClassUnit(new SourceCodeLocation("unknown", 0, 0), program, "Testing", false);
+
+	private final CFG cfg = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("unknown", 0, 0), unit, false,
+			"loop"));
+
+	// x = 1; y = x + 1; while (x < y) x = x + 1; return;
+	private final Assignment first = new Assignment(cfg, loc(1, 0), var("x", 1, 0),
+			new Int32Literal(cfg, loc(1, 4), 1));
+
+	private final Addition sum = new Addition(cfg, loc(2, 4), var("x", 2, 4), new Int32Literal(cfg, loc(2, 8), 1));
+
+	private final Assignment second = new Assignment(cfg, loc(2, 0), var("y", 2, 0), sum);
+
+	private final LessThan cond = new LessThan(cfg, loc(3, 0), var("x", 3, 7), var("y", 3, 11));
+
+	private final Addition inc = new Addition(cfg, loc(4, 4), var("x", 4, 4), new Int32Literal(cfg, loc(4, 8), 1));
+
+	private final Assignment body = new Assignment(cfg, loc(4, 0), var("x", 4, 0), inc);
+
+	private final Ret end = new Ret(cfg, loc(5, 0));
+
+	{
+		cfg.addNode(first, true);
+		cfg.addNode(second);
+		cfg.addNode(cond);
+		cfg.addNode(body);
+		cfg.addNode(end);
+		cfg.addEdge(new SequentialEdge(first, second));
+		cfg.addEdge(new SequentialEdge(second, cond));
+		cfg.addEdge(new TrueEdge(cond, body));
+		cfg.addEdge(new SequentialEdge(body, cond));
+		cfg.addEdge(new FalseEdge(cond, end));
+		cfg.extractControlFlowStructures(new ControlFlowExtractor());
+		cfg.computeBasicBlocks();
+	}
+
+	private final List<Statement> statements = List.of(first, second, sum, cond, body, inc, end);
+
+	private static SourceCodeLocation loc(
+			int line,
+			int col) {
+		return new SourceCodeLocation("unknown", line, col);
+	}
+
+	private VariableRef var(
+			String name,
+			int line,
+			int col) {
+		return new VariableRef(cfg, loc(line, col), name);
+	}
+
+	private static FixpointConfiguration conf() {
+		LiSAConfiguration conf = new LiSAConfiguration();
+		conf.optimize = false;
+		return new FixpointConfiguration(conf);
+	}
+
+	private <D extends DataflowDomain<D, E>,
+			E extends DataflowElement<D, E>> AnalysisState<
+					SimpleAbstractState<MonolithicHeap, D, TypeEnvironment<InferredTypes>>> mkState(
+							D domain) {
+		return new AnalysisState<>(
+				new SimpleAbstractState<>(
+						new MonolithicHeap(),
+						domain,
+						new TypeEnvironment<>(new InferredTypes())),
+				new ExpressionSet());
+	}
+
+	private <D extends DataflowDomain<D, E>,
+			E extends DataflowElement<D, E>> InterproceduralAnalysis<
+					SimpleAbstractState<MonolithicHeap, D, TypeEnvironment<InferredTypes>>> mkAnalysis()
+							throws InterproceduralAnalysisException,
+							CallGraphConstructionException {
+		ModularWorstCaseAnalysis<SimpleAbstractState<MonolithicHeap, D,
+				TypeEnvironment<InferredTypes>>> analysis = new ModularWorstCaseAnalysis<>();
+		RTACallGraph callgraph = new RTACallGraph();
+		Application app = new Application(program);
+		callgraph.init(app);
+		analysis.init(app, callgraph, WorstCasePolicy.INSTANCE);
+		return analysis;
+	}
+
+	private <D extends DataflowDomain<D, E>,
+			E extends DataflowElement<D, E>> void check(
+					D domain,
+					boolean backward)
+					throws FixpointException,
+					SemanticException,
+					InterproceduralAnalysisException,
+					CallGraphConstructionException {
+		AnalysisState<SimpleAbstractState<MonolithicHeap, D, TypeEnvironment<InferredTypes>>> state = mkState(domain);
+		InterproceduralAnalysis<
+				SimpleAbstractState<MonolithicHeap, D, TypeEnvironment<InferredTypes>>> analysis = mkAnalysis();
+		AnalyzedCFG<SimpleAbstractState<MonolithicHeap, D, TypeEnvironment<InferredTypes>>> expected, actual;
+		if (backward) {
+			expected = cfg.backwardFixpoint(state, analysis, FIFOWorkingSet.mk(), conf(), new UniqueScope());
+			actual = GenKillSolver.backwardFixpoint(cfg, state, analysis, conf(), new UniqueScope());
+		} else {
+			expected = cfg.fixpoint(state, analysis, FIFOWorkingSet.mk(), conf(), new UniqueScope());
+			actual = GenKillSolver.fixpoint(cfg, state, analysis, conf(), new UniqueScope());
+		}
+
+		for (Statement st : statements) {
+			D exp = expected.getAnalysisStateAfter(st).getState().getValueState();
+			D act = actual.getAnalysisStateAfter(st).getState().getValueState();
+			assertEquals("Wrong result for " + st, exp.getDataflowElements(), act.getDataflowElements());
+			assertEquals("Wrong result for " + st, exp.isTop(), act.isTop());
+			assertEquals("Wrong result for " + st, exp.isBottom(), act.isBottom());
+			if (!exp.isBottom()) {
+				SimpleAbstractState<MonolithicHeap, D, TypeEnvironment<InferredTypes>> expState = expected
+						.getAnalysisStateAfter(st).getState();
+				SimpleAbstractState<MonolithicHeap, D, TypeEnvironment<InferredTypes>> actState = actual
+						.getAnalysisStateAfter(st).getState();
+				assertTrue("Unsound heap for " + st, expState.getHeapState().lessOrEqual(actState.getHeapState()));
+				assertTrue("Unsound types for " + st, expState.getTypeState().lessOrEqual(actState.getTypeState()));
+			}
+			if (!(st instanceof Expression) || ((Expression) st).getParentStatement() == null) {
+				D expBefore = expected.getAnalysisStateBefore(st).getState().getValueState();
+				D actBefore = actual.getAnalysisStateBefore(st).getState().getValueState();
+				assertEquals("Wrong entry state for " + st, expBefore.getDataflowElements(),
+						actBefore.getDataflowElements());
+			}
+		}
+	}
+
+	@Test
+	public void testReachingDefinitions() throws FixpointException, SemanticException,
+			InterproceduralAnalysisException, CallGraphConstructionException {
+		check(new PossibleDataflowDomain<>(new ReachingDefinitions()), false);
+	}
+
+	@Test
+	public void testAvailableExpressions() throws FixpointException, SemanticException,
+			InterproceduralAnalysisException, CallGraphConstructionException {
+		check(new DefiniteDataflowDomain<>(new AvailableExpressions()), false);
+	}
+
+	@Test
+	public void testLiveness() throws FixpointException, SemanticException, InterproceduralAnalysisException,
+			CallGraphConstructionException {
+		check(new PossibleDataflowDomain<>(new Liveness()), true);
+	}
+
+	@Test
+	public void testNonEmptyResults() throws FixpointException, SemanticException,
+			InterproceduralAnalysisException, CallGraphConstructionException {
+		AnalysisState<SimpleAbstractState<MonolithicHeap, PossibleDataflowDomain<ReachingDefinitions>,
+				TypeEnvironment<InferredTypes>>> state = mkState(
+						new PossibleDataflowDomain<>(new ReachingDefinitions()));
+		AnalyzedCFG<SimpleAbstractState<MonolithicHeap, PossibleDataflowDomain<ReachingDefinitions>,
+				TypeEnvironment<InferredTypes>>> result = GenKillSolver.fixpoint(cfg, state, mkAnalysis(), conf(),
+						new UniqueScope());
+		// both definitions of x and the one of y reach the condition
+		assertEquals(3, result.getAnalysisStateBefore(cond).getState().getValueState().getDataflowElements().size());
+		assertFalse(result.getAnalysisStateAfter(end).getState().getValueState().isBottom());
+	}
+
+	@Test
+	public void testTypesChangingInLoops() throws FixpointException, SemanticException,
+			InterproceduralAnalysisException, CallGraphConstructionException {
+		// x = 1; y = 1; while (x < y) y = "a"; return;
+		CFG loop = new CFG(new CodeMemberDescriptor(loc(0, 0), unit, false, "types"));
+		Assignment x = new Assignment(loop, loc(1, 0), new VariableRef(loop, loc(1, 0), "x"),
+				new Int32Literal(loop, loc(1, 4), 1));
+		Assignment y = new Assignment(loop, loc(2, 0), new VariableRef(loop, loc(2, 0), "y"),
+				new Int32Literal(loop, loc(2, 4), 1));
+		LessThan guard = new LessThan(loop, loc(3, 0), new VariableRef(loop, loc(3, 7), "x"),
+				new VariableRef(loop, loc(3, 11), "y"));
+		Assignment str = new Assignment(loop, loc(4, 0), new VariableRef(loop, loc(4, 0), "y"),
+				new StringLiteral(loop, loc(4, 4), "a"));
+		Ret ret = new Ret(loop, loc(5, 0));
+		loop.addNode(x, true);
+		loop.addNode(y);
+		loop.addNode(guard);
+		loop.addNode(str);
+		loop.addNode(ret);
+		loop.addEdge(new SequentialEdge(x, y));
+		loop.addEdge(new SequentialEdge(y, guard));
+		loop.addEdge(new TrueEdge(guard, str));
+		loop.addEdge(new SequentialEdge(str, guard));
+		loop.addEdge(new FalseEdge(guard, ret));
+		loop.extractControlFlowStructures(new ControlFlowExtractor());
+		loop.computeBasicBlocks();
+
+		AnalysisState<SimpleAbstractState<MonolithicHeap, PossibleDataflowDomain<ReachingDefinitions>,
+				TypeEnvironment<InferredTypes>>> state = mkState(
+						new PossibleDataflowDomain<>(new ReachingDefinitions()));
+		InterproceduralAnalysis<SimpleAbstractState<MonolithicHeap, PossibleDataflowDomain<ReachingDefinitions>,
+				TypeEnvironment<InferredTypes>>> analysis = mkAnalysis();
+		AnalyzedCFG<SimpleAbstractState<MonolithicHeap, PossibleDataflowDomain<ReachingDefinitions>,
+				TypeEnvironment<InferredTypes>>> expected = loop.fixpoint(state, analysis, FIFOWorkingSet.mk(),
+						conf(), new UniqueScope());
+		AnalyzedCFG<SimpleAbstractState<MonolithicHeap, PossibleDataflowDomain<ReachingDefinitions>,
+				TypeEnvironment<InferredTypes>>> actual = GenKillSolver.fixpoint(loop, state, analysis, conf(),
+						new UniqueScope());
+		TypeEnvironment<InferredTypes> exp = expected.getAnalysisStateBefore(ret).getState().getTypeState();
+		TypeEnvironment<InferredTypes> act = actual.getAnalysisStateBefore(ret).getState().getTypeState();
+		// the string assigned to y in the loop must reach the exit
+		assertFalse(exp.isBottom());
+		assertTrue(exp.lessOrEqual(act));
+	}
+
+	@Test
+	public void testSelection() {
+		LiSAConfiguration conf = new LiSAConfiguration();
+		conf.optimize = false;
+		AnalysisState<SimpleAbstractState<MonolithicHeap, PossibleDataflowDomain<ReachingDefinitions>,
+				TypeEnvironment<InferredTypes>>> dataflow = mkState(
+						new PossibleDataflowDomain<>(new ReachingDefinitions()));
+		AnalysisState<SimpleAbstractState<MonolithicHeap, ValueEnvironment<Interval>,
+				TypeEnvironment<InferredTypes>>> intervals = new AnalysisState<>(
+						new SimpleAbstractState<>(
+								new MonolithicHeap(),
+								new ValueEnvironment<>(new Interval()),
+								new TypeEnvironment<>(new InferredTypes())),
+						new ExpressionSet());
+
+		assertFalse(GenKillSolver.isApplicable(dataflow, new FixpointConfiguration(conf)));
+		conf.genKillSolver = true;
+		assertTrue(GenKillSolver.isApplicable(dataflow, new FixpointConfiguration(conf)));
+		assertFalse(GenKillSolver.isApplicable(intervals, new FixpointConfiguration(conf)));
+		conf.optimize = true;
+		assertFalse(GenKillSolver.isApplicable(dataflow, new FixpointConfiguration(conf)));
+	}
+}
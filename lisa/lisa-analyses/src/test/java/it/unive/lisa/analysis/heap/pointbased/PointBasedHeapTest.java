@@ -2,6 +2,7 @@ package it.unive.lisa.analysis.heap.pointbased;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import it.unive.lisa.TestParameterProvider;
@@ -17,6 +18,7 @@ import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.program.type.Int32Type;
+import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.heap.AccessChild;
 import it.unive.lisa.symbolic.heap.HeapDereference;
 import it.unive.lisa.symbolic.heap.HeapExpression;
@@ -31,8 +33,12 @@ import it.unive.lisa.symbolic.value.Variable;
 import it.unive.lisa.symbolic.value.operator.binary.NumericNonOverflowingAdd;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Test;
 
 public class PointBasedHeapTest {
@@ -83,6 +89,34 @@ public class PointBasedHeapTest {
 	private HeapEnvironment<
 			AllocationSites> emptyHeapEnv = new HeapEnvironment<AllocationSites>(new AllocationSites());
 
+	@Test
+	public void testLubAll() throws SemanticException {
+		AllocationSite strong1 = new HeapAllocationSite(untyped, loc1.getCodeLocation(), false, loc1);
+		AllocationSite strong2 = new HeapAllocationSite(untyped, loc2.getCodeLocation(), false, loc2);
+		AllocationSites sites = new AllocationSites();
+		AllocationSites first = sites.mk(Set.of(strong1));
+		List<AllocationSites> others = List.of(
+				sites.mk(Set.of(strong2)),
+				sites.mk(Set.of(alloc1)),
+				sites.mk(Set.of(strong1, alloc2)));
+
+		AllocationSites folded = first;
+		for (AllocationSites other : others)
+			folded = folded.lub(other);
+		// weak sites replace strong ones with the same name
+		assertEquals(sites.mk(Set.of(alloc1, alloc2)), folded);
+		assertEquals(folded, first.lubAll(others));
+
+		HeapEnvironment<AllocationSites> env = emptyHeapEnv.putState(x, first).putState(y, others.get(0));
+		List<HeapEnvironment<AllocationSites>> envs = new ArrayList<>();
+		for (AllocationSites other : others)
+			envs.add(emptyHeapEnv.putState(x, other).putState(y, other));
+		HeapEnvironment<AllocationSites> foldedEnv = env;
+		for (HeapEnvironment<AllocationSites> other : envs)
+			foldedEnv = foldedEnv.lub(other);
+		assertEquals(foldedEnv, env.lubAll(envs));
+	}
+
 	@Test
 	public void testAssign() throws SemanticException {
 		Constant one = new Constant(Int32Type.INSTANCE, 1, loc1);
@@ -459,4 +493,94 @@ public class PointBasedHeapTest {
 		expectedRewritten = new ExpressionSet(expectedUnknownAlloc);
 		assertEquals(expectedRewritten, xAssign.rewrite(deref, pp1, fakeOracle));
 	}
+
+	private <H extends AllocationSiteBasedAnalysis<H>> ExpressionSet rewriting(
+			Pair<H, ExpressionSet> sem,
+			SymbolicExpression expression,
+			ProgramPoint pp)
+			throws SemanticException {
+		if (sem.getRight() != null)
+			return sem.getRight();
+		return sem.getLeft().rewrite(expression, pp, fakeOracle);
+	}
+
+	@Test
+	public void testAssignAndRewrite() throws SemanticException {
+		PointBasedHeap xAssign = topHeap.assign(x,
+				new HeapReference(untyped,
+						new MemoryAllocation(untyped, loc1), loc1),
+				pp1, fakeOracle);
+
+		// y = z, where z is not a pointer: the environment is not affected by
+		// the assignment, and the rewriting of z is reused
+		Variable z = new Variable(untyped, "z", pp1.getLocation());
+		Pair<PointBasedHeap, ExpressionSet> actual = xAssign.assignAndRewrite(y, z, pp1, fakeOracle);
+		PointBasedHeap expected = xAssign.assign(y, z, pp1, fakeOracle);
+		assertEquals(expected, actual.getLeft());
+		assertNotNull(actual.getRight());
+		assertEquals(expected.rewrite(z, pp1, fakeOracle), actual.getRight());
+
+		// y = x, x and y become aliases
+		actual = xAssign.assignAndRewrite(y, x, pp1, fakeOracle);
+		expected = xAssign.assign(y, x, pp1, fakeOracle);
+		assertEquals(expected, actual.getLeft());
+		assertEquals(expected.rewrite(x, pp1, fakeOracle), rewriting(actual, x, pp1));
+
+		// x = &(new loc(pp2)) after x -> pp1
+		HeapReference ref = new HeapReference(untyped, new MemoryAllocation(untyped, loc2), loc2);
+		actual = xAssign.assignAndRewrite(x, ref, pp2, fakeOracle);
+		expected = xAssign.assign(x, ref, pp2, fakeOracle);
+		assertEquals(expected, actual.getLeft());
+		assertEquals(expected.rewrite(ref, pp2, fakeOracle), rewriting(actual, ref, pp2));
+
+		// x = *(x) after x -> pp1, the rewriting depends on the assigned
+		// variable
+		HeapDereference deref = new HeapDereference(untyped, x, loc1);
+		actual = xAssign.assignAndRewrite(x, deref, pp1, fakeOracle);
+		expected = xAssign.assign(x, deref, pp1, fakeOracle);
+		assertEquals(expected, actual.getLeft());
+		assertEquals(expected.rewrite(deref, pp1, fakeOracle), rewriting(actual, deref, pp1));
+	}
+
+	@Test
+	public void testFieldSensitiveAssignAndRewrite() throws SemanticException {
+		// x = &(new loc(pp1)) with no site at pp1: the site is strong before
+		// the assignment, but weak afterwards since x points to it
+		FieldSensitivePointBasedHeap heap = new FieldSensitivePointBasedHeap().top();
+		HeapReference ref = new HeapReference(untyped, new MemoryAllocation(untyped, loc1), loc1);
+		Pair<FieldSensitivePointBasedHeap, ExpressionSet> actual = heap.assignAndRewrite(x, ref, pp1, fakeOracle);
+		FieldSensitivePointBasedHeap expected = heap.assign(x, ref, pp1, fakeOracle);
+		assertEquals(expected, actual.getLeft());
+
+		ExpressionSet rewritten = rewriting(actual, ref, pp1);
+		assertEquals(1, rewritten.elements().size());
+		for (SymbolicExpression e : rewritten) {
+			assertTrue(e instanceof MemoryPointer);
+			assertTrue(((MemoryPointer) e).getReferencedLocation().isWeak());
+		}
+	}
+
+	@Test
+	public void testFieldSensitiveAccessAndRewrite() throws SemanticException {
+		FieldSensitivePointBasedHeap xAssign = new FieldSensitivePointBasedHeap().top().assign(x,
+				new HeapReference(untyped,
+						new MemoryAllocation(untyped, loc1), loc1),
+				pp1, fakeOracle);
+		Variable f = new Variable(untyped, "f", loc1);
+
+		// (*x).f and its assumption, where the rewritings of x and f are
+		// shared between the semantics and the rewriting
+		AccessChild access = new AccessChild(untyped, new HeapDereference(untyped, x, loc1), f, loc1);
+		Pair<FieldSensitivePointBasedHeap, ExpressionSet> actual = xAssign.smallStepSemanticsAndRewrite(access, pp1,
+				fakeOracle);
+		FieldSensitivePointBasedHeap expected = xAssign.smallStepSemantics(access, pp1, fakeOracle);
+		assertEquals(expected, actual.getLeft());
+		assertNotNull(actual.getRight());
+		assertEquals(expected.rewrite(access, pp1, fakeOracle), actual.getRight());
+
+		actual = xAssign.assumeAndRewrite(access, pp1, pp2, fakeOracle);
+		expected = xAssign.assume(access, pp1, pp2, fakeOracle);
+		assertEquals(expected, actual.getLeft());
+		assertEquals(expected.rewrite(access, pp1, fakeOracle), actual.getRight());
+	}
 }
@@ -0,0 +1,58 @@
+package it.unive.lisa.analysis.nonrelational.inference;
+
+import static org.junit.Assert.assertEquals;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.nonInterference.NonInterference;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Untyped;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class InferenceSystemTest {
+
+	private final Variable x = new Variable(Untyped.INSTANCE, "x", SyntheticLocation.INSTANCE);
+
+	private final Variable y = new Variable(Untyped.INSTANCE, "y", SyntheticLocation.INSTANCE);
+
+	private static NonInterference ni(
+			byte confidentiality,
+			byte integrity) {
+		return new NonInterference(confidentiality, integrity);
+	}
+
+	private final InferenceSystem<NonInterference> first = new InferenceSystem<>(
+			new NonInterference(),
+			Map.of(x, ni(NonInterference.NI_LOW, NonInterference.NI_HIGH)),
+			ni(NonInterference.NI_LOW, NonInterference.NI_HIGH));
+
+	private final InferenceSystem<NonInterference> second = new InferenceSystem<>(
+			new NonInterference(),
+			Map.of(x, ni(NonInterference.NI_HIGH, NonInterference.NI_HIGH)),
+			ni(NonInterference.NI_HIGH, NonInterference.NI_HIGH));
+
+	private final InferenceSystem<NonInterference> third = new InferenceSystem<>(
+			new NonInterference(),
+			Map.of(x, ni(NonInterference.NI_LOW, NonInterference.NI_HIGH),
+					y, ni(NonInterference.NI_LOW, NonInterference.NI_LOW)),
+			ni(NonInterference.NI_LOW, NonInterference.NI_LOW));
+
+	@Test
+	public void testLubAll() throws SemanticException {
+		InferenceSystem<NonInterference> expected = first.lub(second).lub(third);
+		InferenceSystem<NonInterference> actual = first.lubAll(List.of(second, third));
+		assertEquals(expected, actual);
+		assertEquals(ni(NonInterference.NI_HIGH, NonInterference.NI_LOW), actual.getExecutionState());
+	}
+
+	@Test
+	public void testGlbAll() throws SemanticException {
+		InferenceSystem<NonInterference> expected = first.glb(second).glb(third);
+		InferenceSystem<NonInterference> actual = first.glbAll(List.of(second, third));
+		assertEquals(expected, actual);
+		assertEquals(first.getExecutionState().glb(second.getExecutionState()).glb(third.getExecutionState()),
+				actual.getExecutionState());
+	}
+}
@@ -12,6 +12,7 @@ import it.unive.lisa.interprocedural.callgraph.CHACallGraph;
 import it.unive.lisa.interprocedural.callgraph.RTACallGraph;
 import it.unive.lisa.interprocedural.context.ContextBasedAnalysis;
 import it.unive.lisa.interprocedural.context.FullStackToken;
+import it.unive.lisa.interprocedural.context.LastCallToken;
 import org.junit.Test;
 
 public class InterproceduralAnalysesTest extends AnalysisTestExecutor {
@@ -32,6 +33,23 @@ public class InterproceduralAnalysesTest extends AnalysisTestExecutor {
 		perform(conf);
 	}
 
+	@Test
+	public void testWorstCaseCHAParallel() {
+		CronConfiguration conf = new CronConfiguration();
+		conf.serializeResults = true;
+		conf.abstractState = DefaultConfiguration.simpleState(
+				DefaultConfiguration.defaultHeapDomain(),
+				new ValueEnvironment<>(new Sign()),
+				DefaultConfiguration.defaultTypeDomain());
+		conf.interproceduralAnalysis = new ModularWorstCaseAnalysis<>(4);
+		conf.callGraph = new CHACallGraph();
+		conf.testDir = "interprocedural";
+		// same results of the sequential analysis
+		conf.testSubDir = "modular-cha";
+		conf.programFile = "modular.imp";
+		perform(conf);
+	}
+
 	@Test
 	public void testWorstCaseRTA() {
 		CronConfiguration conf = new CronConfiguration();
@@ -64,6 +82,22 @@ public class InterproceduralAnalysesTest extends AnalysisTestExecutor {
 		perform(conf);
 	}
 
+	@Test
+	public void testContextSensitiveRTASCCScheduling() {
+		CronConfiguration conf = new CronConfiguration();
+		conf.serializeResults = true;
+		conf.abstractState = DefaultConfiguration.simpleState(
+				DefaultConfiguration.defaultHeapDomain(),
+				new ValueEnvironment<>(new Sign()),
+				DefaultConfiguration.defaultTypeDomain());
+		conf.interproceduralAnalysis = new ContextBasedAnalysis<>(LastCallToken.getSingleton(), true);
+		conf.callGraph = new RTACallGraph();
+		conf.testDir = "interprocedural";
+		conf.testSubDir = "context";
+		conf.programFile = "context.imp";
+		perform(conf);
+	}
+
 	@Test
 	public void testContextSensitiveRTAHelper() {
 		CronConfiguration conf = new CronConfiguration();
@@ -378,6 +378,24 @@ public class RecursionsTest extends AnalysisTestExecutor {
 		perform(conf);
 	}
 
+	@Test
+	public void testFactorialInterleavedKDepthSCCScheduling() {
+		// the result of main becomes stale when the recursion is solved, and
+		// it must be recomputed with its own token
+		CronConfiguration conf = new CronConfiguration();
+		conf.serializeResults = true;
+		conf.abstractState = DefaultConfiguration.simpleState(
+				DefaultConfiguration.defaultHeapDomain(),
+				new ValueEnvironment<>(new Interval()),
+				DefaultConfiguration.defaultTypeDomain());
+		conf.interproceduralAnalysis = new ContextBasedAnalysis<>(KDepthToken.getSingleton(5), true);
+		conf.callGraph = new RTACallGraph();
+		conf.testDir = "interprocedural";
+		conf.testSubDir = "factorialInterleaved/kdepth";
+		conf.programFile = "factorialInterleaved.imp";
+		perform(conf);
+	}
+
 	@Test
 	public void testFactorialInterleavedLast() {
 		CronConfiguration conf = new CronConfiguration();
@@ -10,6 +10,7 @@ import it.unive.lisa.analysis.string.Suffix;
 import it.unive.lisa.analysis.string.bricks.Bricks;
 import it.unive.lisa.analysis.string.fsa.FSA;
 import it.unive.lisa.analysis.string.tarsis.Tarsis;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
 import org.junit.Test;
 
 public class StringAnalysesTest extends AnalysisTestExecutor {
@@ -93,6 +94,23 @@ public class StringAnalysesTest extends AnalysisTestExecutor {
 		perform(conf);
 	}
 
+	@Test
+	public void testFSAParallel() {
+		CronConfiguration conf = new CronConfiguration();
+		conf.serializeResults = true;
+		conf.abstractState = DefaultConfiguration.simpleState(
+				DefaultConfiguration.defaultHeapDomain(),
+				new ValueEnvironment<>(new FSA()),
+				DefaultConfiguration.defaultTypeDomain());
+		// cfgs are analyzed concurrently, sharing the cached automata
+		conf.interproceduralAnalysis = new ModularWorstCaseAnalysis<>(4);
+		conf.testDir = "string";
+		// same results of the sequential analysis
+		conf.testSubDir = "fsa";
+		conf.programFile = "strings.imp";
+		perform(conf);
+	}
+
 	@Test
 	public void testTarsis() {
 		CronConfiguration conf = new CronConfiguration();
@@ -106,4 +124,21 @@ public class StringAnalysesTest extends AnalysisTestExecutor {
 		conf.programFile = "strings.imp";
 		perform(conf);
 	}
+
+	@Test
+	public void testTarsisParallel() {
+		CronConfiguration conf = new CronConfiguration();
+		conf.serializeResults = true;
+		conf.abstractState = DefaultConfiguration.simpleState(
+				DefaultConfiguration.defaultHeapDomain(),
+				new ValueEnvironment<>(new Tarsis()),
+				DefaultConfiguration.defaultTypeDomain());
+		// cfgs are analyzed concurrently, sharing the cached automata
+		conf.interproceduralAnalysis = new ModularWorstCaseAnalysis<>(4);
+		conf.testDir = "string";
+		// same results of the sequential analysis
+		conf.testSubDir = "tarsis";
+		conf.programFile = "strings.imp";
+		perform(conf);
+	}
 }
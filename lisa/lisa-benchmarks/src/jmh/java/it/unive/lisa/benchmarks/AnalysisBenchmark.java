@@ -0,0 +1,86 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.AnalysisException;
+import it.unive.lisa.LiSA;
+import it.unive.lisa.LiSAReport;
+import it.unive.lisa.benchmarks.ProgramGenerator.Shape;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.program.Program;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * End-to-end benchmarks, running LiSA on synthetic programs (see
+ * {@link ProgramGenerator}) without producing any output. Parsing the program
+ * is not measured.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AnalysisBenchmark {
+
+	/**
+	 * The shape of the analyzed program.
+	 */
+	@Param({ "LOOPS", "CALLS", "STRAIGHT", "RECURSION" })
+	public Shape shape;
+
+	/**
+	 * The size of the analyzed program.
+	 */
+	@Param({ "2", "4" })
+	public int size;
+
+	/**
+	 * The name of the analysis configuration, as accepted by
+	 * {@link BenchmarkSetup#state(String)}.
+	 */
+	@Param({ BenchmarkSetup.INTERVAL, BenchmarkSetup.PENTAGON, BenchmarkSetup.TARSIS, BenchmarkSetup.POINT_BASED })
+	public String analysis;
+
+	private String code;
+
+	private LiSAConfiguration conf;
+
+	private Program program;
+
+	/**
+	 * Generates the program to analyze.
+	 */
+	@Setup(Level.Trial)
+	public void generate() {
+		code = shape.generate(size);
+		conf = BenchmarkSetup.configuration(analysis);
+	}
+
+	/**
+	 * Parses the program to analyze. This has to happen before each
+	 * invocation since LiSA modifies the program while finalizing it.
+	 */
+	@Setup(Level.Invocation)
+	public void parse() {
+		program = BenchmarkSetup.parse(code);
+	}
+
+	/**
+	 * Runs the analysis.
+	 * 
+	 * @return the report of the analysis
+	 * 
+	 * @throws AnalysisException if the analysis fails
+	 */
+	@Benchmark
+	public LiSAReport analyze() throws AnalysisException {
+		return new LiSA(conf).run(program);
+	}
+}
@@ -0,0 +1,143 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.string.fsa.SimpleAutomaton;
+import it.unive.lisa.analysis.string.tarsis.RegexAutomaton;
+import it.unive.lisa.util.datastructures.automaton.Automaton;
+import it.unive.lisa.util.datastructures.automaton.Minimization;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of {@link Automaton#determinize()},
+ * {@link Automaton#minimize(Minimization)}, {@link Automaton#isContained}, and
+ * {@link Automaton#intersection} in isolation, on the non-deterministic
+ * automata obtained by joining (and iterating) automata recognizing random
+ * strings over a small alphabet. Determinization and minimization work on a
+ * fresh copy of the input, since automata remember whether they are
+ * deterministic or minimal.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AutomatonBenchmark {
+
+	/**
+	 * The number of strings joined in the automata.
+	 */
+	@Param({ "8", "32" })
+	public int strings;
+
+	/**
+	 * The length of the strings joined in the automata.
+	 */
+	@Param({ "4", "16" })
+	public int length;
+
+	/**
+	 * The minimization algorithm to use.
+	 */
+	@Param({ "BRZOZOWSKI", "HOPCROFT" })
+	public Minimization algorithm;
+
+	private SimpleAutomaton fsa;
+
+	private SimpleAutomaton fsaCopy;
+
+	private RegexAutomaton tarsis;
+
+	/**
+	 * Builds the automata.
+	 */
+	@Setup(Level.Trial)
+	public void build() {
+		// fixed seed to compare results across runs
+		Random random = new Random(42);
+		String[] words = new String[strings];
+		for (int i = 0; i < strings; i++) {
+			StringBuilder sb = new StringBuilder();
+			for (int j = 0; j < length; j++)
+				sb.append((char) ('a' + random.nextInt(4)));
+			words[i] = sb.toString();
+		}
+
+		SimpleAutomaton a = new SimpleAutomaton(words[0]);
+		for (int i = 1; i < strings; i++)
+			a = a.union(new SimpleAutomaton(words[i]));
+		fsa = a.concat(a.star());
+		fsaCopy = fsa.copy();
+		RegexAutomaton r = RegexAutomaton.strings(words);
+		tarsis = r.concat(r.star());
+	}
+
+	/**
+	 * Determinizes the finite state automaton.
+	 * 
+	 * @return the deterministic automaton
+	 */
+	@Benchmark
+	public SimpleAutomaton determinizeFSA() {
+		return fsa.copy().determinize();
+	}
+
+	/**
+	 * Minimizes the finite state automaton.
+	 * 
+	 * @return the minimal automaton
+	 */
+	@Benchmark
+	public SimpleAutomaton minimizeFSA() {
+		return fsa.copy().minimize(algorithm);
+	}
+
+	/**
+	 * Determinizes the Tarsis automaton.
+	 * 
+	 * @return the deterministic automaton
+	 */
+	@Benchmark
+	public RegexAutomaton determinizeTarsis() {
+		return tarsis.copy().determinize();
+	}
+
+	/**
+	 * Minimizes the Tarsis automaton.
+	 * 
+	 * @return the minimal automaton
+	 */
+	@Benchmark
+	public RegexAutomaton minimizeTarsis() {
+		return tarsis.copy().minimize(algorithm);
+	}
+
+	/**
+	 * Checks the inclusion between two copies of the finite state automaton,
+	 * that requires a full exploration of the states of both.
+	 * 
+	 * @return the result of the check
+	 */
+	@Benchmark
+	public boolean isContainedFSA() {
+		return fsa.isContained(fsaCopy);
+	}
+
+	/**
+	 * Intersects two copies of the finite state automaton.
+	 * 
+	 * @return the intersection
+	 */
+	@Benchmark
+	public SimpleAutomaton intersectionFSA() {
+		return fsa.intersection(fsaCopy);
+	}
+}
@@ -0,0 +1,115 @@
+package it.unive.lisa.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Compares two result files produced by JMH in JSON format (e.g., the results
+ * of the benchmarks on two different commits), printing the relative change of
+ * the score of each benchmark that appears in both. Changes that fall within
+ * the error margin of the two measurements are marked as such.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class BenchmarkComparer {
+
+	private BenchmarkComparer() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * A single score read from a result file.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Score {
+
+		private final double value;
+
+		private final double error;
+
+		private final String unit;
+
+		private Score(
+				JsonNode metric) {
+			this.value = metric.path("score").asDouble();
+			// jmh writes NaN as a string when the error is not available
+			this.error = metric.path("scoreError").isNumber() ? metric.path("scoreError").asDouble() : 0;
+			this.unit = metric.path("scoreUnit").asText();
+		}
+	}
+
+	/**
+	 * Compares two result files.
+	 * 
+	 * @param args the paths of the baseline and of the current result files
+	 * 
+	 * @throws IOException if one of the files cannot be read
+	 */
+	public static void main(
+			String[] args)
+			throws IOException {
+		if (args.length != 2 || args[0].isEmpty() || args[1].isEmpty()) {
+			System.err.println("Usage: BenchmarkComparer <baseline.json> <current.json>");
+			System.exit(1);
+		}
+
+		Map<String, Score> baseline = read(new File(args[0]));
+		Map<String, Score> current = read(new File(args[1]));
+
+		System.out.println(String.format("%-90s %14s %14s %9s", "Benchmark", "Baseline", "Current", "Change"));
+		for (Entry<String, Score> entry : current.entrySet()) {
+			Score base = baseline.get(entry.getKey());
+			Score curr = entry.getValue();
+			if (base == null) {
+				System.out.println(String.format("%-90s %14s %14.3f %9s", entry.getKey(), "-", curr.value, "new"));
+				continue;
+			}
+
+			double change = base.value == 0 ? 0 : (curr.value - base.value) / base.value * 100;
+			boolean noise = Math.abs(curr.value - base.value) <= base.error + curr.error;
+			System.out.println(String.format("%-90s %14.3f %14.3f %+8.2f%%%s %s",
+					entry.getKey(),
+					base.value,
+					curr.value,
+					change,
+					noise ? "~" : " ",
+					curr.unit));
+		}
+
+		for (String key : baseline.keySet())
+			if (!current.containsKey(key))
+				System.out.println(
+						String.format("%-90s %14.3f %14s %9s", key, baseline.get(key).value, "-", "removed"));
+	}
+
+	private static Map<String, Score> read(
+			File file)
+			throws IOException {
+		JsonNode root = new ObjectMapper().readTree(file);
+		Map<String, Score> scores = new TreeMap<>();
+		for (JsonNode run : root) {
+			StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+			JsonNode params = run.path("params");
+			if (!params.isMissingNode()) {
+				// sorted, so that the order of parameters in the file does not
+				// matter
+				Map<String, String> sorted = new TreeMap<>();
+				Iterator<Entry<String, JsonNode>> fields = params.fields();
+				while (fields.hasNext()) {
+					Entry<String, JsonNode> field = fields.next();
+					sorted.put(field.getKey(), field.getValue().asText());
+				}
+				key.append(sorted);
+			}
+			scores.put(key.toString(), new Score(run.path("primaryMetric")));
+		}
+		return scores;
+	}
+}
@@ -0,0 +1,247 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.DefaultConfiguration;
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.dataflow.AvailableExpressions;
+import it.unive.lisa.analysis.dataflow.DefiniteDataflowDomain;
+import it.unive.lisa.analysis.dataflow.PossibleDataflowDomain;
+import it.unive.lisa.analysis.dataflow.ReachingDefinitions;
+import it.unive.lisa.analysis.heap.pointbased.PointBasedHeap;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.analysis.numeric.Pentagon;
+import it.unive.lisa.analysis.string.tarsis.Tarsis;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.imp.IMPFrontend;
+import it.unive.lisa.imp.ParsingException;
+import it.unive.lisa.interprocedural.InterproceduralAnalysisException;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
+import it.unive.lisa.interprocedural.callgraph.CallGraphConstructionException;
+import it.unive.lisa.interprocedural.callgraph.RTACallGraph;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.ProgramValidationException;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.symbolic.value.Skip;
+import it.unive.lisa.type.ReferenceType;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.TypeSystem;
+import it.unive.lisa.util.collections.workset.WorkingSet;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+/**
+ * Utility methods for setting up the inputs of benchmarks.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class BenchmarkSetup {
+
+	/**
+	 * The name of the configuration using intervals on a monolithic heap.
+	 */
+	public static final String INTERVAL = "interval";
+
+	/**
+	 * The name of the configuration using pentagons on a monolithic heap.
+	 */
+	public static final String PENTAGON = "pentagon";
+
+	/**
+	 * The name of the configuration using Tarsis on a monolithic heap.
+	 */
+	public static final String TARSIS = "tarsis";
+
+	/**
+	 * The name of the configuration using intervals on a point-based heap.
+	 */
+	public static final String POINT_BASED = "pointbased";
+
+	/**
+	 * The name of the configuration using reaching definitions on a monolithic
+	 * heap.
+	 */
+	public static final String REACHING = "reaching";
+
+	/**
+	 * The name of the configuration using available expressions on a
+	 * monolithic heap.
+	 */
+	public static final String AVAILABLE = "available";
+
+	private BenchmarkSetup() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Yields the abstract state corresponding to the given configuration name
+	 * (one of {@link #INTERVAL}, {@link #PENTAGON}, {@link #TARSIS},
+	 * {@link #POINT_BASED}, {@link #REACHING}, and {@link #AVAILABLE}). All
+	 * configurations use the default type domain.
+	 * 
+	 * @param name the name of the configuration
+	 * 
+	 * @return the abstract state
+	 */
+	public static AbstractState<?> state(
+			String name) {
+		switch (name) {
+		case INTERVAL:
+			return DefaultConfiguration.simpleState(
+					DefaultConfiguration.defaultHeapDomain(),
+					new ValueEnvironment<>(new Interval()),
+					DefaultConfiguration.defaultTypeDomain());
+		case PENTAGON:
+			return DefaultConfiguration.simpleState(
+					DefaultConfiguration.defaultHeapDomain(),
+					new Pentagon(),
+					DefaultConfiguration.defaultTypeDomain());
+		case TARSIS:
+			return DefaultConfiguration.simpleState(
+					DefaultConfiguration.defaultHeapDomain(),
+					new ValueEnvironment<>(new Tarsis()),
+					DefaultConfiguration.defaultTypeDomain());
+		case POINT_BASED:
+			return DefaultConfiguration.simpleState(
+					new PointBasedHeap(),
+					new ValueEnvironment<>(new Interval()),
+					DefaultConfiguration.defaultTypeDomain());
+		case REACHING:
+			return DefaultConfiguration.simpleState(
+					DefaultConfiguration.defaultHeapDomain(),
+					new PossibleDataflowDomain<>(new ReachingDefinitions()),
+					DefaultConfiguration.defaultTypeDomain());
+		case AVAILABLE:
+			return DefaultConfiguration.simpleState(
+					DefaultConfiguration.defaultHeapDomain(),
+					new DefiniteDataflowDomain<>(new AvailableExpressions()),
+					DefaultConfiguration.defaultTypeDomain());
+		default:
+			throw new IllegalArgumentException("Unknown configuration: " + name);
+		}
+	}
+
+	/**
+	 * Builds a configuration that runs the analysis of the given name (see
+	 * {@link #state(String)}) without producing any output, using a temporary
+	 * working directory.
+	 * 
+	 * @param name the name of the configuration
+	 * 
+	 * @return the configuration
+	 */
+	public static LiSAConfiguration configuration(
+			String name) {
+		DefaultConfiguration conf = new DefaultConfiguration();
+		conf.abstractState = state(name);
+		try {
+			conf.workdir = Files.createTempDirectory("lisa-bench").toString();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return conf;
+	}
+
+	/**
+	 * Parses the given IMP code.
+	 * 
+	 * @param code the code to parse
+	 * 
+	 * @return the parsed program
+	 */
+	public static Program parse(
+			String code) {
+		try {
+			return IMPFrontend.processText(code);
+		} catch (ParsingException e) {
+			throw new IllegalArgumentException("Unable to parse the generated program", e);
+		}
+	}
+
+	/**
+	 * Parses the given IMP code and finalizes the resulting program as LiSA
+	 * does before analyzing it, yielding an application ready to be analyzed
+	 * by the components of LiSA in isolation.
+	 * 
+	 * @param code the code to parse
+	 * 
+	 * @return the application
+	 */
+	public static Application finalized(
+			String code) {
+		Program p = parse(code);
+		TypeSystem types = p.getTypes();
+		types.registerType(types.getBooleanType());
+		types.registerType(types.getStringType());
+		types.registerType(types.getIntegerType());
+		for (Type t : types.getTypes())
+			if (types.canBeReferenced(t))
+				types.registerType(new ReferenceType(t));
+
+		try {
+			p.getFeatures().getProgramValidationLogic().validateAndFinalize(p);
+		} catch (ProgramValidationException e) {
+			throw new IllegalArgumentException("Unable to finalize the generated program", e);
+		}
+		return new Application(p);
+	}
+
+	/**
+	 * Builds a {@link ModularWorstCaseAnalysis} for the given application,
+	 * backed by an {@link RTACallGraph}. If {@code basicBlocks} is
+	 * {@code true}, basic blocks of all cfgs are computed as well, so that
+	 * optimized fixpoints can be executed.
+	 * 
+	 * @param <A>         the type of {@link AbstractState} to analyze
+	 * @param app         the application
+	 * @param conf        the configuration to read the open call policy from
+	 * @param basicBlocks whether or not basic blocks should be computed
+	 * 
+	 * @return the initialized analysis
+	 */
+	public static <A extends AbstractState<A>> ModularWorstCaseAnalysis<A> interprocedural(
+			Application app,
+			LiSAConfiguration conf,
+			boolean basicBlocks) {
+		if (basicBlocks)
+			app.getAllCFGs().forEach(CFG::computeBasicBlocks);
+
+		RTACallGraph callgraph = new RTACallGraph();
+		ModularWorstCaseAnalysis<A> interproc = new ModularWorstCaseAnalysis<>();
+		try {
+			callgraph.init(app);
+			interproc.init(app, callgraph, conf.openCallPolicy);
+		} catch (CallGraphConstructionException | InterproceduralAnalysisException e) {
+			throw new IllegalStateException("Unable to setup the analysis", e);
+		}
+		return interproc;
+	}
+
+	/**
+	 * Runs the whole-program fixpoint of the given analysis, starting from the
+	 * top element of the abstract state of the given configuration.
+	 * 
+	 * @param <A>       the type of {@link AbstractState} to analyze
+	 * @param interproc the analysis to run
+	 * @param conf      the configuration
+	 * 
+	 * @throws FixpointException if the fixpoint computation fails
+	 */
+	@SuppressWarnings("unchecked")
+	public static <A extends AbstractState<A>> void fixpoint(
+			ModularWorstCaseAnalysis<A> interproc,
+			LiSAConfiguration conf)
+			throws FixpointException {
+		A state = ((A) conf.abstractState).top();
+		interproc.fixpoint(
+				new AnalysisState<>(state, new Skip(SyntheticLocation.INSTANCE)),
+				(Class<? extends WorkingSet<Statement>>) conf.fixpointWorkingSet,
+				new FixpointConfiguration(conf));
+	}
+}
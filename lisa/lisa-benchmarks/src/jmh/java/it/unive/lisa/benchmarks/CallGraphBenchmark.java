@@ -0,0 +1,107 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.symbols.SymbolAliasing;
+import it.unive.lisa.interprocedural.callgraph.CallGraphConstructionException;
+import it.unive.lisa.interprocedural.callgraph.CallResolutionException;
+import it.unive.lisa.interprocedural.callgraph.RTACallGraph;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.edge.Edge;
+import it.unive.lisa.program.cfg.statement.Expression;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.TypeSystem;
+import it.unive.lisa.util.datastructures.graph.GraphVisitor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of call resolution in isolation: all calls of a program with a
+ * wide call graph (see {@link ProgramGenerator#wideCallGraph(int)}) are
+ * resolved by a fresh {@link RTACallGraph}, assuming that each parameter can
+ * have any of the runtime types compatible with its static type.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CallGraphBenchmark {
+
+	/**
+	 * The number of classes in the program.
+	 */
+	@Param({ "16", "64", "256" })
+	public int width;
+
+	private Application app;
+
+	private final List<UnresolvedCall> calls = new ArrayList<>();
+
+	private final List<Set<Type>[]> types = new ArrayList<>();
+
+	/**
+	 * Generates the program and collects its calls.
+	 */
+	@Setup(Level.Trial)
+	public void generate() {
+		app = BenchmarkSetup.finalized(ProgramGenerator.wideCallGraph(width));
+		TypeSystem ts = app.getPrograms()[0].getTypes();
+		calls.clear();
+		types.clear();
+
+		GraphVisitor<CFG, Statement, Edge, List<UnresolvedCall>> collector = new GraphVisitor<>() {
+			@Override
+			public boolean visit(
+					List<UnresolvedCall> tool,
+					CFG graph,
+					Statement node) {
+				if (node instanceof UnresolvedCall)
+					tool.add((UnresolvedCall) node);
+				return true;
+			}
+		};
+		for (CFG cfg : app.getAllCFGs())
+			cfg.accept(collector, calls);
+
+		for (UnresolvedCall call : calls) {
+			Expression[] params = call.getParameters();
+			@SuppressWarnings("unchecked")
+			Set<Type>[] t = new Set[params.length];
+			for (int i = 0; i < params.length; i++)
+				t[i] = params[i].getStaticType().allInstances(ts);
+			types.add(t);
+		}
+	}
+
+	/**
+	 * Resolves all calls.
+	 * 
+	 * @return the call graph
+	 * 
+	 * @throws CallGraphConstructionException if the call graph cannot be
+	 *                                            built
+	 * @throws CallResolutionException        if a call cannot be resolved
+	 */
+	@Benchmark
+	public RTACallGraph resolve() throws CallGraphConstructionException, CallResolutionException {
+		RTACallGraph callgraph = new RTACallGraph();
+		callgraph.init(app);
+		SymbolAliasing aliasing = new SymbolAliasing();
+		for (int i = 0; i < calls.size(); i++)
+			callgraph.resolve(calls.get(i), types.get(i), aliasing);
+		return callgraph;
+	}
+}
@@ -0,0 +1,98 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.benchmarks.ProgramGenerator.Shape;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the whole-program fixpoint in isolation: parsing, program
+ * finalization, and call graph construction are not measured.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FixpointBenchmark {
+
+	/**
+	 * The shape of the analyzed program.
+	 */
+	@Param({ "LOOPS", "CALLS", "STRAIGHT", "RECURSION" })
+	public Shape shape;
+
+	/**
+	 * The size of the analyzed program.
+	 */
+	@Param({ "2", "4" })
+	public int size;
+
+	/**
+	 * The name of the analysis configuration, as accepted by
+	 * {@link BenchmarkSetup#state(String)}.
+	 */
+	@Param({ BenchmarkSetup.INTERVAL, BenchmarkSetup.PENTAGON, BenchmarkSetup.TARSIS, BenchmarkSetup.POINT_BASED })
+	public String analysis;
+
+	/**
+	 * Whether or not the fixpoint is optimized.
+	 */
+	@Param({ "false", "true" })
+	public boolean optimize;
+
+	private String code;
+
+	private LiSAConfiguration conf;
+
+	private ModularWorstCaseAnalysis<?> interproc;
+
+	/**
+	 * Generates the program to analyze.
+	 */
+	@Setup(Level.Trial)
+	public void generate() {
+		code = shape.generate(size);
+		conf = BenchmarkSetup.configuration(analysis);
+		conf.optimize = optimize;
+	}
+
+	/**
+	 * Prepares a fresh analysis, since analyses retain their results.
+	 */
+	@Setup(Level.Invocation)
+	public void prepare() {
+		interproc = BenchmarkSetup.interprocedural(BenchmarkSetup.finalized(code), conf, optimize);
+	}
+
+	/**
+	 * Runs the fixpoint.
+	 * 
+	 * @return the analysis holding the results
+	 * 
+	 * @throws FixpointException if the fixpoint fails
+	 */
+	@Benchmark
+	public ModularWorstCaseAnalysis<?> fixpoint() throws FixpointException {
+		run(interproc);
+		return interproc;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <A extends AbstractState<A>> void run(
+			ModularWorstCaseAnalysis<?> interproc)
+			throws FixpointException {
+		BenchmarkSetup.fixpoint((ModularWorstCaseAnalysis<A>) interproc, conf);
+	}
+}
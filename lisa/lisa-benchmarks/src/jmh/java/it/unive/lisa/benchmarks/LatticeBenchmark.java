@@ -0,0 +1,125 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.lattices.FunctionalLattice;
+import it.unive.lisa.analysis.nonrelational.value.ValueEnvironment;
+import it.unive.lisa.analysis.numeric.Interval;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.type.Untyped;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the lattice operations of {@link FunctionalLattice}s (that
+ * go through {@link FunctionalLattice#functionalLift}) in isolation, using
+ * two environments of {@link Interval}s that share most of their variables.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LatticeBenchmark {
+
+	/**
+	 * The number of variables in each environment.
+	 */
+	@Param({ "16", "256", "4096" })
+	public int variables;
+
+	/**
+	 * The percentage of variables that are mapped to the same value in both
+	 * environments.
+	 */
+	@Param({ "0", "90" })
+	public int shared;
+
+	private ValueEnvironment<Interval> left;
+
+	private ValueEnvironment<Interval> right;
+
+	/**
+	 * Builds the environments.
+	 * 
+	 * @throws SemanticException if the environments cannot be built
+	 */
+	@Setup(Level.Trial)
+	public void build() throws SemanticException {
+		// fixed seed to compare results across runs
+		Random random = new Random(42);
+		left = new ValueEnvironment<>(new Interval());
+		right = new ValueEnvironment<>(new Interval());
+		for (int i = 0; i < variables; i++) {
+			Variable v = new Variable(Untyped.INSTANCE, "v" + i, SyntheticLocation.INSTANCE);
+			int low = random.nextInt(100);
+			Interval l = new Interval(low, low + random.nextInt(100));
+			left = left.putState(v, l);
+			if (random.nextInt(100) < shared)
+				right = right.putState(v, l);
+			else {
+				low = random.nextInt(100);
+				right = right.putState(v, new Interval(low, low + random.nextInt(100)));
+			}
+		}
+		// keys that are only in one of the environments
+		right = right.putState(new Variable(Untyped.INSTANCE, "extra", SyntheticLocation.INSTANCE), new Interval(0, 0));
+	}
+
+	/**
+	 * Computes the least upper bound of the environments.
+	 * 
+	 * @return the lub
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public ValueEnvironment<Interval> lub() throws SemanticException {
+		return left.lub(right);
+	}
+
+	/**
+	 * Computes the greatest lower bound of the environments.
+	 * 
+	 * @return the glb
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public ValueEnvironment<Interval> glb() throws SemanticException {
+		return left.glb(right);
+	}
+
+	/**
+	 * Computes the widening of the environments.
+	 * 
+	 * @return the widening
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public ValueEnvironment<Interval> widening() throws SemanticException {
+		return left.widening(right);
+	}
+
+	/**
+	 * Compares the environments.
+	 * 
+	 * @return the result of the comparison
+	 * 
+	 * @throws SemanticException if the operation fails
+	 */
+	@Benchmark
+	public boolean lessOrEqual() throws SemanticException {
+		return left.lessOrEqual(right);
+	}
+}
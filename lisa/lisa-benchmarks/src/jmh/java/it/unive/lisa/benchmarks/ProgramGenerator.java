@@ -0,0 +1,223 @@
+package it.unive.lisa.benchmarks;
+
+/**
+ * Generator of synthetic IMP programs with a given shape, used as input for
+ * benchmarks. All programs contain numeric, string, and heap-manipulating
+ * statements, so that they exercise all the domains used by the benchmarks.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class ProgramGenerator {
+
+	/**
+	 * The shapes of programs that can be generated.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Shape {
+
+		/**
+		 * A single method containing {@code size} nested loops.
+		 */
+		LOOPS {
+			@Override
+			public String generate(
+					int size) {
+				return deepLoops(size);
+			}
+		},
+
+		/**
+		 * A main method invoking methods of {@code size * 8} classes, all
+		 * defining a method with the same signature.
+		 */
+		CALLS {
+			@Override
+			public String generate(
+					int size) {
+				return wideCallGraph(size * 8);
+			}
+		},
+
+		/**
+		 * A single method containing {@code size * 100} statements without
+		 * branching.
+		 */
+		STRAIGHT {
+			@Override
+			public String generate(
+					int size) {
+				return straightLine(size * 100);
+			}
+		},
+
+		/**
+		 * A cycle of {@code size} mutually recursive methods.
+		 */
+		RECURSION {
+			@Override
+			public String generate(
+					int size) {
+				return recursion(size);
+			}
+		};
+
+		/**
+		 * Generates the code of a program with this shape.
+		 * 
+		 * @param size the size of the program, whose meaning depends on the
+		 *                 shape
+		 * 
+		 * @return the code of the program
+		 */
+		public abstract String generate(
+				int size);
+	}
+
+	private static final String NODE = "class Node {\n\tf;\n\tg;\n}\n\n";
+
+	private ProgramGenerator() {
+		// this class is just a static holder
+	}
+
+	/**
+	 * Generates a program with a method containing {@code depth} nested
+	 * loops, each one iterating ten times.
+	 * 
+	 * @param depth the number of nested loops
+	 * 
+	 * @return the code of the program
+	 */
+	public static String deepLoops(
+			int depth) {
+		StringBuilder code = new StringBuilder(NODE);
+		code.append("class bench {\n\n\tmain() {\n");
+		code.append("\t\tdef s = \"a\";\n");
+		code.append("\t\tdef o = new Node();\n");
+		code.append("\t\tdef acc = 0;\n");
+		for (int i = 0; i < depth; i++)
+			code.append("\t\tdef i").append(i).append(" = 0;\n");
+
+		String indent = "\t\t";
+		for (int i = 0; i < depth; i++) {
+			if (i > 0)
+				code.append(indent).append("i").append(i).append(" = 0;\n");
+			code.append(indent).append("while (i").append(i).append(" < 10) {\n");
+			indent += "\t";
+		}
+
+		code.append(indent).append("acc = acc + i").append(depth - 1).append(";\n");
+		code.append(indent).append("o.f = acc;\n");
+		code.append(indent).append("s = s + \"a\";\n");
+
+		for (int i = depth - 1; i >= 0; i--) {
+			code.append(indent).append("i").append(i).append(" = i").append(i).append(" + 1;\n");
+			indent = indent.substring(1);
+			code.append(indent).append("}\n");
+		}
+
+		code.append("\t\treturn acc;\n\t}\n}\n");
+		return code.toString();
+	}
+
+	/**
+	 * Generates a program where a main method creates instances of
+	 * {@code width} different classes and invokes a method on each of them.
+	 * Since all classes define the same method, each call has several
+	 * candidate targets.
+	 * 
+	 * @param width the number of classes
+	 * 
+	 * @return the code of the program
+	 */
+	public static String wideCallGraph(
+			int width) {
+		StringBuilder code = new StringBuilder(NODE);
+		for (int i = 0; i < width; i++) {
+			code.append("class C").append(i).append(" {\n\n");
+			code.append("\tm(x, o) {\n");
+			code.append("\t\to.f = x;\n");
+			code.append("\t\treturn x + ").append(i).append(";\n");
+			code.append("\t}\n}\n\n");
+		}
+
+		code.append("class bench {\n\n\tmain() {\n");
+		code.append("\t\tdef o = new Node();\n");
+		code.append("\t\tdef acc = 0;\n");
+		code.append("\t\tdef s = \"a\";\n");
+		for (int i = 0; i < width; i++) {
+			code.append("\t\tdef c").append(i).append(" = new C").append(i).append("();\n");
+			code.append("\t\tacc = acc + c").append(i).append(".m(acc, o);\n");
+			code.append("\t\ts = s + \"c\";\n");
+		}
+		code.append("\t\treturn acc;\n\t}\n}\n");
+		return code.toString();
+	}
+
+	/**
+	 * Generates a program with a method containing {@code length} statements,
+	 * none of which causes branching.
+	 * 
+	 * @param length the number of statements
+	 * 
+	 * @return the code of the program
+	 */
+	public static String straightLine(
+			int length) {
+		StringBuilder code = new StringBuilder(NODE);
+		code.append("class bench {\n\n\tmain(x) {\n");
+		code.append("\t\tdef s = \"a\";\n");
+		code.append("\t\tdef o = new Node();\n");
+		code.append("\t\tdef v0 = x;\n");
+		for (int i = 1; i < length; i++) {
+			switch (i % 5) {
+			case 0:
+				code.append("\t\ts = s + \"b\";\n");
+				break;
+			case 1:
+				code.append("\t\to.f = v").append(i - 1).append(";\n");
+				break;
+			case 2:
+				code.append("\t\to = new Node();\n");
+				break;
+			default:
+				break;
+			}
+			code.append("\t\tdef v").append(i).append(" = v").append(i - 1);
+			code.append(i % 2 == 0 ? " + " : " - ").append(i).append(";\n");
+		}
+		code.append("\t\treturn v").append(length - 1).append(";\n\t}\n}\n");
+		return code.toString();
+	}
+
+	/**
+	 * Generates a program with a cycle of {@code depth} mutually recursive
+	 * methods, each one invoking the next one in the cycle.
+	 * 
+	 * @param depth the number of methods in the cycle
+	 * 
+	 * @return the code of the program
+	 */
+	public static String recursion(
+			int depth) {
+		StringBuilder code = new StringBuilder(NODE);
+		code.append("class bench {\n\n");
+		for (int i = 0; i < depth; i++) {
+			code.append("\tr").append(i).append("(n, s, o) {\n");
+			code.append("\t\tif (n <= 0)\n");
+			code.append("\t\t\treturn 0;\n");
+			code.append("\t\telse {\n");
+			code.append("\t\t\to.g = n;\n");
+			code.append("\t\t\tdef t = s + \"r\";\n");
+			code.append("\t\t\treturn this.r").append((i + 1) % depth).append("(n - 1, t, o) + ").append(i)
+					.append(";\n");
+			code.append("\t\t}\n\t}\n\n");
+		}
+
+		code.append("\tmain() {\n");
+		code.append("\t\tdef o = new Node();\n");
+		code.append("\t\treturn this.r0(10, \"a\", o);\n");
+		code.append("\t}\n}\n");
+		return code.toString();
+	}
+}
@@ -0,0 +1,99 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.analysis.OptimizedAnalyzedCFG;
+import it.unive.lisa.benchmarks.ProgramGenerator.Shape;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
+import it.unive.lisa.program.Application;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of {@link OptimizedAnalyzedCFG#unwind(FixpointConfiguration)} in
+ * isolation: the optimized fixpoint producing the results to unwind is
+ * executed once per trial.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UnwindingBenchmark {
+
+	/**
+	 * The shape of the analyzed program.
+	 */
+	@Param({ "LOOPS", "STRAIGHT" })
+	public Shape shape;
+
+	/**
+	 * The size of the analyzed program.
+	 */
+	@Param({ "2", "4" })
+	public int size;
+
+	/**
+	 * The name of the analysis configuration, as accepted by
+	 * {@link BenchmarkSetup#state(String)}.
+	 */
+	@Param({ BenchmarkSetup.INTERVAL, BenchmarkSetup.PENTAGON, BenchmarkSetup.TARSIS, BenchmarkSetup.POINT_BASED })
+	public String analysis;
+
+	private FixpointConfiguration fixconf;
+
+	private final List<OptimizedAnalyzedCFG<?>> results = new ArrayList<>();
+
+	/**
+	 * Runs the optimized analysis of the generated program.
+	 * 
+	 * @throws FixpointException if the fixpoint fails
+	 */
+	@Setup(Level.Trial)
+	public void analyze() throws FixpointException {
+		LiSAConfiguration conf = BenchmarkSetup.configuration(analysis);
+		conf.optimize = true;
+		fixconf = new FixpointConfiguration(conf);
+		Application app = BenchmarkSetup.finalized(shape.generate(size));
+		collect(app, conf);
+	}
+
+	@SuppressWarnings("unchecked")
+	private <A extends AbstractState<A>> void collect(
+			Application app,
+			LiSAConfiguration conf)
+			throws FixpointException {
+		ModularWorstCaseAnalysis<A> interproc = BenchmarkSetup.interprocedural(app, conf, true);
+		BenchmarkSetup.fixpoint(interproc, conf);
+		results.clear();
+		for (CFG cfg : app.getAllCFGs())
+			for (AnalyzedCFG<A> result : interproc.getAnalysisResultsOf(cfg))
+				results.add((OptimizedAnalyzedCFG<A>) result);
+	}
+
+	/**
+	 * Unwinds the results of all cfgs.
+	 * 
+	 * @return the unwound results
+	 */
+	@Benchmark
+	public List<OptimizedAnalyzedCFG<?>> unwind() {
+		for (OptimizedAnalyzedCFG<?> result : results)
+			result.unwind(fixconf);
+		return results;
+	}
+}
@@ -0,0 +1,128 @@
+package it.unive.lisa.benchmarks;
+
+import it.unive.lisa.analysis.AbstractState;
+import it.unive.lisa.benchmarks.ProgramGenerator.Shape;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.interprocedural.ModularWorstCaseAnalysis;
+import it.unive.lisa.util.collections.workset.DuplicateFreeFIFOWorkingSet;
+import it.unive.lisa.util.collections.workset.WTOWorkingSet;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks comparing the working sets that can be used by cfg fixpoints
+ * (see {@link LiSAConfiguration#fixpointWorkingSet}) on the same programs.
+ * Only the whole-program fixpoint is measured, as in
+ * {@link FixpointBenchmark}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WorkingSetBenchmark {
+
+	/**
+	 * The working sets being compared.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public enum Order {
+
+		/**
+		 * The default {@link DuplicateFreeFIFOWorkingSet}.
+		 */
+		FIFO(DuplicateFreeFIFOWorkingSet.class),
+
+		/**
+		 * The {@link WTOWorkingSet}, that also adds the heads of the weak
+		 * topological ordering as widening points.
+		 */
+		WTO(WTOWorkingSet.class);
+
+		private final Class<?> workingSet;
+
+		private Order(
+				Class<?> workingSet) {
+			this.workingSet = workingSet;
+		}
+	}
+
+	/**
+	 * The shape of the analyzed program.
+	 */
+	@Param({ "LOOPS", "RECURSION", "STRAIGHT" })
+	public Shape shape;
+
+	/**
+	 * The size of the analyzed program.
+	 */
+	@Param({ "2", "4", "6" })
+	public int size;
+
+	/**
+	 * The name of the analysis configuration, as accepted by
+	 * {@link BenchmarkSetup#state(String)}.
+	 */
+	@Param({ BenchmarkSetup.INTERVAL, BenchmarkSetup.PENTAGON })
+	public String analysis;
+
+	/**
+	 * The working set used by the fixpoint.
+	 */
+	@Param({ "FIFO", "WTO" })
+	public Order order;
+
+	private String code;
+
+	private LiSAConfiguration conf;
+
+	private ModularWorstCaseAnalysis<?> interproc;
+
+	/**
+	 * Generates the program to analyze.
+	 */
+	@Setup(Level.Trial)
+	public void generate() {
+		code = shape.generate(size);
+		conf = BenchmarkSetup.configuration(analysis);
+		conf.fixpointWorkingSet = order.workingSet;
+	}
+
+	/**
+	 * Prepares a fresh analysis, since analyses retain their results.
+	 */
+	@Setup(Level.Invocation)
+	public void prepare() {
+		interproc = BenchmarkSetup.interprocedural(BenchmarkSetup.finalized(code), conf, false);
+	}
+
+	/**
+	 * Runs the fixpoint.
+	 * 
+	 * @return the analysis holding the results
+	 * 
+	 * @throws FixpointException if the fixpoint fails
+	 */
+	@Benchmark
+	public ModularWorstCaseAnalysis<?> fixpoint() throws FixpointException {
+		run(interproc);
+		return interproc;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <A extends AbstractState<A>> void run(
+			ModularWorstCaseAnalysis<?> interproc)
+			throws FixpointException {
+		BenchmarkSetup.fixpoint((ModularWorstCaseAnalysis<A>) interproc, conf);
+	}
+}
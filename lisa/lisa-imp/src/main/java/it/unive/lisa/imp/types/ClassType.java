@@ -1,7 +1,9 @@
 package it.unive.lisa.imp.types;
 
 import it.unive.lisa.program.CompilationUnit;
+import it.unive.lisa.program.InterfaceUnit;
 import it.unive.lisa.program.Unit;
+import it.unive.lisa.program.UnitHierarchy;
 import it.unive.lisa.type.InMemoryType;
 import it.unive.lisa.type.PointerType;
 import it.unive.lisa.type.Type;
@@ -63,6 +65,22 @@ public final class ClassType implements InMemoryType, UnitType {
 		return types.computeIfAbsent(name, x -> new ClassType(name, unit));
 	}
 
+	/**
+	 * Yields the existing {@link ClassType} or {@link InterfaceType}
+	 * representing the given unit.
+	 * 
+	 * @param unit the unit
+	 * 
+	 * @return the type of the unit
+	 */
+	static UnitType typeOf(
+			Unit unit) {
+		// null since we do not want to create new types here
+		if (unit instanceof InterfaceUnit)
+			return InterfaceType.lookup(unit.getName(), null);
+		return lookup(unit.getName(), null);
+	}
+
 	private final String name;
 
 	private final CompilationUnit unit;
@@ -123,6 +141,12 @@ public final class ClassType implements InMemoryType, UnitType {
 
 	private Type scanForSupertypeOf(
 			UnitType other) {
+		UnitHierarchy hierarchy = unit.getHierarchy();
+		if (hierarchy != null && hierarchy.covers(unit) && hierarchy.covers(other.getUnit())) {
+			CompilationUnit sup = hierarchy.getCommonAncestor(unit, other.getUnit());
+			return sup == null ? Untyped.INSTANCE : typeOf(sup);
+		}
+
 		WorkingSet<ClassType> ws = FIFOWorkingSet.mk();
 		Set<ClassType> seen = new HashSet<>();
 		ws.push(this);
@@ -182,6 +206,10 @@ public final class ClassType implements InMemoryType, UnitType {
 	@Override
 	public Set<Type> allInstances(
 			TypeSystem types) {
+		UnitHierarchy hierarchy = unit.getHierarchy();
+		if (hierarchy != null && hierarchy.covers(unit))
+			return hierarchy.getInstances(unit, ClassType::typeOf);
+
 		Set<Type> instances = new HashSet<>();
 		for (Unit in : unit.getInstances())
 			instances.add(lookup(in.getName(), null));
@@ -1,7 +1,9 @@
 package it.unive.lisa.imp.types;
 
+import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.InterfaceUnit;
 import it.unive.lisa.program.Unit;
+import it.unive.lisa.program.UnitHierarchy;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.TypeSystem;
 import it.unive.lisa.type.UnitType;
@@ -110,6 +112,12 @@ public final class InterfaceType implements UnitType {
 
 	private Type scanForSupertypeOf(
 			UnitType other) {
+		UnitHierarchy hierarchy = unit.getHierarchy();
+		if (hierarchy != null && hierarchy.covers(unit) && hierarchy.covers(other.getUnit())) {
+			CompilationUnit sup = hierarchy.getCommonAncestor(unit, other.getUnit());
+			return sup == null ? Untyped.INSTANCE : ClassType.typeOf(sup);
+		}
+
 		WorkingSet<InterfaceType> ws = FIFOWorkingSet.mk();
 		Set<InterfaceType> seen = new HashSet<>();
 		ws.push(this);
@@ -169,6 +177,10 @@ public final class InterfaceType implements UnitType {
 	@Override
 	public Set<Type> allInstances(
 			TypeSystem types) {
+		UnitHierarchy hierarchy = unit.getHierarchy();
+		if (hierarchy != null && hierarchy.covers(unit))
+			return hierarchy.getInstances(unit, ClassType::typeOf);
+
 		Set<Type> instances = new HashSet<>();
 		for (Unit un : unit.getInstances())
 			if (un instanceof InterfaceUnit)
@@ -10,6 +10,7 @@ import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.value.BinaryExpression;
 import it.unive.lisa.symbolic.value.operator.binary.ComparisonLt;
 import it.unive.lisa.type.BooleanType;
@@ -61,7 +62,7 @@ public class LessThan extends it.unive.lisa.program.cfg.statement.BinaryExpressi
 			return state.bottom();
 
 		return state.smallStepSemantics(
-				new BinaryExpression(
+				SymbolicExpressionFactory.INSTANCE.mkBinary(
 						getStaticType(),
 						left,
 						right,
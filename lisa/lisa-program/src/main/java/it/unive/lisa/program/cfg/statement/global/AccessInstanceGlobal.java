@@ -16,6 +16,7 @@ import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.UnaryExpression;
 import it.unive.lisa.program.language.hierarchytraversal.HierarcyTraversalStrategy;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.heap.AccessChild;
 import it.unive.lisa.symbolic.heap.HeapDereference;
 import it.unive.lisa.symbolic.value.Variable;
@@ -132,7 +133,7 @@ public class AccessInstanceGlobal extends UnaryExpression {
 				if (!inner.isUnitType())
 					continue;
 
-				HeapDereference container = new HeapDereference(inner, expr, loc);
+				HeapDereference container = SymbolicExpressionFactory.INSTANCE.mkHeapDereference(inner, expr, loc);
 				CompilationUnit unit = inner.asUnitType().getUnit();
 
 				Set<CompilationUnit> seen = new HashSet<>();
@@ -142,7 +143,8 @@ public class AccessInstanceGlobal extends UnaryExpression {
 						Global global = cu.getInstanceGlobal(target, false);
 						if (global != null) {
 							Variable var = global.toSymbolicVariable(loc);
-							AccessChild access = new AccessChild(var.getStaticType(), container, var, loc);
+							AccessChild access = SymbolicExpressionFactory.INSTANCE.mkAccessChild(var.getStaticType(),
+									container, var, loc);
 							result = result.lub(state.smallStepSemantics(access, this));
 							atLeastOne = true;
 						}
@@ -163,8 +165,9 @@ public class AccessInstanceGlobal extends UnaryExpression {
 
 		Type rectype = Type.commonSupertype(rectypes, Untyped.INSTANCE);
 		Variable var = new Variable(Untyped.INSTANCE, target, new Annotations(), getLocation());
-		HeapDereference container = new HeapDereference(rectype, expr, getLocation());
-		AccessChild access = new AccessChild(Untyped.INSTANCE, container, var, getLocation());
+		HeapDereference container = SymbolicExpressionFactory.INSTANCE.mkHeapDereference(rectype, expr, getLocation());
+		AccessChild access = SymbolicExpressionFactory.INSTANCE.mkAccessChild(Untyped.INSTANCE, container, var,
+				getLocation());
 		return state.smallStepSemantics(access, this);
 	}
 }
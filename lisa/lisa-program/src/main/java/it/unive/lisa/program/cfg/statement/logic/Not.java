@@ -10,6 +10,7 @@ import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.value.UnaryExpression;
 import it.unive.lisa.symbolic.value.operator.unary.LogicalNegation;
 import it.unive.lisa.type.BooleanType;
@@ -55,7 +56,7 @@ public class Not extends it.unive.lisa.program.cfg.statement.UnaryExpression {
 			return state.bottom();
 
 		return state.smallStepSemantics(
-				new UnaryExpression(
+				SymbolicExpressionFactory.INSTANCE.mkUnary(
 						getStaticType(),
 						expr,
 						LogicalNegation.INSTANCE,
@@ -13,6 +13,7 @@ import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.PluggableStatement;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.value.UnaryExpression;
 import it.unive.lisa.symbolic.value.operator.unary.StringLength;
 import it.unive.lisa.type.NumericType;
@@ -76,7 +77,7 @@ public class Length extends it.unive.lisa.program.cfg.statement.UnaryExpression
 			return state.bottom();
 
 		return state.smallStepSemantics(
-				new UnaryExpression(
+				SymbolicExpressionFactory.INSTANCE.mkUnary(
 						getStaticType(),
 						expr,
 						StringLength.INSTANCE,
@@ -13,6 +13,7 @@ import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.PluggableStatement;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.value.TernaryExpression;
 import it.unive.lisa.symbolic.value.operator.ternary.StringReplace;
 import it.unive.lisa.type.StringType;
@@ -86,7 +87,7 @@ public class Replace extends it.unive.lisa.program.cfg.statement.TernaryExpressi
 			return state.bottom();
 
 		return state.smallStepSemantics(
-				new TernaryExpression(
+				SymbolicExpressionFactory.INSTANCE.mkTernary(
 						getStaticType(),
 						left,
 						middle,
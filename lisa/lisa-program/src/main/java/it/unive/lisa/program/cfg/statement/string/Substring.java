@@ -13,6 +13,7 @@ import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.PluggableStatement;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.value.TernaryExpression;
 import it.unive.lisa.symbolic.value.operator.ternary.StringSubstring;
 import it.unive.lisa.type.NumericType;
@@ -88,7 +89,7 @@ public class Substring extends it.unive.lisa.program.cfg.statement.TernaryExpres
 			return state.bottom();
 
 		return state.smallStepSemantics(
-				new TernaryExpression(
+				SymbolicExpressionFactory.INSTANCE.mkTernary(
 						getStaticType(),
 						left,
 						middle,
@@ -4,6 +4,7 @@ import it.unive.lisa.analysis.AbstractState;
 import it.unive.lisa.analysis.AnalysisState;
 import it.unive.lisa.analysis.AnalyzedCFG;
 import it.unive.lisa.analysis.OptimizedAnalyzedCFG;
+import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.checks.ChecksExecutor;
 import it.unive.lisa.checks.semantic.CheckToolWithAnalysisResults;
 import it.unive.lisa.checks.semantic.SemanticCheck;
@@ -12,12 +13,16 @@ import it.unive.lisa.checks.warnings.Warning;
 import it.unive.lisa.conf.FixpointConfiguration;
 import it.unive.lisa.conf.LiSAConfiguration;
 import it.unive.lisa.conf.LiSAConfiguration.GraphType;
+import it.unive.lisa.conf.LiSAConfiguration.SerializationFormat;
 import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.interprocedural.InterproceduralAnalysisException;
 import it.unive.lisa.interprocedural.callgraph.CallGraph;
 import it.unive.lisa.interprocedural.callgraph.CallGraphConstructionException;
 import it.unive.lisa.logging.IterationLogger;
 import it.unive.lisa.logging.TimerLogger;
+import it.unive.lisa.outputs.serializableGraph.BinaryGraph;
+import it.unive.lisa.outputs.serializableGraph.BinaryGraph.Compression;
+import it.unive.lisa.outputs.serializableGraph.SerializableCFG;
 import it.unive.lisa.outputs.serializableGraph.SerializableGraph;
 import it.unive.lisa.outputs.serializableGraph.SerializableValue;
 import it.unive.lisa.program.Application;
@@ -25,19 +30,28 @@ import it.unive.lisa.program.Program;
 import it.unive.lisa.program.ProgramValidationException;
 import it.unive.lisa.program.SyntheticLocation;
 import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.fixpoints.FixpointMetrics;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.value.Skip;
 import it.unive.lisa.type.ReferenceType;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.TypeSystem;
 import it.unive.lisa.util.collections.workset.WorkingSet;
+import it.unive.lisa.util.datastructures.automaton.Automaton;
 import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
 import it.unive.lisa.util.file.FileManager;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -116,6 +130,9 @@ public class LiSARunner<A extends AbstractState<A>> {
 
 			analyze(fixconf);
 
+			if (conf.fixpointObserver instanceof FixpointMetrics)
+				dumpMetrics((FixpointMetrics) conf.fixpointObserver);
+
 			if (conf.serializeResults || conf.analysisGraphs != GraphType.NONE)
 				dumpResults(allCFGs, fixconf);
 
@@ -156,25 +173,117 @@ public class LiSARunner<A extends AbstractState<A>> {
 
 	private void dumpInputs(
 			Collection<CFG> allCFGs) {
-		for (CFG cfg : IterationLogger.iterate(LOG, allCFGs, "Dumping input cfgs", "cfgs")) {
-			SerializableGraph graph = cfg.toSerializableGraph();
+		dumpAll(allCFGs, "Dumping input cfgs", cfg -> {
 			String filename = cfg.getDescriptor().getFullSignatureWithParNames() + "_cfg";
 
 			try {
-				fileManager.mkJsonFile(filename, writer -> graph.dump(writer));
-
-				dumpSingleGraph(filename, graph);
+				dumpGraph(cfg, filename, true, null);
 			} catch (IOException e) {
 				LOG.error("Exception while dumping the analysis results on {}",
 						cfg.getDescriptor().getFullSignature());
 				LOG.error(e);
 			}
+		});
+	}
+
+	/**
+	 * Applies {@code dumper} to each of the given cfgs, using
+	 * {@link LiSAConfiguration#dumpThreads} threads. The contents of each file
+	 * are produced by a single thread, and are thus independent from the
+	 * number of threads.
+	 */
+	private void dumpAll(
+			Collection<CFG> cfgs,
+			String message,
+			Consumer<CFG> dumper) {
+		if (conf.dumpThreads <= 1 || cfgs.size() <= 1) {
+			for (CFG cfg : IterationLogger.iterate(LOG, cfgs, message, "cfgs"))
+				dumper.accept(cfg);
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(conf.dumpThreads, cfgs.size()));
+		try {
+			List<Future<?>> tasks = new ArrayList<>(cfgs.size());
+			for (CFG cfg : cfgs)
+				tasks.add(executor.submit(() -> dumper.accept(cfg)));
+			for (Future<?> task : IterationLogger.iterate(LOG, tasks, message, "cfgs"))
+				task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AnalysisExecutionException("Interrupted while dumping files", e);
+		} catch (ExecutionException e) {
+			throw new AnalysisExecutionException("Exception while dumping files", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Dumps the given cfg to the file with the given name, in the format
+	 * selected by {@link LiSAConfiguration#serializationFormat} (if
+	 * {@code serialize} is {@code true}) and in the one selected by
+	 * {@link LiSAConfiguration#analysisGraphs}. Json, dot and graphml files
+	 * are written while traversing the cfg, without building a
+	 * {@link SerializableGraph}: this is built only for binary graphs and html
+	 * pages, that need it as a whole.
+	 */
+	private void dumpGraph(
+			CFG cfg,
+			String filename,
+			boolean serialize,
+			BiFunction<CFG, Statement, SerializableValue> labeler)
+			throws IOException {
+		boolean json = serialize && conf.serializationFormat == SerializationFormat.JSON;
+		boolean binary = serialize && !json;
+		boolean html = conf.analysisGraphs == GraphType.HTML || conf.analysisGraphs == GraphType.HTML_WITH_SUBNODES;
+		SerializableGraph graph = binary || html ? cfg.toSerializableGraph(labeler) : null;
+
+		if (json) {
+			if (graph != null)
+				fileManager.mkJsonFile(filename, writer -> graph.dump(writer));
+			else
+				fileManager.mkJsonFile(filename, writer -> SerializableCFG.dump(cfg, labeler, writer));
+		} else if (binary) {
+			Compression compression = conf.serializationFormat == SerializationFormat.COMPRESSED_BINARY
+					? Compression.DEFLATE
+					: Compression.NONE;
+			fileManager.mkBinaryGraphFile(filename, stream -> BinaryGraph.write(graph, stream, compression));
+		}
+
+		switch (conf.analysisGraphs) {
+		case DOT:
+			fileManager.mkDotFile(filename, writer -> SerializableCFG.dumpDot(cfg, labeler, writer));
+			break;
+		case GRAPHML:
+			fileManager.mkGraphmlFile(filename, writer -> SerializableCFG.dumpGraphml(cfg, labeler, false, writer));
+			break;
+		case GRAPHML_WITH_SUBNODES:
+			fileManager.mkGraphmlFile(filename, writer -> SerializableCFG.dumpGraphml(cfg, labeler, true, writer));
+			break;
+		case HTML:
+			fileManager.mkHtmlFile(filename, writer -> graph.toHtml(false, "results").dump(writer));
+			fileManager.usedPlainCytoscape();
+			break;
+		case HTML_WITH_SUBNODES:
+			fileManager.mkHtmlFile(filename, writer -> graph.toHtml(true, "results").dump(writer));
+			fileManager.usedCompoundCytoscape();
+			break;
+		case NONE:
+			break;
+		default:
+			throw new AnalysisExecutionException("Unknown graph type: " + conf.analysisGraphs);
 		}
 	}
 
 	private void init(
 			Application app) {
+		// cached automata from previous runs would only retain memory
+		Automaton.CACHE.clear();
+		Automaton.CACHE.setCapacity(conf.automataCacheSize);
+
 		try {
+			callGraph.setObserver(conf.fixpointObserver);
 			callGraph.init(app);
 		} catch (CallGraphConstructionException e) {
 			LOG.fatal("Exception while building the call graph for the input program", e);
@@ -235,10 +344,16 @@ public class LiSARunner<A extends AbstractState<A>> {
 		BiFunction<CFG, Statement, SerializableValue> labeler = conf.optimize && conf.dumpForcesUnwinding
 				? (
 						cfg,
-						st) -> ((OptimizedAnalyzedCFG<A>) cfg)
+						st) -> {
+					try {
+						return ((OptimizedAnalyzedCFG<A>) cfg)
 								.getUnwindedAnalysisStateAfter(st, fixconf)
 								.representation()
-								.toSerializableValue()
+								.toSerializableValue();
+					} catch (SemanticException e) {
+						throw new AnalysisExecutionException("Unable to unwind the results of " + cfg, e);
+					}
+				}
 				: (
 						cfg,
 						st) -> ((AnalyzedCFG<A>) cfg)
@@ -246,52 +361,21 @@ public class LiSARunner<A extends AbstractState<A>> {
 								.representation()
 								.toSerializableValue();
 
-		for (CFG cfg : IterationLogger.iterate(LOG, allCFGs, "Dumping analysis results", "cfgs"))
+		dumpAll(allCFGs, "Dumping analysis results", cfg -> {
 			for (AnalyzedCFG<A> result : interproc.getAnalysisResultsOf(cfg)) {
-				SerializableGraph graph = result.toSerializableGraph(labeler);
 				String filename = cfg.getDescriptor().getFullSignatureWithParNames();
 				if (!result.getId().isStartingId())
 					filename += "_" + result.getId().hashCode();
 
 				try {
-					if (conf.serializeResults)
-						fileManager.mkJsonFile(filename, writer -> graph.dump(writer));
-					dumpSingleGraph(filename, graph);
+					dumpGraph(result, filename, conf.serializeResults, labeler);
 				} catch (IOException e) {
 					LOG.error("Exception while dumping the analysis results on {}",
 							cfg.getDescriptor().getFullSignature());
 					LOG.error(e);
 				}
 			}
-	}
-
-	private void dumpSingleGraph(
-			String filename,
-			SerializableGraph graph)
-			throws IOException {
-		switch (conf.analysisGraphs) {
-		case DOT:
-			fileManager.mkDotFile(filename, writer -> graph.toDot().dump(writer));
-			break;
-		case GRAPHML:
-			fileManager.mkGraphmlFile(filename, writer -> graph.toGraphml(false).dump(writer));
-			break;
-		case GRAPHML_WITH_SUBNODES:
-			fileManager.mkGraphmlFile(filename, writer -> graph.toGraphml(true).dump(writer));
-			break;
-		case HTML:
-			fileManager.mkHtmlFile(filename, writer -> graph.toHtml(false, "results").dump(writer));
-			fileManager.usedPlainCytoscape();
-			break;
-		case HTML_WITH_SUBNODES:
-			fileManager.mkHtmlFile(filename, writer -> graph.toHtml(true, "results").dump(writer));
-			fileManager.usedCompoundCytoscape();
-			break;
-		case NONE:
-			break;
-		default:
-			throw new AnalysisExecutionException("Unknown graph type: " + conf.analysisGraphs);
-		}
+		});
 	}
 
 	private CheckTool runSemanticChecks(
@@ -310,6 +394,17 @@ public class LiSARunner<A extends AbstractState<A>> {
 		return tool2;
 	}
 
+	private void dumpMetrics(
+			FixpointMetrics metrics) {
+		try {
+			fileManager.mkOutputFile(FixpointMetrics.METRICS_FILE, metrics::dump);
+			fileManager.mkOutputFile(FixpointMetrics.FOLDED_STACKS_FILE, metrics::dumpFoldedStacks);
+		} catch (IOException e) {
+			LOG.error("Exception while dumping fixpoint metrics");
+			LOG.error(e);
+		}
+	}
+
 	private void dumpSupportFiles() {
 		try {
 			// we dumped at least one file: need to copy the
@@ -8,7 +8,9 @@ import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.util.representation.ObjectRepresentation;
 import it.unive.lisa.util.representation.StructuredObject;
 import it.unive.lisa.util.representation.StructuredRepresentation;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -398,6 +400,46 @@ public class AnalysisState<A extends AbstractState<A>>
 				info == null ? null : info.glb(other.info));
 	}
 
+	@Override
+	public AnalysisState<A> lubAllAux(
+			List<AnalysisState<A>> others)
+			throws SemanticException {
+		List<A> states = new ArrayList<>(others.size());
+		List<ExpressionSet> exprs = new ArrayList<>(others.size());
+		List<FixpointInfo> infos = new ArrayList<>(others.size());
+		FixpointInfo info = this.info;
+		for (AnalysisState<A> other : others) {
+			states.add(other.state);
+			exprs.add(other.computedExpressions);
+			if (info == null)
+				info = other.info;
+			else if (other.info != null)
+				infos.add(other.info);
+		}
+		return new AnalysisState<>(
+				state.lubAll(states),
+				computedExpressions.lubAll(exprs),
+				info == null || infos.isEmpty() ? info : info.lubAll(infos));
+	}
+
+	@Override
+	public AnalysisState<A> glbAllAux(
+			List<AnalysisState<A>> others)
+			throws SemanticException {
+		List<A> states = new ArrayList<>(others.size());
+		List<ExpressionSet> exprs = new ArrayList<>(others.size());
+		List<FixpointInfo> infos = new ArrayList<>(others.size());
+		for (AnalysisState<A> other : others) {
+			states.add(other.state);
+			exprs.add(other.computedExpressions);
+			infos.add(other.info);
+		}
+		return new AnalysisState<>(
+				state.glbAll(states),
+				computedExpressions.glbAll(exprs),
+				info == null ? null : info.glbAll(infos));
+	}
+
 	@Override
 	public AnalysisState<A> wideningAux(
 			AnalysisState<A> other)
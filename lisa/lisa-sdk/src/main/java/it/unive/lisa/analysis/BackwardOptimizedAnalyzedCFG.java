@@ -208,7 +208,7 @@ public class BackwardOptimizedAnalyzedCFG<A extends AbstractState<A>> extends Ba
 			}
 		}
 
-		BackwardAscendingFixpoint<A> asc = new BackwardAscendingFixpoint<>(this, new PrecomputedAnalysis(), conf);
+		BackwardAscendingFixpoint<A> asc = new BackwardAscendingFixpoint<>(this, new PrecomputedAnalysis(conf), conf);
 		BackwardFixpoint<CFG, Statement, Edge, CompoundState<A>> fix = new BackwardFixpoint<>(this, true);
 		TimerLogger.execAction(LOG, "Unwinding optimizied results of " + this, () -> {
 			try {
@@ -257,6 +257,13 @@ public class BackwardOptimizedAnalyzedCFG<A extends AbstractState<A>> extends Ba
 
 	private class PrecomputedAnalysis implements InterproceduralAnalysis<A> {
 
+		private final FixpointConfiguration conf;
+
+		private PrecomputedAnalysis(
+				FixpointConfiguration conf) {
+			this.conf = conf;
+		}
+
 		@Override
 		public void init(
 				Application app,
@@ -288,6 +295,11 @@ public class BackwardOptimizedAnalyzedCFG<A extends AbstractState<A>> extends Ba
 				ExpressionSet[] parameters,
 				StatementStore<A> expressions)
 				throws SemanticException {
+			// results of calls are always available at this stage
+			if (conf.fixpointObserver != null)
+				for (CFG target : call.getTargetedCFGs())
+					conf.fixpointObserver.callResultLookup(target, true);
+
 			Call source = call.getSource() == null ? call : call.getSource();
 			if (results.getKeys().contains(source))
 				return results.getState(source);
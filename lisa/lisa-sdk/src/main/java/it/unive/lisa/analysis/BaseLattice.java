@@ -1,5 +1,9 @@
 package it.unive.lisa.analysis;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * A base implementation of the {@link Lattice} interface, handling base cases
  * of the methods exposed by that interface. All implementers of {@link Lattice}
@@ -56,6 +60,60 @@ public interface BaseLattice<L extends BaseLattice<L>> extends Lattice<L> {
 		return glbAux(other);
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	default L lubAll(
+			Collection<L> others)
+			throws SemanticException {
+		if (this.isTop())
+			return (L) this;
+
+		L first = this.isBottom() ? null : (L) this;
+		List<L> rest = new ArrayList<>(others.size());
+		for (L other : others)
+			if (other == null || other == first || other.isBottom())
+				continue;
+			else if (other.isTop())
+				return other;
+			else if (first == null)
+				first = other;
+			else
+				rest.add(other);
+
+		if (first == null)
+			return (L) this;
+		if (rest.isEmpty())
+			return first;
+		return first.lubAllAux(rest);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	default L glbAll(
+			Collection<L> others)
+			throws SemanticException {
+		if (this.isBottom())
+			return (L) this;
+
+		L first = this.isTop() ? null : (L) this;
+		List<L> rest = new ArrayList<>(others.size());
+		for (L other : others)
+			if (other == null || other == first || other.isTop())
+				continue;
+			else if (other.isBottom())
+				return other;
+			else if (first == null)
+				first = other;
+			else
+				rest.add(other);
+
+		if (first == null)
+			return (L) this;
+		if (rest.isEmpty())
+			return first;
+		return first.glbAllAux(rest);
+	}
+
 	@Override
 	@SuppressWarnings("unchecked")
 	default L widening(
@@ -130,6 +188,57 @@ public interface BaseLattice<L extends BaseLattice<L>> extends Lattice<L> {
 		return bottom();
 	}
 
+	/**
+	 * Performs the least upper bound operation between this lattice element and
+	 * all the given ones, assuming that base cases have already been handled.
+	 * In particular, it is guaranteed that {@code others} is not empty, that
+	 * neither {@code this} nor any of {@code others} is {@code null},
+	 * <i>top</i> or <i>bottom</i>, and that {@code this} is not contained in
+	 * {@code others} (according to {@code ==}). The default implementation of
+	 * this method folds {@link #lub(Lattice)} over {@code others}.
+	 * 
+	 * @param others the other lattice elements
+	 * 
+	 * @return the least upper bound of all the elements
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@SuppressWarnings("unchecked")
+	default L lubAllAux(
+			List<L> others)
+			throws SemanticException {
+		L result = (L) this;
+		for (L other : others)
+			result = result.lub(other);
+		return result;
+	}
+
+	/**
+	 * Performs the greatest lower bound operation between this lattice element
+	 * and all the given ones, assuming that base cases have already been
+	 * handled. In particular, it is guaranteed that {@code others} is not
+	 * empty, that neither {@code this} nor any of {@code others} is
+	 * {@code null}, <i>top</i> or <i>bottom</i>, and that {@code this} is not
+	 * contained in {@code others} (according to {@code ==}). The default
+	 * implementation of this method folds {@link #glb(Lattice)} over
+	 * {@code others}.
+	 * 
+	 * @param others the other lattice elements
+	 * 
+	 * @return the greatest lower bound of all the elements
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@SuppressWarnings("unchecked")
+	default L glbAllAux(
+			List<L> others)
+			throws SemanticException {
+		L result = (L) this;
+		for (L other : others)
+			result = result.glb(other);
+		return result;
+	}
+
 	/**
 	 * Performs the widening operation between this lattice element and the
 	 * given one, assuming that base cases have already been handled. In
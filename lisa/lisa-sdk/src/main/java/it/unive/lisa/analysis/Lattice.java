@@ -3,6 +3,7 @@ package it.unive.lisa.analysis;
 import it.unive.lisa.util.representation.StringRepresentation;
 import it.unive.lisa.util.representation.StructuredObject;
 import it.unive.lisa.util.representation.StructuredRepresentation;
+import java.util.Collection;
 
 /**
  * An interface for elements that follow a lattice structure. Implementers of
@@ -90,6 +91,54 @@ public interface Lattice<L extends Lattice<L>> extends StructuredObject {
 		return bottom();
 	}
 
+	/**
+	 * Performs the least upper bound operation between this lattice element and
+	 * all the given ones, yielding the same result of folding
+	 * {@link #lub(Lattice)} over {@code others} starting from this element.
+	 * The default implementation does exactly that, allocating an intermediate
+	 * element at each step: implementers are encouraged to override this
+	 * method with a version that merges all elements at once.
+	 * 
+	 * @param others the other lattice elements
+	 * 
+	 * @return the least upper bound of all the elements
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@SuppressWarnings("unchecked")
+	default L lubAll(
+			Collection<L> others)
+			throws SemanticException {
+		L result = (L) this;
+		for (L other : others)
+			result = result.lub(other);
+		return result;
+	}
+
+	/**
+	 * Performs the greatest lower bound operation between this lattice element
+	 * and all the given ones, yielding the same result of folding
+	 * {@link #glb(Lattice)} over {@code others} starting from this element.
+	 * The default implementation does exactly that, allocating an intermediate
+	 * element at each step: implementers are encouraged to override this
+	 * method with a version that merges all elements at once.
+	 * 
+	 * @param others the other lattice elements
+	 * 
+	 * @return the greatest lower bound of all the elements
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	@SuppressWarnings("unchecked")
+	default L glbAll(
+			Collection<L> others)
+			throws SemanticException {
+		L result = (L) this;
+		for (L other : others)
+			result = result.glb(other);
+		return result;
+	}
+
 	/**
 	 * Yields the top element of this lattice. The returned element should be
 	 * unique across different calls to this method, since {@link #isTop()} uses
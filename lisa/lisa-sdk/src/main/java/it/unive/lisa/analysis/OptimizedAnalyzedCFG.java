@@ -29,8 +29,17 @@ import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
 import it.unive.lisa.util.datastructures.graph.algorithms.Fixpoint;
 import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -47,7 +56,12 @@ import org.apache.logging.log4j.Logger;
  * Approximations for other statements can be retrieved through
  * {@link #getUnwindedAnalysisStateAfter(Statement, FixpointConfiguration)},
  * that will first expand the results using
- * {@link #unwind(FixpointConfiguration)}.
+ * {@link #unwind(FixpointConfiguration)}. If
+ * {@link LiSAConfiguration#demandDrivenUnwinding} is set, only the portion of
+ * the basic block containing the queried statement that lies between two
+ * stored results (and the ones it depends on) is re-executed instead, keeping
+ * the most recently expanded portions in a cache of bounded size
+ * ({@link LiSAConfiguration#unwindingCacheSize}).
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -62,6 +76,28 @@ public class OptimizedAnalyzedCFG<A extends AbstractState<A>> extends AnalyzedCF
 
 	private StatementStore<A> expanded;
 
+	/**
+	 * The statement preceding each node in its basic block. Leaders of basic
+	 * blocks are not part of this map.
+	 */
+	private Map<Statement, Statement> previous;
+
+	/**
+	 * The first statement of the segment containing each node without a
+	 * stored result, where segments are the maximal sequences of such nodes
+	 * inside a basic block.
+	 */
+	private Map<Statement, Statement> starts;
+
+	/**
+	 * The segments of each basic block, indexed by their first statement.
+	 */
+	private Map<Statement, Statement[]> segments;
+
+	private Map<Statement, Map<Statement, AnalysisState<A>>> blocks;
+
+	private Set<Statement> unreachable;
+
 	/**
 	 * Builds the control flow graph, storing the given mapping between nodes
 	 * and fixpoint computation results.
@@ -153,23 +189,38 @@ public class OptimizedAnalyzedCFG<A extends AbstractState<A>> extends AnalyzedCF
 	 * Yields the computed result at a given statement (exit state). If such a
 	 * state is not available as it was discarded due to optimization, and
 	 * fixpoint's results have not been unwinded yet, a fixpoint iteration is
-	 * executed in-place through {@link #unwind(FixpointConfiguration)}.
+	 * executed in-place through {@link #unwind(FixpointConfiguration)}. If
+	 * {@link FixpointConfiguration#demandDrivenUnwinding} holds, only the
+	 * statements of the basic block containing {@code st} that follow the last
+	 * stored result before it, up to the next stored result, are instead
+	 * re-executed, falling back to a full unwinding only if their entry state
+	 * depends on a cycle whose widening point has no stored result.
 	 *
 	 * @param st   the statement
 	 * @param conf the {@link FixpointConfiguration} to use for running the fast
 	 *                 fixpoint computation
 	 *
 	 * @return the result computed at the given statement
+	 * 
+	 * @throws SemanticException if the semantics of a re-executed statement
+	 *                               fails
 	 */
 	public AnalysisState<A> getUnwindedAnalysisStateAfter(
 			Statement st,
-			FixpointConfiguration conf) {
+			FixpointConfiguration conf)
+			throws SemanticException {
 		if (results.getKeys().contains(st))
 			return results.getState(st);
 
 		if (expanded != null)
 			return expanded.getState(st);
 
+		if (conf.demandDrivenUnwinding) {
+			AnalysisState<A> state = unwindBlockOf(st, conf);
+			if (state != null)
+				return state;
+		}
+
 		unwind(conf);
 
 		return expanded.getState(st);
@@ -208,7 +259,7 @@ public class OptimizedAnalyzedCFG<A extends AbstractState<A>> extends AnalyzedCF
 			}
 		}
 
-		AscendingFixpoint<A> asc = new AscendingFixpoint<>(this, new PrecomputedAnalysis(), conf);
+		AscendingFixpoint<A> asc = new AscendingFixpoint<>(this, new PrecomputedAnalysis(conf), conf);
 		Fixpoint<CFG, Statement, Edge, CompoundState<A>> fix = new Fixpoint<>(this, true);
 		TimerLogger.execAction(LOG, "Unwinding optimizied results of " + this, () -> {
 			try {
@@ -229,6 +280,208 @@ public class OptimizedAnalyzedCFG<A extends AbstractState<A>> extends AnalyzedCF
 		});
 	}
 
+	private AnalysisState<A> unwindBlockOf(
+			Statement st,
+			FixpointConfiguration conf)
+			throws SemanticException {
+		if (starts == null)
+			try {
+				index();
+			} catch (IllegalStateException e) {
+				// basic blocks have not been computed
+				return null;
+			}
+		if (blocks == null) {
+			blocks = new BlockCache<>(conf.unwindingCacheSize);
+			unreachable = new HashSet<>();
+		}
+
+		Statement node = st instanceof Expression ? ((Expression) st).getRootStatement() : st;
+		Statement start;
+		if (!hasPostStateOf(node))
+			start = starts.get(node);
+		else if (previous.containsKey(node) || isLeader(node))
+			// stored statements are re-executed on their own only to
+			// retrieve the states of their sub-expressions
+			start = node;
+		else
+			start = null;
+		if (start == null)
+			return null;
+
+		Map<Statement, AnalysisState<A>> block = blocks.get(start);
+		if (block != null)
+			return block.getOrDefault(st, results.lattice.bottom());
+
+		// we visit the segments that the one of st depends on in post-order,
+		// stopping at statements whose post-state is stored or cached
+		Map<Statement, Map<Statement, AnalysisState<A>>> computed = new LinkedHashMap<>();
+		Map<Statement, Iterator<Statement>> visiting = new HashMap<>();
+		Deque<Statement> path = new LinkedList<>();
+		AscendingFixpoint<A> asc = new AscendingFixpoint<>(this, new PrecomputedAnalysis(conf), conf);
+		path.push(start);
+		visiting.put(start, dependenciesOf(start).iterator());
+		while (!path.isEmpty()) {
+			Statement current = path.peek();
+			Iterator<Statement> deps = visiting.get(current);
+			Statement missing = null;
+			while (missing == null && deps.hasNext()) {
+				Statement dep = deps.next();
+				if (postStateOf(dep, computed) == null)
+					missing = dep;
+			}
+
+			if (missing == null) {
+				path.pop();
+				visiting.remove(current);
+				computed.put(current, expand(current, asc, computed));
+			} else {
+				Statement next = starts.get(missing);
+				if (next == null || visiting.containsKey(next))
+					// a cycle that is not cut by a stored result
+					return null;
+				path.push(next);
+				visiting.put(next, dependenciesOf(next).iterator());
+			}
+		}
+
+		computed.forEach(blocks::put);
+		return computed.get(start).getOrDefault(st, results.lattice.bottom());
+	}
+
+	private void index() {
+		Map<Statement, Statement> prev = new HashMap<>(getNodesCount());
+		Map<Statement, Statement> index = new HashMap<>(getNodesCount());
+		Map<Statement, Statement[]> segs = new HashMap<>();
+		for (Statement[] bb : getBasicBlocks().values()) {
+			int first = 0;
+			for (int i = 0; i <= bb.length; i++) {
+				if (i > 0 && i < bb.length)
+					prev.putIfAbsent(bb[i], bb[i - 1]);
+				if (i < bb.length && !hasPostStateOf(bb[i]))
+					continue;
+
+				if (first < i) {
+					Statement[] segment = Arrays.copyOfRange(bb, first, i);
+					segs.putIfAbsent(bb[first], segment);
+					for (Statement node : segment)
+						index.putIfAbsent(node, bb[first]);
+				}
+				first = i + 1;
+			}
+		}
+
+		previous = prev;
+		starts = index;
+		segments = segs;
+	}
+
+	private boolean isLeader(
+			Statement node) {
+		return getBasicBlocks().containsKey(node);
+	}
+
+	private Collection<Statement> dependenciesOf(
+			Statement start) {
+		Statement prev = previous.get(start);
+		return prev == null ? predecessorsOf(start) : Collections.singleton(prev);
+	}
+
+	private AnalysisState<A> postStateOf(
+			Statement st,
+			Map<Statement, Map<Statement, AnalysisState<A>>> computed) {
+		if (results.getKeys().contains(st))
+			return results.getState(st);
+		Statement start = starts.get(st);
+		if (start == null)
+			return null;
+		Map<Statement, AnalysisState<A>> block = computed.get(start);
+		if (block == null)
+			block = blocks.get(start);
+		return block == null ? null : block.get(st);
+	}
+
+	private Map<Statement, AnalysisState<A>> expand(
+			Statement start,
+			AscendingFixpoint<A> asc,
+			Map<Statement, Map<Statement, AnalysisState<A>>> computed)
+			throws SemanticException {
+		AnalysisState<A> bottom = results.lattice.bottom();
+		StatementStore<A> bot = new StatementStore<>(bottom);
+		Statement[] segment = segments.get(start);
+		if (segment == null)
+			segment = new Statement[] { start };
+
+		Map<Statement, AnalysisState<A>> block = new HashMap<>();
+		CompoundState<A> entry;
+		Statement prev = previous.get(start);
+		if (prev != null)
+			entry = asc.traverse(getEdgeConnecting(prev, start), CompoundState.of(postStateOf(prev, computed), bot));
+		else {
+			List<CompoundState<A>> entries = new ArrayList<>();
+			if (entryStates.getKeys().contains(start))
+				entries.add(CompoundState.of(entryStates.getState(start), bot));
+			for (Statement pred : predecessorsOf(start))
+				if (!unreachable.contains(starts.get(pred))) {
+					CompoundState<A> post = CompoundState.of(postStateOf(pred, computed), bot);
+					entries.add(asc.traverse(getEdgeConnecting(pred, start), post));
+				}
+
+			if (entries.isEmpty()) {
+				// the fixpoint never reaches this block
+				unreachable.add(start);
+				for (Statement st : segment)
+					block.put(st, bottom);
+				return block;
+			}
+			entry = entries.get(0).lubAll(entries.subList(1, entries.size()));
+		}
+
+		for (int i = 0; i < segment.length; i++) {
+			CompoundState<A> post = asc.semantics(segment[i], entry);
+			for (Entry<Statement, AnalysisState<A>> e : post.intermediateStates)
+				block.put(e.getKey(), e.getValue());
+			if (hasPostStateOf(segment[i]))
+				// the stored result is the one computed by the fixpoint
+				block.put(segment[i], results.getState(segment[i]));
+			else
+				block.put(segment[i], post.postState);
+			if (i < segment.length - 1)
+				entry = asc.traverse(getEdgeConnecting(segment[i], segment[i + 1]), post);
+		}
+		return block;
+	}
+
+	/**
+	 * A cache of expanded segments of basic blocks, evicting the least
+	 * recently accessed one when its capacity is exceeded.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <A> the type of {@link AbstractState} contained into the analysis
+	 *                state
+	 */
+	private static class BlockCache<A extends AbstractState<A>>
+			extends
+			LinkedHashMap<Statement, Map<Statement, AnalysisState<A>>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		private BlockCache(
+				int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(
+				Entry<Statement, Map<Statement, AnalysisState<A>>> eldest) {
+			return size() > capacity;
+		}
+	}
+
 	/**
 	 * Yields whether or not the non-unwinded results of this cfg contain the
 	 * poststate of the given statement.
@@ -253,10 +506,22 @@ public class OptimizedAnalyzedCFG<A extends AbstractState<A>> extends AnalyzedCF
 			Statement st,
 			AnalysisState<A> postState) {
 		results.put(st, postState);
+		// segments are delimited by stored results
+		previous = null;
+		starts = null;
+		segments = null;
+		blocks = null;
 	}
 
 	private class PrecomputedAnalysis implements InterproceduralAnalysis<A> {
 
+		private final FixpointConfiguration conf;
+
+		private PrecomputedAnalysis(
+				FixpointConfiguration conf) {
+			this.conf = conf;
+		}
+
 		@Override
 		public void init(
 				Application app,
@@ -288,6 +553,11 @@ public class OptimizedAnalyzedCFG<A extends AbstractState<A>> extends AnalyzedCF
 				ExpressionSet[] parameters,
 				StatementStore<A> expressions)
 				throws SemanticException {
+			// results of calls are always available at this stage
+			if (conf.fixpointObserver != null)
+				for (CFG target : call.getTargetedCFGs())
+					conf.fixpointObserver.callResultLookup(target, true);
+
 			Call source = call.getSource() == null ? call : call.getSource();
 			if (results.getKeys().contains(source))
 				return results.getState(source);
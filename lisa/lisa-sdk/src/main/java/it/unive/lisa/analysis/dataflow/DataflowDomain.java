@@ -9,10 +9,11 @@ import it.unive.lisa.analysis.value.ValueDomain;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
 import it.unive.lisa.util.representation.SetRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Set;
 import java.util.function.BooleanSupplier;
@@ -21,7 +22,10 @@ import java.util.function.Predicate;
 /**
  * A dataflow domain that collects instances of {@link DataflowElement}. A
  * dataflow domain is a value domain that is represented as a set of elements,
- * that can be retrieved through {@link #getDataflowElements()}.
+ * that can be retrieved through {@link #getDataflowElements()}. Elements are
+ * stored in {@link ExternalSet}s: all instances derived from the same one
+ * share the {@link ExternalSetCache} of its elements, so that lattice
+ * operations can be performed as word-wise operations on bitsets.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -51,7 +55,10 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 	 * @param domain   a singleton instance to be used during semantic
 	 *                     operations to perform <i>kill</i> and <i>gen</i>
 	 *                     operations
-	 * @param elements the set of elements contained in this domain
+	 * @param elements the set of elements contained in this domain (if this is
+	 *                     not an {@link ExternalSet}, a new
+	 *                     {@link ExternalSetCache} is created to store its
+	 *                     elements)
 	 * @param isTop    whether or not this domain is the top of the lattice
 	 * @param isBottom whether or not this domain is the bottom of the lattice
 	 */
@@ -60,7 +67,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 			Set<E> elements,
 			boolean isTop,
 			boolean isBottom) {
-		this.elements = elements;
+		this.elements = elements instanceof ExternalSet ? elements : new ExternalSetCache<E>().mkSet(elements);
 		this.domain = domain;
 		this.isTop = isTop;
 		this.isBottom = isBottom;
@@ -129,7 +136,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		if (guard.getAsBoolean())
 			return (D) this;
 
-		Set<E> updated = new HashSet<>(getDataflowElements());
+		ExternalSet<E> updated = getDataflowElements().copy();
 		for (E killed : kill.get())
 			updated.remove(killed);
 		for (E generated : gen.get())
@@ -165,7 +172,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		if (toRemove.isEmpty())
 			return (D) this;
 
-		Set<E> updated = new HashSet<>(elements);
+		ExternalSet<E> updated = getDataflowElements().copy();
 		updated.removeAll(toRemove);
 		return mk(domain, updated, false, false);
 	}
@@ -186,7 +193,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		if (toRemove.isEmpty())
 			return (D) this;
 
-		Set<E> updated = new HashSet<>(elements);
+		ExternalSet<E> updated = getDataflowElements().copy();
 		updated.removeAll(toRemove);
 		return mk(domain, updated, false, false);
 	}
@@ -245,7 +252,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 
 	@Override
 	public D top() {
-		return mk(domain, new HashSet<>(), true, false);
+		return mk(domain, getCache().mkEmptySet(), true, false);
 	}
 
 	@Override
@@ -255,7 +262,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 
 	@Override
 	public D bottom() {
-		return mk(domain, new HashSet<>(), false, true);
+		return mk(domain, getCache().mkEmptySet(), false, true);
 	}
 
 	@Override
@@ -268,8 +275,31 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 	 * 
 	 * @return the elements
 	 */
-	public final Set<E> getDataflowElements() {
-		return elements;
+	public final ExternalSet<E> getDataflowElements() {
+		return (ExternalSet<E>) elements;
+	}
+
+	/**
+	 * Yields the cache that backs the elements of this domain instance.
+	 * 
+	 * @return the cache
+	 */
+	public final ExternalSetCache<E> getCache() {
+		return getDataflowElements().getCache();
+	}
+
+	/**
+	 * Yields an {@link ExternalSet} containing the given elements, backed by
+	 * the same cache of this domain instance. If {@code elements} already uses
+	 * that cache, it is returned as-is.
+	 * 
+	 * @param elements the elements to convert
+	 * 
+	 * @return the converted set
+	 */
+	protected final ExternalSet<E> toExternalSet(
+			Set<E> elements) {
+		return getCache().convert(elements);
 	}
 
 	@Override
@@ -280,7 +310,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		if (isTop() || isBottom())
 			return (D) this;
 
-		Set<E> result = new HashSet<>();
+		ExternalSet<E> result = getCache().mkEmptySet();
 		E pushed;
 		for (E element : this.elements)
 			if ((pushed = element.pushScope(scope)) != null)
@@ -297,7 +327,7 @@ public abstract class DataflowDomain<D extends DataflowDomain<D, E>, E extends D
 		if (isTop() || isBottom())
 			return (D) this;
 
-		Set<E> result = new HashSet<>();
+		ExternalSet<E> result = getCache().mkEmptySet();
 		E popped;
 		for (E element : this.elements)
 			if ((popped = element.popScope(scope)) != null)
@@ -4,7 +4,6 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.lattices.InverseSetLattice;
 import java.util.HashSet;
 import java.util.Set;
-import org.apache.commons.collections4.SetUtils;
 
 /**
  * A {@link DataflowDomain} for <b>definite</b> dataflow analysis. Being
@@ -51,7 +50,7 @@ public class DefiniteDataflowDomain<E extends DataflowElement<DefiniteDataflowDo
 	public DefiniteDataflowDomain<E> lubAux(
 			DefiniteDataflowDomain<E> other)
 			throws SemanticException {
-		Set<E> intersection = SetUtils.intersection(this.getDataflowElements(), other.getDataflowElements());
+		Set<E> intersection = getDataflowElements().intersection(toExternalSet(other.getDataflowElements()));
 		return new DefiniteDataflowDomain<>(domain, intersection, false, false);
 	}
 
@@ -59,14 +58,14 @@ public class DefiniteDataflowDomain<E extends DataflowElement<DefiniteDataflowDo
 	public boolean lessOrEqualAux(
 			DefiniteDataflowDomain<E> other)
 			throws SemanticException {
-		return this.getDataflowElements().containsAll(other.getDataflowElements());
+		return getDataflowElements().contains(toExternalSet(other.getDataflowElements()));
 	}
 
 	@Override
 	public DefiniteDataflowDomain<E> glbAux(
 			DefiniteDataflowDomain<E> other)
 			throws SemanticException {
-		Set<E> intersection = SetUtils.union(this.getDataflowElements(), other.getDataflowElements());
+		Set<E> intersection = getDataflowElements().union(toExternalSet(other.getDataflowElements()));
 		return new DefiniteDataflowDomain<>(domain, intersection, false, false);
 	}
 }
@@ -4,7 +4,6 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.lattices.SetLattice;
 import java.util.HashSet;
 import java.util.Set;
-import org.apache.commons.collections4.SetUtils;
 
 /**
  * A {@link DataflowDomain} for <b>possible</b> dataflow analysis. Being
@@ -51,7 +50,7 @@ public class PossibleDataflowDomain<E extends DataflowElement<PossibleDataflowDo
 	public PossibleDataflowDomain<E> lubAux(
 			PossibleDataflowDomain<E> other)
 			throws SemanticException {
-		Set<E> union = SetUtils.union(this.getDataflowElements(), other.getDataflowElements());
+		Set<E> union = getDataflowElements().union(toExternalSet(other.getDataflowElements()));
 		return new PossibleDataflowDomain<>(domain, union, false, false);
 	}
 
@@ -59,14 +58,14 @@ public class PossibleDataflowDomain<E extends DataflowElement<PossibleDataflowDo
 	public boolean lessOrEqualAux(
 			PossibleDataflowDomain<E> other)
 			throws SemanticException {
-		return other.getDataflowElements().containsAll(this.getDataflowElements());
+		return toExternalSet(other.getDataflowElements()).contains(getDataflowElements());
 	}
 
 	@Override
 	public PossibleDataflowDomain<E> glbAux(
 			PossibleDataflowDomain<E> other)
 			throws SemanticException {
-		Set<E> intersection = SetUtils.intersection(this.getDataflowElements(), other.getDataflowElements());
+		Set<E> intersection = getDataflowElements().intersection(toExternalSet(other.getDataflowElements()));
 		return new PossibleDataflowDomain<>(domain, intersection, false, false);
 	}
 }
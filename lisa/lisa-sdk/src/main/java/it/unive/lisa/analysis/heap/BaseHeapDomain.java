@@ -8,6 +8,7 @@ import it.unive.lisa.analysis.lattices.ExpressionSet;
 import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.ExpressionVisitor;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.heap.HeapExpression;
 import it.unive.lisa.symbolic.value.BinaryExpression;
 import it.unive.lisa.symbolic.value.Constant;
@@ -156,8 +157,8 @@ public interface BaseHeapDomain<H extends BaseHeapDomain<H>> extends BaseLattice
 				throws SemanticException {
 			Set<SymbolicExpression> result = new HashSet<>();
 			for (SymbolicExpression expr : arg) {
-				UnaryExpression e = new UnaryExpression(expression.getStaticType(), expr, expression.getOperator(),
-						expression.getCodeLocation());
+				UnaryExpression e = SymbolicExpressionFactory.INSTANCE.mkUnary(expression.getStaticType(), expr,
+						expression.getOperator(), expression.getCodeLocation());
 				result.add(e);
 			}
 			return new ExpressionSet(result);
@@ -173,7 +174,7 @@ public interface BaseHeapDomain<H extends BaseHeapDomain<H>> extends BaseLattice
 			Set<SymbolicExpression> result = new HashSet<>();
 			for (SymbolicExpression l : left)
 				for (SymbolicExpression r : right) {
-					BinaryExpression e = new BinaryExpression(expression.getStaticType(), l, r,
+					BinaryExpression e = SymbolicExpressionFactory.INSTANCE.mkBinary(expression.getStaticType(), l, r,
 							expression.getOperator(),
 							expression.getCodeLocation());
 					result.add(e);
@@ -193,7 +194,8 @@ public interface BaseHeapDomain<H extends BaseHeapDomain<H>> extends BaseLattice
 			for (SymbolicExpression l : left)
 				for (SymbolicExpression m : middle)
 					for (SymbolicExpression r : right) {
-						TernaryExpression e = new TernaryExpression(expression.getStaticType(), l, m, r,
+						TernaryExpression e = SymbolicExpressionFactory.INSTANCE.mkTernary(
+								expression.getStaticType(), l, m, r,
 								expression.getOperator(),
 								expression.getCodeLocation());
 						result.add(e);
@@ -2,16 +2,32 @@ package it.unive.lisa.analysis.heap;
 
 import it.unive.lisa.analysis.Lattice;
 import it.unive.lisa.analysis.SemanticDomain;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.SemanticOracle;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.program.cfg.ProgramPoint;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.heap.HeapExpression;
 import it.unive.lisa.symbolic.value.HeapLocation;
 import it.unive.lisa.symbolic.value.Identifier;
+import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * A semantic domain that can evaluate the semantic of statements that operate
  * on heap locations, and not on concrete values. A heap domain can handle
  * instances of {@link HeapExpression}s, and manage identifiers that are
- * {@link HeapLocation}s.
+ * {@link HeapLocation}s.<br>
+ * <br>
+ * Since the expressions processed by a heap domain usually need to be
+ * rewritten right after their semantics has been computed, this interface
+ * also offers operations that yield the post-state together with the
+ * rewriting of the expression in it, if the latter is a by-product of the
+ * computation of the semantics. Their default implementations only compute
+ * the post-state, and domains can override them to avoid visiting the
+ * expression twice. When no rewriting is returned, callers are expected to
+ * rewrite the expression in the post-state themselves, after having made the
+ * post-state visible to the oracle they pass to
+ * {@link #rewrite(SymbolicExpression, ProgramPoint, SemanticOracle)}.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -23,4 +39,90 @@ public interface HeapDomain<D extends HeapDomain<D>>
 		SemanticDomain<D, SymbolicExpression, Identifier>,
 		Lattice<D>,
 		HeapSemanticOperation {
+
+	/**
+	 * Yields a copy of this domain, where {@code id} has been assigned to
+	 * {@code expression}, together with the rewriting of {@code expression}
+	 * (see {@link #rewrite(SymbolicExpression, ProgramPoint, SemanticOracle)})
+	 * in the resulting domain, if it has been computed while performing the
+	 * assignment. The default implementation never computes the rewriting.
+	 * 
+	 * @param id         the identifier to assign the value to
+	 * @param expression the expression to assign
+	 * @param pp         the program point that where this operation is being
+	 *                       evaluated
+	 * @param oracle     the oracle for inter-domain communication
+	 * 
+	 * @return the copy of the domain, modified by the assignment, and the
+	 *             rewritten expression (or {@code null} if it has not been
+	 *             computed)
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	default Pair<D, ExpressionSet> assignAndRewrite(
+			Identifier id,
+			SymbolicExpression expression,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException {
+		return Pair.of(assign(id, expression, pp, oracle), null);
+	}
+
+	/**
+	 * Yields a copy of this domain, that has been modified accordingly to the
+	 * semantics of the given {@code expression}, together with the rewriting
+	 * of {@code expression} (see
+	 * {@link #rewrite(SymbolicExpression, ProgramPoint, SemanticOracle)}) in
+	 * the resulting domain, if it has been computed while evaluating the
+	 * expression. The default implementation never computes the rewriting.
+	 * 
+	 * @param expression the expression whose semantics need to be computed
+	 * @param pp         the program point that where this operation is being
+	 *                       evaluated
+	 * @param oracle     the oracle for inter-domain communication
+	 * 
+	 * @return the copy of the domain, modified by the evaluation of the
+	 *             expression, and the rewritten expression (or {@code null}
+	 *             if it has not been computed)
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	default Pair<D, ExpressionSet> smallStepSemanticsAndRewrite(
+			SymbolicExpression expression,
+			ProgramPoint pp,
+			SemanticOracle oracle)
+			throws SemanticException {
+		return Pair.of(smallStepSemantics(expression, pp, oracle), null);
+	}
+
+	/**
+	 * Yields a copy of this domain, modified by assuming that the given
+	 * expression holds, together with the rewriting of {@code expression}
+	 * (see {@link #rewrite(SymbolicExpression, ProgramPoint, SemanticOracle)})
+	 * in the resulting domain at {@code src}, if it has been computed while
+	 * performing the assumption. The default implementation never computes
+	 * the rewriting.
+	 * 
+	 * @param expression the expression to assume to hold
+	 * @param src        the program point that where this operation is being
+	 *                       evaluated, corresponding to the one that generated
+	 *                       the given expression
+	 * @param dest       the program point where the execution will move after
+	 *                       the expression has been assumed
+	 * @param oracle     the oracle for inter-domain communication
+	 * 
+	 * @return the copy of the domain, modified by the assumption, and the
+	 *             rewritten expression (or {@code null} if it has not been
+	 *             computed)
+	 * 
+	 * @throws SemanticException if an error occurs during the computation
+	 */
+	default Pair<D, ExpressionSet> assumeAndRewrite(
+			SymbolicExpression expression,
+			ProgramPoint src,
+			ProgramPoint dest,
+			SemanticOracle oracle)
+			throws SemanticException {
+		return Pair.of(assume(expression, src, dest, oracle), null);
+	}
 }
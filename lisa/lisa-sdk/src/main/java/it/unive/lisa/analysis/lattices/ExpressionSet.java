@@ -10,6 +10,7 @@ import it.unive.lisa.util.collections.CollectionUtilities;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -122,6 +123,33 @@ public class ExpressionSet extends SetLattice<ExpressionSet, SymbolicExpression>
 		return new ExpressionSet(lub);
 	}
 
+	@Override
+	public ExpressionSet lubAllAux(
+			List<ExpressionSet> others)
+			throws SemanticException {
+		Set<SymbolicExpression> lub = new HashSet<>();
+
+		// all non-identifiers expressions are part of the lub
+		elements.stream().filter(Predicate.not(Identifier.class::isInstance)).forEach(lub::add);
+		for (ExpressionSet other : others)
+			other.elements.stream().filter(Predicate.not(Identifier.class::isInstance)).forEach(lub::add);
+
+		// identifiers are added after lubbing the ones with the same name,
+		// joining the sets in the same order of lubAux
+		Collection<Identifier> idlub = onlyIds();
+		for (ExpressionSet other : others) {
+			Set<Identifier> joined = new HashSet<>();
+			CollectionUtilities.join(idlub, other.onlyIds(), joined, (
+					id1,
+					id2) -> id1.getName().equals(id2.getName()),
+					ExpressionSet::wrapper);
+			idlub = joined;
+		}
+		idlub.forEach(lub::add);
+
+		return new ExpressionSet(lub);
+	}
+
 	private static Identifier wrapper(
 			Identifier id1,
 			Identifier id2) {
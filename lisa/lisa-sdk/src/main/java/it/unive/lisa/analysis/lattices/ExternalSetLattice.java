@@ -0,0 +1,111 @@
+package it.unive.lisa.analysis.lattices;
+
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.util.collections.externalSet.ExternalSet;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link SetLattice} whose elements are stored in an {@link ExternalSet},
+ * that is, a bitset where each bit corresponds to an element of an
+ * {@link ExternalSetCache}. Instances built from sets that are not backed by a
+ * cache get a fresh one, that is then shared with all the instances derived
+ * from them through {@link #toExternalSet(Set)}: since analyses start from a
+ * singleton instance of the lattice, each analysis ends up using its own cache.
+ * Lattice operations among instances sharing the same cache (lub, glb, and
+ * &le;) are performed as word-wise operations on the bitsets.<br>
+ * <br>
+ * Subclasses should implement {@link #mk(Set)} by passing the result of
+ * {@link #toExternalSet(Set)} to their constructor.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <S> the concrete instance of {@link ExternalSetLattice}
+ * @param <E> the type of elements of the domain of this lattice
+ */
+public abstract class ExternalSetLattice<S extends ExternalSetLattice<S, E>, E> extends SetLattice<S, E> {
+
+	/**
+	 * Builds the lattice. If {@code elements} is not an {@link ExternalSet}, a
+	 * new {@link ExternalSetCache} is created to store its elements.
+	 * 
+	 * @param elements the elements that are contained in the lattice
+	 * @param isTop    whether or not this is the top or bottom element of the
+	 *                     lattice, valid only if the set of elements is empty
+	 */
+	public ExternalSetLattice(
+			Set<E> elements,
+			boolean isTop) {
+		super(elements instanceof ExternalSet ? elements : new ExternalSetCache<E>().mkSet(elements), isTop);
+	}
+
+	/**
+	 * Yields the cache that backs the elements of this lattice.
+	 * 
+	 * @return the cache
+	 */
+	public ExternalSetCache<E> getCache() {
+		return elements().getCache();
+	}
+
+	/**
+	 * Yields an {@link ExternalSet} containing the elements of the given set,
+	 * backed by the same cache of this lattice instance. If {@code set} already
+	 * uses that cache, it is returned as-is.
+	 * 
+	 * @param set the set to convert
+	 * 
+	 * @return the converted set
+	 */
+	protected ExternalSet<E> toExternalSet(
+			Set<E> set) {
+		return getCache().convert(set);
+	}
+
+	@Override
+	public ExternalSet<E> elements() {
+		return (ExternalSet<E>) elements;
+	}
+
+	@Override
+	public S lubAux(
+			S other)
+			throws SemanticException {
+		return mk(elements().union(toExternalSet(other.elements)));
+	}
+
+	@Override
+	public S glbAux(
+			S other)
+			throws SemanticException {
+		return mk(elements().intersection(toExternalSet(other.elements)));
+	}
+
+	@Override
+	public S lubAllAux(
+			List<S> others)
+			throws SemanticException {
+		ExternalSet<E> lub = elements().copy();
+		for (S other : others)
+			lub.addAll(toExternalSet(other.elements));
+		return mk(lub);
+	}
+
+	@Override
+	public S glbAllAux(
+			List<S> others)
+			throws SemanticException {
+		ExternalSet<E> glb = elements();
+		for (S other : others)
+			glb = glb.intersection(toExternalSet(other.elements));
+		return mk(glb);
+	}
+
+	@Override
+	public boolean lessOrEqualAux(
+			S other)
+			throws SemanticException {
+		return toExternalSet(other.elements).contains(elements());
+	}
+}
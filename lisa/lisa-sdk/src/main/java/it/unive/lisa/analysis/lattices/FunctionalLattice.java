@@ -3,14 +3,16 @@ package it.unive.lisa.analysis.lattices;
 import it.unive.lisa.analysis.BaseLattice;
 import it.unive.lisa.analysis.Lattice;
 import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.util.collections.PersistentHashMap;
 import it.unive.lisa.util.representation.MapRepresentation;
 import it.unive.lisa.util.representation.StringRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -66,7 +68,11 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	/**
 	 * Creates a new instance of the underlying function. The purpose of this
 	 * method is to provide a common function implementation to every subclass
-	 * that does not have implementation-specific requirements.
+	 * that does not have implementation-specific requirements. The returned
+	 * function is a {@link PersistentHashMap}: copying {@code other} costs
+	 * constant time if {@code other} is itself a {@link PersistentHashMap}, and
+	 * subsequent updates to the copy share most of their structure with
+	 * {@code other}.
 	 * 
 	 * @param other        an optional function to copy, can be {@code null}
 	 * @param preserveNull whether a null {@code other} should cause a
@@ -78,8 +84,8 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 			Map<K, V> other,
 			boolean preserveNull) {
 		if (other == null)
-			return preserveNull ? null : new HashMap<>();
-		return new HashMap<>(other);
+			return preserveNull ? null : new PersistentHashMap<>();
+		return new PersistentHashMap<>(other);
 	}
 
 	/**
@@ -203,6 +209,20 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 				o2) -> o1 == null ? o2 : o1.glb(o2));
 	}
 
+	@Override
+	public F lubAllAux(
+			List<F> others)
+			throws SemanticException {
+		return functionalLiftAll(others, lattice.bottom(), this::lubKeys, Lattice::lubAll);
+	}
+
+	@Override
+	public F glbAllAux(
+			List<F> others)
+			throws SemanticException {
+		return functionalLiftAll(others, lattice.top(), this::glbKeys, Lattice::glbAll);
+	}
+
 	@Override
 	public F wideningAux(
 			F other)
@@ -276,7 +296,16 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	}
 
 	/**
-	 * Yields the functional lift between {@code this} and {@code other}.
+	 * Yields the functional lift between {@code this} and {@code other}. If
+	 * both functions are {@link PersistentHashMap}s, the result is built on top
+	 * of the trie of {@code this}, lifting only the mappings that are not
+	 * physically shared with {@code other} (see
+	 * {@link PersistentHashMap#divergingEntries(PersistentHashMap)}): shared
+	 * mappings bind the same key to the same value instance in both functions,
+	 * and are thus kept as-is. This assumes that {@code keyLifter} preserves
+	 * keys that are contained in both key sets, and that lifting a value with
+	 * itself yields the value itself, as it happens for all the operations of
+	 * {@link BaseLattice}.
 	 * 
 	 * @param other       the other functional lattice
 	 * @param missing     the lattice element to use for the lift when a key has
@@ -297,8 +326,18 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 			KeyFunctionalLift<K> keyLifter,
 			FunctionalLift<V> valueLifter)
 			throws SemanticException {
-		Map<K, V> function = mkNewFunction(null, false);
-		Set<K> keys = keyLifter.keyLift(this.getKeys(), other.getKeys());
+		Set<K> diverging = divergingKeys(List.of(other));
+		Map<K, V> function;
+		Set<K> keys;
+		if (diverging == null) {
+			function = mkNewFunction(null, false);
+			keys = keyLifter.keyLift(this.getKeys(), other.getKeys());
+		} else {
+			function = mkNewFunction(this.function, false);
+			keys = keyLifter.keyLift(restrict(this.function, diverging), restrict(other.function, diverging));
+			dropDiverging(function, diverging, keys);
+		}
+
 		for (K key : keys)
 			try {
 				V s1 = getOtDefault(key, missing);
@@ -310,6 +349,159 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 		return mk(lattice.lub(other.lattice), function);
 	}
 
+	/**
+	 * Yields the keys of the mappings that are not physically shared between
+	 * the function of {@code this} and the ones of {@code others}, in either
+	 * direction. Keys not returned by this method are bound to the very same
+	 * value instance in all functions.
+	 * 
+	 * @param others the other functional lattices
+	 * 
+	 * @return the diverging keys, or {@code null} if at least one of the
+	 *             functions is not a {@link PersistentHashMap}
+	 */
+	@SuppressWarnings("unchecked")
+	private Set<K> divergingKeys(
+			List<F> others) {
+		if (!(function instanceof PersistentHashMap))
+			return null;
+
+		PersistentHashMap<K, V> mine = (PersistentHashMap<K, V>) function;
+		Set<K> diverging = new HashSet<>();
+		for (F other : others) {
+			if (!(other.function instanceof PersistentHashMap))
+				return null;
+			PersistentHashMap<K, V> theirs = (PersistentHashMap<K, V>) other.function;
+			for (Entry<K, V> entry : mine.divergingEntries(theirs))
+				diverging.add(entry.getKey());
+			for (Entry<K, V> entry : theirs.divergingEntries(mine))
+				diverging.add(entry.getKey());
+		}
+		return diverging;
+	}
+
+	private static <K, V> Set<K> restrict(
+			Map<K, V> function,
+			Set<K> keys) {
+		Set<K> result = new HashSet<>();
+		for (K key : keys)
+			if (function.containsKey(key))
+				result.add(key);
+		return result;
+	}
+
+	/**
+	 * Removes from {@code function}, that is a copy of the function of
+	 * {@code this}, the diverging keys that are not part of the lifted ones.
+	 * 
+	 * @param function  the function being built
+	 * @param diverging the diverging keys
+	 * @param lifted    the lift of the diverging keys
+	 */
+	private static <K, V> void dropDiverging(
+			Map<K, V> function,
+			Set<K> diverging,
+			Set<K> lifted) {
+		for (K key : diverging)
+			if (!lifted.contains(key))
+				function.remove(key);
+	}
+
+	/**
+	 * Interface for the lift of several lattice elements at once.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 *
+	 * @param <V> {@link Lattice} type of the values
+	 */
+	@FunctionalInterface
+	public interface FunctionalLiftAll<V extends Lattice<V>> {
+
+		/**
+		 * Yields the lift of {@code first} and all the {@code others} lattice
+		 * elements.
+		 * 
+		 * @param first  the first lattice element
+		 * @param others the other lattice elements
+		 * 
+		 * @return the lift of all the elements
+		 * 
+		 * @throws SemanticException if something goes wrong while lifting the
+		 *                               values
+		 */
+		V lift(
+				V first,
+				Collection<V> others)
+				throws SemanticException;
+	}
+
+	/**
+	 * Yields the functional lift between {@code this} and all the
+	 * {@code others}, visiting each key only once. Keys are lifted by folding
+	 * {@code keyLifter} over the key sets of all functions, while the values
+	 * mapped to each key by all functions are lifted at once through
+	 * {@code valueLifter}. As for
+	 * {@link #functionalLift(FunctionalLattice, Lattice, KeyFunctionalLift, FunctionalLift)},
+	 * if all functions are {@link PersistentHashMap}s, only the mappings that
+	 * are not physically shared among all of them are lifted.
+	 * 
+	 * @param others      the other functional lattices
+	 * @param missing     the lattice element to use for the lift when a key has
+	 *                        no mapping in one of the functions (e.g., for lub,
+	 *                        missing should be bottom, while for glb it should
+	 *                        be top)
+	 * @param keyLifter   the key lifter
+	 * @param valueLifter the value lifter
+	 * 
+	 * @return the lift of all the functions
+	 * 
+	 * @throws SemanticException if something goes wrong while lifting the
+	 *                               lattice elements
+	 */
+	public F functionalLiftAll(
+			List<F> others,
+			V missing,
+			KeyFunctionalLift<K> keyLifter,
+			FunctionalLiftAll<V> valueLifter)
+			throws SemanticException {
+		Set<K> diverging = divergingKeys(others);
+		Map<K, V> function;
+		Set<K> keys;
+		V lattice = this.lattice;
+		if (diverging == null) {
+			function = mkNewFunction(null, false);
+			keys = getKeys();
+			for (F other : others)
+				keys = keyLifter.keyLift(keys, other.getKeys());
+		} else {
+			function = mkNewFunction(this.function, false);
+			keys = restrict(this.function, diverging);
+			for (F other : others)
+				keys = keyLifter.keyLift(keys, restrict(other.function, diverging));
+			dropDiverging(function, diverging, keys);
+		}
+		for (F other : others)
+			lattice = lattice.lub(other.lattice);
+
+		List<V> values = new ArrayList<>(others.size());
+		for (K key : keys)
+			try {
+				V first = getOtDefault(key, missing);
+				values.clear();
+				for (F other : others) {
+					V value = other.getOtDefault(key, missing);
+					if (first == null)
+						first = value;
+					else
+						values.add(value);
+				}
+				function.put(key, first == null ? null : valueLifter.lift(first, values));
+			} catch (SemanticException e) {
+				throw new SemanticException("Exception during functional lifting of key '" + key + "'", e);
+			}
+		return mk(lattice, function);
+	}
+
 	/**
 	 * Yields the union of the keys between {@code k1} and {@code k2}.
 	 * 
@@ -350,9 +542,23 @@ public abstract class FunctionalLattice<F extends FunctionalLattice<F, K, V>, K,
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public boolean lessOrEqualAux(
 			F other)
 			throws SemanticException {
+		if (function instanceof PersistentHashMap && other.function instanceof PersistentHashMap) {
+			// mappings physically shared with other are trivially less or
+			// equal than their counterparts, so we only inspect the others
+			PersistentHashMap<K, V> mine = (PersistentHashMap<K, V>) function;
+			PersistentHashMap<K, V> theirs = (PersistentHashMap<K, V>) other.function;
+			for (Entry<K, V> entry : mine.divergingEntries(theirs)) {
+				V state = entry.getValue();
+				if (state != null && !state.lessOrEqual(other.getState(entry.getKey())))
+					return false;
+			}
+			return true;
+		}
+
 		if (function != null)
 			for (K key : function.keySet()) {
 				V state = getState(key);
@@ -8,6 +8,7 @@ import it.unive.lisa.util.representation.StringRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -88,6 +89,26 @@ public abstract class SetLattice<S extends SetLattice<S, E>, E> implements BaseL
 		return mk(glb);
 	}
 
+	@Override
+	public S lubAllAux(
+			List<S> others)
+			throws SemanticException {
+		Set<E> lub = new HashSet<>(elements);
+		for (S other : others)
+			lub.addAll(other.elements);
+		return mk(lub);
+	}
+
+	@Override
+	public S glbAllAux(
+			List<S> others)
+			throws SemanticException {
+		Set<E> glb = new HashSet<>(elements);
+		for (S other : others)
+			glb.retainAll(other.elements);
+		return mk(glb);
+	}
+
 	@Override
 	public boolean lessOrEqualAux(
 			S other)
@@ -11,6 +11,8 @@ import it.unive.lisa.symbolic.value.Identifier;
 import it.unive.lisa.symbolic.value.ValueExpression;
 import it.unive.lisa.util.representation.ObjectRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -196,6 +198,28 @@ public class InferenceSystem<T extends InferredValue<T>>
 		return new InferenceSystem<>(newEnv.lattice, newEnv.function, state.lub(other.state));
 	}
 
+	@Override
+	public InferenceSystem<T> lubAllAux(
+			List<InferenceSystem<T>> others)
+			throws SemanticException {
+		InferenceSystem<T> newEnv = super.lubAllAux(others);
+		List<T> states = new ArrayList<>(others.size());
+		for (InferenceSystem<T> other : others)
+			states.add(other.state);
+		return new InferenceSystem<>(newEnv.lattice, newEnv.function, state.lubAll(states));
+	}
+
+	@Override
+	public InferenceSystem<T> glbAllAux(
+			List<InferenceSystem<T>> others)
+			throws SemanticException {
+		InferenceSystem<T> newEnv = super.glbAllAux(others);
+		List<T> states = new ArrayList<>(others.size());
+		for (InferenceSystem<T> other : others)
+			states.add(other.state);
+		return new InferenceSystem<>(newEnv.lattice, newEnv.function, state.glbAll(states));
+	}
+
 	@Override
 	public InferenceSystem<T> wideningAux(
 			InferenceSystem<T> other)
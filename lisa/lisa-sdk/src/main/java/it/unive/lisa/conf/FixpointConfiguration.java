@@ -1,7 +1,10 @@
 package it.unive.lisa.conf;
 
 import it.unive.lisa.conf.LiSAConfiguration.DescendingPhaseType;
+import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.collections.workset.WTOWorkingSet;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
 import java.util.function.Predicate;
 
 /**
@@ -41,11 +44,39 @@ public class FixpointConfiguration extends BaseConfiguration {
 	 */
 	public final boolean useWideningPoints;
 
+	/**
+	 * Whether or not the heads of the weak topological ordering of each cfg
+	 * should be used as widening points, together with the conditions of its
+	 * loops. This holds when {@link LiSAConfiguration#fixpointWorkingSet} is
+	 * {@link WTOWorkingSet}.
+	 */
+	public final boolean wtoWideningPoints;
+
 	/**
 	 * Holder of {@link LiSAConfiguration#hotspots}.
 	 */
 	public final Predicate<Statement> hotspots;
 
+	/**
+	 * Holder of {@link LiSAConfiguration#demandDrivenUnwinding}.
+	 */
+	public final boolean demandDrivenUnwinding;
+
+	/**
+	 * Holder of {@link LiSAConfiguration#unwindingCacheSize}.
+	 */
+	public final int unwindingCacheSize;
+
+	/**
+	 * Holder of {@link LiSAConfiguration#genKillSolver}.
+	 */
+	public final boolean genKillSolver;
+
+	/**
+	 * Holder of {@link LiSAConfiguration#fixpointObserver}.
+	 */
+	public final FixpointObserver<CFG, Statement> fixpointObserver;
+
 	/**
 	 * Builds the configuration.
 	 * 
@@ -60,5 +91,10 @@ public class FixpointConfiguration extends BaseConfiguration {
 		this.optimize = parent.optimize;
 		this.hotspots = parent.hotspots;
 		this.useWideningPoints = parent.useWideningPoints;
+		this.wtoWideningPoints = parent.fixpointWorkingSet == WTOWorkingSet.class;
+		this.demandDrivenUnwinding = parent.demandDrivenUnwinding;
+		this.unwindingCacheSize = parent.unwindingCacheSize;
+		this.genKillSolver = parent.genKillSolver;
+		this.fixpointObserver = parent.fixpointObserver;
 	}
 }
@@ -10,14 +10,19 @@ import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.interprocedural.OpenCallPolicy;
 import it.unive.lisa.interprocedural.WorstCasePolicy;
 import it.unive.lisa.interprocedural.callgraph.CallGraph;
+import it.unive.lisa.outputs.serializableGraph.BinaryGraph;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.controlFlow.ControlFlowExtractor;
 import it.unive.lisa.program.cfg.controlFlow.ControlFlowStructure;
+import it.unive.lisa.program.cfg.fixpoints.FixpointMetrics;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.call.OpenCall;
 import it.unive.lisa.util.collections.CollectionUtilities;
 import it.unive.lisa.util.collections.workset.DuplicateFreeFIFOWorkingSet;
+import it.unive.lisa.util.collections.workset.WTOWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
+import it.unive.lisa.util.datastructures.automaton.Automaton;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
 import it.unive.lisa.util.file.FileManager;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
@@ -86,6 +91,38 @@ public class LiSAConfiguration extends BaseConfiguration {
 		GRAPHML_WITH_SUBNODES;
 	}
 
+	/**
+	 * The formats that can be used for serializing input cfgs and analysis
+	 * results.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public static enum SerializationFormat {
+
+		/**
+		 * Graphs are serialized in json format, in files with the {@code json}
+		 * extension.
+		 */
+		JSON,
+
+		/**
+		 * Graphs are serialized in LiSA's binary format (see
+		 * {@link BinaryGraph}), in files with the
+		 * {@value BinaryGraph#EXTENSION} extension.
+		 */
+		BINARY,
+
+		/**
+		 * Graphs are serialized in LiSA's binary format (see
+		 * {@link BinaryGraph}), compressed with
+		 * {@link BinaryGraph.Compression#DEFLATE}, in files with the
+		 * {@value BinaryGraph#EXTENSION} extension. Files are smaller than
+		 * the ones produced with {@link #BINARY}, but cannot be memory mapped
+		 * when read.
+		 */
+		COMPRESSED_BINARY;
+	}
+
 	/**
 	 * The type of descending fixpoint phase algorithms that can be used.
 	 * 
@@ -122,6 +159,23 @@ public class LiSAConfiguration extends BaseConfiguration {
 	 */
 	public static final int DEFAULT_GLB_THRESHOLD = 5;
 
+	/**
+	 * The default number of expanded basic blocks kept by each optimized
+	 * result when {@link #demandDrivenUnwinding} is {@code true}.
+	 */
+	public static final int DEFAULT_UNWINDING_CACHE_SIZE = 64;
+
+	/**
+	 * The default number of results of operations on automata that are kept in
+	 * {@link Automaton#CACHE}.
+	 */
+	public static final int DEFAULT_AUTOMATA_CACHE_SIZE = 1000;
+
+	/**
+	 * The default number of threads used for dumping files.
+	 */
+	public static final int DEFAULT_DUMP_THREADS = 1;
+
 	/**
 	 * The collection of {@link SyntacticCheck}s to execute. These checks will
 	 * be immediately executed after LiSA is started, as they do not require any
@@ -173,7 +227,8 @@ public class LiSAConfiguration extends BaseConfiguration {
 
 	/**
 	 * Whether or not the inputs {@link CFG}s to the analysis should be dumped
-	 * in json format before the analysis starts. Graph files are named
+	 * in json format (or in the one selected by {@link #serializationFormat})
+	 * before the analysis starts. Graph files are named
 	 * {@code <cfg signature>_cfg.json}, and are dumped in the path pointed to
 	 * by {@link #workdir}. If {@link #analysisGraphs} is not set to
 	 * {@link GraphType#NONE}, inputs will also be dumped using the format
@@ -183,7 +238,8 @@ public class LiSAConfiguration extends BaseConfiguration {
 
 	/**
 	 * Whether or not the results of the analysis (if executed) should be dumped
-	 * in json format. Graph files are named
+	 * in json format (or in the one selected by {@link #serializationFormat}).
+	 * Graph files are named
 	 * {@code <cfg signature>[optional numeric hash]json}, and are dumped in the
 	 * path pointed to by {@link #workdir}. If {@link #analysisGraphs} is not
 	 * set to {@link GraphType#NONE}, results will also be dumped using the
@@ -191,6 +247,25 @@ public class LiSAConfiguration extends BaseConfiguration {
 	 */
 	public boolean serializeResults;
 
+	/**
+	 * The format to use when serializing inputs and results (see
+	 * {@link #serializeInputs} and {@link #serializeResults}). Defaults to
+	 * {@link SerializationFormat#JSON}.
+	 */
+	public SerializationFormat serializationFormat = SerializationFormat.JSON;
+
+	/**
+	 * The number of threads used for dumping input cfgs and analysis results
+	 * (see {@link #serializeInputs}, {@link #serializeResults}, and
+	 * {@link #analysisGraphs}), each dumping the files of a different cfg. The
+	 * contents of the files do not depend on this value. Note that, when
+	 * dumping results, the analysis results of different cfgs are queried
+	 * concurrently: values greater than 1 should be used only if the abstract
+	 * domains used in the analysis are thread-safe. Defaults to
+	 * {@link #DEFAULT_DUMP_THREADS}.
+	 */
+	public int dumpThreads = DEFAULT_DUMP_THREADS;
+
 	/**
 	 * Sets whether or not a json report file, named {@value LiSA#REPORT_NAME},
 	 * should be created and dumped in the working directory at the end of the
@@ -246,7 +321,10 @@ public class LiSAConfiguration extends BaseConfiguration {
 
 	/**
 	 * The concrete class of {@link WorkingSet} to be used in fixpoints.
-	 * Defaults to {@link DuplicateFreeFIFOWorkingSet}.
+	 * Defaults to {@link DuplicateFreeFIFOWorkingSet}. Selecting
+	 * {@link WTOWorkingSet} will cause forward fixpoints to process statements
+	 * following the weak topological ordering of each cfg, also using the
+	 * heads of such ordering as additional widening points.
 	 */
 	public Class<?> fixpointWorkingSet = DuplicateFreeFIFOWorkingSet.class;
 
@@ -306,6 +384,61 @@ public class LiSAConfiguration extends BaseConfiguration {
 	 */
 	public boolean dumpForcesUnwinding = false;
 
+	/**
+	 * When {@link #optimize} is {@code true}, this field controls how missing
+	 * post-states are computed when queried. If {@code false}, the first query
+	 * on a cfg unwinds all of its results through a fixpoint iteration. If
+	 * {@code true}, only the basic block containing the queried statement is
+	 * re-executed, starting from the stored post-states of its predecessors
+	 * (recursively expanding their basic blocks if those are not available).
+	 * Expanded blocks are kept in a cache of size {@link #unwindingCacheSize}.
+	 * This is useful when only few statements are queried, as it avoids
+	 * re-analyzing and storing the whole cfg. Defaults to {@code false}.
+	 */
+	public boolean demandDrivenUnwinding = false;
+
+	/**
+	 * When {@link #demandDrivenUnwinding} is {@code true}, the maximum number
+	 * of expanded basic blocks that each optimized cfg keeps in memory, after
+	 * which the least recently queried ones are discarded. Defaults to
+	 * {@link #DEFAULT_UNWINDING_CACHE_SIZE}.
+	 */
+	public int unwindingCacheSize = DEFAULT_UNWINDING_CACHE_SIZE;
+
+	/**
+	 * The maximum number of results of operations on automata (e.g., the ones
+	 * used by string domains) that are kept in {@link Automaton#CACHE} during
+	 * the analysis, after which the least recently used ones are discarded.
+	 * Setting this to {@code 0} disables the cache. Defaults to
+	 * {@link #DEFAULT_AUTOMATA_CACHE_SIZE}.
+	 */
+	public int automataCacheSize = DEFAULT_AUTOMATA_CACHE_SIZE;
+
+	/**
+	 * If {@code true}, fixpoints over cfgs whose abstract state is a
+	 * {@code SimpleAbstractState} with a {@code PossibleDataflowDomain} or a
+	 * {@code DefiniteDataflowDomain} as value component will be computed by a
+	 * {@code GenKillSolver}, that reduces the transfer function of each
+	 * statement to gen and kill bit vectors instead of evaluating its
+	 * semantics at each iteration. This is sound only for dataflow elements
+	 * whose gen and kill sets do not depend on the incoming state (see the
+	 * documentation of {@code GenKillSolver} for details), and it is ignored
+	 * when {@link #optimize} is {@code true}. Defaults to {@code false}.
+	 */
+	public boolean genKillSolver = false;
+
+	/**
+	 * The {@link FixpointObserver} to notify of the events of the fixpoints
+	 * executed by the analysis, used to profile it. If this is a
+	 * {@link FixpointMetrics} instance, the collected metrics are dumped to
+	 * {@link FixpointMetrics#METRICS_FILE} and
+	 * {@link FixpointMetrics#FOLDED_STACKS_FILE} at the end of the analysis,
+	 * and their totals are embedded in the json report (if
+	 * {@link #jsonOutput} is set). Defaults to {@code null}, meaning that no
+	 * information about fixpoints is collected.
+	 */
+	public FixpointObserver<CFG, Statement> fixpointObserver = null;
+
 	@Override
 	public String toString() {
 		StringBuilder res = new StringBuilder();
@@ -333,6 +466,8 @@ public class LiSAConfiguration extends BaseConfiguration {
 					else if (Predicate.class.isAssignableFrom(field.getType()))
 						// not sure how we can get more details reliably
 						res.append(": ").append(value == null ? "unset" : "set");
+					else if (FixpointObserver.class.isAssignableFrom(field.getType()))
+						res.append(": ").append(value == null ? "unset" : value.getClass().getSimpleName());
 					else
 						res.append(": ").append(String.valueOf(value));
 				}
@@ -373,6 +508,8 @@ public class LiSAConfiguration extends BaseConfiguration {
 					else if (Predicate.class.isAssignableFrom(field.getType()))
 						// not sure how we can get more details reliably
 						val = value == null ? "unset" : "set";
+					else if (FixpointObserver.class.isAssignableFrom(field.getType()))
+						val = value == null ? "unset" : value.getClass().getSimpleName();
 					else
 						val = String.valueOf(value);
 					bag.put(key, val);
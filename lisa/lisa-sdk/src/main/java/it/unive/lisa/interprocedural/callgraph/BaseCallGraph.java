@@ -4,6 +4,7 @@ import it.unive.lisa.analysis.symbols.Aliases;
 import it.unive.lisa.analysis.symbols.NameSymbol;
 import it.unive.lisa.analysis.symbols.QualifiedNameSymbol;
 import it.unive.lisa.analysis.symbols.QualifierSymbol;
+import it.unive.lisa.analysis.symbols.Symbol;
 import it.unive.lisa.analysis.symbols.SymbolAliasing;
 import it.unive.lisa.program.Application;
 import it.unive.lisa.program.CompilationUnit;
@@ -26,6 +27,7 @@ import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
 import it.unive.lisa.program.language.hierarchytraversal.HierarcyTraversalStrategy;
 import it.unive.lisa.program.language.resolution.ParameterMatchingStrategy;
 import it.unive.lisa.type.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -34,6 +36,7 @@ import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -60,6 +63,40 @@ public abstract class BaseCallGraph extends CallGraph {
 
 	private final Map<UnresolvedCall, Map<List<Set<Type>>, Call>> resolvedCache = new IdentityHashMap<>();
 
+	/**
+	 * The non-instance code members of the application, indexed by name. This
+	 * is built once when the call graph is initialized, and it avoids scanning
+	 * all code members of the application when resolving non-instance calls.
+	 */
+	private final Map<String, Collection<CodeMember>> nonInstanceMembers = new HashMap<>();
+
+	/**
+	 * The instance code members defined in each unit (without traversing its
+	 * hierarchy), indexed by name. Each unit is indexed the first time it is
+	 * visited while resolving an instance call.
+	 */
+	private final Map<CompilationUnit, Map<String, Collection<CodeMember>>> instanceMembers = new HashMap<>();
+
+	/**
+	 * Whether or not code members are matched against calls by
+	 * {@link #matchCodeMemberName(UnresolvedCall, String, String)} as defined
+	 * in this class, that is, by name. If that method is overridden, the
+	 * indexes by name cannot be used to restrict the candidate targets of
+	 * calls, and all code members are inspected instead.
+	 */
+	private boolean matchByName;
+
+	/**
+	 * The aliasing information that {@link #aliasedNames} has been built from.
+	 */
+	private SymbolAliasing indexedAliasing;
+
+	/**
+	 * For each name, the names of the symbols it has been aliased to in
+	 * {@link #indexedAliasing}.
+	 */
+	private final Map<String, Set<String>> aliasedNames = new HashMap<>();
+
 	@Override
 	public void init(
 			Application app)
@@ -68,6 +105,14 @@ public abstract class BaseCallGraph extends CallGraph {
 		this.app = app;
 		this.callsites.clear();
 		this.resolvedCache.clear();
+		this.instanceMembers.clear();
+		this.nonInstanceMembers.clear();
+		this.indexedAliasing = null;
+		this.aliasedNames.clear();
+		this.matchByName = matchesByName();
+		for (CodeMember cm : app.getAllCodeCodeMembers())
+			if (!cm.getDescriptor().isInstance())
+				nonInstanceMembers.computeIfAbsent(cm.getDescriptor().getName(), k -> new ArrayList<>()).add(cm);
 	}
 
 	@Override
@@ -101,6 +146,8 @@ public abstract class BaseCallGraph extends CallGraph {
 			throws CallResolutionException {
 		List<Set<Type>> typeList = Arrays.asList(types);
 		Call cached = resolvedCache.getOrDefault(call, Map.of()).get(typeList);
+		if (observer != null)
+			observer.callResolutionLookup(call.getCFG(), call, cached != null);
 		if (cached != null)
 			return cached;
 
@@ -340,7 +387,7 @@ public abstract class BaseCallGraph extends CallGraph {
 			Collection<NativeCFG> natives,
 			SymbolAliasing aliasing)
 			throws CallResolutionException {
-		for (CodeMember cm : app.getAllCodeCodeMembers())
+		for (CodeMember cm : candidates(nonInstanceMembers, targetNames(call, aliasing)))
 			checkMember(call, types, targets, natives, aliasing, cm, false);
 	}
 
@@ -371,6 +418,7 @@ public abstract class BaseCallGraph extends CallGraph {
 			throw new CallResolutionException(
 					"An instance call should have at least one parameter to be used as the receiver of the call");
 		Expression receiver = call.getParameters()[0];
+		Set<String> names = targetNames(call, aliasing);
 		for (Type recType : getPossibleTypesOfReceiver(receiver, types[0])) {
 			CompilationUnit unit;
 			if (recType.isUnitType())
@@ -385,11 +433,106 @@ public abstract class BaseCallGraph extends CallGraph {
 			for (CompilationUnit cu : strategy.traverse(call, unit))
 				if (seen.add(cu))
 					// we inspect only the ones of the current unit
-					for (CodeMember cm : cu.getInstanceCodeMembers(false))
+					for (CodeMember cm : candidates(instanceMembers.computeIfAbsent(cu, BaseCallGraph::index), names))
 						checkMember(call, types, targets, natives, aliasing, cm, true);
 		}
 	}
 
+	private static Map<String, Collection<CodeMember>> index(
+			CompilationUnit unit) {
+		Map<String, Collection<CodeMember>> index = new HashMap<>();
+		for (CodeMember cm : unit.getInstanceCodeMembers(false))
+			index.computeIfAbsent(cm.getDescriptor().getName(), k -> new ArrayList<>()).add(cm);
+		return index;
+	}
+
+	private boolean matchesByName() {
+		try {
+			return getClass()
+					.getMethod("matchCodeMemberName", UnresolvedCall.class, String.class, String.class)
+					.getDeclaringClass() == BaseCallGraph.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	private static Collection<CodeMember> candidates(
+			Map<String, Collection<CodeMember>> index,
+			Set<String> names) {
+		Collection<CodeMember> result;
+		if (names == null) {
+			result = new ArrayList<>();
+			index.values().forEach(result::addAll);
+			return result;
+		}
+
+		if (names.size() == 1)
+			return index.getOrDefault(names.iterator().next(), Collections.emptyList());
+
+		result = new ArrayList<>();
+		for (String name : names)
+			result.addAll(index.getOrDefault(name, Collections.emptyList()));
+		return result;
+	}
+
+	/**
+	 * Yields the names of the code members that can be targeted by the given
+	 * call, that is, the name of its target and all the names that have been
+	 * aliased to it. The result is an over-approximation, since each candidate
+	 * is then matched against the call by {@code checkMember}. If
+	 * {@link #matchCodeMemberName(UnresolvedCall, String, String)} has been
+	 * overridden, any name can be targeted, and {@code null} is returned.
+	 * 
+	 * @param call     the call
+	 * @param aliasing the symbol aliasing information
+	 * 
+	 * @return the names of the candidate targets, or {@code null} if all code
+	 *             members are candidates
+	 */
+	private Set<String> targetNames(
+			UnresolvedCall call,
+			SymbolAliasing aliasing) {
+		if (!matchByName)
+			return null;
+
+		String target = call.getTargetName();
+		if (aliasing == null || aliasing.getMap().isEmpty())
+			return Collections.singleton(target);
+
+		if (aliasing != indexedAliasing) {
+			// the reverse index of the aliases is built once for each
+			// aliasing information, as it is usually shared among the
+			// states of the whole analysis
+			aliasedNames.clear();
+			for (Entry<Symbol, Aliases> entry : aliasing.getMap().entrySet()) {
+				String name = nameOf(entry.getKey());
+				if (name != null)
+					for (Symbol alias : entry.getValue()) {
+						String aliasName = nameOf(alias);
+						if (aliasName != null)
+							aliasedNames.computeIfAbsent(aliasName, k -> new HashSet<>()).add(name);
+					}
+			}
+			indexedAliasing = aliasing;
+		}
+
+		Set<String> aliased = aliasedNames.get(target);
+		if (aliased == null)
+			return Collections.singleton(target);
+		Set<String> names = new HashSet<>(aliased);
+		names.add(target);
+		return names;
+	}
+
+	private static String nameOf(
+			Symbol symbol) {
+		if (symbol instanceof NameSymbol)
+			return ((NameSymbol) symbol).getName();
+		if (symbol instanceof QualifiedNameSymbol)
+			return ((QualifiedNameSymbol) symbol).getName();
+		return null;
+	}
+
 	/**
 	 * Checks if the given code member {@code cm} is a candidate target for the
 	 * given call, and proceeds to add it to the set of targets if it is.
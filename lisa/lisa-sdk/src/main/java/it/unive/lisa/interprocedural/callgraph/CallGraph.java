@@ -2,7 +2,9 @@ package it.unive.lisa.interprocedural.callgraph;
 
 import it.unive.lisa.analysis.symbols.SymbolAliasing;
 import it.unive.lisa.program.Application;
+import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CodeMember;
+import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.call.CFGCall;
 import it.unive.lisa.program.cfg.statement.call.Call;
 import it.unive.lisa.program.cfg.statement.call.UnresolvedCall;
@@ -10,9 +12,14 @@ import it.unive.lisa.type.Type;
 import it.unive.lisa.util.collections.workset.VisitOnceFIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.VisitOnceWorkingSet;
 import it.unive.lisa.util.datastructures.graph.BaseGraph;
-import it.unive.lisa.util.datastructures.graph.algorithms.SCCs;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -24,6 +31,56 @@ import java.util.stream.Collectors;
  */
 public abstract class CallGraph extends BaseGraph<CallGraph, CallGraphNode, CallGraphEdge> {
 
+	/**
+	 * The strongly connected components of this call graph, in reverse
+	 * topological order, computed lazily from {@link #positions} and cached
+	 * until the components or their order change. This is {@code null} if no
+	 * valid cached value exists.
+	 */
+	private List<Collection<CodeMember>> components;
+
+	/**
+	 * The strongly connected components of this call graph, maintained
+	 * incrementally as edges are added: each code member is mapped to the
+	 * root of its component, and roots are mapped to themselves. Since all
+	 * members of a component are re-mapped when components are merged, a
+	 * single lookup is enough to find the root of a code member.
+	 */
+	private final Map<CodeMember, CodeMember> roots = new HashMap<>();
+
+	/**
+	 * The position of each component, identified by its root in
+	 * {@link #roots}, in a topological order of the components: if a member of
+	 * a component calls a member of another one, the former has a lower
+	 * position. Positions are not contiguous.
+	 */
+	private final Map<CodeMember, Integer> positions = new HashMap<>();
+
+	/**
+	 * The position to assign to the next component.
+	 */
+	private int nextPosition;
+
+	/**
+	 * The non-trivial strongly connected components of this call graph,
+	 * maintained incrementally as edges are added. Each member of a component
+	 * is mapped to the same collection instance, while members that are not
+	 * part of any non-trivial component are not present in the map.
+	 */
+	private final Map<CodeMember, Collection<CodeMember>> recursive = new HashMap<>();
+
+	/**
+	 * The recursions of this call graph, computed lazily from
+	 * {@link #recursive} and cached until a new recursion is found. This is
+	 * {@code null} if no valid cached value exists.
+	 */
+	private Collection<Collection<CodeMember>> recursions;
+
+	/**
+	 * The observer notified of the lookups of already resolved calls, if any.
+	 */
+	protected FixpointObserver<CFG, Statement> observer;
+
 	/**
 	 * Initializes the call graph of the given program. A call to this method
 	 * should effectively re-initialize the call graph as if it is yet to be
@@ -39,6 +96,194 @@ public abstract class CallGraph extends BaseGraph<CallGraph, CallGraphNode, Call
 			throws CallGraphConstructionException {
 		entrypoints.clear();
 		adjacencyMatrix.clear();
+		invalidate();
+	}
+
+	/**
+	 * Sets the observer to notify when calls are resolved, through
+	 * {@link FixpointObserver#callResolutionLookup(Object, Object, boolean)}.
+	 * A {@code null} observer disables notifications.
+	 * 
+	 * @param observer the observer
+	 */
+	public void setObserver(
+			FixpointObserver<CFG, Statement> observer) {
+		this.observer = observer;
+	}
+
+	@Override
+	public void addNode(
+			CallGraphNode node,
+			boolean entrypoint) {
+		super.addNode(node, entrypoint);
+		rootOf(node.getCodeMember());
+	}
+
+	@Override
+	public void addEdge(
+			CallGraphEdge edge) {
+		if (isKnownEdge(edge))
+			return;
+		super.addEdge(edge);
+		trackRecursions(edge.getSource().getCodeMember(), edge.getDestination().getCodeMember());
+	}
+
+	private void invalidate() {
+		components = null;
+		roots.clear();
+		positions.clear();
+		nextPosition = 0;
+		recursive.clear();
+		recursions = null;
+	}
+
+	/**
+	 * Yields the root of the component containing the given code member,
+	 * creating a new trivial component placed after all existing ones if the
+	 * code member is not yet part of this call graph.
+	 * 
+	 * @param cm the code member
+	 * 
+	 * @return the root of the component of {@code cm}
+	 */
+	private CodeMember rootOf(
+			CodeMember cm) {
+		CodeMember root = roots.get(cm);
+		if (root != null)
+			return root;
+
+		roots.put(cm, cm);
+		positions.put(cm, nextPosition++);
+		components = null;
+		return cm;
+	}
+
+	private Collection<CodeMember> membersOf(
+			CodeMember root) {
+		Collection<CodeMember> component = recursive.get(root);
+		return component == null ? Collections.singleton(root) : component;
+	}
+
+	/**
+	 * Updates the components of this call graph after an edge from
+	 * {@code source} to {@code destination} has been added, following the
+	 * incremental algorithm by Pearce and Kelly. If the component of
+	 * {@code source} already comes before the one of {@code destination} in
+	 * {@link #positions}, the order is still valid and nothing needs to be
+	 * done: this is the case for most edges. Otherwise, only the components
+	 * whose position lies between the two are visited, collecting the ones
+	 * reachable from {@code destination} and the ones that can reach
+	 * {@code source}. Components appearing in both sets form a cycle closed by
+	 * the new edge, and are merged into a single one. All the visited
+	 * components are then reordered among the positions they occupied,
+	 * placing the ones reaching {@code source} before the ones reachable from
+	 * {@code destination}.
+	 * 
+	 * @param source      the code member calling {@code destination}
+	 * @param destination the code member called by {@code source}
+	 */
+	private void trackRecursions(
+			CodeMember source,
+			CodeMember destination) {
+		CodeMember from = rootOf(source);
+		CodeMember to = rootOf(destination);
+		if (from.equals(to)) {
+			// members of non-trivial components are already recursive
+			if (!recursive.containsKey(source))
+				merge(Collections.singleton(source));
+			return;
+		}
+
+		int lower = positions.get(to);
+		int upper = positions.get(from);
+		if (upper < lower)
+			return;
+
+		Collection<CodeMember> reachable = visit(to, true, lower, upper);
+		Collection<CodeMember> reaching = visit(from, false, lower, upper);
+		List<Integer> slots = new ArrayList<>(reachable.size() + reaching.size());
+		Set<CodeMember> cycle = new HashSet<>();
+		for (CodeMember root : reachable) {
+			slots.add(positions.get(root));
+			if (reaching.contains(root))
+				cycle.add(root);
+		}
+		for (CodeMember root : reaching)
+			if (!cycle.contains(root))
+				slots.add(positions.get(root));
+		Collections.sort(slots);
+
+		List<CodeMember> before = sortByPosition(reaching, cycle);
+		List<CodeMember> after = sortByPosition(reachable, cycle);
+		for (int i = 0; i < before.size(); i++)
+			positions.put(before.get(i), slots.get(i));
+		for (int i = 0; i < after.size(); i++)
+			positions.put(after.get(i), slots.get(slots.size() - after.size() + i));
+		if (!cycle.isEmpty()) {
+			Set<CodeMember> members = new HashSet<>();
+			for (CodeMember root : cycle) {
+				members.addAll(membersOf(root));
+				positions.remove(root);
+			}
+			CodeMember root = merge(members);
+			positions.put(root, slots.get(before.size()));
+		}
+		components = null;
+	}
+
+	private Collection<CodeMember> visit(
+			CodeMember start,
+			boolean forward,
+			int lower,
+			int upper) {
+		VisitOnceWorkingSet<CodeMember> ws = VisitOnceFIFOWorkingSet.mk();
+		ws.push(start);
+		while (!ws.isEmpty())
+			for (CodeMember member : membersOf(ws.pop()))
+				for (CodeMember next : forward ? getCallees(member) : getCallers(member)) {
+					CodeMember root = rootOf(next);
+					int position = positions.get(root);
+					if (lower <= position && position <= upper)
+						ws.push(root);
+				}
+		return ws.getSeen();
+	}
+
+	private List<CodeMember> sortByPosition(
+			Collection<CodeMember> roots,
+			Set<CodeMember> excluded) {
+		List<CodeMember> result = new ArrayList<>(roots.size());
+		for (CodeMember root : roots)
+			if (!excluded.contains(root))
+				result.add(root);
+		result.sort((
+				l,
+				r) -> Integer.compare(positions.get(l), positions.get(r)));
+		return result;
+	}
+
+	private CodeMember merge(
+			Collection<CodeMember> members) {
+		Collection<CodeMember> component = Collections.unmodifiableSet(new HashSet<>(members));
+		CodeMember root = members.iterator().next();
+		for (CodeMember cm : component) {
+			recursive.put(cm, component);
+			roots.put(cm, root);
+		}
+		recursions = null;
+		return root;
+	}
+
+	/**
+	 * Yields {@code true} if the given edge is already part of this call graph.
+	 * 
+	 * @param edge the edge to check
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	protected boolean isKnownEdge(
+			CallGraphEdge edge) {
+		return containsNode(edge.getSource()) && getOutgoingEdges(edge.getSource()).contains(edge);
 	}
 
 	/**
@@ -232,22 +477,68 @@ public abstract class CallGraph extends BaseGraph<CallGraph, CallGraphNode, Call
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * Yields all the strongly connected components of this call graph, in the
+	 * form of collections of the {@link CodeMember}s composing them, including
+	 * trivial ones made of a single code member. Components are sorted in
+	 * reverse topological order: each component comes after all the ones that
+	 * its members call, directly or transitively. Components and their order
+	 * are maintained incrementally as edges are added, and this list is only
+	 * rebuilt from them when requested after they changed: the same instance
+	 * is returned otherwise. Membership queries should instead go through
+	 * {@link #getComponentOf(CodeMember)}. The returned list is unmodifiable.
+	 * 
+	 * @return the strongly connected components
+	 */
+	public List<Collection<CodeMember>> getComponents() {
+		if (components != null)
+			return components;
+
+		List<CodeMember> sorted = new ArrayList<>(new HashSet<>(roots.values()));
+		sorted.sort((
+				l,
+				r) -> Integer.compare(positions.get(r), positions.get(l)));
+		List<Collection<CodeMember>> result = new ArrayList<>(sorted.size());
+		for (CodeMember root : sorted)
+			result.add(membersOf(root));
+
+		components = Collections.unmodifiableList(result);
+		return components;
+	}
+
+	/**
+	 * Yields the strongly connected component of this call graph that contains
+	 * the given code member (see {@link #getComponents()}). Code members that
+	 * are not part of any cycle form a trivial component on their own. This
+	 * does not require a visit of the call graph, as components are merged as
+	 * soon as an edge closing a cycle is added.
+	 * 
+	 * @param cm the code member
+	 * 
+	 * @return the component containing {@code cm}
+	 */
+	public Collection<CodeMember> getComponentOf(
+			CodeMember cm) {
+		Collection<CodeMember> component = recursive.get(cm);
+		return component == null ? Collections.singleton(cm) : component;
+	}
+
 	/**
 	 * Yields all the recursions that happens in the program, in the form of
-	 * collections of the {@link CodeMember}s composing them.
+	 * collections of the {@link CodeMember}s composing them. These are the
+	 * non-trivial components of {@link #getComponents()}, that is, the ones
+	 * with more than one member or whose only member calls itself. The
+	 * returned collection is unmodifiable, and it is cached until a new
+	 * recursion is found.
 	 * 
 	 * @return the recursions
 	 */
 	public Collection<Collection<CodeMember>> getRecursions() {
-		Collection<Collection<CallGraphNode>> sccs = new SCCs<
-				CallGraph,
-				CallGraphNode,
-				CallGraphEdge>().buildNonTrivial(this);
-		return sccs.stream()
-				.map(nodes -> nodes.stream()
-						.map(node -> node.getCodeMember())
-						.collect(Collectors.toSet()))
-				.collect(Collectors.toSet());
+		if (recursions != null)
+			return recursions;
+
+		recursions = Collections.unmodifiableSet(new HashSet<>(recursive.values()));
+		return recursions;
 	}
 
 	/**
@@ -261,15 +552,36 @@ public abstract class CallGraph extends BaseGraph<CallGraph, CallGraphNode, Call
 	 */
 	public Collection<Collection<CodeMember>> getRecursionsContaining(
 			CodeMember cm) {
-		Collection<Collection<CallGraphNode>> sccs = new SCCs<
-				CallGraph,
-				CallGraphNode,
-				CallGraphEdge>().buildNonTrivial(this);
-		return sccs.stream()
-				.map(nodes -> nodes.stream()
-						.map(node -> node.getCodeMember())
-						.collect(Collectors.toSet()))
+		return getRecursions().stream()
 				.filter(members -> members.contains(cm))
 				.collect(Collectors.toSet());
 	}
+
+	/**
+	 * Yields {@code true} if the given call is part of a recursion, that is, if
+	 * the code member containing it can be reached, directly or transitively,
+	 * from one of its targets. For calls that have been registered in this
+	 * call graph, this is answered through the incrementally maintained
+	 * components (see {@link #getComponentOf(CodeMember)}).
+	 * The returned value might be partial if this call graph is not fully
+	 * built.
+	 * 
+	 * @param call the call to check
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isRecursive(
+			CFGCall call) {
+		CFG caller = call.getCFG();
+		Collection<CodeMember> component = recursive.get(caller);
+		CallGraphNode source = new CallGraphNode(this, caller);
+		for (CFG target : call.getTargetedCFGs()) {
+			if (target.equals(caller) || (component != null && component == recursive.get(target)))
+				return true;
+			if (!isKnownEdge(new CallGraphEdge(source, new CallGraphNode(this, target))))
+				// the components are exact only for registered calls
+				return getCalleesTransitively(call.getTargets()).contains(caller);
+		}
+		return false;
+	}
 }
@@ -2,6 +2,7 @@ package it.unive.lisa.outputs;
 
 import it.unive.lisa.outputs.serializableGraph.SerializableArray;
 import it.unive.lisa.outputs.serializableGraph.SerializableEdge;
+import it.unive.lisa.outputs.serializableGraph.SerializableGraph;
 import it.unive.lisa.outputs.serializableGraph.SerializableNode;
 import it.unive.lisa.outputs.serializableGraph.SerializableObject;
 import it.unive.lisa.outputs.serializableGraph.SerializableString;
@@ -14,9 +15,13 @@ import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.graphstream.graph.Edge;
@@ -145,21 +150,33 @@ public class DotGraph extends GraphStreamWrapper {
 			boolean exit,
 			SerializableValue label) {
 		Node n = graph.addNode(nodeName(node.getId()));
+		nodeAttributes(node, entry, exit, label).forEach((
+				k,
+				v) -> n.setAttribute(k, v));
+	}
 
-		n.setAttribute(SHAPE, NODE_SHAPE);
+	private static Map<String, Object> nodeAttributes(
+			SerializableNode node,
+			boolean entry,
+			boolean exit,
+			SerializableValue label) {
+		Map<String, Object> attrs = new LinkedHashMap<>();
+
+		attrs.put(SHAPE, NODE_SHAPE);
 		if (entry || exit)
-			n.setAttribute(COLOR, SPECIAL_NODE_COLOR);
+			attrs.put(COLOR, SPECIAL_NODE_COLOR);
 		else
-			n.setAttribute(COLOR, NORMAL_NODE_COLOR);
+			attrs.put(COLOR, NORMAL_NODE_COLOR);
 
 		if (exit)
-			n.setAttribute(EXIT_NODE_EXTRA_ATTR, EXIT_NODE_EXTRA_VALUE);
+			attrs.put(EXIT_NODE_EXTRA_ATTR, EXIT_NODE_EXTRA_VALUE);
 
 		String l = dotEscape(node.getText());
 		String extra = "";
 		if (label != null)
 			extra = "<BR/><BR/>" + dotEscape(format(label));
-		n.setAttribute(LABEL, "<" + l + extra + ">");
+		attrs.put(LABEL, "<" + l + extra + ">");
+		return attrs;
 	}
 
 	private static String format(
@@ -212,21 +229,30 @@ public class DotGraph extends GraphStreamWrapper {
 		long id1 = edge.getDestId();
 
 		Edge e = graph.addEdge(edgeName(id, id1), nodeName(id), nodeName(id1), true);
+		edgeAttributes(edge).forEach((
+				k,
+				v) -> e.setAttribute(k, v));
+	}
+
+	private static Map<String, Object> edgeAttributes(
+			SerializableEdge edge) {
+		Map<String, Object> attrs = new LinkedHashMap<>();
 
 		switch (edge.getKind()) {
 		case "TrueEdge":
-			e.setAttribute(STYLE, CONDITIONAL_EDGE_STYLE);
-			e.setAttribute(COLOR, COLOR_BLUE);
+			attrs.put(STYLE, CONDITIONAL_EDGE_STYLE);
+			attrs.put(COLOR, COLOR_BLUE);
 			break;
 		case "FalseEdge":
-			e.setAttribute(STYLE, CONDITIONAL_EDGE_STYLE);
-			e.setAttribute(COLOR, COLOR_RED);
+			attrs.put(STYLE, CONDITIONAL_EDGE_STYLE);
+			attrs.put(COLOR, COLOR_RED);
 			break;
 		case "SequentialEdge":
 		default:
-			e.setAttribute(COLOR, COLOR_BLACK);
+			attrs.put(COLOR, COLOR_BLACK);
 			break;
 		}
+		return attrs;
 	}
 
 	@Override
@@ -236,13 +262,8 @@ public class DotGraph extends GraphStreamWrapper {
 		FileSinkDOT sink = new CustomDotSink() {
 			@Override
 			protected void outputEndOfFile() throws IOException {
-				if (DotGraph.this.legend != null) {
-					LegendClusterSink legend = new LegendClusterSink();
-					legend.setDirected(true);
-					StringWriter sw = new StringWriter();
-					legend.writeAll(DotGraph.this.legend, sw);
-					out.printf("%s%n", sw.toString());
-				}
+				if (DotGraph.this.legend != null)
+					out.printf("%s%n", DotGraph.this.legend());
 				super.outputEndOfFile();
 			}
 		};
@@ -250,6 +271,128 @@ public class DotGraph extends GraphStreamWrapper {
 		sink.writeAll(graph, writer);
 	}
 
+	/**
+	 * Writes the Dot representation of the graph that
+	 * {@link SerializableGraph#toDot()} would build from the given nodes,
+	 * edges and labels, with the same contents of {@link #dump(Writer)}. The
+	 * graph is never built: each node is written as soon as its label is
+	 * generated, so that at most one label is kept in memory at any time. Both
+	 * {@code nodes} and {@code edges} are iterated twice, and should thus yield
+	 * the same elements, sorted by id, at each iteration.
+	 * 
+	 * @param title  the title of the graph, if any
+	 * @param nodes  the nodes of the graph
+	 * @param edges  the edges of the graph
+	 * @param labels the function yielding the additional label of the node
+	 *                   with the given id (the function can return
+	 *                   {@code null})
+	 * @param writer the writer to use for dumping the graph
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static void dump(
+			String title,
+			Iterable<SerializableNode> nodes,
+			Iterable<SerializableEdge> edges,
+			IntFunction<SerializableValue> labels,
+			Writer writer)
+			throws IOException {
+		Set<Integer> hasFollows = new HashSet<>();
+		Set<Integer> hasPreds = new HashSet<>();
+		Set<Integer> inners = new HashSet<>();
+
+		for (SerializableEdge e : edges) {
+			hasFollows.add(e.getSourceId());
+			hasPreds.add(e.getDestId());
+		}
+		for (SerializableNode n : nodes)
+			inners.addAll(n.getSubNodes());
+
+		// only used for the header and the legend
+		DotGraph graph = new DotGraph(title);
+		writer.write(graph.header());
+
+		for (SerializableNode n : nodes)
+			if (!inners.contains(n.getId())) {
+				Map<String, Object> attrs = nodeAttributes(n,
+						!hasPreds.contains(n.getId()),
+						!hasFollows.contains(n.getId()),
+						labels.apply(n.getId()));
+				writer.write(String.format("\t%s %s;%n", quote(nodeName(n.getId())), formatAttributes(attrs)));
+			}
+
+		for (SerializableEdge e : edges)
+			writer.write(String.format("\t%s -> %s %s;%n",
+					quote(nodeName(e.getSourceId())),
+					quote(nodeName(e.getDestId())),
+					formatAttributes(edgeAttributes(e))));
+
+		writer.write(String.format("%s%n", graph.legend()));
+		writer.write(String.format("}%n"));
+	}
+
+	private static String quote(
+			String id) {
+		return "\"" + id + "\"";
+	}
+
+	private String header() {
+		StringBuilder header = new StringBuilder(String.format("%s {%n", "digraph"));
+		if (title != null) {
+			header.append(String.format("\tlabelloc=\"t\";%n"));
+			header.append(String.format("\tlabel=\"%s\";%n", title));
+		}
+		return header.toString();
+	}
+
+	private String legend() throws IOException {
+		LegendClusterSink sink = new LegendClusterSink();
+		sink.setDirected(true);
+		StringWriter sw = new StringWriter();
+		sink.writeAll(legend, sw);
+		return sw.toString();
+	}
+
+	private static String formatAttribute(
+			String key,
+			Object value,
+			boolean first) {
+		boolean quote = true;
+
+		if (value instanceof Number || key.equals(LABEL))
+			// labels that we output are always in html format
+			// so no need to quote them
+			quote = false;
+
+		Object quoting = quote ? "\"" : "";
+		return String.format("%s%s=%s%s%s", first ? "" : ",", key, quoting, value, quoting);
+	}
+
+	private static String formatAttributes(
+			Map<String, Object> attributes) {
+		if (attributes.isEmpty())
+			return "";
+
+		Map<String, String> attrs = new HashMap<>();
+		attributes.forEach((
+				key,
+				value) -> attrs.put(key, formatAttribute(key, value, true)));
+
+		StringBuilder buffer = new StringBuilder("[");
+		for (Entry<String, String> entry : attrs.entrySet())
+			if (!entry.getKey().equals(LABEL))
+				buffer.append(entry.getValue()).append(",");
+
+		if (attrs.containsKey(LABEL))
+			buffer.append(attrs.get(LABEL));
+
+		String result = buffer.toString();
+		if (result.endsWith(","))
+			result = result.substring(0, result.length() - 1);
+
+		return result + "]";
+	}
+
 	/**
 	 * Reads a graph through the given {@link Reader}. Any legend (i.e.,
 	 * subgraph) will be stripped from the input.
@@ -312,12 +455,7 @@ public class DotGraph extends GraphStreamWrapper {
 		@Override
 		protected void outputHeader() throws IOException {
 			out = (PrintWriter) output;
-			out.printf("%s {%n", "digraph");
-
-			if (title != null) {
-				out.printf("\tlabelloc=\"t\";%n");
-				out.printf("\tlabel=\"" + title + "\";%n");
-			}
+			out.print(DotGraph.this.header());
 		}
 
 		@Override
@@ -325,39 +463,15 @@ public class DotGraph extends GraphStreamWrapper {
 				String key,
 				Object value,
 				boolean first) {
-			boolean quote = true;
-
-			if (value instanceof Number || key.equals(LABEL))
-				// labels that we output are always in html format
-				// so no need to quote them
-				quote = false;
-
-			Object quoting = quote ? "\"" : "";
-			return String.format("%s%s=%s%s%s", first ? "" : ",", key, quoting, value, quoting);
+			return formatAttribute(key, value, first);
 		}
 
 		@Override
 		protected String outputAttributes(
 				Element e) {
-			if (e.getAttributeCount() == 0)
-				return "";
-
-			Map<String, String> attrs = new HashMap<>();
-			e.attributeKeys().forEach(key -> attrs.put(key, outputAttribute(key, e.getAttribute(key), true)));
-
-			StringBuilder buffer = new StringBuilder("[");
-			for (Entry<String, String> entry : attrs.entrySet())
-				if (!entry.getKey().equals(LABEL))
-					buffer.append(entry.getValue()).append(",");
-
-			if (attrs.containsKey(LABEL))
-				buffer.append(attrs.get(LABEL));
-
-			String result = buffer.toString();
-			if (result.endsWith(","))
-				result = result.substring(0, result.length() - 1);
-
-			return result + "]";
+			Map<String, Object> attrs = new LinkedHashMap<>();
+			e.attributeKeys().forEach(key -> attrs.put(key, e.getAttribute(key)));
+			return formatAttributes(attrs);
 		}
 	}
 
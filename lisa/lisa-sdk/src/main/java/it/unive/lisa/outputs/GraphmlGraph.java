@@ -2,6 +2,7 @@ package it.unive.lisa.outputs;
 
 import it.unive.lisa.outputs.serializableGraph.SerializableArray;
 import it.unive.lisa.outputs.serializableGraph.SerializableEdge;
+import it.unive.lisa.outputs.serializableGraph.SerializableGraph;
 import it.unive.lisa.outputs.serializableGraph.SerializableNode;
 import it.unive.lisa.outputs.serializableGraph.SerializableObject;
 import it.unive.lisa.outputs.serializableGraph.SerializableString;
@@ -10,11 +11,15 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
@@ -48,6 +53,7 @@ public class GraphmlGraph extends GraphStreamWrapper {
 	private static final String GRAPH_TITLE = "GRAPH_TITLE";
 	private static final String NO = "no";
 	private static final String YES = "yes";
+	private static final String STRING_TYPE = "string";
 
 	private final Map<String, AtomicInteger> subnodesCount = new HashMap<>();
 
@@ -228,6 +234,151 @@ public class GraphmlGraph extends GraphStreamWrapper {
 		sink.writeAll(graph, writer);
 	}
 
+	/**
+	 * Writes the GraphML representation of the graph that
+	 * {@link SerializableGraph#toGraphml(boolean)} would build from the given
+	 * nodes, edges and labels, with the same format of {@link #dump(Writer)}.
+	 * The graph is never built: each node (together with its sub-nodes, if
+	 * {@code includeSubnodes} is {@code true}) is converted and written on its
+	 * own. Since GraphML requires all attribute keys to be declared before the
+	 * graph, labels are generated before writing the nodes, and are kept in
+	 * memory until the end of the dump. The nodes of the graph are written
+	 * sorted by id: when sub-nodes are included, this order and the one of the
+	 * sub-nodes of a node might differ from the ones of {@link #dump(Writer)}.
+	 * Both {@code nodes} and {@code edges} are iterated twice, and should thus
+	 * yield the same elements, sorted by id, at each iteration.
+	 * 
+	 * @param title           the title of the graph, if any
+	 * @param nodes           the nodes of the graph
+	 * @param edges           the edges of the graph
+	 * @param labels          the function yielding the additional label of
+	 *                            the node with the given id (the function can
+	 *                            return {@code null})
+	 * @param includeSubnodes whether or not sub-nodes should be part of the
+	 *                            graph
+	 * @param writer          the writer to use for dumping the graph
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static void dump(
+			String title,
+			Iterable<SerializableNode> nodes,
+			Iterable<SerializableEdge> edges,
+			IntFunction<SerializableValue> labels,
+			boolean includeSubnodes,
+			Writer writer)
+			throws IOException {
+		Set<Integer> hasFollows = new HashSet<>();
+		Set<Integer> hasPreds = new HashSet<>();
+		Set<Integer> rootnodes = new HashSet<>();
+		Map<Integer, SerializableNode> nodemap = new HashMap<>();
+
+		for (SerializableEdge e : edges) {
+			hasFollows.add(e.getSourceId());
+			hasPreds.add(e.getDestId());
+		}
+		for (SerializableNode n : nodes)
+			nodemap.put(n.getId(), n);
+		rootnodes.addAll(nodemap.keySet());
+		nodemap.values().forEach(n -> rootnodes.removeAll(n.getSubNodes()));
+
+		Map<Integer, SerializableValue> descriptions = new HashMap<>();
+		Map<String, String> nodeAttributes = new TreeMap<>();
+		Map<String, String> edgeAttributes = new TreeMap<>();
+		for (SerializableNode n : nodes)
+			if (includeSubnodes || rootnodes.contains(n.getId())) {
+				nodeAttributes.put(NODE_IS_ENTRY, STRING_TYPE);
+				nodeAttributes.put(NODE_IS_EXIT, STRING_TYPE);
+				nodeAttributes.put(NODE_TEXT, STRING_TYPE);
+				if (!rootnodes.contains(n.getId()))
+					nodeAttributes.put(NODE_KIND, STRING_TYPE);
+				SerializableValue label = labels.apply(n.getId());
+				if (label != null) {
+					descriptions.put(n.getId(), label);
+					nodeAttributes.put(NODE_KIND, STRING_TYPE);
+					collectKeys(label, nodeAttributes);
+				}
+			}
+		for (SerializableEdge e : edges)
+			if (includeSubnodes || (rootnodes.contains(e.getSourceId()) && rootnodes.contains(e.getDestId())))
+				edgeAttributes.put(EDGE_KIND, STRING_TYPE);
+
+		// only used for the id of the graph
+		GraphmlGraph empty = new GraphmlGraph(title);
+		CustomGraphMLSink sink = new CustomGraphMLSink(true);
+		sink.beginStream(writer, empty.graph.getId(), nodeAttributes, edgeAttributes);
+
+		for (SerializableNode n : nodes)
+			if (rootnodes.contains(n.getId())) {
+				// a graph holding only n, with its sub-nodes marked
+				GraphmlGraph single = new GraphmlGraph(title);
+				add(single, n, true, includeSubnodes, nodemap, hasPreds, hasFollows, descriptions);
+				sink.dumpNode(single.graph.getNode(nodeName(n.getId())), nodeAttributes, edgeAttributes);
+			}
+
+		for (SerializableEdge e : edges)
+			if (includeSubnodes || (rootnodes.contains(e.getSourceId()) && rootnodes.contains(e.getDestId()))) {
+				Map<String, Object> attrs = new LinkedHashMap<>();
+				attrs.put(EDGE_KIND, e.getKind());
+				sink.dumpEdge(edgeName(e.getSourceId(), e.getDestId()),
+						nodeName(e.getSourceId()),
+						nodeName(e.getDestId()),
+						true,
+						attrs);
+			}
+
+		sink.endStream();
+	}
+
+	private static void add(
+			GraphmlGraph graph,
+			SerializableNode node,
+			boolean root,
+			boolean includeSubnodes,
+			Map<Integer, SerializableNode> nodemap,
+			Set<Integer> hasPreds,
+			Set<Integer> hasFollows,
+			Map<Integer, SerializableValue> descriptions) {
+		graph.addNode(node,
+				root && !hasPreds.contains(node.getId()),
+				root && !hasFollows.contains(node.getId()),
+				descriptions.get(node.getId()));
+
+		if (includeSubnodes)
+			for (Integer sub : node.getSubNodes()) {
+				SerializableNode inner = nodemap.get(sub);
+				add(graph, inner, false, includeSubnodes, nodemap, hasPreds, hasFollows, descriptions);
+				graph.markSubNode(node, inner);
+			}
+	}
+
+	/**
+	 * Collects the keys of the attributes of the nodes that
+	 * {@link #addNode(SerializableNode, boolean, boolean, SerializableValue)}
+	 * generates for the given label.
+	 */
+	private static void collectKeys(
+			SerializableValue value,
+			Map<String, String> nodeAttributes) {
+		if (value instanceof SerializableString
+				|| (value instanceof SerializableArray && ((SerializableArray) value).getElements().stream()
+						.allMatch(SerializableString.class::isInstance))) {
+			nodeAttributes.put(LABEL_TEXT, STRING_TYPE);
+			value.getProperties().keySet().forEach(k -> nodeAttributes.put(k, STRING_TYPE));
+		} else if (value instanceof SerializableArray)
+			for (SerializableValue element : ((SerializableArray) value).getElements()) {
+				nodeAttributes.put(LABEL_TEXT, STRING_TYPE);
+				element.getProperties().keySet().forEach(k -> nodeAttributes.put(k, STRING_TYPE));
+				collectKeys(element, nodeAttributes);
+			}
+		else if (value instanceof SerializableObject)
+			for (SerializableValue field : ((SerializableObject) value).getFields().values()) {
+				nodeAttributes.put(LABEL_TEXT, STRING_TYPE);
+				field.getProperties().keySet().forEach(k -> nodeAttributes.put(k, STRING_TYPE));
+				collectKeys(field, nodeAttributes);
+			}
+	}
+
 	/**
 	 * The default graphstream sink does not support hierarchical nodes.
 	 */
@@ -314,7 +465,7 @@ public class GraphmlGraph extends GraphStreamWrapper {
 			else if (value instanceof Float)
 				type = "float";
 			else
-				type = "string";
+				type = STRING_TYPE;
 
 			if (!attributes.containsKey(key))
 				attributes.put(key, type);
@@ -367,59 +518,12 @@ public class GraphmlGraph extends GraphStreamWrapper {
 				throw new OutputDumpingException("Exception while dumping graphml graph element", e);
 			}
 
-			g.nodes().forEach(n -> {
-				try {
-					print(2, "<node id=\"%s\">", n.getId());
-
-					n.attributeKeys().forEach(k -> {
-						try {
-							Object value = n.getAttribute(k);
-
-							if (!(value instanceof Graph))
-								print(3, "<data key=\"%s\">%s</data>", k, escapeXmlString(value.toString()));
-							else {
-								Graph inner = (Graph) value;
-								CustomGraphMLSink innersink = new CustomGraphMLSink(this.format);
-								StringWriter innerwriter = new StringWriter();
-								innersink.output = innerwriter;
-								innersink.dumpGraph(inner, nodeAttributes, edgeAttributes);
-								if (this.format)
-									for (String line : innerwriter.toString().split("\n"))
-										print(2, line);
-								else
-									print(0, innerwriter.toString());
-							}
-						} catch (IOException ex) {
-							throw new OutputDumpingException("Exception while dumping graphml node attribute element",
-									ex);
-						}
-					});
-
-					print(2, "</node>");
-				} catch (Exception ex) {
-					throw new OutputDumpingException("Exception while dumping graphml node element", ex);
-				}
-			});
+			g.nodes().forEach(n -> dumpNode(n, nodeAttributes, edgeAttributes));
 
 			g.edges().forEach(e -> {
-				try {
-					print(2, "<edge id=\"%s\" source=\"%s\" target=\"%s\" directed=\"%s\">", e.getId(),
-							e.getSourceNode().getId(), e.getTargetNode().getId(), e.isDirected());
-
-					e.attributeKeys().forEach(k -> {
-						try {
-							print(3, "<data key=\"%s\">%s</data>", k,
-									escapeXmlString(e.getAttribute(k).toString()));
-						} catch (IOException ex) {
-							throw new OutputDumpingException("Exception while dumping graphml edge attribute element",
-									ex);
-						}
-					});
-
-					print(2, "</edge>");
-				} catch (Exception ex) {
-					throw new OutputDumpingException("Exception while dumping graphml edge element", ex);
-				}
+				Map<String, Object> attrs = new LinkedHashMap<>();
+				e.attributeKeys().forEach(k -> attrs.put(k, e.getAttribute(k)));
+				dumpEdge(e.getId(), e.getSourceNode().getId(), e.getTargetNode().getId(), e.isDirected(), attrs);
 			});
 
 			try {
@@ -428,5 +532,97 @@ public class GraphmlGraph extends GraphStreamWrapper {
 				throw new OutputDumpingException("Exception while dumping graphml graph element", e);
 			}
 		}
+
+		/**
+		 * Starts dumping a graph with the given id through the given writer,
+		 * writing everything that precedes its first node.
+		 */
+		private void beginStream(
+				Writer writer,
+				String id,
+				Map<String, String> nodeAttributes,
+				Map<String, String> edgeAttributes)
+				throws IOException {
+			output = writer;
+			outputHeader();
+			dumpKeys(nodeAttributes, edgeAttributes);
+			print(1, "<graph id=\"%s\" edgedefault=\"directed\">", escapeXmlString(id));
+		}
+
+		/**
+		 * Ends the dump started by
+		 * {@link #beginStream(Writer, String, Map, Map)}, writing everything
+		 * that follows the last edge.
+		 */
+		private void endStream() throws IOException {
+			print(1, "</graph>");
+			outputEndOfFile();
+			output.flush();
+			output = null;
+		}
+
+		private void dumpNode(
+				Node n,
+				Map<String, String> nodeAttributes,
+				Map<String, String> edgeAttributes) {
+			try {
+				print(2, "<node id=\"%s\">", n.getId());
+
+				n.attributeKeys().forEach(k -> {
+					try {
+						Object value = n.getAttribute(k);
+
+						if (!(value instanceof Graph))
+							print(3, "<data key=\"%s\">%s</data>", k, escapeXmlString(value.toString()));
+						else {
+							Graph inner = (Graph) value;
+							CustomGraphMLSink innersink = new CustomGraphMLSink(this.format);
+							StringWriter innerwriter = new StringWriter();
+							innersink.output = innerwriter;
+							innersink.dumpGraph(inner, nodeAttributes, edgeAttributes);
+							if (this.format)
+								for (String line : innerwriter.toString().split("\n"))
+									print(2, line);
+							else
+								print(0, innerwriter.toString());
+						}
+					} catch (IOException ex) {
+						throw new OutputDumpingException("Exception while dumping graphml node attribute element",
+								ex);
+					}
+				});
+
+				print(2, "</node>");
+			} catch (Exception ex) {
+				throw new OutputDumpingException("Exception while dumping graphml node element", ex);
+			}
+		}
+
+		private void dumpEdge(
+				String id,
+				String source,
+				String target,
+				boolean directed,
+				Map<String, Object> attributes) {
+			try {
+				print(2, "<edge id=\"%s\" source=\"%s\" target=\"%s\" directed=\"%s\">", id,
+						source, target, directed);
+
+				attributes.forEach((
+						k,
+						v) -> {
+					try {
+						print(3, "<data key=\"%s\">%s</data>", k, escapeXmlString(v.toString()));
+					} catch (IOException ex) {
+						throw new OutputDumpingException("Exception while dumping graphml edge attribute element",
+								ex);
+					}
+				});
+
+				print(2, "</edge>");
+			} catch (Exception ex) {
+				throw new OutputDumpingException("Exception while dumping graphml edge element", ex);
+			}
+		}
 	}
 }
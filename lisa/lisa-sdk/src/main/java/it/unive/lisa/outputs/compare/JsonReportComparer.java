@@ -5,8 +5,10 @@ import static java.lang.String.format;
 import it.unive.lisa.LiSA;
 import it.unive.lisa.outputs.json.JsonReport;
 import it.unive.lisa.outputs.json.JsonReport.JsonWarning;
+import it.unive.lisa.outputs.serializableGraph.BinaryGraph;
 import it.unive.lisa.outputs.serializableGraph.SerializableArray;
 import it.unive.lisa.outputs.serializableGraph.SerializableGraph;
+import it.unive.lisa.outputs.serializableGraph.SerializableNode;
 import it.unive.lisa.outputs.serializableGraph.SerializableNodeDescription;
 import it.unive.lisa.outputs.serializableGraph.SerializableObject;
 import it.unive.lisa.outputs.serializableGraph.SerializableString;
@@ -16,18 +18,30 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
@@ -51,6 +65,13 @@ import org.apache.logging.log4j.util.TriConsumer;
  * compared, excluding the report itself ({@link LiSA#REPORT_NAME}) and
  * visualization-only files</li>
  * </ol>
+ * Fixpoint metrics ({@link JsonReport#getMetrics()}) are never compared, since
+ * they mostly consist of timings.
+ * Contents of files can be compared in parallel (see
+ * {@link DiffAlgorithm#getComparisonThreads()}), and files with identical
+ * contents are never parsed. Graphs stored in binary format (see
+ * {@link BinaryGraph}) are compared through the hashes they contain: only the
+ * descriptions whose hashes differ are decoded for reporting the differences.
  * Comparison can be customized providing an implementation of
  * {@link DiffAlgorithm}.
  * 
@@ -270,6 +291,19 @@ public class JsonReportComparer {
 			return FilenameUtils.getExtension(path).equals("json");
 		}
 
+		/**
+		 * Yields whether or not the file pointed by the given path should be
+		 * considered a binary graph (see {@link BinaryGraph}).
+		 * 
+		 * @param path the path pointing to the file
+		 * 
+		 * @return {@code true} if that condition holds
+		 */
+		default boolean isBinaryGraph(
+				String path) {
+			return FilenameUtils.getExtension(path).equals(BinaryGraph.EXTENSION);
+		}
+
 		/**
 		 * Yields whether or not the file pointed by the given path is for
 		 * visualizing results and can thus be skipped as its content depends
@@ -289,8 +323,9 @@ public class JsonReportComparer {
 		}
 
 		/**
-		 * Custom comparison method for files that are neither json graphs nor
-		 * visualization-only files.
+		 * Custom comparison method for files that are neither json graphs,
+		 * binary graphs, nor visualization-only files. This is invoked only if
+		 * the contents of the two files are not identical.
 		 * 
 		 * @param expected the file from the expected report
 		 * @param actual   the file from the actual report
@@ -316,6 +351,116 @@ public class JsonReportComparer {
 		default boolean verboseLabelDiff() {
 			return true;
 		}
+
+		/**
+		 * Yields the number of threads to use for comparing the contents of
+		 * files produced by both analyses. If greater than 1, json and binary
+		 * graphs are parsed and compared in parallel. All the methods of this
+		 * algorithm, including {@link #fileDiff(String, String, String)} and
+		 * {@link #customFileCompare(File, File)}, are still invoked by the
+		 * calling thread, in the same order of a sequential comparison.
+		 * 
+		 * @return the number of threads
+		 */
+		default int getComparisonThreads() {
+			return 1;
+		}
+	}
+
+	/**
+	 * A sink for the differences found while comparing the contents of two
+	 * files.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	@FunctionalInterface
+	private interface FileDiffSink {
+
+		/**
+		 * Records a difference between two files (see
+		 * {@link DiffAlgorithm#fileDiff(String, String, String)}).
+		 * 
+		 * @param first   the complete pathname of the first file
+		 * @param second  the complete pathname of the second file
+		 * @param message the message reporting the difference
+		 */
+		void fileDiff(
+				String first,
+				String second,
+				String message);
+	}
+
+	/**
+	 * The comparison of the contents of two files with matching names. The
+	 * comparison itself ({@link #run()}) does not invoke any callback of the
+	 * {@link DiffAlgorithm}, and can thus happen on any thread: the differences
+	 * it finds are recorded, and are reported through {@link #replay()} by the
+	 * thread that started the comparison. Files that need a custom comparison
+	 * (see {@link DiffAlgorithm#customFileCompare(File, File)}) are also
+	 * compared during the replay.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static class FileComparison {
+
+		private final DiffAlgorithm diff;
+
+		private final File left;
+
+		private final File right;
+
+		private final boolean json;
+
+		private final boolean binary;
+
+		private final boolean verbose;
+
+		private final List<String[]> fileDiffs = new ArrayList<>();
+
+		private boolean diffFound;
+
+		private boolean custom;
+
+		private FileComparison(
+				DiffAlgorithm diff,
+				File left,
+				File right,
+				boolean json,
+				boolean binary) {
+			this.diff = diff;
+			this.left = left;
+			this.right = right;
+			this.json = json;
+			this.binary = binary;
+			this.verbose = diff.verboseLabelDiff();
+		}
+
+		private FileComparison run() throws IOException {
+			// identical files need not be parsed: this compares lengths
+			// first, and then the contents until the first different byte
+			if (FileUtils.contentEquals(left, right))
+				return this;
+
+			FileDiffSink sink = (
+					first,
+					second,
+					message) -> fileDiffs.add(new String[] { first, second, message });
+			if (json)
+				diffFound = matchJsonGraphs(sink, verbose, left, right);
+			else if (binary)
+				diffFound = matchBinaryGraphs(sink, verbose, left, right);
+			else
+				custom = true;
+			return this;
+		}
+
+		private boolean replay() {
+			for (String[] fileDiff : fileDiffs)
+				diff.fileDiff(fileDiff[0], fileDiff[1], fileDiff[2]);
+			if (custom)
+				return diff.customFileCompare(left, right);
+			return diffFound;
+		}
 	}
 
 	/**
@@ -421,30 +566,75 @@ public class JsonReportComparer {
 			CollectionsDiffBuilder<String> files)
 			throws FileNotFoundException,
 			IOException {
-		boolean diffFound = false;
+		List<FileComparison> comparisons = new ArrayList<>();
 		for (Pair<String, String> pair : files.getCommons()) {
-			File left = new File(firstFileRoot, pair.getLeft());
-			if (!left.exists())
-				throw new FileNotFoundException(format(MISSING_FILE, pair.getLeft(), "first"));
-
-			File right = new File(secondFileRoot, pair.getRight());
-			if (!right.exists())
-				throw new FileNotFoundException(format(MISSING_FILE, pair.getRight(), "second"));
+			FileComparison comparison = prepareComparison(firstFileRoot, secondFileRoot, diff, pair);
+			if (comparison != null)
+				comparisons.add(comparison);
+		}
 
-			String path = left.getName();
-			if (FilenameUtils.getName(path).equals(LiSA.REPORT_NAME))
-				continue;
+		int threads = Math.min(diff.getComparisonThreads(), comparisons.size());
+		boolean diffFound = false;
+		if (threads <= 1) {
+			for (FileComparison comparison : comparisons)
+				diffFound |= comparison.run().replay();
+			return !diffFound;
+		}
 
-			if (diff.isJsonGraph(path))
-				diffFound |= matchJsonGraphs(diff, left, right);
-			else if (diff.isVisualizationFile(path))
-				LOG.info(VIS_ONLY, left.toString(), right.toString());
-			else
-				diffFound |= diff.customFileCompare(left, right);
+		// differences are recorded by each task, and reported in the same
+		// order of the sequential comparison
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<FileComparison>> tasks = new ArrayList<>(comparisons.size());
+			for (FileComparison comparison : comparisons)
+				tasks.add(executor.submit(comparison::run));
+
+			for (Future<FileComparison> task : tasks)
+				diffFound |= task.get().replay();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while comparing files");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IOException("Exception while comparing files", cause);
+		} finally {
+			executor.shutdownNow();
 		}
 		return !diffFound;
 	}
 
+	private static FileComparison prepareComparison(
+			File firstFileRoot,
+			File secondFileRoot,
+			DiffAlgorithm diff,
+			Pair<String, String> pair)
+			throws FileNotFoundException {
+		File left = new File(firstFileRoot, pair.getLeft());
+		if (!left.exists())
+			throw new FileNotFoundException(format(MISSING_FILE, pair.getLeft(), "first"));
+
+		File right = new File(secondFileRoot, pair.getRight());
+		if (!right.exists())
+			throw new FileNotFoundException(format(MISSING_FILE, pair.getRight(), "second"));
+
+		String path = left.getName();
+		if (FilenameUtils.getName(path).equals(LiSA.REPORT_NAME))
+			return null;
+
+		boolean json = diff.isJsonGraph(path);
+		boolean binary = !json && diff.isBinaryGraph(path);
+		if (!json && !binary && diff.isVisualizationFile(path)) {
+			LOG.info(VIS_ONLY, left.toString(), right.toString());
+			return null;
+		}
+
+		return new FileComparison(diff, left, right, json, binary);
+	}
+
 	private static CollectionsDiffBuilder<String> compareFiles(
 			JsonReport first,
 			JsonReport second,
@@ -558,7 +748,8 @@ public class JsonReportComparer {
 	}
 
 	private static boolean matchJsonGraphs(
-			DiffAlgorithm diff,
+			FileDiffSink sink,
+			boolean verbose,
 			File left,
 			File right)
 			throws IOException,
@@ -575,7 +766,7 @@ public class JsonReportComparer {
 				String rightpath = right.toString();
 
 				if (!leftGraph.sameStructure(rightGraph))
-					diff.fileDiff(leftpath, rightpath, GRAPH_DIFF);
+					sink.fileDiff(leftpath, rightpath, GRAPH_DIFF);
 				else {
 					CollectionsDiffBuilder<SerializableNodeDescription> builder = new CollectionsDiffBuilder<>(
 							SerializableNodeDescription.class,
@@ -584,9 +775,15 @@ public class JsonReportComparer {
 					builder.compute(SerializableNodeDescription::compareTo);
 
 					if (builder.sameContent())
-						diff.fileDiff(leftpath, rightpath, MALFORMED_GRAPH);
-					else
-						compareLabels(diff, leftGraph, rightGraph, leftpath, rightpath, builder);
+						sink.fileDiff(leftpath, rightpath, MALFORMED_GRAPH);
+					else {
+						Map<Integer, String> llabels = new HashMap<>();
+						Map<Integer, String> rlabels = new HashMap<>();
+						leftGraph.getNodes().forEach(d -> llabels.put(d.getId(), d.getText()));
+						rightGraph.getNodes().forEach(d -> rlabels.put(d.getId(), d.getText()));
+						compareLabels(sink, verbose, llabels::get, rlabels::get, leftpath, rightpath,
+								builder.getOnlyFirst(), builder.getOnlySecond());
+					}
 				}
 			}
 		}
@@ -594,20 +791,62 @@ public class JsonReportComparer {
 		return diffFound;
 	}
 
+	private static boolean matchBinaryGraphs(
+			FileDiffSink sink,
+			boolean verbose,
+			File left,
+			File right)
+			throws IOException {
+		BinaryGraph leftGraph = BinaryGraph.read(left);
+		BinaryGraph rightGraph = BinaryGraph.read(right);
+		String leftpath = left.toString();
+		String rightpath = right.toString();
+
+		if (!Objects.equals(leftGraph.getName(), rightGraph.getName())
+				|| !Objects.equals(leftGraph.getDescription(), rightGraph.getDescription())
+				|| leftGraph.getStructureHash() != rightGraph.getStructureHash()) {
+			sink.fileDiff(leftpath, rightpath, GRAPH_DIFF);
+			return true;
+		}
+
+		SortedMap<Integer, Long> lhashes = leftGraph.getDescriptionHashes();
+		SortedMap<Integer, Long> rhashes = rightGraph.getDescriptionHashes();
+		if (lhashes.equals(rhashes))
+			return false;
+
+		// only the descriptions that differ get decoded
+		SortedSet<SerializableNodeDescription> onlyFirst = new TreeSet<>();
+		SortedSet<SerializableNodeDescription> onlySecond = new TreeSet<>();
+		for (Entry<Integer, Long> entry : lhashes.entrySet())
+			if (!entry.getValue().equals(rhashes.get(entry.getKey())))
+				onlyFirst.add(leftGraph.getNodeDescription(entry.getKey()));
+		for (Entry<Integer, Long> entry : rhashes.entrySet())
+			if (!entry.getValue().equals(lhashes.get(entry.getKey())))
+				onlySecond.add(rightGraph.getNodeDescription(entry.getKey()));
+
+		compareLabels(sink, verbose, id -> text(leftGraph, id), id -> text(rightGraph, id),
+				leftpath, rightpath, onlyFirst, onlySecond);
+		return true;
+	}
+
+	private static String text(
+			BinaryGraph graph,
+			int id) {
+		SerializableNode node = graph.getNode(id);
+		return node == null ? null : node.getText();
+	}
+
 	private static void compareLabels(
-			DiffAlgorithm diff,
-			SerializableGraph leftGraph,
-			SerializableGraph rightGraph,
+			FileDiffSink sink,
+			boolean verbose,
+			IntFunction<String> llabels,
+			IntFunction<String> rlabels,
 			String leftpath,
 			String rightpath,
-			CollectionsDiffBuilder<SerializableNodeDescription> builder) {
-		Map<Integer, String> llabels = new HashMap<>();
-		Map<Integer, String> rlabels = new HashMap<>();
-		leftGraph.getNodes().forEach(d -> llabels.put(d.getId(), d.getText()));
-		rightGraph.getNodes().forEach(d -> rlabels.put(d.getId(), d.getText()));
-
-		Iterator<SerializableNodeDescription> ol = builder.getOnlyFirst().iterator();
-		Iterator<SerializableNodeDescription> or = builder.getOnlySecond().iterator();
+			Collection<SerializableNodeDescription> onlyFirst,
+			Collection<SerializableNodeDescription> onlySecond) {
+		Iterator<SerializableNodeDescription> ol = onlyFirst.iterator();
+		Iterator<SerializableNodeDescription> or = onlySecond.iterator();
 
 		SerializableNodeDescription currentF = null;
 		SerializableNodeDescription currentS = null;
@@ -622,20 +861,20 @@ public class JsonReportComparer {
 				if (currentS == null)
 					break;
 				else {
-					diff.fileDiff(leftpath, rightpath, format(
+					sink.fileDiff(leftpath, rightpath, format(
 							NO_DESC,
 							"First",
 							currentS.getNodeId(),
-							rlabels.get(currentS.getNodeId())));
+							rlabels.apply(currentS.getNodeId())));
 					currentS = null;
 					continue;
 				}
 			else if (currentS == null) {
-				diff.fileDiff(leftpath, rightpath, format(
+				sink.fileDiff(leftpath, rightpath, format(
 						NO_DESC,
 						"Second",
 						currentF.getNodeId(),
-						llabels.get(currentF.getNodeId())));
+						llabels.apply(currentF.getNodeId())));
 				currentF = null;
 				continue;
 			}
@@ -643,32 +882,32 @@ public class JsonReportComparer {
 			int fid = currentF.getNodeId();
 			int sid = currentS.getNodeId();
 			if (fid == sid) {
-				if (diff.verboseLabelDiff())
-					diff.fileDiff(leftpath, rightpath, format(
+				if (verbose)
+					sink.fileDiff(leftpath, rightpath, format(
 							DESC_DIFF_VERBOSE,
 							currentF.getNodeId(),
-							llabels.get(currentF.getNodeId()),
+							llabels.apply(currentF.getNodeId()),
 							diff(currentF.getDescription(), currentS.getDescription())));
 				else
-					diff.fileDiff(leftpath, rightpath, format(
+					sink.fileDiff(leftpath, rightpath, format(
 							DESC_DIFF,
 							currentF.getNodeId(),
-							llabels.get(currentF.getNodeId())));
+							llabels.apply(currentF.getNodeId())));
 				currentF = null;
 				currentS = null;
 			} else if (fid < sid) {
-				diff.fileDiff(leftpath, rightpath, format(
+				sink.fileDiff(leftpath, rightpath, format(
 						NO_DESC,
 						"Second",
 						currentF.getNodeId(),
-						llabels.get(currentF.getNodeId())));
+						llabels.apply(currentF.getNodeId())));
 				currentF = null;
 			} else {
-				diff.fileDiff(leftpath, rightpath, format(
+				sink.fileDiff(leftpath, rightpath, format(
 						NO_DESC,
 						"First",
 						currentS.getNodeId(),
-						rlabels.get(currentS.getNodeId())));
+						rlabels.apply(currentS.getNodeId())));
 				currentS = null;
 			}
 		}
@@ -1,11 +1,14 @@
 package it.unive.lisa.outputs.json;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import it.unive.lisa.LiSAReport;
 import it.unive.lisa.LiSARunInfo;
 import it.unive.lisa.checks.warnings.Warning;
 import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.program.cfg.fixpoints.FixpointMetrics;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
@@ -31,11 +34,13 @@ public class JsonReport {
 
 	private final Map<String, String> configuration;
 
+	private final Map<String, String> metrics;
+
 	/**
 	 * Builds an empty report.
 	 */
 	public JsonReport() {
-		this(Collections.emptyList(), Collections.emptyList(), Map.of(), Map.of());
+		this(Collections.emptyList(), Collections.emptyList(), Map.of(), Map.of(), Map.of());
 	}
 
 	/**
@@ -46,17 +51,19 @@ public class JsonReport {
 	public JsonReport(
 			LiSAReport report) {
 		this(report.getWarnings(), report.getCreatedFiles(), report.getInfo().toPropertyBag(),
-				report.getConfiguration().toPropertyBag());
+				report.getConfiguration().toPropertyBag(), metrics(report.getConfiguration()));
 	}
 
 	private JsonReport(
 			Collection<Warning> warnings,
 			Collection<String> files,
 			Map<String, String> info,
-			Map<String, String> configuration) {
+			Map<String, String> configuration,
+			Map<String, String> metrics) {
 		this.files = new TreeSet<>(files);
 		this.info = info;
 		this.configuration = configuration;
+		this.metrics = metrics;
 		this.warnings = new TreeSet<>();
 		for (Warning warn : warnings)
 			this.warnings.add(new JsonWarning(warn));
@@ -106,6 +113,27 @@ public class JsonReport {
 		return info;
 	}
 
+	/**
+	 * Yields the metrics about the fixpoints executed by the analysis, in the
+	 * form of a property bag. This corresponds to the object returned by
+	 * {@link FixpointMetrics#toPropertyBag()} if a {@link FixpointMetrics}
+	 * instance was set as {@link LiSAConfiguration#fixpointObserver}, and it is
+	 * empty otherwise. Empty metrics are not dumped.
+	 * 
+	 * @return the metrics
+	 */
+	@JsonInclude(Include.NON_EMPTY)
+	public Map<String, String> getMetrics() {
+		return metrics;
+	}
+
+	private static Map<String, String> metrics(
+			LiSAConfiguration conf) {
+		if (conf.fixpointObserver instanceof FixpointMetrics)
+			return ((FixpointMetrics) conf.fixpointObserver).toPropertyBag();
+		return Map.of();
+	}
+
 	/**
 	 * Dumps this report to the given {@link Writer} instance, serializing it as
 	 * a json object.
@@ -148,6 +176,7 @@ public class JsonReport {
 		result = prime * result + ((warnings == null) ? 0 : warnings.hashCode());
 		result = prime * result + ((info == null) ? 0 : info.hashCode());
 		result = prime * result + ((configuration == null) ? 0 : configuration.hashCode());
+		result = prime * result + ((metrics == null) ? 0 : metrics.hashCode());
 		return result;
 	}
 
@@ -181,13 +210,18 @@ public class JsonReport {
 				return false;
 		} else if (!configuration.equals(other.configuration))
 			return false;
+		if (metrics == null) {
+			if (other.metrics != null)
+				return false;
+		} else if (!metrics.equals(other.metrics))
+			return false;
 		return true;
 	}
 
 	@Override
 	public String toString() {
 		return "JsonReport [warnings=" + warnings + ", files=" + files + ", info=" + info + ", configuration="
-				+ configuration + "]";
+				+ configuration + ", metrics=" + metrics + "]";
 	}
 
 	/**
@@ -0,0 +1,708 @@
+package it.unive.lisa.outputs.serializableGraph;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * A {@link SerializableGraph} stored in a compact binary format, used as an
+ * alternative to json for storing and comparing large amounts of analysis
+ * results. A binary graph is composed of:
+ * <ul>
+ * <li>a header, containing a magic number, the version of the format, and the
+ * {@link Compression} used for the rest of the file;</li>
+ * <li>a table of all the strings appearing in the graph (node texts, edge
+ * kinds, and keys and values of descriptions), each stored only once and
+ * referred to by index in the rest of the file;</li>
+ * <li>the name and the description of the graph, together with a hash of its
+ * structure (that is, of its nodes and edges);</li>
+ * <li>length-prefixed records for nodes, edges, and node descriptions, where
+ * each description also carries a hash of its contents.</li>
+ * </ul>
+ * Uncompressed graphs are read through memory mapping, and records are decoded
+ * only when requested: two graphs can thus be compared through their hashes
+ * (see {@link #getStructureHash()} and {@link #getDescriptionHashes()})
+ * without deserializing them. Hashes are computed on the contents of the
+ * graph, and do not depend on the layout of the string table.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class BinaryGraph {
+
+	/**
+	 * The extension of files containing binary graphs.
+	 */
+	public static final String EXTENSION = "lgraph";
+
+	/**
+	 * The compression that can be applied to binary graphs.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	public static enum Compression {
+
+		/**
+		 * No compression is applied: graphs can be read through memory
+		 * mapping.
+		 */
+		NONE,
+
+		/**
+		 * The contents following the header are compressed with the deflate
+		 * algorithm, and are inflated in memory when the graph is read.
+		 */
+		DEFLATE;
+	}
+
+	private static final int MAGIC = 0x4C475246;
+
+	private static final byte VERSION = 1;
+
+	private static final int NULL = -1;
+
+	private static final byte STRING = 0;
+
+	private static final byte ARRAY = 1;
+
+	private static final byte OBJECT = 2;
+
+	private final ByteBuffer buffer;
+
+	private final int[] stringOffsets;
+
+	private final String[] strings;
+
+	private final String name;
+
+	private final String description;
+
+	private final long structureHash;
+
+	private final Map<Integer, Integer> nodes;
+
+	private final int edges;
+
+	private final Map<Integer, Integer> descriptions;
+
+	private final SortedMap<Integer, Long> descriptionHashes;
+
+	private BinaryGraph(
+			ByteBuffer buffer) {
+		this.buffer = buffer;
+		Cursor cursor = new Cursor(0);
+
+		int count = cursor.nextInt();
+		stringOffsets = new int[count];
+		strings = new String[count];
+		for (int i = 0; i < count; i++) {
+			stringOffsets[i] = cursor.pos;
+			cursor.pos += Integer.BYTES + buffer.getInt(cursor.pos);
+		}
+
+		name = string(cursor.nextInt());
+		description = string(cursor.nextInt());
+		structureHash = cursor.nextLong();
+
+		count = cursor.nextInt();
+		nodes = new LinkedHashMap<>(count * 2);
+		for (int i = 0; i < count; i++) {
+			int length = cursor.nextInt();
+			nodes.put(buffer.getInt(cursor.pos), cursor.pos);
+			cursor.pos += length;
+		}
+
+		edges = cursor.pos;
+		count = cursor.nextInt();
+		for (int i = 0; i < count; i++) {
+			int length = cursor.nextInt();
+			cursor.pos += length;
+		}
+
+		count = cursor.nextInt();
+		descriptions = new HashMap<>(count * 2);
+		SortedMap<Integer, Long> hashes = new TreeMap<>();
+		for (int i = 0; i < count; i++) {
+			int length = cursor.nextInt();
+			int id = buffer.getInt(cursor.pos);
+			descriptions.put(id, cursor.pos);
+			hashes.put(id, buffer.getLong(cursor.pos + Integer.BYTES));
+			cursor.pos += length;
+		}
+		descriptionHashes = Collections.unmodifiableSortedMap(hashes);
+	}
+
+	/**
+	 * Yields the name of the graph.
+	 * 
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Yields the description of the graph.
+	 * 
+	 * @return the description
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Yields the hash of the structure of the graph, that is, of its nodes and
+	 * edges. Graphs whose structure is the same have the same hash.
+	 * 
+	 * @return the hash of the structure
+	 */
+	public long getStructureHash() {
+		return structureHash;
+	}
+
+	/**
+	 * Yields the hashes of the descriptions of the nodes of this graph, indexed
+	 * by the id of the node they refer to. Equal descriptions have the same
+	 * hash.
+	 * 
+	 * @return the hashes of the descriptions
+	 */
+	public SortedMap<Integer, Long> getDescriptionHashes() {
+		return descriptionHashes;
+	}
+
+	/**
+	 * Decodes the node with the given id.
+	 * 
+	 * @param id the id of the node
+	 * 
+	 * @return the node, or {@code null} if no node with the given id exists
+	 */
+	public SerializableNode getNode(
+			int id) {
+		Integer offset = nodes.get(id);
+		return offset == null ? null : readNode(new Cursor(offset));
+	}
+
+	/**
+	 * Decodes the description of the node with the given id.
+	 * 
+	 * @param id the id of the node
+	 * 
+	 * @return the description, or {@code null} if the node has no description
+	 */
+	public SerializableNodeDescription getNodeDescription(
+			int id) {
+		Integer offset = descriptions.get(id);
+		return offset == null ? null : readDescription(new Cursor(offset));
+	}
+
+	/**
+	 * Decodes the whole graph.
+	 * 
+	 * @return the decoded graph
+	 */
+	public SerializableGraph toSerializableGraph() {
+		SortedSet<SerializableNode> nodes = new TreeSet<>();
+		for (int offset : this.nodes.values())
+			nodes.add(readNode(new Cursor(offset)));
+
+		SortedSet<SerializableEdge> edges = new TreeSet<>();
+		Cursor cursor = new Cursor(this.edges);
+		int count = cursor.nextInt();
+		for (int i = 0; i < count; i++) {
+			int length = cursor.nextInt();
+			int next = cursor.pos + length;
+			edges.add(readEdge(cursor));
+			cursor.pos = next;
+		}
+
+		SortedSet<SerializableNodeDescription> descriptions = new TreeSet<>();
+		for (int offset : this.descriptions.values())
+			descriptions.add(readDescription(new Cursor(offset)));
+
+		return new SerializableGraph(name, description, nodes, edges, descriptions);
+	}
+
+	@Override
+	public String toString() {
+		return "binary graph [name=" + name + ", description=" + description + "]";
+	}
+
+	private String string(
+			int index) {
+		if (index == NULL)
+			return null;
+		// concurrent decodings of the same string are harmless
+		String result = strings[index];
+		if (result == null) {
+			int offset = stringOffsets[index];
+			byte[] bytes = new byte[buffer.getInt(offset)];
+			ByteBuffer view = buffer.duplicate();
+			view.position(offset + Integer.BYTES);
+			view.get(bytes);
+			strings[index] = result = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return result;
+	}
+
+	private SerializableNode readNode(
+			Cursor cursor) {
+		int id = cursor.nextInt();
+		String text = string(cursor.nextInt());
+		int count = cursor.nextInt();
+		List<Integer> subNodes = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+			subNodes.add(cursor.nextInt());
+
+		SerializableNode node = new SerializableNode(id, subNodes, text);
+		count = cursor.nextInt();
+		for (int i = 0; i < count; i++)
+			node.setOtherField(string(cursor.nextInt()), string(cursor.nextInt()));
+		return node;
+	}
+
+	private SerializableEdge readEdge(
+			Cursor cursor) {
+		SerializableEdge edge = new SerializableEdge(cursor.nextInt(), cursor.nextInt(), string(cursor.nextInt()));
+		int count = cursor.nextInt();
+		for (int i = 0; i < count; i++)
+			edge.setOtherField(string(cursor.nextInt()), string(cursor.nextInt()));
+		return edge;
+	}
+
+	private SerializableNodeDescription readDescription(
+			Cursor cursor) {
+		int id = cursor.nextInt();
+		// skip the hash
+		cursor.nextLong();
+		return new SerializableNodeDescription(id, readValue(cursor));
+	}
+
+	private SerializableValue readValue(
+			Cursor cursor) {
+		byte kind = cursor.nextByte();
+		SortedMap<String, String> properties = new TreeMap<>();
+		int count = cursor.nextInt();
+		for (int i = 0; i < count; i++)
+			properties.put(string(cursor.nextInt()), string(cursor.nextInt()));
+
+		switch (kind) {
+		case STRING:
+			return new SerializableString(properties, string(cursor.nextInt()));
+		case ARRAY:
+			count = cursor.nextInt();
+			List<SerializableValue> elements = new ArrayList<>(count);
+			for (int i = 0; i < count; i++)
+				elements.add(readValue(cursor));
+			return new SerializableArray(properties, elements);
+		case OBJECT:
+			count = cursor.nextInt();
+			SortedMap<String, SerializableValue> fields = new TreeMap<>();
+			for (int i = 0; i < count; i++) {
+				String key = string(cursor.nextInt());
+				fields.put(key, readValue(cursor));
+			}
+			return new SerializableObject(properties, fields);
+		default:
+			throw new IllegalStateException("Unknown value kind: " + kind);
+		}
+	}
+
+	/**
+	 * Reads a binary graph from the given file. Uncompressed files are memory
+	 * mapped, and their contents are decoded only when requested.
+	 * 
+	 * @param file the file to read
+	 * 
+	 * @return the binary graph
+	 * 
+	 * @throws IOException if an I/O error occurs while reading, or if the file
+	 *                         does not contain a binary graph
+	 */
+	public static BinaryGraph read(
+			File file)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			// the mapping stays valid after the channel is closed
+			MappedByteBuffer mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			return read(mapped);
+		}
+	}
+
+	/**
+	 * Reads a binary graph from the contents of the given buffer, starting at
+	 * its current position. The buffer is not modified.
+	 * 
+	 * @param buffer the buffer to read
+	 * 
+	 * @return the binary graph
+	 * 
+	 * @throws IOException if the buffer does not contain a binary graph
+	 */
+	public static BinaryGraph read(
+			ByteBuffer buffer)
+			throws IOException {
+		ByteBuffer data = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+		try {
+			if (data.remaining() < Integer.BYTES + 2 || data.getInt() != MAGIC)
+				throw new IOException("The given contents are not a binary graph");
+			byte version = data.get();
+			if (version != VERSION)
+				throw new IOException("Unsupported binary graph version: " + version);
+
+			byte compression = data.get();
+			if (compression == Compression.NONE.ordinal())
+				return new BinaryGraph(data.slice());
+			if (compression == Compression.DEFLATE.ordinal())
+				return new BinaryGraph(inflate(data));
+			throw new IOException("Unknown binary graph compression: " + compression);
+		} catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException
+				| NegativeArraySizeException e) {
+			throw new IOException("Malformed binary graph", e);
+		}
+	}
+
+	private static ByteBuffer inflate(
+			ByteBuffer data)
+			throws IOException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(data);
+			ByteArrayOutputStream result = new ByteArrayOutputStream(data.remaining() * 4);
+			byte[] chunk = new byte[1 << 16];
+			while (!inflater.finished()) {
+				int read = inflater.inflate(chunk);
+				if (read == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+					throw new IOException("Truncated binary graph");
+				result.write(chunk, 0, read);
+			}
+			return ByteBuffer.wrap(result.toByteArray());
+		} catch (DataFormatException e) {
+			throw new IOException("Malformed compressed binary graph", e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Writes the given graph in binary format to the given stream. The stream
+	 * is not closed by this method.
+	 * 
+	 * @param graph       the graph to write
+	 * @param stream      the stream to write to
+	 * @param compression the compression to apply
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public static void write(
+			SerializableGraph graph,
+			OutputStream stream,
+			Compression compression)
+			throws IOException {
+		DataOutputStream header = new DataOutputStream(stream);
+		header.writeInt(MAGIC);
+		header.writeByte(VERSION);
+		header.writeByte(compression.ordinal());
+		header.flush();
+
+		Deflater deflater = null;
+		DeflaterOutputStream deflating = null;
+		OutputStream body = stream;
+		if (compression == Compression.DEFLATE) {
+			deflater = new Deflater();
+			body = deflating = new DeflaterOutputStream(stream, deflater);
+		}
+
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(body, 1 << 16));
+			writeContents(graph, out);
+			out.flush();
+			if (deflating != null)
+				deflating.finish();
+		} finally {
+			if (deflater != null)
+				deflater.end();
+		}
+	}
+
+	private static void writeContents(
+			SerializableGraph graph,
+			DataOutputStream out)
+			throws IOException {
+		Map<String, Integer> table = new LinkedHashMap<>();
+		intern(table, graph.getName());
+		intern(table, graph.getDescription());
+		for (SerializableNode node : graph.getNodes()) {
+			intern(table, node.getText());
+			intern(table, node.otherFields());
+		}
+		for (SerializableEdge edge : graph.getEdges()) {
+			intern(table, edge.getKind());
+			intern(table, edge.otherFields());
+		}
+		for (SerializableNodeDescription desc : graph.getDescriptions())
+			intern(table, desc.getDescription());
+
+		out.writeInt(table.size());
+		for (String str : table.keySet()) {
+			byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		out.writeInt(index(table, graph.getName()));
+		out.writeInt(index(table, graph.getDescription()));
+		out.writeLong(structureHash(graph));
+
+		ByteArrayOutputStream record = new ByteArrayOutputStream();
+		DataOutputStream rec = new DataOutputStream(record);
+
+		out.writeInt(graph.getNodes().size());
+		for (SerializableNode node : graph.getNodes()) {
+			record.reset();
+			rec.writeInt(node.getId());
+			rec.writeInt(index(table, node.getText()));
+			rec.writeInt(node.getSubNodes().size());
+			for (Integer sub : node.getSubNodes())
+				rec.writeInt(sub);
+			writeFields(rec, table, node.otherFields());
+			writeRecord(out, record);
+		}
+
+		out.writeInt(graph.getEdges().size());
+		for (SerializableEdge edge : graph.getEdges()) {
+			record.reset();
+			rec.writeInt(edge.getSourceId());
+			rec.writeInt(edge.getDestId());
+			rec.writeInt(index(table, edge.getKind()));
+			writeFields(rec, table, edge.otherFields());
+			writeRecord(out, record);
+		}
+
+		out.writeInt(graph.getDescriptions().size());
+		for (SerializableNodeDescription desc : graph.getDescriptions()) {
+			record.reset();
+			rec.writeInt(desc.getNodeId());
+			rec.writeLong(descriptionHash(desc));
+			writeValue(rec, table, desc.getDescription());
+			writeRecord(out, record);
+		}
+	}
+
+	private static void writeRecord(
+			DataOutputStream out,
+			ByteArrayOutputStream record)
+			throws IOException {
+		out.writeInt(record.size());
+		record.writeTo(out);
+	}
+
+	private static void writeFields(
+			DataOutputStream out,
+			Map<String, Integer> table,
+			Map<String, String> fields)
+			throws IOException {
+		out.writeInt(fields.size());
+		for (Entry<String, String> field : fields.entrySet()) {
+			out.writeInt(index(table, field.getKey()));
+			out.writeInt(index(table, field.getValue()));
+		}
+	}
+
+	private static void writeValue(
+			DataOutputStream out,
+			Map<String, Integer> table,
+			SerializableValue value)
+			throws IOException {
+		if (value instanceof SerializableString)
+			out.writeByte(STRING);
+		else if (value instanceof SerializableArray)
+			out.writeByte(ARRAY);
+		else
+			out.writeByte(OBJECT);
+		writeFields(out, table, value.getProperties());
+
+		if (value instanceof SerializableString)
+			out.writeInt(index(table, ((SerializableString) value).getValue()));
+		else if (value instanceof SerializableArray) {
+			List<SerializableValue> elements = ((SerializableArray) value).getElements();
+			out.writeInt(elements.size());
+			for (SerializableValue element : elements)
+				writeValue(out, table, element);
+		} else {
+			SortedMap<String, SerializableValue> fields = ((SerializableObject) value).getFields();
+			out.writeInt(fields.size());
+			for (Entry<String, SerializableValue> field : fields.entrySet()) {
+				out.writeInt(index(table, field.getKey()));
+				writeValue(out, table, field.getValue());
+			}
+		}
+	}
+
+	private static void intern(
+			Map<String, Integer> table,
+			String str) {
+		if (str != null)
+			table.putIfAbsent(str, table.size());
+	}
+
+	private static void intern(
+			Map<String, Integer> table,
+			Map<String, String> fields) {
+		for (Entry<String, String> field : fields.entrySet()) {
+			intern(table, field.getKey());
+			intern(table, field.getValue());
+		}
+	}
+
+	private static void intern(
+			Map<String, Integer> table,
+			SerializableValue value) {
+		intern(table, value.getProperties());
+		if (value instanceof SerializableString)
+			intern(table, ((SerializableString) value).getValue());
+		else if (value instanceof SerializableArray)
+			for (SerializableValue element : ((SerializableArray) value).getElements())
+				intern(table, element);
+		else
+			for (Entry<String, SerializableValue> field : ((SerializableObject) value).getFields().entrySet()) {
+				intern(table, field.getKey());
+				intern(table, field.getValue());
+			}
+	}
+
+	private static int index(
+			Map<String, Integer> table,
+			String str) {
+		return str == null ? NULL : table.get(str);
+	}
+
+	private static long structureHash(
+			SerializableGraph graph) {
+		Hasher hasher = new Hasher();
+		hasher.add(graph.getNodes().size());
+		for (SerializableNode node : graph.getNodes()) {
+			hasher.add(node.getId()).add(node.getText()).add(node.getSubNodes().size());
+			for (Integer sub : node.getSubNodes())
+				hasher.add(sub);
+			hasher.add(node.otherFields());
+		}
+
+		hasher.add(graph.getEdges().size());
+		for (SerializableEdge edge : graph.getEdges())
+			hasher.add(edge.getSourceId()).add(edge.getDestId()).add(edge.getKind()).add(edge.otherFields());
+		return hasher.hash;
+	}
+
+	private static long descriptionHash(
+			SerializableNodeDescription desc) {
+		Hasher hasher = new Hasher();
+		hasher.add(desc.getNodeId()).add(desc.getDescription());
+		return hasher.hash;
+	}
+
+	/**
+	 * A 64-bit FNV-1a hash, fed with values instead of bytes.
+	 */
+	private static final class Hasher {
+
+		private long hash = 0xcbf29ce484222325L;
+
+		private Hasher add(
+				long value) {
+			hash = (hash ^ value) * 0x100000001b3L;
+			return this;
+		}
+
+		private Hasher add(
+				String str) {
+			if (str == null)
+				return add(NULL);
+			add(str.length());
+			for (int i = 0; i < str.length(); i++)
+				add(str.charAt(i));
+			return this;
+		}
+
+		private Hasher add(
+				Map<String, String> fields) {
+			add(fields.size());
+			for (Entry<String, String> field : fields.entrySet())
+				add(field.getKey()).add(field.getValue());
+			return this;
+		}
+
+		private Hasher add(
+				SerializableValue value) {
+			add(value.getProperties());
+			if (value instanceof SerializableString)
+				return add(STRING).add(((SerializableString) value).getValue());
+
+			if (value instanceof SerializableArray) {
+				List<SerializableValue> elements = ((SerializableArray) value).getElements();
+				add(ARRAY).add(elements.size());
+				for (SerializableValue element : elements)
+					add(element);
+				return this;
+			}
+
+			SortedMap<String, SerializableValue> fields = ((SerializableObject) value).getFields();
+			add(OBJECT).add(fields.size());
+			for (Entry<String, SerializableValue> field : fields.entrySet())
+				add(field.getKey()).add(field.getValue());
+			return this;
+		}
+	}
+
+	private final class Cursor {
+
+		private int pos;
+
+		private Cursor(
+				int pos) {
+			this.pos = pos;
+		}
+
+		private int nextInt() {
+			int value = buffer.getInt(pos);
+			pos += Integer.BYTES;
+			return value;
+		}
+
+		private long nextLong() {
+			long value = buffer.getLong(pos);
+			pos += Long.BYTES;
+			return value;
+		}
+
+		private byte nextByte() {
+			return buffer.get(pos++);
+		}
+	}
+}
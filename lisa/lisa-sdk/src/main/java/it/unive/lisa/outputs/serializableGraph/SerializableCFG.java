@@ -1,12 +1,17 @@
 package it.unive.lisa.outputs.serializableGraph;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.outputs.DotGraph;
+import it.unive.lisa.outputs.GraphmlGraph;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.statement.NaryExpression;
 import it.unive.lisa.program.cfg.statement.NaryStatement;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.util.datastructures.graph.GraphVisitor;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.LinkedList;
@@ -15,7 +20,9 @@ import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.function.BiFunction;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.commons.lang3.tuple.Pair;
 
 /**
@@ -55,16 +62,8 @@ public class SerializableCFG {
 	public static SerializableGraph fromCFG(
 			CFG source,
 			BiFunction<CFG, Statement, SerializableValue> descriptionGenerator) {
-		String name = source.getDescriptor().getFullSignatureWithParNames();
-		String desc;
-		if (source instanceof AnalyzedCFG<?> && !((AnalyzedCFG<?>) source).getId().isStartingId())
-			desc = ((AnalyzedCFG<?>) source).getId().toString();
-		else
-			desc = null;
-
 		SortedSet<SerializableNode> nodes = new TreeSet<>();
 		SortedSet<SerializableNodeDescription> descrs = new TreeSet<>();
-		SortedSet<SerializableEdge> edges = new TreeSet<>();
 
 		OffsetGenerator gen = new OffsetGenerator();
 		source.accept(gen, null);
@@ -72,13 +71,140 @@ public class SerializableCFG {
 		for (Statement node : source.getNodes())
 			process(source, nodes, descrs, node, descriptionGenerator, gen.result);
 
+		return new SerializableGraph(name(source), description(source), nodes, edges(source, gen.result), descrs);
+	}
+
+	/**
+	 * Writes the json representation of the {@link SerializableGraph} that
+	 * {@link #fromCFG(CFG, BiFunction)} would build for the given {@link CFG},
+	 * using the same format of {@link SerializableGraph#dump(Writer)}. The
+	 * graph is never built: nodes and their descriptions are written as soon
+	 * as they are generated, so that at most one description is kept in memory
+	 * at any time.
+	 * 
+	 * @param source               the source cfg
+	 * @param descriptionGenerator the function that can generate descriptions
+	 *                                 from statements, or {@code null}
+	 * @param writer               the writer to write to
+	 * 
+	 * @throws IOException if an error happens while writing
+	 */
+	public static void dump(
+			CFG source,
+			BiFunction<CFG, Statement, SerializableValue> descriptionGenerator,
+			Writer writer)
+			throws IOException {
+		Traversal traversal = new Traversal(source, descriptionGenerator);
+
+		try (JsonGenerator json = SerializableGraph.mapper().createGenerator(writer)) {
+			json.writeStartObject();
+			json.writeStringField("name", name(source));
+			json.writeStringField("description", description(source));
+
+			json.writeArrayFieldStart("nodes");
+			for (SerializableNode node : traversal.nodes())
+				json.writeObject(node);
+			json.writeEndArray();
+
+			json.writeArrayFieldStart("edges");
+			for (SerializableEdge edge : traversal.edges)
+				json.writeObject(edge);
+			json.writeEndArray();
+
+			json.writeArrayFieldStart("descriptions");
+			for (SerializableNode node : traversal.nodes()) {
+				SerializableValue value = traversal.description(node.getId());
+				if (value != null)
+					json.writeObject(new SerializableNodeDescription(node.getId(), value));
+			}
+			json.writeEndArray();
+
+			json.writeEndObject();
+		}
+	}
+
+	/**
+	 * Writes the Dot representation of the {@link SerializableGraph} that
+	 * {@link #fromCFG(CFG, BiFunction)} would build for the given {@link CFG},
+	 * with the same contents of {@link SerializableGraph#toDot()}. The graph
+	 * is never built (see
+	 * {@link DotGraph#dump(String, Iterable, Iterable, IntFunction, Writer)}).
+	 * 
+	 * @param source               the source cfg
+	 * @param descriptionGenerator the function that can generate descriptions
+	 *                                 from statements, or {@code null}
+	 * @param writer               the writer to write to
+	 * 
+	 * @throws IOException if an error happens while writing
+	 */
+	public static void dumpDot(
+			CFG source,
+			BiFunction<CFG, Statement, SerializableValue> descriptionGenerator,
+			Writer writer)
+			throws IOException {
+		Traversal traversal = new Traversal(source, descriptionGenerator);
+		DotGraph.dump(name(source), traversal.nodes(), traversal.edges, traversal::description, writer);
+	}
+
+	/**
+	 * Writes the GraphML representation of the {@link SerializableGraph} that
+	 * {@link #fromCFG(CFG, BiFunction)} would build for the given {@link CFG},
+	 * with the same format of {@link SerializableGraph#toGraphml(boolean)}.
+	 * The graph is never built (see
+	 * {@link GraphmlGraph#dump(String, Iterable, Iterable, IntFunction, boolean, Writer)}).
+	 * 
+	 * @param source               the source cfg
+	 * @param descriptionGenerator the function that can generate descriptions
+	 *                                 from statements, or {@code null}
+	 * @param includeSubnodes      whether or not sub-nodes should be part of
+	 *                                 the graph
+	 * @param writer               the writer to write to
+	 * 
+	 * @throws IOException if an error happens while writing
+	 */
+	public static void dumpGraphml(
+			CFG source,
+			BiFunction<CFG, Statement, SerializableValue> descriptionGenerator,
+			boolean includeSubnodes,
+			Writer writer)
+			throws IOException {
+		Traversal traversal = new Traversal(source, descriptionGenerator);
+		GraphmlGraph.dump(name(source),
+				traversal.nodes(),
+				traversal.edges,
+				traversal::description,
+				includeSubnodes,
+				writer);
+	}
+
+	private static String name(
+			CFG source) {
+		return source.getDescriptor().getFullSignatureWithParNames();
+	}
+
+	private static String description(
+			CFG source) {
+		if (source instanceof AnalyzedCFG<?> && !((AnalyzedCFG<?>) source).getId().isStartingId())
+			return ((AnalyzedCFG<?>) source).getId().toString();
+		return null;
+	}
+
+	private static SortedSet<SerializableEdge> edges(
+			CFG source,
+			Map<Statement, Pair<Integer, List<Statement>>> mapping) {
+		SortedSet<SerializableEdge> edges = new TreeSet<>();
 		for (Edge edge : source.getEdges())
 			edges.add(new SerializableEdge(
-					gen.result.get(edge.getSource()).getLeft(),
-					gen.result.get(edge.getDestination()).getLeft(),
+					mapping.get(edge.getSource()).getLeft(),
+					mapping.get(edge.getDestination()).getLeft(),
 					edge.getClass().getSimpleName()));
+		return edges;
+	}
 
-		return new SerializableGraph(name, desc, nodes, edges, descrs);
+	private static List<Integer> innerIds(
+			Statement node,
+			Map<Statement, Pair<Integer, List<Statement>>> mapping) {
+		return mapping.get(node).getValue().stream().map(st -> mapping.get(st).getKey()).collect(Collectors.toList());
 	}
 
 	private static void process(
@@ -91,8 +217,7 @@ public class SerializableCFG {
 		Pair<Integer, List<Statement>> p = mapping.get(node);
 		for (Statement inner : p.getRight())
 			process(source, nodes, descrs, inner, descriptionGenerator, mapping);
-		List<Integer> innerIds = p.getValue().stream().map(st -> mapping.get(st).getKey()).collect(Collectors.toList());
-		addNode(source, nodes, descrs, node, p.getKey(), innerIds, descriptionGenerator);
+		addNode(source, nodes, descrs, node, p.getKey(), innerIds(node, mapping), descriptionGenerator);
 	}
 
 	private static void addNode(
@@ -112,6 +237,63 @@ public class SerializableCFG {
 		}
 	}
 
+	/**
+	 * The statements of a cfg, indexed by their offsets, that are used as ids
+	 * of the nodes. Nodes and edges are yielded sorted by id, and nodes and
+	 * descriptions are generated on demand.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static class Traversal {
+
+		private final CFG source;
+
+		private final BiFunction<CFG, Statement, SerializableValue> descriptionGenerator;
+
+		private final Map<Statement, Pair<Integer, List<Statement>>> mapping;
+
+		private final Statement[] statements;
+
+		private final SortedSet<SerializableEdge> edges;
+
+		private Traversal(
+				CFG source,
+				BiFunction<CFG, Statement, SerializableValue> descriptionGenerator) {
+			this.source = source;
+			this.descriptionGenerator = descriptionGenerator;
+
+			OffsetGenerator gen = new OffsetGenerator();
+			source.accept(gen, null);
+			this.mapping = gen.result;
+			this.statements = new Statement[gen.offset];
+			for (Statement node : source.getNodes())
+				collect(node);
+			this.edges = SerializableCFG.edges(source, mapping);
+		}
+
+		private void collect(
+				Statement node) {
+			Pair<Integer, List<Statement>> p = mapping.get(node);
+			for (Statement inner : p.getRight())
+				collect(inner);
+			statements[p.getKey()] = node;
+		}
+
+		private Iterable<SerializableNode> nodes() {
+			return () -> IntStream.range(0, statements.length)
+					.filter(i -> statements[i] != null)
+					.mapToObj(i -> new SerializableNode(i, innerIds(statements[i], mapping), statements[i].toString()))
+					.iterator();
+		}
+
+		private SerializableValue description(
+				int id) {
+			if (descriptionGenerator == null)
+				return null;
+			return descriptionGenerator.apply(source, statements[id]);
+		}
+	}
+
 	private static class OffsetGenerator
 			implements
 			GraphVisitor<CFG, Statement, Edge, Void> {
@@ -34,6 +34,18 @@ import org.apache.commons.lang3.tuple.Pair;
  */
 public class SerializableGraph {
 
+	/**
+	 * The mappers used to write graphs, without and with indentation. Mappers
+	 * are thread-safe, and expensive to create: they are thus shared among all
+	 * dumps.
+	 */
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+	private static final ObjectMapper INDENTING_MAPPER = new ObjectMapper()
+			.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+			.enable(SerializationFeature.INDENT_OUTPUT);
+
 	private final String name;
 
 	private final String description;
@@ -185,9 +197,18 @@ public class SerializableGraph {
 	public void dump(
 			Writer writer)
 			throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.configure(SerializationFeature.INDENT_OUTPUT, System.getProperty("lisa.json.indent") != null);
-		mapper.writeValue(writer, this);
+		mapper().writeValue(writer, this);
+	}
+
+	/**
+	 * Yields the mapper to use for writing graphs: if the system property
+	 * {@code lisa.json.indent} is set to any value, the json will be
+	 * formatted.
+	 * 
+	 * @return the mapper
+	 */
+	static ObjectMapper mapper() {
+		return System.getProperty("lisa.json.indent") != null ? INDENTING_MAPPER : MAPPER;
 	}
 
 	/**
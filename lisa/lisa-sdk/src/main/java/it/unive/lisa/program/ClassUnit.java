@@ -81,6 +81,7 @@ public class ClassUnit extends CompilationUnit {
 	 */
 	public final boolean addSuperclass(
 			ClassUnit unit) {
+		hierarchyChanged();
 		return superclasses.add(unit);
 	}
 
@@ -94,12 +95,16 @@ public class ClassUnit extends CompilationUnit {
 	 */
 	public final boolean addInterface(
 			InterfaceUnit unit) {
+		hierarchyChanged();
 		return interfaces.add(unit);
 	}
 
 	@Override
 	public boolean isInstanceOf(
 			CompilationUnit unit) {
+		UnitHierarchy hierarchy = getHierarchy();
+		if (hierarchy != null && hierarchy.covers(this) && hierarchy.covers(unit))
+			return hierarchy.isInstanceOf(this, unit);
 		return this == unit || unit.instances.contains(this)
 				|| getImmediateAncestors().stream().anyMatch(u -> u.isInstanceOf(unit));
 	}
@@ -129,8 +134,8 @@ public class ClassUnit extends CompilationUnit {
 	public boolean addAncestor(
 			CompilationUnit unit) {
 		if (unit instanceof ClassUnit)
-			return superclasses.add((ClassUnit) unit);
+			return addSuperclass((ClassUnit) unit);
 		else
-			return interfaces.add((InterfaceUnit) unit);
+			return addInterface((InterfaceUnit) unit);
 	}
 }
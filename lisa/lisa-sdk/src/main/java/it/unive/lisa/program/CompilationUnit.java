@@ -53,6 +53,12 @@ public abstract class CompilationUnit extends ProgramUnit {
 	 */
 	private final boolean sealed;
 
+	/**
+	 * The index of the hierarchy this unit is part of, available after the
+	 * hierarchy has been finalized.
+	 */
+	private volatile UnitHierarchy hierarchy;
+
 	/**
 	 * Builds an unit with super unit.
 	 * 
@@ -85,6 +91,42 @@ public abstract class CompilationUnit extends ProgramUnit {
 		return sealed;
 	}
 
+	/**
+	 * Yields the {@link UnitHierarchy} indexing the hierarchy this unit is
+	 * part of. The index is available only after the {@link Program} has been
+	 * validated by a
+	 * {@link ProgramValidationLogic#validateAndFinalize(Program)} call, and
+	 * this method returns {@code null} before that.
+	 * 
+	 * @return the index of the hierarchy, or {@code null}
+	 */
+	public UnitHierarchy getHierarchy() {
+		return hierarchy;
+	}
+
+	/**
+	 * Sets the {@link UnitHierarchy} indexing the hierarchy this unit is part
+	 * of.
+	 * 
+	 * @param hierarchy the index of the hierarchy
+	 */
+	void setHierarchy(
+			UnitHierarchy hierarchy) {
+		this.hierarchy = hierarchy;
+	}
+
+	/**
+	 * Invalidates the {@link UnitHierarchy} this unit is part of, if any. This
+	 * must be invoked whenever the direct ancestors of this unit change.
+	 */
+	protected void hierarchyChanged() {
+		UnitHierarchy current = hierarchy;
+		if (current != null) {
+			current.invalidate();
+			hierarchy = null;
+		}
+	}
+
 	/**
 	 * Adds a new {@link CompilationUnit} as direct inheritance ancestor (i.e.,
 	 * superclass, interface, or superinterface) of this unit.
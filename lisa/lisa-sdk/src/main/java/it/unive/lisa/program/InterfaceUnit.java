@@ -53,6 +53,7 @@ public class InterfaceUnit extends CompilationUnit {
 	 */
 	public boolean addSuperinterface(
 			InterfaceUnit unit) {
+		hierarchyChanged();
 		return superinterfaces.add(unit);
 	}
 
@@ -77,6 +78,9 @@ public class InterfaceUnit extends CompilationUnit {
 	@Override
 	public boolean isInstanceOf(
 			CompilationUnit unit) {
+		UnitHierarchy hierarchy = getHierarchy();
+		if (hierarchy != null && hierarchy.covers(this) && hierarchy.covers(unit))
+			return hierarchy.isInstanceOf(this, unit);
 		return this == unit || unit.instances.contains(this)
 				|| superinterfaces.stream().anyMatch(u -> u.isInstanceOf(unit));
 	}
@@ -85,7 +89,7 @@ public class InterfaceUnit extends CompilationUnit {
 	public boolean addAncestor(
 			CompilationUnit unit) {
 		if (unit instanceof InterfaceUnit)
-			return superinterfaces.add((InterfaceUnit) unit);
+			return addSuperinterface((InterfaceUnit) unit);
 		else
 			return false;
 	}
@@ -0,0 +1,237 @@
+package it.unive.lisa.program;
+
+import it.unive.lisa.program.language.validation.ProgramValidationLogic;
+import it.unive.lisa.type.Type;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * An index of the inheritance hierarchy of a set of {@link CompilationUnit}s,
+ * that answers subtyping queries in constant time. Each unit is assigned a
+ * dense numeric identifier, and the transitive closure of the hierarchy is
+ * stored as a bit matrix where each row contains the ancestors of a unit
+ * (including the unit itself). On top of this, the index memoizes the sets of
+ * {@link Type}s that are instances of each unit and the closest common
+ * ancestors of pairs of units.<br>
+ * <br>
+ * The index is built once the hierarchy is complete, that is, at the end of
+ * {@link ProgramValidationLogic#validateAndFinalize(Program)}, and it is
+ * installed into every unit it covers so that
+ * {@link CompilationUnit#isInstanceOf(CompilationUnit)} can use it. Adding an
+ * ancestor to any of the covered units afterwards invalidates the index, and
+ * queries fall back to traversing the hierarchy.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class UnitHierarchy {
+
+	/**
+	 * The identifier used to mark the absence of a common ancestor.
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The indexed units, where the position of each unit is its identifier.
+	 */
+	private final List<CompilationUnit> units = new ArrayList<>();
+
+	/**
+	 * The identifiers of the indexed units.
+	 */
+	private final Map<CompilationUnit, Integer> ids = new IdentityHashMap<>();
+
+	/**
+	 * The ancestors of each unit, indexed by identifier.
+	 */
+	private final List<BitSet> ancestors = new ArrayList<>();
+
+	/**
+	 * The memoized sets of types that are instances of each unit, indexed by
+	 * identifier.
+	 */
+	private final Map<Integer, Set<Type>> instances = new ConcurrentHashMap<>();
+
+	/**
+	 * The memoized closest common ancestors, indexed by the pair of
+	 * identifiers of the units.
+	 */
+	private final Map<Long, Integer> common = new ConcurrentHashMap<>();
+
+	/**
+	 * Whether or not the hierarchy has not been modified since the creation of
+	 * this index.
+	 */
+	private volatile boolean valid = true;
+
+	private UnitHierarchy() {
+	}
+
+	/**
+	 * Builds the index of the hierarchy of all the {@link CompilationUnit}s
+	 * defined in the given program, and installs it into each of them. Units
+	 * that are ancestors of the ones of the program but that are defined
+	 * elsewhere are indexed as well.
+	 * 
+	 * @param program the program
+	 * 
+	 * @return the index
+	 */
+	public static UnitHierarchy build(
+			Program program) {
+		UnitHierarchy hierarchy = new UnitHierarchy();
+		for (Unit unit : program.getUnits())
+			if (unit instanceof CompilationUnit)
+				hierarchy.index((CompilationUnit) unit);
+
+		for (CompilationUnit unit : hierarchy.units)
+			unit.setHierarchy(hierarchy);
+		return hierarchy;
+	}
+
+	private int index(
+			CompilationUnit unit) {
+		Integer id = ids.get(unit);
+		if (id != null) {
+			if (ancestors.get(id) == null)
+				throw new IllegalStateException(
+						"Found loop in compilation units hierarchy: " + unit + " is an ancestor of itself");
+			return id;
+		}
+
+		id = units.size();
+		units.add(unit);
+		ids.put(unit, id);
+		// the row is set only when complete, to detect cycles
+		ancestors.add(null);
+
+		BitSet row = new BitSet();
+		row.set(id);
+		for (CompilationUnit sup : unit.getImmediateAncestors())
+			row.or(ancestors.get(index(sup)));
+		ancestors.set(id, row);
+		return id;
+	}
+
+	/**
+	 * Marks this index as invalid, meaning that the hierarchy it describes has
+	 * been modified. All queries on invalid indexes have to be answered by
+	 * traversing the hierarchy.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+
+	/**
+	 * Yields whether or not this index can answer queries about the given
+	 * unit, that is, if it is still valid and it contains the unit.
+	 * 
+	 * @param unit the unit
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean covers(
+			CompilationUnit unit) {
+		return valid && ids.containsKey(unit);
+	}
+
+	private int id(
+			CompilationUnit unit) {
+		Integer id = ids.get(unit);
+		if (id == null)
+			throw new IllegalArgumentException(unit + " is not part of this hierarchy");
+		return id;
+	}
+
+	/**
+	 * Yields {@code true} if and only if {@code unit} is an instance of
+	 * {@code sup}, that is, if {@code sup} is {@code unit} itself or one of its
+	 * direct or indirect ancestors. Both units must be covered by this index
+	 * (see {@link #covers(CompilationUnit)}).
+	 * 
+	 * @param unit the unit
+	 * @param sup  the candidate ancestor
+	 * 
+	 * @return {@code true} only if that condition holds
+	 */
+	public boolean isInstanceOf(
+			CompilationUnit unit,
+			CompilationUnit sup) {
+		return ancestors.get(id(unit)).get(id(sup));
+	}
+
+	/**
+	 * Yields the closest ancestor of {@code unit} (including {@code unit}
+	 * itself) that {@code other} is an instance of. Ancestors are visited in
+	 * breadth-first order, following
+	 * {@link CompilationUnit#getImmediateAncestors()}, and the first matching
+	 * one is returned. Results are memoized, and both units must be covered by
+	 * this index (see {@link #covers(CompilationUnit)}).
+	 * 
+	 * @param unit  the unit whose ancestors are visited
+	 * @param other the unit that must be an instance of the result
+	 * 
+	 * @return the closest common ancestor, or {@code null} if the two units
+	 *             have no common ancestor
+	 */
+	public CompilationUnit getCommonAncestor(
+			CompilationUnit unit,
+			CompilationUnit other) {
+		int first = id(unit), second = id(other);
+		int result = common.computeIfAbsent(((long) first << 32) | second, k -> scan(first, second));
+		return result == NONE ? null : units.get(result);
+	}
+
+	private int scan(
+			int unit,
+			int other) {
+		BitSet targets = ancestors.get(other);
+		BitSet seen = new BitSet();
+		List<Integer> ws = new ArrayList<>();
+		ws.add(unit);
+		for (int i = 0; i < ws.size(); i++) {
+			int current = ws.get(i);
+			if (seen.get(current))
+				continue;
+			seen.set(current);
+			if (targets.get(current))
+				return current;
+			for (CompilationUnit sup : units.get(current).getImmediateAncestors())
+				ws.add(id(sup));
+		}
+		return NONE;
+	}
+
+	/**
+	 * Yields the {@link Type}s that are instances of the given unit, obtained
+	 * by converting each unit in {@link CompilationUnit#getInstances()} through
+	 * {@code converter}. The set is computed on the first invocation and then
+	 * memoized, and it cannot be modified. The unit must be covered by this
+	 * index (see {@link #covers(CompilationUnit)}), and the converter is
+	 * expected to be the same on every invocation.
+	 * 
+	 * @param unit      the unit
+	 * @param converter the function converting units to their types
+	 * 
+	 * @return the types of the instances of the unit
+	 */
+	public Set<Type> getInstances(
+			CompilationUnit unit,
+			Function<Unit, Type> converter) {
+		return instances.computeIfAbsent(id(unit), k -> {
+			Collection<Unit> units = unit.getInstances();
+			Set<Type> types = new HashSet<>(units.size());
+			for (Unit in : units)
+				types.add(converter.apply(in));
+			return Collections.unmodifiableSet(types);
+		});
+	}
+}
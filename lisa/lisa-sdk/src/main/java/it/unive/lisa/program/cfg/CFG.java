@@ -32,15 +32,19 @@ import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.NoOp;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.call.Call;
+import it.unive.lisa.symbolic.value.Variable;
 import it.unive.lisa.util.collections.workset.VisitOnceFIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.VisitOnceWorkingSet;
+import it.unive.lisa.util.collections.workset.WTOWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
 import it.unive.lisa.util.datastructures.graph.AdjacencyMatrix;
 import it.unive.lisa.util.datastructures.graph.algorithms.BackwardFixpoint;
 import it.unive.lisa.util.datastructures.graph.algorithms.Fixpoint;
 import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import it.unive.lisa.util.datastructures.graph.algorithms.WeakTopologicalOrder;
 import it.unive.lisa.util.datastructures.graph.code.CodeGraph;
 import it.unive.lisa.util.datastructures.graph.code.NodeList;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -85,6 +89,24 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 	 */
 	private Map<Statement, Statement[]> basicBlocks;
 
+	/**
+	 * The lazily computed weak topological ordering of this cfg, available
+	 * through {@link #getWeakTopologicalOrder()}.
+	 */
+	private volatile WeakTopologicalOrder<CFG, Statement, Edge> wto;
+
+	/**
+	 * The lazily computed index of the control flow structures of this cfg,
+	 * available through {@link #getStructureIndex()}.
+	 */
+	private volatile StructureIndex structureIndex;
+
+	/**
+	 * The lazily computed index of the scopes of the variables of this cfg,
+	 * available through {@link #getScopeIndex()}.
+	 */
+	private volatile ScopeIndex scopeIndex;
+
 	/**
 	 * Builds the control flow graph.
 	 * 
@@ -126,6 +148,7 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 		this.descriptor = other.descriptor;
 		this.cfStructs = other.cfStructs;
 		this.basicBlocks = other.basicBlocks;
+		this.wto = other.wto;
 	}
 
 	/**
@@ -181,6 +204,7 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 					"Cannot have more than one conditional structure happening on the same condition: "
 							+ cf.getCondition());
 		cfStructs.add(cf);
+		structureIndex = null;
 	}
 
 	/**
@@ -209,6 +233,7 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 			ControlFlowExtractor extractor) {
 		LOG.debug("Extracting control flow structures from " + this);
 		extractor.extract(this).forEach(cfStructs::add);
+		structureIndex = null;
 	}
 
 	@Override
@@ -230,6 +255,9 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 	public void simplify() {
 		super.simplify(NoOp.class, new LinkedList<>(), new HashMap<>());
 		cfStructs.forEach(ControlFlowStructure::simplify);
+		wto = null;
+		structureIndex = null;
+		scopeIndex = null;
 	}
 
 	/**
@@ -378,9 +406,12 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 		// descending one: the latter will need full results to start applying
 		// glbs/narrowings from a post-fixpoint
 		boolean isOptimized = conf.optimize && conf.descendingPhaseType == DescendingPhaseType.NONE;
+		Collection<Statement> wideningPoints = getWideningPoints(conf);
 		Fixpoint<CFG, Statement, Edge, CompoundState<A>> fix = isOptimized
-				? new OptimizedFixpoint<>(this, false, conf.hotspots)
-				: new Fixpoint<>(this, false);
+				? new OptimizedFixpoint<>(this, false, conf.hotspots, wideningPoints, conf.fixpointObserver)
+				: new Fixpoint<>(this, false, conf.fixpointObserver);
+		if (ws instanceof WTOWorkingSet)
+			((WTOWorkingSet<Statement>) ws).setOrder(getWeakTopologicalOrder()::getPosition);
 		AscendingFixpoint<A> asc = new AscendingFixpoint<>(this, interprocedural, conf);
 
 		Map<Statement, CompoundState<A>> starting = new HashMap<>();
@@ -393,7 +424,9 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 		if (conf.descendingPhaseType == DescendingPhaseType.NONE)
 			return flatten(isOptimized, singleton, startingPoints, interprocedural, id, ascending);
 
-		fix = conf.optimize ? new OptimizedFixpoint<>(this, true, conf.hotspots) : new Fixpoint<>(this, true);
+		fix = conf.optimize
+				? new OptimizedFixpoint<>(this, true, conf.hotspots, wideningPoints, conf.fixpointObserver)
+				: new Fixpoint<>(this, true, conf.fixpointObserver);
 		Map<Statement, CompoundState<A>> descending;
 		switch (conf.descendingPhaseType) {
 		case GLB:
@@ -590,8 +623,8 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 		// glbs/narrowings from a post-fixpoint
 		boolean isOptimized = conf.optimize && conf.descendingPhaseType == DescendingPhaseType.NONE;
 		BackwardFixpoint<CFG, Statement, Edge, CompoundState<A>> fix = isOptimized
-				? new OptimizedBackwardFixpoint<>(this, false, conf.hotspots)
-				: new BackwardFixpoint<>(this, false);
+				? new OptimizedBackwardFixpoint<>(this, false, conf.hotspots, conf.fixpointObserver)
+				: new BackwardFixpoint<>(this, false, conf.fixpointObserver);
 		BackwardAscendingFixpoint<A> asc = new BackwardAscendingFixpoint<>(this, interprocedural, conf);
 
 		Map<Statement, CompoundState<A>> starting = new HashMap<>();
@@ -604,8 +637,8 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 		if (conf.descendingPhaseType == DescendingPhaseType.NONE)
 			return flatten(isOptimized, singleton, startingPoints, interprocedural, id, ascending);
 
-		fix = conf.optimize ? new OptimizedBackwardFixpoint<>(this, true, conf.hotspots)
-				: new BackwardFixpoint<>(this, true);
+		fix = conf.optimize ? new OptimizedBackwardFixpoint<>(this, true, conf.hotspots, conf.fixpointObserver)
+				: new BackwardFixpoint<>(this, true, conf.fixpointObserver);
 		Map<Statement, CompoundState<A>> descending;
 		switch (conf.descendingPhaseType) {
 		case GLB:
@@ -836,12 +869,27 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 		if (st instanceof Expression)
 			st = ((Expression) st).getRootStatement();
 
-		Collection<ControlFlowStructure> res = new LinkedList<>();
-		for (ControlFlowStructure cf : cfStructs)
-			if (cf.contains(st))
-				res.add(cf);
+		return getStructureIndex().enclosing.getOrDefault(st, Collections.emptyList());
+	}
 
-		return res;
+	/**
+	 * Yields the index of the control flow structures of this cfg, computing
+	 * it if it is not available or if structures have been added to
+	 * {@link #getControlFlowStructures()} after its computation. The index is
+	 * discarded by {@link #addControlFlowStructure(ControlFlowStructure)},
+	 * {@link #extractControlFlowStructures(ControlFlowExtractor)}, and
+	 * {@link #simplify()}: the body of each structure should not be modified
+	 * after the first query on the structures of this cfg.
+	 * 
+	 * @return the index
+	 */
+	private StructureIndex getStructureIndex() {
+		StructureIndex result = structureIndex;
+		if (result == null || result.size != cfStructs.size()) {
+			result = new StructureIndex(cfStructs);
+			structureIndex = result;
+		}
+		return result;
 	}
 
 	/**
@@ -1048,10 +1096,7 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 	 */
 	public ControlFlowStructure getControlFlowStructureOf(
 			ProgramPoint guard) {
-		for (ControlFlowStructure struct : getControlFlowStructures())
-			if (struct.getCondition().equals(guard))
-				return struct;
-		return null;
+		return getStructureIndex().conditions.get(guard);
 	}
 
 	/**
@@ -1071,6 +1116,44 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 		return result;
 	}
 
+	/**
+	 * Yields the statements where widening should be applied during fixpoint
+	 * computations performed with the given configuration. These are the
+	 * {@link #getCycleEntries()}, together with the heads of the
+	 * {@link #getWeakTopologicalOrder()} if
+	 * {@link FixpointConfiguration#wtoWideningPoints} is set.
+	 * 
+	 * @param conf the configuration of the fixpoint
+	 * 
+	 * @return the widening points
+	 */
+	public Collection<Statement> getWideningPoints(
+			FixpointConfiguration conf) {
+		if (!conf.wtoWideningPoints)
+			return getCycleEntries();
+		Collection<Statement> result = new HashSet<>(getCycleEntries());
+		result.addAll(getWeakTopologicalOrder().getHeads());
+		return result;
+	}
+
+	/**
+	 * Yields the weak topological ordering of the statements of this cfg,
+	 * computing it on the first invocation. The ordering is cached until
+	 * {@link #simplify()} is invoked: it should thus be requested only once
+	 * the cfg has been fully built.
+	 * 
+	 * @return the weak topological ordering
+	 */
+	public WeakTopologicalOrder<CFG, Statement, Edge> getWeakTopologicalOrder() {
+		WeakTopologicalOrder<CFG, Statement, Edge> result = wto;
+		if (result == null) {
+			result = new WeakTopologicalOrder<>();
+			result.build(this);
+			wto = result;
+		}
+		return result;
+	}
+
 	/**
 	 * Computes the basic blocks of this cfg, that is, the sequences of
 	 * statements with no incoming branches (except to the first statement) and
@@ -1129,4 +1212,110 @@ public class CFG extends CodeGraph<CFG, Statement, Edge> implements CodeMember {
 			throw new IllegalStateException("Cannot retrieve basic blocks before computing them");
 		return basicBlocks;
 	}
+
+	/**
+	 * Yields the variables of this cfg whose scope ends at the given
+	 * statement, that is, the ones whose {@link VariableTableEntry#getScopeEnd()}
+	 * is {@code st}.
+	 * 
+	 * @param st the statement
+	 * 
+	 * @return the variables going out of scope after {@code st} (possibly
+	 *             empty)
+	 */
+	public Collection<Variable> getVariablesEndingScopeAt(
+			Statement st) {
+		return getScopeIndex().ending.getOrDefault(st, Collections.emptyList());
+	}
+
+	/**
+	 * Yields the variables of this cfg whose scope starts at the given
+	 * statement, that is, the ones whose
+	 * {@link VariableTableEntry#getScopeStart()} is {@code st}.
+	 * 
+	 * @param st the statement
+	 * 
+	 * @return the variables entering the scope at {@code st} (possibly empty)
+	 */
+	public Collection<Variable> getVariablesStartingScopeAt(
+			Statement st) {
+		return getScopeIndex().starting.getOrDefault(st, Collections.emptyList());
+	}
+
+	/**
+	 * Yields the index of the scopes of the variables of this cfg, computing it
+	 * if it is not available or if variables have been added to the
+	 * descriptor of this cfg after its computation. The index is discarded by
+	 * {@link #simplify()}: the scopes of existing variables should not be
+	 * modified after the first query on the scopes of this cfg.
+	 * 
+	 * @return the index
+	 */
+	private ScopeIndex getScopeIndex() {
+		ScopeIndex result = scopeIndex;
+		if (result == null || result.size != descriptor.getVariables().size()) {
+			result = new ScopeIndex(this);
+			scopeIndex = result;
+		}
+		return result;
+	}
+
+	/**
+	 * An index of the scopes of the variables of a cfg, mapping each statement
+	 * to the variables whose scope starts or ends there. Statements are
+	 * compared by identity, and variables are kept as {@link Variable}s to
+	 * avoid building their references at each query.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class ScopeIndex {
+
+		private final int size;
+
+		private final Map<Statement, List<Variable>> starting = new IdentityHashMap<>();
+
+		private final Map<Statement, List<Variable>> ending = new IdentityHashMap<>();
+
+		private ScopeIndex(
+				CFG cfg) {
+			List<VariableTableEntry> variables = cfg.descriptor.getVariables();
+			this.size = variables.size();
+			for (VariableTableEntry entry : variables) {
+				if (entry.getScopeStart() == null && entry.getScopeEnd() == null)
+					continue;
+				Variable var = entry.createReference(cfg).getVariable();
+				if (entry.getScopeStart() != null)
+					starting.computeIfAbsent(entry.getScopeStart(), k -> new ArrayList<>(1)).add(var);
+				if (entry.getScopeEnd() != null)
+					ending.computeIfAbsent(entry.getScopeEnd(), k -> new ArrayList<>(1)).add(var);
+			}
+		}
+	}
+
+	/**
+	 * An index of the {@link ControlFlowStructure}s of a cfg, mapping each
+	 * condition to the structure it guards, and each statement to the
+	 * structures containing it, in the order they are registered in the cfg.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class StructureIndex {
+
+		private final int size;
+
+		private final Map<ProgramPoint, ControlFlowStructure> conditions = new HashMap<>();
+
+		private final Map<Statement, List<ControlFlowStructure>> enclosing = new HashMap<>();
+
+		private StructureIndex(
+				Collection<ControlFlowStructure> structures) {
+			this.size = structures.size();
+			for (ControlFlowStructure cf : structures) {
+				conditions.put(cf.getCondition(), cf);
+				for (Statement st : cf.allStatements())
+					if (st != null && cf.contains(st))
+						enclosing.computeIfAbsent(st, k -> new ArrayList<>()).add(cf);
+			}
+		}
+	}
 }
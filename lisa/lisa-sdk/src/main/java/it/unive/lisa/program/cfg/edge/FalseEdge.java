@@ -6,6 +6,7 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.lattices.ExpressionSet;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.value.UnaryExpression;
 import it.unive.lisa.symbolic.value.operator.unary.LogicalNegation;
 
@@ -43,7 +44,7 @@ public class FalseEdge extends Edge {
 		ExpressionSet exprs = state.getComputedExpressions();
 		AnalysisState<A> result = state.bottom();
 		for (SymbolicExpression expr : exprs) {
-			UnaryExpression negated = new UnaryExpression(
+			UnaryExpression negated = SymbolicExpressionFactory.INSTANCE.mkUnary(
 					expr.getStaticType(),
 					expr,
 					LogicalNegation.INSTANCE,
@@ -9,6 +9,7 @@ import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.fixpoints.CFGFixpoint.CompoundState;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -54,17 +55,14 @@ public class BackwardAscendingFixpoint<A extends AbstractState<A>>
 			CompoundState<A> approx,
 			CompoundState<A> old)
 			throws SemanticException {
-		if (config.wideningThreshold < 0)
-			// invalid threshold means always lub
-			return old.lub(approx);
+		FixpointObserver<CFG, Statement> observer = config.fixpointObserver;
+		long start = observer == null ? 0 : System.nanoTime();
+		boolean widen = shouldWiden(node);
 
-		if (config.useWideningPoints && !wideningPoints.contains(node))
-			// optimization: never apply widening on normal instructions,
-			// save time and precision and only apply to widening points
-			return old.lub(approx);
-
-		int lub = lubs.computeIfAbsent(node, st -> config.wideningThreshold);
-		if (lub == 0) {
+		CompoundState<A> result;
+		if (!widen)
+			result = old.lub(approx);
+		else {
 			AnalysisState<A> post = old.postState.widening(approx.postState);
 			StatementStore<A> intermediate;
 			if (config.useWideningPoints)
@@ -74,11 +72,31 @@ public class BackwardAscendingFixpoint<A extends AbstractState<A>>
 				intermediate = old.intermediateStates.lub(approx.intermediateStates);
 			else
 				intermediate = old.intermediateStates.widening(approx.intermediateStates);
-			return CompoundState.of(post, intermediate);
+			result = CompoundState.of(post, intermediate);
 		}
 
+		if (observer != null)
+			observer.statesJoined(graph, node, widen, System.nanoTime() - start);
+		return result;
+	}
+
+	private boolean shouldWiden(
+			Statement node) {
+		if (config.wideningThreshold < 0)
+			// invalid threshold means always lub
+			return false;
+
+		if (config.useWideningPoints && !wideningPoints.contains(node))
+			// optimization: never apply widening on normal instructions,
+			// save time and precision and only apply to widening points
+			return false;
+
+		int lub = lubs.computeIfAbsent(node, st -> config.wideningThreshold);
+		if (lub == 0)
+			return true;
+
 		lubs.put(node, --lub);
-		return old.lub(approx);
+		return false;
 	}
 
 	@Override
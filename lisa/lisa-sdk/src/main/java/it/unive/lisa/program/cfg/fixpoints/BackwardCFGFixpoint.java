@@ -6,16 +6,16 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.StatementStore;
 import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.program.cfg.CFG;
-import it.unive.lisa.program.cfg.VariableTableEntry;
 import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.fixpoints.CFGFixpoint.CompoundState;
 import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Variable;
 import it.unive.lisa.util.datastructures.graph.algorithms.Fixpoint.FixpointImplementation;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -76,21 +76,17 @@ public abstract class BackwardCFGFixpoint<A extends AbstractState<A>>
 		AnalysisState<A> approx = edge.traverseBackwards(entrystate.postState);
 
 		// we remove out of scope variables here
-		List<VariableTableEntry> toRemove = new LinkedList<>();
-		for (VariableTableEntry entry : graph.getDescriptor().getVariables())
-			if (entry.getScopeStart() == edge.getDestination())
-				toRemove.add(entry);
+		Collection<Variable> vars = graph.getVariablesStartingScopeAt(edge.getDestination());
+		if (!vars.isEmpty()) {
+			Collection<Identifier> ids = new ArrayList<>(vars.size());
+			for (Variable v : vars)
+				for (SymbolicExpression expr : approx.smallStepSemantics(v, edge.getSource()).getComputedExpressions())
+					ids.add((Identifier) expr);
 
-		Collection<Identifier> ids = new LinkedList<>();
-		for (VariableTableEntry entry : toRemove) {
-			SymbolicExpression v = entry.createReference(graph).getVariable();
-			for (SymbolicExpression expr : approx.smallStepSemantics(v, edge.getSource()).getComputedExpressions())
-				ids.add((Identifier) expr);
+			if (!ids.isEmpty())
+				approx = approx.forgetIdentifiers(ids);
 		}
 
-		if (!ids.isEmpty())
-			approx = approx.forgetIdentifiers(ids);
-
 		return CompoundState.of(approx, new StatementStore<>(approx.bottom()));
 	}
 
@@ -102,4 +98,13 @@ public abstract class BackwardCFGFixpoint<A extends AbstractState<A>>
 			throws SemanticException {
 		return left.lub(right);
 	}
+
+	@Override
+	public CompoundState<A> unionAll(
+			Statement node,
+			CompoundState<A> first,
+			List<CompoundState<A>> others)
+			throws SemanticException {
+		return first.lubAll(others);
+	}
 }
@@ -7,6 +7,7 @@ import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.fixpoints.CFGFixpoint.CompoundState;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,6 +24,7 @@ public class BackwardDescendingGLBFixpoint<A extends AbstractState<A>> extends B
 
 	private final int maxGLBs;
 	private final Map<Statement, Integer> glbs;
+	private final FixpointObserver<CFG, Statement> observer;
 
 	/**
 	 * Builds the fixpoint implementation.
@@ -39,6 +41,7 @@ public class BackwardDescendingGLBFixpoint<A extends AbstractState<A>> extends B
 		super(target, interprocedural);
 		this.maxGLBs = config.glbThreshold;
 		this.glbs = new HashMap<>(target.getNodesCount());
+		this.observer = config.fixpointObserver;
 	}
 
 	@Override
@@ -55,7 +58,13 @@ public class BackwardDescendingGLBFixpoint<A extends AbstractState<A>> extends B
 			return old;
 
 		glbs.put(node, --glb);
-		return old.glb(approx);
+		if (observer == null)
+			return old.glb(approx);
+
+		long start = System.nanoTime();
+		CompoundState<A> result = old.glb(approx);
+		observer.statesRefined(graph, node, false, System.nanoTime() - start);
+		return result;
 	}
 
 	@Override
@@ -9,6 +9,7 @@ import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.fixpoints.CFGFixpoint.CompoundState;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
 import java.util.Collection;
 
 /**
@@ -47,21 +48,31 @@ public class BackwardDescendingNarrowingFixpoint<A extends AbstractState<A>> ext
 			CompoundState<A> approx,
 			CompoundState<A> old)
 			throws SemanticException {
-		if (wideningPoints == null || !wideningPoints.contains(node))
-			// optimization: never apply narrowing on normal instructions,
-			// save time and precision and only apply to widening points
-			return old.glb(approx);
+		FixpointObserver<CFG, Statement> observer = config.fixpointObserver;
+		long start = observer == null ? 0 : System.nanoTime();
+		// optimization: never apply narrowing on normal instructions,
+		// save time and precision and only apply to widening points
+		boolean narrow = wideningPoints != null && wideningPoints.contains(node);
 
-		AnalysisState<A> post = old.postState.narrowing(approx.postState);
-		StatementStore<A> intermediate;
-		if (config.useWideningPoints)
-			// no need to narrow the intermediate expressions as
-			// well: we force convergence on the final post state
-			// only, to recover as much precision as possible
-			intermediate = old.intermediateStates.glb(approx.intermediateStates);
-		else
-			intermediate = old.intermediateStates.narrowing(approx.intermediateStates);
-		return CompoundState.of(post, intermediate);
+		CompoundState<A> result;
+		if (!narrow)
+			result = old.glb(approx);
+		else {
+			AnalysisState<A> post = old.postState.narrowing(approx.postState);
+			StatementStore<A> intermediate;
+			if (config.useWideningPoints)
+				// no need to narrow the intermediate expressions as
+				// well: we force convergence on the final post state
+				// only, to recover as much precision as possible
+				intermediate = old.intermediateStates.glb(approx.intermediateStates);
+			else
+				intermediate = old.intermediateStates.narrowing(approx.intermediateStates);
+			result = CompoundState.of(post, intermediate);
+		}
+
+		if (observer != null)
+			observer.statesRefined(graph, node, narrow, System.nanoTime() - start);
+		return result;
 	}
 
 	@Override
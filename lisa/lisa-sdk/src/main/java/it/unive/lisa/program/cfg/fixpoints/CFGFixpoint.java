@@ -7,17 +7,17 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.analysis.StatementStore;
 import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.program.cfg.CFG;
-import it.unive.lisa.program.cfg.VariableTableEntry;
 import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.symbolic.value.Identifier;
+import it.unive.lisa.symbolic.value.Variable;
 import it.unive.lisa.util.datastructures.graph.algorithms.Fixpoint.FixpointImplementation;
 import it.unive.lisa.util.representation.ListRepresentation;
 import it.unive.lisa.util.representation.StructuredRepresentation;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 
@@ -79,21 +79,17 @@ public abstract class CFGFixpoint<A extends AbstractState<A>>
 		AnalysisState<A> approx = edge.traverseForward(entrystate.postState);
 
 		// we remove out of scope variables here
-		List<VariableTableEntry> toRemove = new LinkedList<>();
-		for (VariableTableEntry entry : graph.getDescriptor().getVariables())
-			if (entry.getScopeEnd() == edge.getSource())
-				toRemove.add(entry);
+		Collection<Variable> vars = graph.getVariablesEndingScopeAt(edge.getSource());
+		if (!vars.isEmpty()) {
+			Collection<Identifier> ids = new ArrayList<>(vars.size());
+			for (Variable v : vars)
+				for (SymbolicExpression expr : approx.smallStepSemantics(v, edge.getSource()).getComputedExpressions())
+					ids.add((Identifier) expr);
 
-		Collection<Identifier> ids = new LinkedList<>();
-		for (VariableTableEntry entry : toRemove) {
-			SymbolicExpression v = entry.createReference(graph).getVariable();
-			for (SymbolicExpression expr : approx.smallStepSemantics(v, edge.getSource()).getComputedExpressions())
-				ids.add((Identifier) expr);
+			if (!ids.isEmpty())
+				approx = approx.forgetIdentifiers(ids);
 		}
 
-		if (!ids.isEmpty())
-			approx = approx.forgetIdentifiers(ids);
-
 		return CompoundState.of(approx, new StatementStore<>(approx.bottom()));
 	}
 
@@ -106,6 +102,15 @@ public abstract class CFGFixpoint<A extends AbstractState<A>>
 		return left.lub(right);
 	}
 
+	@Override
+	public CompoundState<A> unionAll(
+			Statement node,
+			CompoundState<A> first,
+			List<CompoundState<A>> others)
+			throws SemanticException {
+		return first.lubAll(others);
+	}
+
 	/**
 	 * A compound state for a {@link Statement}, holding the post-state of the
 	 * whole statement as well as the ones of the inner expressions.
@@ -201,6 +206,19 @@ public abstract class CFGFixpoint<A extends AbstractState<A>>
 			return CompoundState.of(postState.lub(other.postState), intermediateStates.lub(other.intermediateStates));
 		}
 
+		@Override
+		public CompoundState<A> lubAll(
+				Collection<CompoundState<A>> others)
+				throws SemanticException {
+			List<AnalysisState<A>> posts = new ArrayList<>(others.size());
+			List<StatementStore<A>> stores = new ArrayList<>(others.size());
+			for (CompoundState<A> other : others) {
+				posts.add(other.postState);
+				stores.add(other.intermediateStates);
+			}
+			return CompoundState.of(postState.lubAll(posts), intermediateStates.lubAll(stores));
+		}
+
 		@Override
 		public CompoundState<A> top() {
 			return CompoundState.of(postState.top(), intermediateStates.top());
@@ -6,6 +6,7 @@ import it.unive.lisa.conf.FixpointConfiguration;
 import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,6 +23,7 @@ public class DescendingGLBFixpoint<A extends AbstractState<A>> extends CFGFixpoi
 
 	private final int maxGLBs;
 	private final Map<Statement, Integer> glbs;
+	private final FixpointObserver<CFG, Statement> observer;
 
 	/**
 	 * Builds the fixpoint implementation.
@@ -38,6 +40,7 @@ public class DescendingGLBFixpoint<A extends AbstractState<A>> extends CFGFixpoi
 		super(target, interprocedural);
 		this.maxGLBs = config.glbThreshold;
 		this.glbs = new HashMap<>(target.getNodesCount());
+		this.observer = config.fixpointObserver;
 	}
 
 	@Override
@@ -54,7 +57,13 @@ public class DescendingGLBFixpoint<A extends AbstractState<A>> extends CFGFixpoi
 			return old;
 
 		glbs.put(node, --glb);
-		return old.glb(approx);
+		if (observer == null)
+			return old.glb(approx);
+
+		long start = System.nanoTime();
+		CompoundState<A> result = old.glb(approx);
+		observer.statesRefined(graph, node, false, System.nanoTime() - start);
+		return result;
 	}
 
 	@Override
@@ -0,0 +1,568 @@
+package it.unive.lisa.program.cfg.fixpoints;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link FixpointObserver} that collects metrics about the fixpoints
+ * executed by an analysis: for each {@link CFG}, the number and duration of
+ * fixpoints, of semantic evaluations, of lubs and widenings, of the glbs and
+ * narrowings of descending phases, the maximum size of the working set, how
+ * many times an already computed result has been used as the result of a
+ * call, and how many of the calls it contains have been resolved by looking
+ * up the targets already resolved by the call graph; for each
+ * {@link Statement}, the number and duration of its evaluations, lubs,
+ * widenings, glbs and narrowings. When set as
+ * {@link it.unive.lisa.conf.LiSAConfiguration#fixpointObserver}, the metrics
+ * are dumped to {@link #METRICS_FILE} and {@link #FOLDED_STACKS_FILE} at the
+ * end of the analysis, their totals are embedded in the json report, and call
+ * graphs report their lookups to it.<br>
+ * <br>
+ * All callbacks are synchronized, and the nesting of fixpoints and statements
+ * used for the folded stacks is tracked separately for each thread: frames
+ * pushed by fixpoints running in parallel never interleave, and the time
+ * spent on each thread is merged by stack when it is popped.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class FixpointMetrics implements FixpointObserver<CFG, Statement> {
+
+	/**
+	 * The name of the file where metrics are dumped in json format.
+	 */
+	public static final String METRICS_FILE = "fixpoint-metrics.json";
+
+	/**
+	 * The name of the file where the time spent in each statement is dumped in
+	 * folded stacks format.
+	 */
+	public static final String FOLDED_STACKS_FILE = "fixpoint-metrics.folded";
+
+	private final Map<CFG, GraphMetrics> graphs = new HashMap<>();
+
+	private final ThreadLocal<Deque<Frame>> stacks = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private final Map<String, Long> folded = new TreeMap<>();
+
+	private long hits;
+
+	private long misses;
+
+	private long resolutionHits;
+
+	private long resolutionMisses;
+
+	private static class Counters {
+
+		long evaluations;
+
+		long semanticsNanos;
+
+		long lubs;
+
+		long lubNanos;
+
+		long widenings;
+
+		long wideningNanos;
+
+		long glbs;
+
+		long glbNanos;
+
+		long narrowings;
+
+		long narrowingNanos;
+
+		void add(
+				Counters other) {
+			evaluations += other.evaluations;
+			semanticsNanos += other.semanticsNanos;
+			lubs += other.lubs;
+			lubNanos += other.lubNanos;
+			widenings += other.widenings;
+			wideningNanos += other.wideningNanos;
+			glbs += other.glbs;
+			glbNanos += other.glbNanos;
+			narrowings += other.narrowings;
+			narrowingNanos += other.narrowingNanos;
+		}
+
+		void fill(
+				Map<String, Object> target) {
+			target.put("evaluations", evaluations);
+			target.put("semanticsNanos", semanticsNanos);
+			target.put("lubs", lubs);
+			target.put("lubNanos", lubNanos);
+			target.put("widenings", widenings);
+			target.put("wideningNanos", wideningNanos);
+			target.put("glbs", glbs);
+			target.put("glbNanos", glbNanos);
+			target.put("narrowings", narrowings);
+			target.put("narrowingNanos", narrowingNanos);
+		}
+	}
+
+	private static class GraphMetrics extends Counters {
+
+		private long fixpoints;
+
+		private long fixpointNanos;
+
+		private int maxWorkingSet;
+
+		private long hits;
+
+		private long misses;
+
+		private long resolutionHits;
+
+		private long resolutionMisses;
+
+		private final Map<Statement, Counters> statements = new HashMap<>();
+
+		private Counters of(
+				Statement node) {
+			return statements.computeIfAbsent(node, st -> new Counters());
+		}
+	}
+
+	private static class Frame {
+
+		private final String path;
+
+		private long children;
+
+		private Frame(
+				String path) {
+			this.path = path;
+		}
+	}
+
+	private GraphMetrics of(
+			CFG graph) {
+		return graphs.computeIfAbsent(graph, g -> new GraphMetrics());
+	}
+
+	private void push(
+			String name) {
+		Deque<Frame> stack = stacks.get();
+		Frame top = stack.peek();
+		// semicolons separate frames in folded stacks
+		String frame = name.replace(';', ',').replace('\n', ' ');
+		stack.push(new Frame(top == null ? frame : top.path + ";" + frame));
+	}
+
+	private void pop(
+			long nanos) {
+		Deque<Frame> stack = stacks.get();
+		Frame frame = stack.pop();
+		folded.merge(frame.path, Math.max(0, nanos - frame.children), Long::sum);
+		if (!stack.isEmpty())
+			stack.peek().children += nanos;
+	}
+
+	private static String name(
+			CFG graph) {
+		return graph.getDescriptor().getFullSignatureWithParNames();
+	}
+
+	private static String name(
+			Statement node) {
+		return node + " at " + node.getLocation();
+	}
+
+	@Override
+	public synchronized void fixpointStarted(
+			CFG graph) {
+		of(graph).fixpoints++;
+		push(name(graph));
+	}
+
+	@Override
+	public synchronized void fixpointEnded(
+			CFG graph,
+			long nanos) {
+		of(graph).fixpointNanos += nanos;
+		pop(nanos);
+	}
+
+	@Override
+	public synchronized void beforeSemantics(
+			CFG graph,
+			Statement node) {
+		push(name(node));
+	}
+
+	@Override
+	public synchronized void afterSemantics(
+			CFG graph,
+			Statement node,
+			long nanos) {
+		GraphMetrics metrics = of(graph);
+		Counters counters = metrics.of(node);
+		metrics.evaluations++;
+		metrics.semanticsNanos += nanos;
+		counters.evaluations++;
+		counters.semanticsNanos += nanos;
+		pop(nanos);
+	}
+
+	@Override
+	public synchronized void statesJoined(
+			CFG graph,
+			Statement node,
+			boolean widening,
+			long nanos) {
+		GraphMetrics metrics = of(graph);
+		Counters counters = metrics.of(node);
+		if (widening) {
+			metrics.widenings++;
+			metrics.wideningNanos += nanos;
+			counters.widenings++;
+			counters.wideningNanos += nanos;
+		} else {
+			metrics.lubs++;
+			metrics.lubNanos += nanos;
+			counters.lubs++;
+			counters.lubNanos += nanos;
+		}
+	}
+
+	@Override
+	public synchronized void statesRefined(
+			CFG graph,
+			Statement node,
+			boolean narrowing,
+			long nanos) {
+		GraphMetrics metrics = of(graph);
+		Counters counters = metrics.of(node);
+		if (narrowing) {
+			metrics.narrowings++;
+			metrics.narrowingNanos += nanos;
+			counters.narrowings++;
+			counters.narrowingNanos += nanos;
+		} else {
+			metrics.glbs++;
+			metrics.glbNanos += nanos;
+			counters.glbs++;
+			counters.glbNanos += nanos;
+		}
+	}
+
+	@Override
+	public synchronized void workingSetSize(
+			CFG graph,
+			int size) {
+		GraphMetrics metrics = of(graph);
+		metrics.maxWorkingSet = Math.max(metrics.maxWorkingSet, size);
+	}
+
+	@Override
+	public synchronized void callResultLookup(
+			CFG graph,
+			boolean hit) {
+		if (hit) {
+			hits++;
+			of(graph).hits++;
+		} else {
+			misses++;
+			of(graph).misses++;
+		}
+	}
+
+	@Override
+	public synchronized void callResolutionLookup(
+			CFG graph,
+			Statement call,
+			boolean hit) {
+		if (hit) {
+			resolutionHits++;
+			of(graph).resolutionHits++;
+		} else {
+			resolutionMisses++;
+			of(graph).resolutionMisses++;
+		}
+	}
+
+	/**
+	 * Yields the number of fixpoints executed over the given cfg.
+	 * 
+	 * @param graph the cfg
+	 * 
+	 * @return the number of fixpoints
+	 */
+	public synchronized long getFixpoints(
+			CFG graph) {
+		GraphMetrics metrics = graphs.get(graph);
+		return metrics == null ? 0 : metrics.fixpoints;
+	}
+
+	/**
+	 * Yields the number of semantic evaluations of statements of the given
+	 * cfg.
+	 * 
+	 * @param graph the cfg
+	 * 
+	 * @return the number of evaluations
+	 */
+	public synchronized long getEvaluations(
+			CFG graph) {
+		GraphMetrics metrics = graphs.get(graph);
+		return metrics == null ? 0 : metrics.evaluations;
+	}
+
+	/**
+	 * Yields the number of semantic evaluations of the given statement.
+	 * 
+	 * @param node the statement
+	 * 
+	 * @return the number of evaluations
+	 */
+	public synchronized long getEvaluations(
+			Statement node) {
+		Counters counters = counters(node);
+		return counters == null ? 0 : counters.evaluations;
+	}
+
+	/**
+	 * Yields the number of lubs applied while iterating over the given cfg.
+	 * 
+	 * @param graph the cfg
+	 * 
+	 * @return the number of lubs
+	 */
+	public synchronized long getLubs(
+			CFG graph) {
+		GraphMetrics metrics = graphs.get(graph);
+		return metrics == null ? 0 : metrics.lubs;
+	}
+
+	/**
+	 * Yields the number of widenings applied while iterating over the given
+	 * cfg.
+	 * 
+	 * @param graph the cfg
+	 * 
+	 * @return the number of widenings
+	 */
+	public synchronized long getWidenings(
+			CFG graph) {
+		GraphMetrics metrics = graphs.get(graph);
+		return metrics == null ? 0 : metrics.widenings;
+	}
+
+	/**
+	 * Yields the number of widenings applied to the results of the given
+	 * statement.
+	 * 
+	 * @param node the statement
+	 * 
+	 * @return the number of widenings
+	 */
+	public synchronized long getWidenings(
+			Statement node) {
+		Counters counters = counters(node);
+		return counters == null ? 0 : counters.widenings;
+	}
+
+	/**
+	 * Yields the number of glbs applied while traversing descending chains
+	 * over the given cfg.
+	 * 
+	 * @param graph the cfg
+	 * 
+	 * @return the number of glbs
+	 */
+	public synchronized long getGlbs(
+			CFG graph) {
+		GraphMetrics metrics = graphs.get(graph);
+		return metrics == null ? 0 : metrics.glbs;
+	}
+
+	/**
+	 * Yields the number of narrowings applied while traversing descending
+	 * chains over the given cfg.
+	 * 
+	 * @param graph the cfg
+	 * 
+	 * @return the number of narrowings
+	 */
+	public synchronized long getNarrowings(
+			CFG graph) {
+		GraphMetrics metrics = graphs.get(graph);
+		return metrics == null ? 0 : metrics.narrowings;
+	}
+
+	/**
+	 * Yields the maximum size reached by the working set of fixpoints over the
+	 * given cfg.
+	 * 
+	 * @param graph the cfg
+	 * 
+	 * @return the maximum size of the working set
+	 */
+	public synchronized int getMaxWorkingSetSize(
+			CFG graph) {
+		GraphMetrics metrics = graphs.get(graph);
+		return metrics == null ? 0 : metrics.maxWorkingSet;
+	}
+
+	/**
+	 * Yields the number of times an already computed result has been used as
+	 * the result of a call.
+	 * 
+	 * @return the number of hits
+	 */
+	public synchronized long getCallResultHits() {
+		return hits;
+	}
+
+	/**
+	 * Yields the number of times a fixpoint had to be computed to get the
+	 * result of a call.
+	 * 
+	 * @return the number of misses
+	 */
+	public synchronized long getCallResultMisses() {
+		return misses;
+	}
+
+	/**
+	 * Yields the number of times the targets of a call have been found among
+	 * the ones already resolved by the call graph.
+	 * 
+	 * @return the number of hits
+	 */
+	public synchronized long getCallResolutionHits() {
+		return resolutionHits;
+	}
+
+	/**
+	 * Yields the number of times the targets of a call had to be resolved by
+	 * the call graph.
+	 * 
+	 * @return the number of misses
+	 */
+	public synchronized long getCallResolutionMisses() {
+		return resolutionMisses;
+	}
+
+	private Counters counters(
+			Statement node) {
+		GraphMetrics metrics = graphs.get(node.getCFG());
+		return metrics == null ? null : metrics.statements.get(node);
+	}
+
+	private static double rate(
+			long hits,
+			long misses) {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	/**
+	 * Dumps the collected metrics in json format to the given writer.
+	 * 
+	 * @param writer the writer to use
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public synchronized void dump(
+			Writer writer)
+			throws IOException {
+		Map<String, Object> cfgs = new TreeMap<>();
+		for (Map.Entry<CFG, GraphMetrics> entry : graphs.entrySet()) {
+			GraphMetrics metrics = entry.getValue();
+			Map<String, Object> cfg = new LinkedHashMap<>();
+			cfg.put("fixpoints", metrics.fixpoints);
+			cfg.put("fixpointNanos", metrics.fixpointNanos);
+			metrics.fill(cfg);
+			cfg.put("maxWorkingSet", metrics.maxWorkingSet);
+			cfg.put("callResultHits", metrics.hits);
+			cfg.put("callResultMisses", metrics.misses);
+			cfg.put("callResultHitRate", rate(metrics.hits, metrics.misses));
+			cfg.put("callResolutionHits", metrics.resolutionHits);
+			cfg.put("callResolutionMisses", metrics.resolutionMisses);
+			cfg.put("callResolutionHitRate", rate(metrics.resolutionHits, metrics.resolutionMisses));
+
+			Map<String, Object> statements = new TreeMap<>();
+			for (Map.Entry<Statement, Counters> st : metrics.statements.entrySet()) {
+				Map<String, Object> node = new LinkedHashMap<>();
+				st.getValue().fill(node);
+				statements.put(name(st.getKey()), node);
+			}
+			cfg.put("statements", statements);
+			cfgs.put(name(entry.getKey()), cfg);
+		}
+
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("totals", totals());
+		json.put("cfgs", cfgs);
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.configure(SerializationFeature.INDENT_OUTPUT, true);
+		mapper.writeValue(writer, json);
+	}
+
+	/**
+	 * Yields the metrics collected over all cfgs, in the form of a property
+	 * bag. These are the same totals that {@link #dump(Writer)} writes, and
+	 * they are embedded in the json report of the analysis.
+	 * 
+	 * @return a map containing the total metrics
+	 */
+	public synchronized Map<String, String> toPropertyBag() {
+		Map<String, String> bag = new TreeMap<>();
+		for (Map.Entry<String, Object> entry : totals().entrySet())
+			bag.put(entry.getKey(), String.valueOf(entry.getValue()));
+		return bag;
+	}
+
+	private Map<String, Object> totals() {
+		Counters total = new Counters();
+		long fixpoints = 0;
+		for (GraphMetrics metrics : graphs.values()) {
+			fixpoints += metrics.fixpoints;
+			total.add(metrics);
+		}
+
+		Map<String, Object> totals = new LinkedHashMap<>();
+		totals.put("fixpoints", fixpoints);
+		total.fill(totals);
+		totals.put("callResultHits", hits);
+		totals.put("callResultMisses", misses);
+		totals.put("callResultHitRate", rate(hits, misses));
+		totals.put("callResolutionHits", resolutionHits);
+		totals.put("callResolutionMisses", resolutionMisses);
+		totals.put("callResolutionHitRate", rate(resolutionHits, resolutionMisses));
+		return totals;
+	}
+
+	/**
+	 * Dumps the time spent in each cfg and statement in the folded stacks
+	 * format used by flame graph tools: each line contains a semicolon
+	 * separated stack of frames (cfgs and statements, where the callers come
+	 * first) followed by the number of nanoseconds spent in the last frame,
+	 * excluding the time spent in nested frames.
+	 * 
+	 * @param writer the writer to use
+	 * 
+	 * @throws IOException if an I/O error occurs while writing
+	 */
+	public synchronized void dumpFoldedStacks(
+			Writer writer)
+			throws IOException {
+		for (Map.Entry<String, Long> entry : folded.entrySet())
+			writer.write(entry.getKey() + " " + entry.getValue() + "\n");
+	}
+}
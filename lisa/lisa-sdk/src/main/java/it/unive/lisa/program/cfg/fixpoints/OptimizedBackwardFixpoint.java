@@ -14,6 +14,7 @@ import it.unive.lisa.util.datastructures.graph.Graph;
 import it.unive.lisa.util.datastructures.graph.algorithms.BackwardFixpoint;
 import it.unive.lisa.util.datastructures.graph.algorithms.Fixpoint;
 import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -56,7 +57,29 @@ public class OptimizedBackwardFixpoint<A extends AbstractState<A>>
 			CFG graph,
 			boolean forceFullEvaluation,
 			Predicate<Statement> hotspots) {
-		super(graph, forceFullEvaluation);
+		this(graph, forceFullEvaluation, hotspots, null);
+	}
+
+	/**
+	 * Builds an optimized fixpoint for the given {@link Graph}.
+	 * 
+	 * @param graph               the source graph
+	 * @param forceFullEvaluation whether or not the fixpoint should evaluate
+	 *                                all nodes independently of the fixpoint
+	 *                                implementation
+	 * @param hotspots            the predicate to identify additional
+	 *                                statements whose approximation must be
+	 *                                preserved in the results
+	 * @param observer            the {@link FixpointObserver} to notify of the
+	 *                                events of the fixpoint (can be
+	 *                                {@code null})
+	 */
+	public OptimizedBackwardFixpoint(
+			CFG graph,
+			boolean forceFullEvaluation,
+			Predicate<Statement> hotspots,
+			FixpointObserver<CFG, Statement> observer) {
+		super(graph, forceFullEvaluation, observer);
 		this.hotspots = hotspots;
 	}
 
@@ -67,6 +90,24 @@ public class OptimizedBackwardFixpoint<A extends AbstractState<A>>
 			Fixpoint.FixpointImplementation<Statement, Edge, CompoundState<A>> implementation,
 			Map<Statement, CompoundState<A>> initialResult)
 			throws FixpointException {
+		if (observer == null)
+			return run(startingPoints, ws, implementation, initialResult);
+
+		observer.fixpointStarted(graph);
+		long start = System.nanoTime();
+		try {
+			return run(startingPoints, ws, implementation, initialResult);
+		} finally {
+			observer.fixpointEnded(graph, System.nanoTime() - start);
+		}
+	}
+
+	private Map<Statement, CompoundState<A>> run(
+			Map<Statement, CompoundState<A>> startingPoints,
+			WorkingSet<Statement> ws,
+			Fixpoint.FixpointImplementation<Statement, Edge, CompoundState<A>> implementation,
+			Map<Statement, CompoundState<A>> initialResult)
+			throws FixpointException {
 		Map<Statement, CompoundState<A>> result = initialResult == null
 				? new HashMap<>(graph.getNodesCount())
 				: new HashMap<>(initialResult);
@@ -130,6 +171,9 @@ public class OptimizedBackwardFixpoint<A extends AbstractState<A>>
 			} catch (Exception e) {
 				throw new FixpointException(format(ERROR, "updating result", leader, graph), e);
 			}
+
+			if (observer != null)
+				observer.workingSetSize(graph, ws.size());
 		}
 
 		// cleanup: theoretically, we can reconstruct the full results by
@@ -162,7 +206,7 @@ public class OptimizedBackwardFixpoint<A extends AbstractState<A>>
 		for (int i = bb.length - 1; i >= 0; i--)
 			try {
 				Statement cursor = bb[i];
-				newApprox = implementation.semantics(cursor, exit);
+				newApprox = semantics(cursor, exit, implementation);
 
 				// storing approximations into result is a trick: it won't ever
 				// be used in fixpoint comparisons, but it will still make
@@ -13,6 +13,7 @@ import it.unive.lisa.util.collections.workset.WorkingSet;
 import it.unive.lisa.util.datastructures.graph.Graph;
 import it.unive.lisa.util.datastructures.graph.algorithms.Fixpoint;
 import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointObserver;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -40,6 +41,8 @@ public class OptimizedFixpoint<A extends AbstractState<A>>
 
 	private final Predicate<Statement> hotspots;
 
+	private final Collection<Statement> wideningPoints;
+
 	/**
 	 * Builds an optimized fixpoint for the given {@link Graph}.
 	 * 
@@ -55,8 +58,61 @@ public class OptimizedFixpoint<A extends AbstractState<A>>
 			CFG graph,
 			boolean forceFullEvaluation,
 			Predicate<Statement> hotspots) {
-		super(graph, forceFullEvaluation);
+		this(graph, forceFullEvaluation, hotspots, null);
+	}
+
+	/**
+	 * Builds an optimized fixpoint for the given {@link Graph}.
+	 * 
+	 * @param graph               the source graph
+	 * @param forceFullEvaluation whether or not the fixpoint should evaluate
+	 *                                all nodes independently of the fixpoint
+	 *                                implementation
+	 * @param hotspots            the predicate to identify additional
+	 *                                statements whose approximation must be
+	 *                                preserved in the results
+	 * @param wideningPoints      the widening points of the graph, whose
+	 *                                approximation must be preserved in the
+	 *                                results (if {@code null},
+	 *                                {@link CFG#getCycleEntries()} will be
+	 *                                used)
+	 */
+	public OptimizedFixpoint(
+			CFG graph,
+			boolean forceFullEvaluation,
+			Predicate<Statement> hotspots,
+			Collection<Statement> wideningPoints) {
+		this(graph, forceFullEvaluation, hotspots, wideningPoints, null);
+	}
+
+	/**
+	 * Builds an optimized fixpoint for the given {@link Graph}.
+	 * 
+	 * @param graph               the source graph
+	 * @param forceFullEvaluation whether or not the fixpoint should evaluate
+	 *                                all nodes independently of the fixpoint
+	 *                                implementation
+	 * @param hotspots            the predicate to identify additional
+	 *                                statements whose approximation must be
+	 *                                preserved in the results
+	 * @param wideningPoints      the widening points of the graph, whose
+	 *                                approximation must be preserved in the
+	 *                                results (if {@code null},
+	 *                                {@link CFG#getCycleEntries()} will be
+	 *                                used)
+	 * @param observer            the {@link FixpointObserver} to notify of the
+	 *                                events of the fixpoint (can be
+	 *                                {@code null})
+	 */
+	public OptimizedFixpoint(
+			CFG graph,
+			boolean forceFullEvaluation,
+			Predicate<Statement> hotspots,
+			Collection<Statement> wideningPoints,
+			FixpointObserver<CFG, Statement> observer) {
+		super(graph, forceFullEvaluation, observer);
 		this.hotspots = hotspots;
+		this.wideningPoints = wideningPoints;
 	}
 
 	@Override
@@ -66,6 +122,24 @@ public class OptimizedFixpoint<A extends AbstractState<A>>
 			FixpointImplementation<Statement, Edge, CompoundState<A>> implementation,
 			Map<Statement, CompoundState<A>> initialResult)
 			throws FixpointException {
+		if (observer == null)
+			return run(startingPoints, ws, implementation, initialResult);
+
+		observer.fixpointStarted(graph);
+		long start = System.nanoTime();
+		try {
+			return run(startingPoints, ws, implementation, initialResult);
+		} finally {
+			observer.fixpointEnded(graph, System.nanoTime() - start);
+		}
+	}
+
+	private Map<Statement, CompoundState<A>> run(
+			Map<Statement, CompoundState<A>> startingPoints,
+			WorkingSet<Statement> ws,
+			FixpointImplementation<Statement, Edge, CompoundState<A>> implementation,
+			Map<Statement, CompoundState<A>> initialResult)
+			throws FixpointException {
 		Map<Statement, CompoundState<A>> result = initialResult == null
 				? new HashMap<>(graph.getNodesCount())
 				: new HashMap<>(initialResult);
@@ -124,6 +198,9 @@ public class OptimizedFixpoint<A extends AbstractState<A>>
 			} catch (Exception e) {
 				throw new FixpointException(format(ERROR, "updating result", closing, graph), e);
 			}
+
+			if (observer != null)
+				observer.workingSetSize(graph, ws.size());
 		}
 
 		// cleanup: theoretically, we can reconstruct the full results by
@@ -133,7 +210,9 @@ public class OptimizedFixpoint<A extends AbstractState<A>>
 		// interprocedural analyses during the fixpoint, so that we
 		// can delay unwinding. we also store hotspots
 		Collection<Statement> cleanup = new HashSet<>();
-		Collection<Statement> wideningPoints = graph.getCycleEntries();
+		Collection<Statement> wideningPoints = this.wideningPoints == null
+				? graph.getCycleEntries()
+				: this.wideningPoints;
 		for (Statement st : result.keySet())
 			if (!wideningPoints.contains(st) && !st.stopsExecution() && (hotspots == null || !hotspots.test(st)))
 				cleanup.add(st);
@@ -155,7 +234,7 @@ public class OptimizedFixpoint<A extends AbstractState<A>>
 		CompoundState<A> entry = entrystate;
 		for (Statement cursor : bb)
 			try {
-				newApprox = implementation.semantics(cursor, entry);
+				newApprox = semantics(cursor, entry, implementation);
 
 				// storing approximations into result is a trick: it won't ever
 				// be used in fixpoint comparisons, but it will still make
@@ -13,6 +13,8 @@ import it.unive.lisa.program.cfg.statement.evaluation.LeftToRightEvaluation;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An {@link NaryExpression} with exactly two sub-expressions.
@@ -136,12 +138,12 @@ public abstract class BinaryExpression extends NaryExpression {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression left : params[0])
 			for (SymbolicExpression right : params[1])
-				result = result.lub(fwdBinarySemantics(interprocedural, state, left, right, expressions));
+				results.add(fwdBinarySemantics(interprocedural, state, left, right, expressions));
 
-		return result;
+		return state.bottom().lubAll(results);
 	}
 
 	/**
@@ -184,12 +186,12 @@ public abstract class BinaryExpression extends NaryExpression {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression left : params[0])
 			for (SymbolicExpression right : params[1])
-				result = result.lub(bwdBinarySemantics(interprocedural, state, left, right, expressions));
+				results.add(bwdBinarySemantics(interprocedural, state, left, right, expressions));
 
-		return result;
+		return state.bottom().lubAll(results);
 	}
 
 	/**
@@ -11,6 +11,8 @@ import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.program.cfg.statement.evaluation.EvaluationOrder;
 import it.unive.lisa.program.cfg.statement.evaluation.LeftToRightEvaluation;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An {@link NaryStatement} with exactly two sub-expressions.
@@ -87,12 +89,12 @@ public abstract class BinaryStatement extends NaryStatement {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression left : params[0])
 			for (SymbolicExpression right : params[1])
-				result = result.lub(fwdBinarySemantics(interprocedural, state, left, right, expressions));
+				results.add(fwdBinarySemantics(interprocedural, state, left, right, expressions));
 
-		return result;
+		return state.bottom().lubAll(results);
 	}
 
 	/**
@@ -135,12 +137,12 @@ public abstract class BinaryStatement extends NaryStatement {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression left : params[0])
 			for (SymbolicExpression right : params[1])
-				result = result.lub(bwdBinarySemantics(interprocedural, state, left, right, expressions));
+				results.add(bwdBinarySemantics(interprocedural, state, left, right, expressions));
 
-		return result;
+		return state.bottom().lubAll(results);
 	}
 
 	/**
@@ -13,6 +13,8 @@ import it.unive.lisa.program.cfg.statement.evaluation.LeftToRightEvaluation;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An {@link NaryExpression} with exactly three sub-expressions.
@@ -155,13 +157,13 @@ public abstract class TernaryExpression extends NaryExpression {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression left : params[0])
 			for (SymbolicExpression middle : params[1])
 				for (SymbolicExpression right : params[2])
-					result = result.lub(fwdTernarySemantics(interprocedural, state, left, middle, right, expressions));
+					results.add(fwdTernarySemantics(interprocedural, state, left, middle, right, expressions));
 
-		return result;
+		return state.bottom().lubAll(results);
 	}
 
 	/**
@@ -208,13 +210,13 @@ public abstract class TernaryExpression extends NaryExpression {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression left : params[0])
 			for (SymbolicExpression middle : params[1])
 				for (SymbolicExpression right : params[2])
-					result = result.lub(bwdTernarySemantics(interprocedural, state, left, middle, right, expressions));
+					results.add(bwdTernarySemantics(interprocedural, state, left, middle, right, expressions));
 
-		return result;
+		return state.bottom().lubAll(results);
 	}
 
 	/**
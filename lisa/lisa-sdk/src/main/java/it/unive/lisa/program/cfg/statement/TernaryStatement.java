@@ -11,6 +11,8 @@ import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.program.cfg.statement.evaluation.EvaluationOrder;
 import it.unive.lisa.program.cfg.statement.evaluation.LeftToRightEvaluation;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An {@link NaryStatement} with exactly three sub-expressions.
@@ -100,13 +102,13 @@ public abstract class TernaryStatement extends NaryStatement {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression left : params[0])
 			for (SymbolicExpression middle : params[1])
 				for (SymbolicExpression right : params[2])
-					result = result.lub(fwdTernarySemantics(interprocedural, state, left, middle, right, expressions));
+					results.add(fwdTernarySemantics(interprocedural, state, left, middle, right, expressions));
 
-		return result;
+		return state.bottom().lubAll(results);
 	}
 
 	/**
@@ -153,13 +155,13 @@ public abstract class TernaryStatement extends NaryStatement {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression left : params[0])
 			for (SymbolicExpression middle : params[1])
 				for (SymbolicExpression right : params[2])
-					result = result.lub(bwdTernarySemantics(interprocedural, state, left, middle, right, expressions));
+					results.add(bwdTernarySemantics(interprocedural, state, left, middle, right, expressions));
 
-		return result;
+		return state.bottom().lubAll(results);
 	}
 
 	/**
@@ -13,6 +13,8 @@ import it.unive.lisa.program.cfg.statement.evaluation.LeftToRightEvaluation;
 import it.unive.lisa.symbolic.SymbolicExpression;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An {@link NaryExpression} with a single sub-expression.
@@ -121,10 +123,10 @@ public abstract class UnaryExpression extends NaryExpression {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression expr : params[0])
-			result = result.lub(fwdUnarySemantics(interprocedural, state, expr, expressions));
-		return result;
+			results.add(fwdUnarySemantics(interprocedural, state, expr, expressions));
+		return state.bottom().lubAll(results);
 	}
 
 	/**
@@ -162,10 +164,10 @@ public abstract class UnaryExpression extends NaryExpression {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression expr : params[0])
-			result = result.lub(bwdUnarySemantics(interprocedural, state, expr, expressions));
-		return result;
+			results.add(bwdUnarySemantics(interprocedural, state, expr, expressions));
+		return state.bottom().lubAll(results);
 	}
 
 	/**
@@ -11,6 +11,8 @@ import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.program.cfg.statement.evaluation.EvaluationOrder;
 import it.unive.lisa.program.cfg.statement.evaluation.LeftToRightEvaluation;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An {@link NaryStatement} with a single sub-expression.
@@ -74,10 +76,10 @@ public abstract class UnaryStatement extends NaryStatement {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression expr : params[0])
-			result = result.lub(fwdUnarySemantics(interprocedural, state, expr, expressions));
-		return result;
+			results.add(fwdUnarySemantics(interprocedural, state, expr, expressions));
+		return state.bottom().lubAll(results);
 	}
 
 	/**
@@ -115,10 +117,10 @@ public abstract class UnaryStatement extends NaryStatement {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 		for (SymbolicExpression expr : params[0])
-			result = result.lub(bwdUnarySemantics(interprocedural, state, expr, expressions));
-		return result;
+			results.add(bwdUnarySemantics(interprocedural, state, expr, expressions));
+		return state.bottom().lubAll(results);
 	}
 
 	/**
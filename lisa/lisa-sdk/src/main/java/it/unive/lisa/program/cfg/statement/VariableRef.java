@@ -12,6 +12,7 @@ import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.program.cfg.VariableTableEntry;
 import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.value.Variable;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
@@ -129,7 +130,8 @@ public class VariableRef extends Expression {
 			InterproceduralAnalysis<A> interprocedural,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		SymbolicExpression expr = getVariable();
+		// the variable is interned only once its annotations are in place
+		SymbolicExpression expr = SymbolicExpressionFactory.INSTANCE.intern(getVariable());
 		return entryState.smallStepSemantics(expr, this);
 	}
 
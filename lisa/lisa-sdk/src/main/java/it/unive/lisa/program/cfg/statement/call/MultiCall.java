@@ -9,6 +9,7 @@ import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.program.cfg.CodeMember;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.Untyped;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -145,14 +146,14 @@ public class MultiCall extends Call implements ResolvedCall {
 			ExpressionSet[] params,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		AnalysisState<A> result = state.bottom();
+		List<AnalysisState<A>> results = new ArrayList<>();
 
 		for (Call call : calls) {
-			result = result.lub(call.forwardSemanticsAux(interprocedural, state, params, expressions));
+			results.add(call.forwardSemanticsAux(interprocedural, state, params, expressions));
 			getMetaVariables().addAll(call.getMetaVariables());
 		}
 
-		return result;
+		return state.bottom().lubAll(results);
 	}
 
 	@Override
@@ -10,7 +10,7 @@ import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.program.cfg.edge.Edge;
 import it.unive.lisa.program.cfg.statement.Expression;
 import it.unive.lisa.program.cfg.statement.Statement;
-import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.util.datastructures.graph.GraphVisitor;
 
@@ -101,7 +101,8 @@ public abstract class Literal<E> extends Expression {
 			InterproceduralAnalysis<A> interprocedural,
 			StatementStore<A> expressions)
 			throws SemanticException {
-		return entryState.smallStepSemantics(new Constant(getStaticType(), getValue(), getLocation()), this);
+		return entryState.smallStepSemantics(
+				SymbolicExpressionFactory.INSTANCE.mkConstant(getStaticType(), getValue(), getLocation()), this);
 	}
 
 	@Override
@@ -12,6 +12,7 @@ import it.unive.lisa.program.InterfaceUnit;
 import it.unive.lisa.program.Program;
 import it.unive.lisa.program.ProgramValidationException;
 import it.unive.lisa.program.Unit;
+import it.unive.lisa.program.UnitHierarchy;
 import it.unive.lisa.program.annotations.Annotation;
 import it.unive.lisa.program.cfg.AbstractCodeMember;
 import it.unive.lisa.program.cfg.CFG;
@@ -144,7 +145,8 @@ public class BaseValidationLogic implements ProgramValidationLogic {
 	 * <br>
 	 * Validating a program simply causes the validation of all the
 	 * {@link Unit}s and {@link CodeMember}s defined inside it, and ensures that
-	 * all entrypoints ({@link Program#getEntryPoints()}) are defined.
+	 * all entrypoints ({@link Program#getEntryPoints()}) are defined. Lastly,
+	 * the {@link UnitHierarchy} of the program is built.
 	 */
 	@Override
 	public void validateAndFinalize(
@@ -163,6 +165,8 @@ public class BaseValidationLogic implements ProgramValidationLogic {
 
 		for (Unit unit : program.getUnits())
 			validateAndFinalize(unit);
+
+		UnitHierarchy.build(program);
 	}
 
 	/**
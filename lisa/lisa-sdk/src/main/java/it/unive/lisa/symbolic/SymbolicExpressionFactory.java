@@ -0,0 +1,492 @@
+package it.unive.lisa.symbolic;
+
+import it.unive.lisa.program.cfg.CodeLocation;
+import it.unive.lisa.symbolic.heap.AccessChild;
+import it.unive.lisa.symbolic.heap.HeapDereference;
+import it.unive.lisa.symbolic.heap.HeapReference;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.TernaryExpression;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.symbolic.value.operator.binary.BinaryOperator;
+import it.unive.lisa.symbolic.value.operator.ternary.TernaryOperator;
+import it.unive.lisa.symbolic.value.operator.unary.UnaryOperator;
+import it.unive.lisa.type.Type;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A factory of {@link SymbolicExpression}s that performs hash-consing: the
+ * expressions it builds (or that are passed to
+ * {@link #intern(SymbolicExpression)}) are canonicalized bottom-up, so that
+ * building the same expression twice yields the very same object. Two
+ * expressions are considered the same if they have the same class, static
+ * type, code location, and (i) the same operator and the very same (canonical)
+ * operands, or (ii) the same value, or name and annotations, for leaves. Since
+ * canonical instances are shared, comparing them for equality is a reference
+ * comparison, and their hash codes are computed only once (see, for instance,
+ * {@link BinaryExpression#hashCode()}). Canonical instances are shared, and
+ * thus must not be modified (e.g., by adding annotations to an interned
+ * {@link Variable}): since the annotations of a variable are compared when
+ * looking it up, a modified variable is simply no longer returned by this
+ * factory.<br>
+ * <br>
+ * Only {@link Constant}s, {@link Variable}s, {@link UnaryExpression}s,
+ * {@link BinaryExpression}s, {@link TernaryExpression}s, {@link AccessChild}s,
+ * {@link HeapDereference}s, and {@link HeapReference}s are interned: instances
+ * of other classes (including subclasses of the ones above) are returned
+ * as-is, and so are the expressions containing them.<br>
+ * <br>
+ * The intern table can either hold weak references to the canonical
+ * instances, letting the garbage collector reclaim them once they are no
+ * longer used (e.g., between analyses), or strong references, that live until
+ * {@link #clear()} is invoked. {@link #INSTANCE}, that holds weak references,
+ * is the factory used by the statements and the domains of LiSA to build the
+ * expressions that they rewrite at every fixpoint iteration. This class is
+ * thread-safe, and lookups do not require locking.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public class SymbolicExpressionFactory {
+
+	/**
+	 * The shared factory, whose intern table holds weak references to the
+	 * canonical instances.
+	 */
+	public static final SymbolicExpressionFactory INSTANCE = new SymbolicExpressionFactory();
+
+	private final boolean weak;
+
+	private final Map<Key, Entry> table;
+
+	private final ReferenceQueue<SymbolicExpression> collected;
+
+	/**
+	 * Builds a new factory whose intern table holds weak references to the
+	 * canonical instances.
+	 */
+	public SymbolicExpressionFactory() {
+		this(true);
+	}
+
+	/**
+	 * Builds a new factory.
+	 * 
+	 * @param weak whether or not the intern table should hold weak references
+	 *                 to the canonical instances, thus allowing them to be
+	 *                 garbage collected when they are no longer used
+	 */
+	public SymbolicExpressionFactory(
+			boolean weak) {
+		this.weak = weak;
+		this.table = new ConcurrentHashMap<>();
+		this.collected = new ReferenceQueue<>();
+	}
+
+	/**
+	 * Yields whether or not the intern table of this factory holds weak
+	 * references to the canonical instances.
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isWeak() {
+		return weak;
+	}
+
+	/**
+	 * Yields the number of canonical instances currently stored in the intern
+	 * table.
+	 * 
+	 * @return the number of canonical instances
+	 */
+	public int size() {
+		expunge();
+		return table.size();
+	}
+
+	/**
+	 * Removes all canonical instances from the intern table. Expressions
+	 * interned before this call are no longer shared with the ones interned
+	 * after it.
+	 */
+	public void clear() {
+		table.clear();
+		while (collected.poll() != null)
+			;
+	}
+
+	/**
+	 * Yields the canonical instance of the given expression, interning it and
+	 * all its operands if needed. If {@code expr} cannot be interned (see the
+	 * documentation of this class), it is returned as-is.
+	 * 
+	 * @param <E>  the type of the expression
+	 * @param expr the expression to intern
+	 * 
+	 * @return the canonical instance
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends SymbolicExpression> E intern(
+			E expr) {
+		SymbolicExpression canonical = canonicalOf(expr);
+		return canonical == null ? expr : (E) canonical;
+	}
+
+	/**
+	 * Yields the canonical {@link Constant} with the given characteristics.
+	 * 
+	 * @param type     the type of the constant
+	 * @param value    the constant value
+	 * @param location the code location of the statement that has generated
+	 *                     the constant
+	 * 
+	 * @return the canonical constant
+	 */
+	public Constant mkConstant(
+			Type type,
+			Object value,
+			CodeLocation location) {
+		return intern(new Constant(type, value, location));
+	}
+
+	/**
+	 * Yields the canonical {@link Variable} with the given characteristics.
+	 * 
+	 * @param staticType the static type of the variable
+	 * @param name       the name of the variable
+	 * @param location   the code location of the statement that has generated
+	 *                       the variable
+	 * 
+	 * @return the canonical variable
+	 */
+	public Variable mkVariable(
+			Type staticType,
+			String name,
+			CodeLocation location) {
+		return intern(new Variable(staticType, name, location));
+	}
+
+	/**
+	 * Yields the canonical {@link UnaryExpression} with the given
+	 * characteristics.
+	 * 
+	 * @param staticType the static type of the expression
+	 * @param expression the inner expression
+	 * @param operator   the operator to apply
+	 * @param location   the code location of the statement that has generated
+	 *                       the expression
+	 * 
+	 * @return the canonical expression
+	 */
+	public UnaryExpression mkUnary(
+			Type staticType,
+			SymbolicExpression expression,
+			UnaryOperator operator,
+			CodeLocation location) {
+		return intern(new UnaryExpression(staticType, expression, operator, location));
+	}
+
+	/**
+	 * Yields the canonical {@link BinaryExpression} with the given
+	 * characteristics.
+	 * 
+	 * @param staticType the static type of the expression
+	 * @param left       the left-hand side operand of the expression
+	 * @param right      the right-hand side operand of the expression
+	 * @param operator   the operator to apply
+	 * @param location   the code location of the statement that has generated
+	 *                       the expression
+	 * 
+	 * @return the canonical expression
+	 */
+	public BinaryExpression mkBinary(
+			Type staticType,
+			SymbolicExpression left,
+			SymbolicExpression right,
+			BinaryOperator operator,
+			CodeLocation location) {
+		return intern(new BinaryExpression(staticType, left, right, operator, location));
+	}
+
+	/**
+	 * Yields the canonical {@link TernaryExpression} with the given
+	 * characteristics.
+	 * 
+	 * @param staticType the static type of the expression
+	 * @param left       the left-hand side operand of the expression
+	 * @param middle     the middle operand of the expression
+	 * @param right      the right-hand side operand of the expression
+	 * @param operator   the operator to apply
+	 * @param location   the code location of the statement that has generated
+	 *                       the expression
+	 * 
+	 * @return the canonical expression
+	 */
+	public TernaryExpression mkTernary(
+			Type staticType,
+			SymbolicExpression left,
+			SymbolicExpression middle,
+			SymbolicExpression right,
+			TernaryOperator operator,
+			CodeLocation location) {
+		return intern(new TernaryExpression(staticType, left, middle, right, operator, location));
+	}
+
+	/**
+	 * Yields the canonical {@link AccessChild} with the given characteristics.
+	 * 
+	 * @param staticType the static type of the expression
+	 * @param container  the expression representing the parent
+	 * @param child      the expression representing the child
+	 * @param location   the code location of the statement that has generated
+	 *                       the expression
+	 * 
+	 * @return the canonical expression
+	 */
+	public AccessChild mkAccessChild(
+			Type staticType,
+			SymbolicExpression container,
+			SymbolicExpression child,
+			CodeLocation location) {
+		return intern(new AccessChild(staticType, container, child, location));
+	}
+
+	/**
+	 * Yields the canonical {@link HeapDereference} with the given
+	 * characteristics.
+	 * 
+	 * @param staticType the static type of the expression
+	 * @param toDeref    the expression to be dereferenced
+	 * @param location   the code location of the statement that has generated
+	 *                       the expression
+	 * 
+	 * @return the canonical expression
+	 */
+	public HeapDereference mkHeapDereference(
+			Type staticType,
+			SymbolicExpression toDeref,
+			CodeLocation location) {
+		return intern(new HeapDereference(staticType, toDeref, location));
+	}
+
+	/**
+	 * Yields the canonical {@link HeapReference} with the given
+	 * characteristics.
+	 * 
+	 * @param staticType the static type of the expression
+	 * @param expression the expression that is referred
+	 * @param location   the code location of the statement that has generated
+	 *                       the expression
+	 * 
+	 * @return the canonical expression
+	 */
+	public HeapReference mkHeapReference(
+			Type staticType,
+			SymbolicExpression expression,
+			CodeLocation location) {
+		return intern(new HeapReference(staticType, expression, location));
+	}
+
+	private SymbolicExpression canonicalOf(
+			SymbolicExpression expr) {
+		// null is returned for expressions that cannot be interned: this
+		// prevents their parents from being interned as well, since operands
+		// are compared by reference
+		if (expr == null)
+			return null;
+
+		Class<?> kind = expr.getClass();
+		Type type = expr.getStaticType();
+		CodeLocation location = expr.getCodeLocation();
+
+		if (kind == Constant.class || kind == Variable.class)
+			return canonical(expr);
+
+		if (kind == UnaryExpression.class) {
+			UnaryExpression u = (UnaryExpression) expr;
+			SymbolicExpression e = canonicalOf(u.getExpression());
+			if (e == null)
+				return null;
+			return canonical(e == u.getExpression() ? u : new UnaryExpression(type, e, u.getOperator(), location));
+		}
+
+		if (kind == BinaryExpression.class) {
+			BinaryExpression b = (BinaryExpression) expr;
+			SymbolicExpression l = canonicalOf(b.getLeft());
+			SymbolicExpression r = canonicalOf(b.getRight());
+			if (l == null || r == null)
+				return null;
+			if (l == b.getLeft() && r == b.getRight())
+				return canonical(b);
+			return canonical(new BinaryExpression(type, l, r, b.getOperator(), location));
+		}
+
+		if (kind == TernaryExpression.class) {
+			TernaryExpression t = (TernaryExpression) expr;
+			SymbolicExpression l = canonicalOf(t.getLeft());
+			SymbolicExpression m = canonicalOf(t.getMiddle());
+			SymbolicExpression r = canonicalOf(t.getRight());
+			if (l == null || m == null || r == null)
+				return null;
+			if (l == t.getLeft() && m == t.getMiddle() && r == t.getRight())
+				return canonical(t);
+			return canonical(new TernaryExpression(type, l, m, r, t.getOperator(), location));
+		}
+
+		if (kind == AccessChild.class) {
+			AccessChild a = (AccessChild) expr;
+			SymbolicExpression c = canonicalOf(a.getContainer());
+			SymbolicExpression ch = canonicalOf(a.getChild());
+			if (c == null || ch == null)
+				return null;
+			return canonical(c == a.getContainer() && ch == a.getChild() ? a : new AccessChild(type, c, ch, location));
+		}
+
+		if (kind == HeapDereference.class) {
+			HeapDereference d = (HeapDereference) expr;
+			SymbolicExpression e = canonicalOf(d.getExpression());
+			if (e == null)
+				return null;
+			return canonical(e == d.getExpression() ? d : new HeapDereference(type, e, location));
+		}
+
+		if (kind == HeapReference.class) {
+			HeapReference r = (HeapReference) expr;
+			SymbolicExpression e = canonicalOf(r.getExpression());
+			if (e == null)
+				return null;
+			return canonical(e == r.getExpression() ? r : new HeapReference(type, e, location));
+		}
+
+		return null;
+	}
+
+	private Key keyOf(
+			SymbolicExpression expr) {
+		Class<?> kind = expr.getClass();
+		Type type = expr.getStaticType();
+		CodeLocation location = expr.getCodeLocation();
+		if (kind == Constant.class)
+			return new Key(new Object[] { kind, type, location, ((Constant) expr).getValue() });
+		if (kind == Variable.class)
+			return new Key(new Object[] { kind, type, location, ((Variable) expr).getName(),
+					((Variable) expr).getAnnotations() });
+		if (kind == UnaryExpression.class)
+			return new Key(new Object[] { kind, type, location, ((UnaryExpression) expr).getOperator() },
+					((UnaryExpression) expr).getExpression());
+		if (kind == BinaryExpression.class)
+			return new Key(new Object[] { kind, type, location, ((BinaryExpression) expr).getOperator() },
+					((BinaryExpression) expr).getLeft(), ((BinaryExpression) expr).getRight());
+		if (kind == TernaryExpression.class)
+			return new Key(new Object[] { kind, type, location, ((TernaryExpression) expr).getOperator() },
+					((TernaryExpression) expr).getLeft(), ((TernaryExpression) expr).getMiddle(),
+					((TernaryExpression) expr).getRight());
+		if (kind == AccessChild.class)
+			return new Key(new Object[] { kind, type, location },
+					((AccessChild) expr).getContainer(), ((AccessChild) expr).getChild());
+		if (kind == HeapDereference.class)
+			return new Key(new Object[] { kind, type, location }, ((HeapDereference) expr).getExpression());
+		return new Key(new Object[] { kind, type, location }, ((HeapReference) expr).getExpression());
+	}
+
+	private SymbolicExpression canonical(
+			SymbolicExpression expr) {
+		expunge();
+		Key key = keyOf(expr);
+		Entry entry = new Entry(expr, key, weak, collected);
+		while (true) {
+			Entry existing = table.putIfAbsent(key, entry);
+			if (existing == null)
+				return expr;
+			SymbolicExpression canonical = existing.get();
+			if (canonical != null)
+				return canonical;
+			// the previous canonical instance has been collected
+			if (table.replace(key, existing, entry))
+				return expr;
+		}
+	}
+
+	private void expunge() {
+		Reference<? extends SymbolicExpression> ref;
+		while ((ref = collected.poll()) != null) {
+			Entry entry = (Entry) ref;
+			// the key might have been re-associated after the collection
+			table.remove(entry.key, entry);
+		}
+	}
+
+	/**
+	 * The key of the intern table: plain components are compared through
+	 * equality, while operands are compared by reference since they are
+	 * canonical.
+	 */
+	private static final class Key {
+
+		private final Object[] components;
+
+		private final SymbolicExpression[] operands;
+
+		private final int hash;
+
+		private Key(
+				Object[] components,
+				SymbolicExpression... operands) {
+			this.components = components;
+			this.operands = operands;
+			int result = Arrays.hashCode(components);
+			for (SymbolicExpression operand : operands)
+				result = 31 * result + System.identityHashCode(operand);
+			this.hash = result;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(
+				Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			if (hash != other.hash || operands.length != other.operands.length)
+				return false;
+			for (int i = 0; i < operands.length; i++)
+				if (operands[i] != other.operands[i])
+					return false;
+			return Arrays.equals(components, other.components);
+		}
+	}
+
+	/**
+	 * An entry of the intern table, referring to a canonical instance weakly
+	 * or strongly depending on the configuration of the factory.
+	 */
+	private static final class Entry extends WeakReference<SymbolicExpression> {
+
+		private final Key key;
+
+		// keeps the referent alive when the table is not weak
+		@SuppressWarnings("unused")
+		private final SymbolicExpression strong;
+
+		private Entry(
+				SymbolicExpression referent,
+				Key key,
+				boolean weak,
+				ReferenceQueue<SymbolicExpression> queue) {
+			super(referent, queue);
+			this.key = key;
+			this.strong = weak ? null : referent;
+		}
+	}
+}
@@ -24,6 +24,14 @@ public class AccessChild extends HeapExpression {
 	 */
 	private final SymbolicExpression child;
 
+	/**
+	 * The hash code of this expression, computed the first time it is needed
+	 * ({@code 0} means that it has not been computed yet). Since the operands
+	 * cache their own hash codes, computing this one never requires visiting
+	 * the whole tree.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the child access.
 	 * 
@@ -63,11 +71,14 @@ public class AccessChild extends HeapExpression {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((container == null) ? 0 : container.hashCode());
-		result = prime * result + ((child == null) ? 0 : child.hashCode());
-		return result;
+		if (hash == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((container == null) ? 0 : container.hashCode());
+			result = prime * result + ((child == null) ? 0 : child.hashCode());
+			hash = result;
+		}
+		return hash;
 	}
 
 	@Override
@@ -80,6 +91,9 @@ public class AccessChild extends HeapExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		AccessChild other = (AccessChild) obj;
+		if (hash != 0 && other.hash != 0 && hash != other.hash)
+			// cached hash codes are a cheap way to tell that they differ
+			return false;
 		if (container == null) {
 			if (other.container != null)
 				return false;
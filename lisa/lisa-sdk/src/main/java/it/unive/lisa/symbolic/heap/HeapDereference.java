@@ -18,6 +18,14 @@ public class HeapDereference extends HeapExpression {
 	 */
 	private final SymbolicExpression toDeref;
 
+	/**
+	 * The hash code of this expression, computed the first time it is needed
+	 * ({@code 0} means that it has not been computed yet). Since the operands
+	 * cache their own hash codes, computing this one never requires visiting
+	 * the whole tree.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the heap dereference.
 	 * 
@@ -36,10 +44,13 @@ public class HeapDereference extends HeapExpression {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((toDeref == null) ? 0 : toDeref.hashCode());
-		return result;
+		if (hash == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((toDeref == null) ? 0 : toDeref.hashCode());
+			hash = result;
+		}
+		return hash;
 	}
 
 	@Override
@@ -52,6 +63,9 @@ public class HeapDereference extends HeapExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		HeapDereference other = (HeapDereference) obj;
+		if (hash != 0 && other.hash != 0 && hash != other.hash)
+			// cached hash codes are a cheap way to tell that they differ
+			return false;
 		if (toDeref == null) {
 			if (other.toDeref != null)
 				return false;
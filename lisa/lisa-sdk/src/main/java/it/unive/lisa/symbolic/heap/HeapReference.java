@@ -18,6 +18,14 @@ public class HeapReference extends HeapExpression {
 	 */
 	private final SymbolicExpression expression;
 
+	/**
+	 * The hash code of this expression, computed the first time it is needed
+	 * ({@code 0} means that it has not been computed yet). Since the operands
+	 * cache their own hash codes, computing this one never requires visiting
+	 * the whole tree.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the heap reference.
 	 * 
@@ -41,10 +49,13 @@ public class HeapReference extends HeapExpression {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((expression == null) ? 0 : expression.hashCode());
-		return result;
+		if (hash == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((expression == null) ? 0 : expression.hashCode());
+			hash = result;
+		}
+		return hash;
 	}
 
 	/**
@@ -66,6 +77,9 @@ public class HeapReference extends HeapExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		HeapReference other = (HeapReference) obj;
+		if (hash != 0 && other.hash != 0 && hash != other.hash)
+			// cached hash codes are a cheap way to tell that they differ
+			return false;
 		if (expression == null) {
 			if (other.expression != null)
 				return false;
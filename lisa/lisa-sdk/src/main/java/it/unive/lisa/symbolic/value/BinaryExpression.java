@@ -5,6 +5,7 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.symbolic.ExpressionVisitor;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.value.operator.binary.BinaryOperator;
 import it.unive.lisa.type.Type;
 
@@ -31,6 +32,14 @@ public class BinaryExpression extends ValueExpression {
 	 */
 	private final BinaryOperator operator;
 
+	/**
+	 * The hash code of this expression, computed the first time it is needed
+	 * ({@code 0} means that it has not been computed yet). Since the operands
+	 * cache their own hash codes, computing this one never requires visiting
+	 * the whole tree.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the binary expression.
 	 * 
@@ -85,8 +94,8 @@ public class BinaryExpression extends ValueExpression {
 	public SymbolicExpression pushScope(
 			ScopeToken token)
 			throws SemanticException {
-		BinaryExpression expr = new BinaryExpression(getStaticType(), left.pushScope(token), right.pushScope(token),
-				operator, getCodeLocation());
+		BinaryExpression expr = SymbolicExpressionFactory.INSTANCE.mkBinary(getStaticType(), left.pushScope(token),
+				right.pushScope(token), operator, getCodeLocation());
 		return expr;
 	}
 
@@ -94,19 +103,22 @@ public class BinaryExpression extends ValueExpression {
 	public SymbolicExpression popScope(
 			ScopeToken token)
 			throws SemanticException {
-		BinaryExpression expr = new BinaryExpression(getStaticType(), left.popScope(token), right.popScope(token),
-				operator, getCodeLocation());
+		BinaryExpression expr = SymbolicExpressionFactory.INSTANCE.mkBinary(getStaticType(), left.popScope(token),
+				right.popScope(token), operator, getCodeLocation());
 		return expr;
 	}
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((left == null) ? 0 : left.hashCode());
-		result = prime * result + ((operator == null) ? 0 : operator.hashCode());
-		result = prime * result + ((right == null) ? 0 : right.hashCode());
-		return result;
+		if (hash == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((left == null) ? 0 : left.hashCode());
+			result = prime * result + ((operator == null) ? 0 : operator.hashCode());
+			result = prime * result + ((right == null) ? 0 : right.hashCode());
+			hash = result;
+		}
+		return hash;
 	}
 
 	@Override
@@ -119,6 +131,9 @@ public class BinaryExpression extends ValueExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		BinaryExpression other = (BinaryExpression) obj;
+		if (hash != 0 && other.hash != 0 && hash != other.hash)
+			// cached hash codes are a cheap way to tell that they differ
+			return false;
 		if (left == null) {
 			if (other.left != null)
 				return false;
@@ -5,6 +5,7 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.symbolic.ExpressionVisitor;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.value.operator.ternary.TernaryOperator;
 import it.unive.lisa.type.Type;
 
@@ -36,6 +37,14 @@ public class TernaryExpression extends ValueExpression {
 	 */
 	private final TernaryOperator operator;
 
+	/**
+	 * The hash code of this expression, computed the first time it is needed
+	 * ({@code 0} means that it has not been computed yet). Since the operands
+	 * cache their own hash codes, computing this one never requires visiting
+	 * the whole tree.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the binary expression.
 	 * 
@@ -102,8 +111,8 @@ public class TernaryExpression extends ValueExpression {
 	public SymbolicExpression pushScope(
 			ScopeToken token)
 			throws SemanticException {
-		TernaryExpression expr = new TernaryExpression(getStaticType(), left.pushScope(token), middle.pushScope(token),
-				right.pushScope(token), operator, getCodeLocation());
+		TernaryExpression expr = SymbolicExpressionFactory.INSTANCE.mkTernary(getStaticType(), left.pushScope(token),
+				middle.pushScope(token), right.pushScope(token), operator, getCodeLocation());
 		return expr;
 	}
 
@@ -111,20 +120,23 @@ public class TernaryExpression extends ValueExpression {
 	public SymbolicExpression popScope(
 			ScopeToken token)
 			throws SemanticException {
-		TernaryExpression expr = new TernaryExpression(getStaticType(), left.popScope(token), middle.popScope(token),
-				right.popScope(token), operator, getCodeLocation());
+		TernaryExpression expr = SymbolicExpressionFactory.INSTANCE.mkTernary(getStaticType(), left.popScope(token),
+				middle.popScope(token), right.popScope(token), operator, getCodeLocation());
 		return expr;
 	}
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((left == null) ? 0 : left.hashCode());
-		result = prime * result + ((operator == null) ? 0 : operator.hashCode());
-		result = prime * result + ((right == null) ? 0 : right.hashCode());
-		result = prime * result + ((middle == null) ? 0 : middle.hashCode());
-		return result;
+		if (hash == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((left == null) ? 0 : left.hashCode());
+			result = prime * result + ((operator == null) ? 0 : operator.hashCode());
+			result = prime * result + ((right == null) ? 0 : right.hashCode());
+			result = prime * result + ((middle == null) ? 0 : middle.hashCode());
+			hash = result;
+		}
+		return hash;
 	}
 
 	@Override
@@ -137,6 +149,9 @@ public class TernaryExpression extends ValueExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		TernaryExpression other = (TernaryExpression) obj;
+		if (hash != 0 && other.hash != 0 && hash != other.hash)
+			// cached hash codes are a cheap way to tell that they differ
+			return false;
 		if (left == null) {
 			if (other.left != null)
 				return false;
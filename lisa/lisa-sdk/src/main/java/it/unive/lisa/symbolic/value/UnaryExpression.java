@@ -5,6 +5,7 @@ import it.unive.lisa.analysis.SemanticException;
 import it.unive.lisa.program.cfg.CodeLocation;
 import it.unive.lisa.symbolic.ExpressionVisitor;
 import it.unive.lisa.symbolic.SymbolicExpression;
+import it.unive.lisa.symbolic.SymbolicExpressionFactory;
 import it.unive.lisa.symbolic.value.operator.NegatableOperator;
 import it.unive.lisa.symbolic.value.operator.binary.BinaryOperator;
 import it.unive.lisa.symbolic.value.operator.unary.LogicalNegation;
@@ -29,6 +30,14 @@ public class UnaryExpression extends ValueExpression {
 	 */
 	private final UnaryOperator operator;
 
+	/**
+	 * The hash code of this expression, computed the first time it is needed
+	 * ({@code 0} means that it has not been computed yet). Since the operands
+	 * cache their own hash codes, computing this one never requires visiting
+	 * the whole tree.
+	 */
+	private int hash;
+
 	/**
 	 * Builds the unary expression.
 	 * 
@@ -77,8 +86,8 @@ public class UnaryExpression extends ValueExpression {
 			BinaryOperator oppositeOp = op instanceof NegatableOperator
 					? (BinaryOperator) ((NegatableOperator) op).opposite()
 					: op;
-			BinaryExpression expr = new BinaryExpression(binary.getStaticType(), left.removeNegations(),
-					right.removeNegations(),
+			BinaryExpression expr = SymbolicExpressionFactory.INSTANCE.mkBinary(binary.getStaticType(),
+					left.removeNegations(), right.removeNegations(),
 					oppositeOp, getCodeLocation());
 			return expr;
 		}
@@ -90,8 +99,8 @@ public class UnaryExpression extends ValueExpression {
 	public SymbolicExpression pushScope(
 			ScopeToken token)
 			throws SemanticException {
-		UnaryExpression expr = new UnaryExpression(getStaticType(), expression.pushScope(token), operator,
-				getCodeLocation());
+		UnaryExpression expr = SymbolicExpressionFactory.INSTANCE.mkUnary(getStaticType(), expression.pushScope(token),
+				operator, getCodeLocation());
 		return expr;
 	}
 
@@ -99,18 +108,21 @@ public class UnaryExpression extends ValueExpression {
 	public SymbolicExpression popScope(
 			ScopeToken token)
 			throws SemanticException {
-		UnaryExpression expr = new UnaryExpression(getStaticType(), expression.popScope(token), operator,
-				getCodeLocation());
+		UnaryExpression expr = SymbolicExpressionFactory.INSTANCE.mkUnary(getStaticType(), expression.popScope(token),
+				operator, getCodeLocation());
 		return expr;
 	}
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((expression == null) ? 0 : expression.hashCode());
-		result = prime * result + ((operator == null) ? 0 : operator.hashCode());
-		return result;
+		if (hash == 0) {
+			final int prime = 31;
+			int result = super.hashCode();
+			result = prime * result + ((expression == null) ? 0 : expression.hashCode());
+			result = prime * result + ((operator == null) ? 0 : operator.hashCode());
+			hash = result;
+		}
+		return hash;
 	}
 
 	@Override
@@ -123,6 +135,9 @@ public class UnaryExpression extends ValueExpression {
 		if (getClass() != obj.getClass())
 			return false;
 		UnaryExpression other = (UnaryExpression) obj;
+		if (hash != 0 && other.hash != 0 && hash != other.hash)
+			// cached hash codes are a cheap way to tell that they differ
+			return false;
 		if (expression == null) {
 			if (other.expression != null)
 				return false;
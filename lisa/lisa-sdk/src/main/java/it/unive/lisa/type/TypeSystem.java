@@ -1,6 +1,7 @@
 package it.unive.lisa.type;
 
 import it.unive.lisa.program.Program;
+import it.unive.lisa.util.collections.externalSet.ExternalSetCache;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -23,12 +24,29 @@ public abstract class TypeSystem {
 	 */
 	private final Map<String, Type> types;
 
+	/**
+	 * The cache used to represent sets of types as bitsets
+	 */
+	private final ExternalSetCache<Type> typesCache;
+
 	/**
 	 * Builds an empty type system, where only {@link #getBooleanType()},
 	 * {@link #getStringType()} and {@link #getIntegerType()} are registered.
 	 */
 	protected TypeSystem() {
 		this.types = new TreeMap<String, Type>();
+		this.typesCache = new ExternalSetCache<>();
+	}
+
+	/**
+	 * Yields the {@link ExternalSetCache} that can be used to represent sets
+	 * of types of this type system as bitsets. All the sets built through the
+	 * same cache can be combined with word-wise operations.
+	 * 
+	 * @return the cache
+	 */
+	public ExternalSetCache<Type> getTypesCache() {
+		return typesCache;
 	}
 
 	/**
@@ -0,0 +1,798 @@
+package it.unive.lisa.util.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link Map} backed by a persistent hash trie, following the
+ * Compressed Hash-Array Mapped Prefix-tree (CHAMP) layout. The nodes of the
+ * trie are immutable: modifications (e.g., {@link #put(Object, Object)} and
+ * {@link #remove(Object)}) replace the root of this map with a new one that
+ * shares all untouched subtrees with the previous version, and thus cost
+ * O(log n) time and space. As a consequence, copying a map through
+ * {@link #PersistentHashMap(Map)} costs O(1), and the copy and the original
+ * can be modified independently. Both {@code null} keys and {@code null} values
+ * are supported. Iterators work on a snapshot of the map taken when they are
+ * created, and are thus never invalidated by concurrent modifications.<br>
+ * <br>
+ * Instances of this class are not thread-safe.
+ *
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+	/**
+	 * The number of bits of the hash consumed at each level of the trie.
+	 */
+	private static final int BITS = 5;
+
+	/**
+	 * The mask used to extract {@link #BITS} bits from a hash.
+	 */
+	private static final int MASK = (1 << BITS) - 1;
+
+	/**
+	 * The number of bits of a hash: levels deeper than this are collision
+	 * nodes.
+	 */
+	private static final int HASH_BITS = 32;
+
+	/**
+	 * Sentinel returned by lookups when a key is not in the trie.
+	 */
+	private static final Object NOT_FOUND = new Object();
+
+	/**
+	 * The (shared) empty root.
+	 */
+	private static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0], new Node[0]);
+
+	/**
+	 * The current root of the trie.
+	 */
+	private Node root;
+
+	/**
+	 * The number of mappings in this map.
+	 */
+	private int size;
+
+	/**
+	 * The cached hash code of this map, valid only if {@link #hashed} is
+	 * {@code true}.
+	 */
+	private int hash;
+
+	/**
+	 * Whether or not {@link #hash} holds the hash code of the current content
+	 * of this map.
+	 */
+	private boolean hashed;
+
+	/**
+	 * Builds an empty map.
+	 */
+	public PersistentHashMap() {
+		root = EMPTY;
+		size = 0;
+	}
+
+	/**
+	 * Builds a map containing all the mappings of the given one. If
+	 * {@code other} is an instance of this class, this is a constant time
+	 * operation, as the trie of {@code other} is shared with the new map.
+	 *
+	 * @param other the map to copy
+	 */
+	public PersistentHashMap(
+			Map<? extends K, ? extends V> other) {
+		if (other instanceof PersistentHashMap) {
+			PersistentHashMap<?, ?> o = (PersistentHashMap<?, ?>) other;
+			root = o.root;
+			size = o.size;
+			hash = o.hash;
+			hashed = o.hashed;
+		} else {
+			root = EMPTY;
+			size = 0;
+			putAll(other);
+		}
+	}
+
+	private static int hash(
+			Object key) {
+		return key == null ? 0 : key.hashCode();
+	}
+
+	private static int fragment(
+			int hash,
+			int shift) {
+		return (hash >>> shift) & MASK;
+	}
+
+	private static int bit(
+			int hash,
+			int shift) {
+		return 1 << fragment(hash, shift);
+	}
+
+	private static int index(
+			int bitmap,
+			int bit) {
+		return Integer.bitCount(bitmap & (bit - 1));
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean containsKey(
+			Object key) {
+		return root.find(key, hash(key), 0) != NOT_FOUND;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(
+			Object key) {
+		Object res = root.find(key, hash(key), 0);
+		return res == NOT_FOUND ? null : (V) res;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V getOrDefault(
+			Object key,
+			V defaultValue) {
+		Object res = root.find(key, hash(key), 0);
+		return res == NOT_FOUND ? defaultValue : (V) res;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V put(
+			K key,
+			V value) {
+		Change change = new Change();
+		root = root.updated(key, value, hash(key), 0, change);
+		hashed = false;
+		if (!change.replaced)
+			size++;
+		return (V) change.previous;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V remove(
+			Object key) {
+		Change change = new Change();
+		Node res = root.removed(key, hash(key), 0, change);
+		if (!change.modified)
+			return null;
+		root = res;
+		hashed = false;
+		size--;
+		return (V) change.previous;
+	}
+
+	@Override
+	public void clear() {
+		root = EMPTY;
+		size = 0;
+		hashed = false;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new EntrySet();
+	}
+
+	/**
+	 * Yields {@code true} if and only if this map and the given one are backed
+	 * by the very same trie, that is, if one has been copied from the other and
+	 * none of them has been modified since then. If this method returns
+	 * {@code true}, the two maps are guaranteed to be equal.
+	 *
+	 * @param other the other map
+	 *
+	 * @return whether or not the two maps share their whole trie
+	 */
+	public boolean sharesStructureWith(
+			PersistentHashMap<K, V> other) {
+		return root == other.root;
+	}
+
+	/**
+	 * Yields the mappings of this map that are not physically shared with the
+	 * given map. Subtrees of the trie that are shared between the two maps
+	 * (that is, the very same node instance occurring in the same position of
+	 * both tries), together with single mappings whose key is equal and whose
+	 * value is the very same object in both maps, are skipped without visiting
+	 * them. All the mappings of this map that are not returned by this method
+	 * are thus guaranteed to be also contained in {@code other}, bound to the
+	 * same value instance.
+	 *
+	 * @param other the other map
+	 *
+	 * @return the mappings of this map not shared with {@code other}
+	 */
+	public Collection<Entry<K, V>> divergingEntries(
+			PersistentHashMap<K, V> other) {
+		if (root == other.root)
+			return Collections.emptyList();
+		Collection<Entry<K, V>> result = new ArrayList<>();
+		diverging(root, other.root, result);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void diverging(
+			Node node,
+			Node other,
+			Collection<Entry<K, V>> result) {
+		if (node == other)
+			return;
+
+		if (!(node instanceof BitmapNode) || !(other instanceof BitmapNode)) {
+			for (int i = 0; i < node.dataCount(); i++)
+				result.add(new SimpleImmutableEntry<>((K) node.keyAt(i), (V) node.valueAt(i)));
+			for (int i = 0; i < node.nodeCount(); i++)
+				diverging(node.nodeAt(i), null, result);
+			return;
+		}
+
+		BitmapNode n = (BitmapNode) node;
+		BitmapNode o = (BitmapNode) other;
+		for (int b = n.dataMap; b != 0; b &= b - 1) {
+			int bit = Integer.lowestOneBit(b);
+			int i = index(n.dataMap, bit);
+			Object key = n.keyAt(i);
+			Object value = n.valueAt(i);
+			if ((o.dataMap & bit) != 0) {
+				int j = index(o.dataMap, bit);
+				if (o.valueAt(j) == value && Objects.equals(o.keyAt(j), key))
+					continue;
+			}
+			result.add(new SimpleImmutableEntry<>((K) key, (V) value));
+		}
+
+		for (int b = n.nodeMap; b != 0; b &= b - 1) {
+			int bit = Integer.lowestOneBit(b);
+			Node sub = n.nodeAt(index(n.nodeMap, bit));
+			Node osub = (o.nodeMap & bit) != 0 ? o.nodeAt(index(o.nodeMap, bit)) : null;
+			diverging(sub, osub, result);
+		}
+	}
+
+	@Override
+	public boolean equals(
+			Object o) {
+		if (o == this)
+			return true;
+		if (o instanceof PersistentHashMap) {
+			PersistentHashMap<?, ?> other = (PersistentHashMap<?, ?>) o;
+			if (root == other.root)
+				return true;
+			if (size != other.size)
+				return false;
+			if (hashed && other.hashed && hash != other.hash)
+				return false;
+		}
+		return super.equals(o);
+	}
+
+	@Override
+	public int hashCode() {
+		if (!hashed) {
+			hash = super.hashCode();
+			hashed = true;
+		}
+		return hash;
+	}
+
+	/**
+	 * Tracker of the effects of a modification of the trie.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static class Change {
+		private boolean modified;
+		private boolean replaced;
+		private Object previous;
+	}
+
+	/**
+	 * An immutable node of the trie.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private abstract static class Node {
+
+		abstract Object find(
+				Object key,
+				int hash,
+				int shift);
+
+		abstract Node updated(
+				Object key,
+				Object value,
+				int hash,
+				int shift,
+				Change change);
+
+		abstract Node removed(
+				Object key,
+				int hash,
+				int shift,
+				Change change);
+
+		abstract int dataCount();
+
+		abstract Object keyAt(
+				int i);
+
+		abstract Object valueAt(
+				int i);
+
+		abstract int nodeCount();
+
+		abstract Node nodeAt(
+				int i);
+
+		boolean isSingleton() {
+			return dataCount() == 1 && nodeCount() == 0;
+		}
+	}
+
+	/**
+	 * A node of the trie indexed by a fragment of the hash of its keys. Keys
+	 * whose fragment is unique within the node are stored inline, while the
+	 * others are pushed in sub-nodes.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class BitmapNode extends Node {
+
+		private final int dataMap;
+		private final int nodeMap;
+		private final Object[] data;
+		private final Node[] nodes;
+
+		private BitmapNode(
+				int dataMap,
+				int nodeMap,
+				Object[] data,
+				Node[] nodes) {
+			this.dataMap = dataMap;
+			this.nodeMap = nodeMap;
+			this.data = data;
+			this.nodes = nodes;
+		}
+
+		@Override
+		Object find(
+				Object key,
+				int hash,
+				int shift) {
+			int bit = bit(hash, shift);
+			if ((dataMap & bit) != 0) {
+				int i = index(dataMap, bit);
+				return Objects.equals(data[2 * i], key) ? data[2 * i + 1] : NOT_FOUND;
+			}
+			if ((nodeMap & bit) != 0)
+				return nodes[index(nodeMap, bit)].find(key, hash, shift + BITS);
+			return NOT_FOUND;
+		}
+
+		@Override
+		Node updated(
+				Object key,
+				Object value,
+				int hash,
+				int shift,
+				Change change) {
+			int bit = bit(hash, shift);
+			if ((dataMap & bit) != 0) {
+				int i = index(dataMap, bit);
+				Object current = data[2 * i];
+				if (Objects.equals(current, key)) {
+					Object previous = data[2 * i + 1];
+					change.modified = true;
+					change.replaced = true;
+					change.previous = previous;
+					if (previous == value)
+						return this;
+					Object[] copy = data.clone();
+					copy[2 * i + 1] = value;
+					return new BitmapNode(dataMap, nodeMap, copy, nodes);
+				}
+
+				// two keys with the same fragment: push both down
+				Node sub = merge(current, data[2 * i + 1], PersistentHashMap.hash(current), key, value, hash,
+						shift + BITS);
+				change.modified = true;
+				return new BitmapNode(dataMap ^ bit, nodeMap | bit, removePair(data, i),
+						insertNode(nodes, index(nodeMap, bit), sub));
+			}
+
+			if ((nodeMap & bit) != 0) {
+				int i = index(nodeMap, bit);
+				Node sub = nodes[i].updated(key, value, hash, shift + BITS, change);
+				if (sub == nodes[i])
+					return this;
+				Node[] copy = nodes.clone();
+				copy[i] = sub;
+				return new BitmapNode(dataMap, nodeMap, data, copy);
+			}
+
+			change.modified = true;
+			return new BitmapNode(dataMap | bit, nodeMap, insertPair(data, index(dataMap, bit), key, value), nodes);
+		}
+
+		@Override
+		Node removed(
+				Object key,
+				int hash,
+				int shift,
+				Change change) {
+			int bit = bit(hash, shift);
+			if ((dataMap & bit) != 0) {
+				int i = index(dataMap, bit);
+				if (!Objects.equals(data[2 * i], key))
+					return this;
+				change.modified = true;
+				change.previous = data[2 * i + 1];
+				return new BitmapNode(dataMap ^ bit, nodeMap, removePair(data, i), nodes);
+			}
+
+			if ((nodeMap & bit) != 0) {
+				int i = index(nodeMap, bit);
+				Node sub = nodes[i].removed(key, hash, shift + BITS, change);
+				if (sub == nodes[i])
+					return this;
+				if (sub.isSingleton())
+					// inline the only remaining mapping
+					return new BitmapNode(dataMap | bit, nodeMap ^ bit,
+							insertPair(data, index(dataMap, bit), sub.keyAt(0), sub.valueAt(0)),
+							removeNode(nodes, i));
+				Node[] copy = nodes.clone();
+				copy[i] = sub;
+				return new BitmapNode(dataMap, nodeMap, data, copy);
+			}
+
+			return this;
+		}
+
+		@Override
+		int dataCount() {
+			return data.length / 2;
+		}
+
+		@Override
+		Object keyAt(
+				int i) {
+			return data[2 * i];
+		}
+
+		@Override
+		Object valueAt(
+				int i) {
+			return data[2 * i + 1];
+		}
+
+		@Override
+		int nodeCount() {
+			return nodes.length;
+		}
+
+		@Override
+		Node nodeAt(
+				int i) {
+			return nodes[i];
+		}
+
+		private static Node merge(
+				Object k1,
+				Object v1,
+				int h1,
+				Object k2,
+				Object v2,
+				int h2,
+				int shift) {
+			if (shift >= HASH_BITS)
+				return new CollisionNode(h1, new Object[] { k1, v1, k2, v2 });
+
+			int f1 = fragment(h1, shift);
+			int f2 = fragment(h2, shift);
+			if (f1 == f2)
+				return new BitmapNode(0, 1 << f1, new Object[0],
+						new Node[] { merge(k1, v1, h1, k2, v2, h2, shift + BITS) });
+
+			Object[] data = f1 < f2 ? new Object[] { k1, v1, k2, v2 } : new Object[] { k2, v2, k1, v1 };
+			return new BitmapNode((1 << f1) | (1 << f2), 0, data, new Node[0]);
+		}
+
+		private static Object[] insertPair(
+				Object[] data,
+				int i,
+				Object key,
+				Object value) {
+			Object[] res = new Object[data.length + 2];
+			System.arraycopy(data, 0, res, 0, 2 * i);
+			res[2 * i] = key;
+			res[2 * i + 1] = value;
+			System.arraycopy(data, 2 * i, res, 2 * i + 2, data.length - 2 * i);
+			return res;
+		}
+
+		private static Object[] removePair(
+				Object[] data,
+				int i) {
+			Object[] res = new Object[data.length - 2];
+			System.arraycopy(data, 0, res, 0, 2 * i);
+			System.arraycopy(data, 2 * i + 2, res, 2 * i, data.length - 2 * i - 2);
+			return res;
+		}
+
+		private static Node[] insertNode(
+				Node[] nodes,
+				int i,
+				Node node) {
+			Node[] res = new Node[nodes.length + 1];
+			System.arraycopy(nodes, 0, res, 0, i);
+			res[i] = node;
+			System.arraycopy(nodes, i, res, i + 1, nodes.length - i);
+			return res;
+		}
+
+		private static Node[] removeNode(
+				Node[] nodes,
+				int i) {
+			Node[] res = new Node[nodes.length - 1];
+			System.arraycopy(nodes, 0, res, 0, i);
+			System.arraycopy(nodes, i + 1, res, i, nodes.length - i - 1);
+			return res;
+		}
+	}
+
+	/**
+	 * A leaf of the trie holding keys whose hashes are identical.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class CollisionNode extends Node {
+
+		private final int hash;
+		private final Object[] data;
+
+		private CollisionNode(
+				int hash,
+				Object[] data) {
+			this.hash = hash;
+			this.data = data;
+		}
+
+		private int indexOf(
+				Object key) {
+			for (int i = 0; i < data.length; i += 2)
+				if (Objects.equals(data[i], key))
+					return i;
+			return -1;
+		}
+
+		@Override
+		Object find(
+				Object key,
+				int hash,
+				int shift) {
+			int i = indexOf(key);
+			return i == -1 ? NOT_FOUND : data[i + 1];
+		}
+
+		@Override
+		Node updated(
+				Object key,
+				Object value,
+				int hash,
+				int shift,
+				Change change) {
+			int i = indexOf(key);
+			change.modified = true;
+			if (i == -1) {
+				Object[] res = Arrays.copyOf(data, data.length + 2);
+				res[data.length] = key;
+				res[data.length + 1] = value;
+				return new CollisionNode(this.hash, res);
+			}
+
+			change.replaced = true;
+			change.previous = data[i + 1];
+			if (data[i + 1] == value)
+				return this;
+			Object[] res = data.clone();
+			res[i + 1] = value;
+			return new CollisionNode(this.hash, res);
+		}
+
+		@Override
+		Node removed(
+				Object key,
+				int hash,
+				int shift,
+				Change change) {
+			int i = indexOf(key);
+			if (i == -1)
+				return this;
+			change.modified = true;
+			change.previous = data[i + 1];
+			Object[] res = new Object[data.length - 2];
+			System.arraycopy(data, 0, res, 0, i);
+			System.arraycopy(data, i + 2, res, i, data.length - i - 2);
+			return new CollisionNode(this.hash, res);
+		}
+
+		@Override
+		int dataCount() {
+			return data.length / 2;
+		}
+
+		@Override
+		Object keyAt(
+				int i) {
+			return data[2 * i];
+		}
+
+		@Override
+		Object valueAt(
+				int i) {
+			return data[2 * i + 1];
+		}
+
+		@Override
+		int nodeCount() {
+			return 0;
+		}
+
+		@Override
+		Node nodeAt(
+				int i) {
+			throw new IndexOutOfBoundsException();
+		}
+	}
+
+	private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new EntryIterator(root);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public boolean contains(
+				Object o) {
+			if (!(o instanceof Entry))
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			Object res = root.find(e.getKey(), hash(e.getKey()), 0);
+			return res != NOT_FOUND && Objects.equals(res, e.getValue());
+		}
+
+		@Override
+		public boolean remove(
+				Object o) {
+			if (!contains(o))
+				return false;
+			PersistentHashMap.this.remove(((Entry<?, ?>) o).getKey());
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			PersistentHashMap.this.clear();
+		}
+	}
+
+	/**
+	 * A depth-first iterator over a snapshot of the trie.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+		private final Node[] stack = new Node[HASH_BITS / BITS + 3];
+		private final int[] dataPos = new int[stack.length];
+		private final int[] nodePos = new int[stack.length];
+		private int depth;
+		private Entry<K, V> last;
+
+		private EntryIterator(
+				Node root) {
+			stack[0] = root;
+			depth = 0;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (depth >= 0) {
+				Node top = stack[depth];
+				if (dataPos[depth] < top.dataCount())
+					return true;
+				if (nodePos[depth] < top.nodeCount()) {
+					Node next = top.nodeAt(nodePos[depth]++);
+					depth++;
+					stack[depth] = next;
+					dataPos[depth] = 0;
+					nodePos[depth] = 0;
+				} else
+					stack[depth--] = null;
+			}
+			return false;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Entry<K, V> next() {
+			if (!hasNext())
+				throw new NoSuchElementException("No more elements in the map");
+			Node top = stack[depth];
+			int i = dataPos[depth]++;
+			last = new MapEntry((K) top.keyAt(i), (V) top.valueAt(i));
+			return last;
+		}
+
+		@Override
+		public void remove() {
+			if (last == null)
+				throw new IllegalStateException("next() has not been invoked");
+			PersistentHashMap.this.remove(last.getKey());
+			last = null;
+		}
+	}
+
+	/**
+	 * An entry of the map that writes through changes to its value.
+	 *
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private final class MapEntry extends SimpleEntry<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private MapEntry(
+				K key,
+				V value) {
+			super(key, value);
+		}
+
+		@Override
+		public V setValue(
+				V value) {
+			PersistentHashMap.this.put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+}
@@ -186,20 +186,9 @@ public final class BitExternalSet<T> implements ExternalSet<T> {
 
 	@Override
 	public int size() {
-		long bitvector;
 		int count = 0;
-		long[] localbits = this.bits;
-
-		for (int pos = localbits.length - 1; pos >= 0; pos--) {
-			bitvector = localbits[pos];
-			if (bitvector != 0L)
-				for (int i = 0; i < 64; i++) {
-					int n = 64 * pos + i;
-					if ((localbits[n >> 6] & 1L << (n % 64)) != 0L)
-						count++;
-				}
-		}
-
+		for (long bitvector : bits)
+			count += Long.bitCount(bitvector);
 		return count;
 	}
 
@@ -231,10 +220,12 @@ public final class BitExternalSet<T> implements ExternalSet<T> {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + (cache == null ? 1 : cache.hashCode());
-		result = prime * result + Arrays.hashCode(bits);
+		// we follow the contract of Set.hashCode(), as equals is based on the
+		// elements: sets with the same elements but different caches must
+		// have the same hash
+		int result = 0;
+		for (T element : this)
+			result += element == null ? 0 : element.hashCode();
 		return result;
 	}
 
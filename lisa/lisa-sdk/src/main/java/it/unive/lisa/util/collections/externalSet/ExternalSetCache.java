@@ -1,15 +1,15 @@
 package it.unive.lisa.util.collections.externalSet;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A cache for creating {@link ExternalSet}s of the elements contained in this
- * cache.
+ * cache. Lookups of elements and indexes never acquire locks: only the
+ * addition of new elements is serialized.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  * 
@@ -18,24 +18,28 @@ import java.util.Map;
 public class ExternalSetCache<T> {
 
 	/**
-	 * The collection of elements in this cache
+	 * The elements in this cache, indexed by their position. Only the first
+	 * {@link #size} slots are meaningful. New elements are written in the array
+	 * before publishing it (and its size) through the volatile fields, so that
+	 * readers always find an element once they know its index.
 	 */
-	private final List<T> elements = new ArrayList<>(16);
+	private volatile Object[] elements = new Object[16];
 
 	/**
-	 * A map from the elements to their index
+	 * The number of elements in this cache, that is also the next index
+	 * available for new elements
 	 */
-	private final Map<T, Integer> indexes = new HashMap<>(16);
+	private volatile int size = 0;
 
 	/**
-	 * The next index available for new elements
+	 * A map from the elements to their index
 	 */
-	private int nextIndex = 0;
+	private final Map<T, Integer> indexes = new ConcurrentHashMap<>(16);
 
 	/**
 	 * The index assigned to the {@code null} key, if any.
 	 */
-	private int indexOfNull = -1;
+	private volatile int indexOfNull = -1;
 
 	/**
 	 * Builds an empty {@link ExternalSet} that uses this cache.
@@ -82,6 +86,23 @@ public class ExternalSetCache<T> {
 		return new UniversalExternalSet<>(this);
 	}
 
+	/**
+	 * Yields an {@link ExternalSet} that uses this cache and contains the
+	 * elements of the given iterable. If {@code iterable} already is an
+	 * {@link ExternalSet} using this cache, it is returned as-is: this method
+	 * should thus be used only for building sets that will not be modified.
+	 *
+	 * @param iterable the iterable
+	 * 
+	 * @return the set
+	 */
+	public ExternalSet<T> convert(
+			Iterable<T> iterable) {
+		if (iterable instanceof ExternalSet && ((ExternalSet<T>) iterable).getCache() == this)
+			return (ExternalSet<T>) iterable;
+		return mkSet(iterable);
+	}
+
 	/**
 	 * Yields the index where the given element is stored in this cache.
 	 * 
@@ -89,7 +110,7 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the index of {@code e}, or {@code -1}
 	 */
-	protected final synchronized int indexOf(
+	protected final int indexOf(
 			T e) {
 		if (e == null)
 			return indexOfNull;
@@ -106,24 +127,32 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the index of {@code e}
 	 */
-	protected final synchronized int indexOfOrAdd(
+	protected final int indexOfOrAdd(
 			T e) {
-		if (e == null) {
-			if (indexOfNull == -1) {
-				elements.add(null);
-				indexOfNull = nextIndex++;
-			}
-			return indexOfNull;
+		int result = indexOf(e);
+		if (result >= 0)
+			return result;
+
+		synchronized (this) {
+			// another thread might have added it in the meantime
+			result = indexOf(e);
+			if (result >= 0)
+				return result;
+
+			result = size;
+			Object[] local = elements;
+			if (result == local.length)
+				local = Arrays.copyOf(local, local.length << 1);
+			local[result] = e;
+			elements = local;
+			size = result + 1;
+
+			if (e == null)
+				indexOfNull = result;
+			else
+				indexes.put(e, result);
+			return result;
 		}
-
-		Integer result = indexes.get(e);
-		if (result == null)
-			return indexes.computeIfAbsent(e, el -> {
-				elements.add(e);
-				return nextIndex++;
-			});
-
-		return result;
 	}
 
 	/**
@@ -133,19 +162,22 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the element
 	 */
-	protected final synchronized T get(
+	@SuppressWarnings("unchecked")
+	protected final T get(
 			int pos) {
-		return elements.get(pos);
+		if (pos >= size)
+			throw new IndexOutOfBoundsException("Index " + pos + " out of bounds for length " + size);
+		return (T) elements[pos];
 	}
 
 	/**
 	 * Cleans the cache, removing all elements.
 	 */
 	public final synchronized void clear() {
-		elements.clear();
 		indexes.clear();
 		indexOfNull = -1;
-		nextIndex = 0;
+		size = 0;
+		elements = new Object[16];
 	}
 
 	/**
@@ -153,13 +185,13 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return the number of elements
 	 */
-	public final synchronized int size() {
-		return elements.size();
+	public final int size() {
+		return size;
 	}
 
 	@Override
-	public final synchronized String toString() {
-		return elements.toString();
+	public final String toString() {
+		return getAllElements().toString();
 	}
 
 	/**
@@ -168,7 +200,10 @@ public class ExternalSetCache<T> {
 	 * 
 	 * @return a view of the elements inside this cache
 	 */
-	synchronized Collection<T> getAllElements() {
-		return Collections.unmodifiableCollection(elements);
+	@SuppressWarnings("unchecked")
+	Collection<T> getAllElements() {
+		// size is read first: the array is published before it
+		int length = size;
+		return Collections.unmodifiableList(Arrays.asList((T[]) elements).subList(0, length));
 	}
 }
@@ -0,0 +1,150 @@
+package it.unive.lisa.util.collections.workset;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * A working set that pops elements following a weak topological ordering of
+ * the graph being processed (see
+ * {@link it.unive.lisa.util.datastructures.graph.algorithms.WeakTopologicalOrder}),
+ * always yielding the pending element that comes first in the ordering. When
+ * used in a fixpoint, since the head of a component precedes all of its
+ * elements, and all of them precede the nodes that follow the component, the
+ * nodes following a loop are processed only when no element of the loop is
+ * pending. Note that this is a worklist-based approximation of Bourdoncle's
+ * recursive iteration strategy, not the strategy itself: components are not
+ * iterated as a whole, as only the elements that have been pushed are
+ * processed, and a pending head of an enclosing component is popped before
+ * the pending elements of the components nested in it. The same element
+ * cannot appear more than once in this working set.<br>
+ * <br>
+ * The ordering must be provided through {@link #setOrder(ToIntFunction)}
+ * (cfg fixpoints do this automatically): elements without a position in the
+ * ordering, or pushed when no ordering is available, are popped after all
+ * others in FIFO order. This implementation is <b>not</b> thread-safe.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <E> the type of the elements that this working set contains
+ */
+public final class WTOWorkingSet<E> implements WorkingSet<E> {
+
+	private final TreeMap<Integer, E> ordered;
+
+	private final Set<E> unordered;
+
+	private ToIntFunction<E> order;
+
+	private WTOWorkingSet() {
+		ordered = new TreeMap<>();
+		unordered = new LinkedHashSet<>();
+	}
+
+	/**
+	 * Yields a new, empty working set.
+	 * 
+	 * @param <E> the type of the elements that the returned working set
+	 *                contains
+	 * 
+	 * @return the new working set
+	 */
+	public static <E> WTOWorkingSet<E> mk() {
+		return new WTOWorkingSet<>();
+	}
+
+	/**
+	 * Sets the ordering to use for popping elements out of this working set.
+	 * The given function must yield the (unique) position of each element in
+	 * the ordering, or a negative number if the element is not part of it.
+	 * Elements already contained in this working set are sorted according to
+	 * the new ordering.
+	 * 
+	 * @param order the function providing the position of each element
+	 */
+	public void setOrder(
+			ToIntFunction<E> order) {
+		List<E> contents = new ArrayList<>(getContents());
+		ordered.clear();
+		unordered.clear();
+		this.order = order;
+		contents.forEach(this::push);
+	}
+
+	@Override
+	public void push(
+			E e) {
+		int pos = order == null ? -1 : order.applyAsInt(e);
+		if (pos < 0)
+			unordered.add(e);
+		else
+			ordered.putIfAbsent(pos, e);
+	}
+
+	@Override
+	public E pop() {
+		if (!ordered.isEmpty())
+			return ordered.pollFirstEntry().getValue();
+		Iterator<E> it = unordered.iterator();
+		E e = it.next();
+		it.remove();
+		return e;
+	}
+
+	@Override
+	public E peek() {
+		if (!ordered.isEmpty())
+			return ordered.firstEntry().getValue();
+		return unordered.isEmpty() ? null : unordered.iterator().next();
+	}
+
+	@Override
+	public int size() {
+		return ordered.size() + unordered.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return ordered.isEmpty() && unordered.isEmpty();
+	}
+
+	@Override
+	public Collection<E> getContents() {
+		List<E> contents = new ArrayList<>(size());
+		contents.addAll(ordered.values());
+		contents.addAll(unordered);
+		return contents;
+	}
+
+	@Override
+	public String toString() {
+		return getContents().toString();
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ordered.hashCode();
+		result = prime * result + unordered.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean equals(
+			Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		WTOWorkingSet<?> other = (WTOWorkingSet<?>) obj;
+		return ordered.equals(other.ordered) && unordered.equals(other.unordered);
+	}
+}
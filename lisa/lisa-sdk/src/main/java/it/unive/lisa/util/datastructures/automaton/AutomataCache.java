@@ -0,0 +1,252 @@
+package it.unive.lisa.util.datastructures.automaton;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of the results of operations on {@link Automaton}s, used to
+ * avoid recomputing operations that are repeatedly applied to the same
+ * operands (e.g., lubs and comparisons of the same string abstractions across
+ * fixpoint iterations). Operands are compared by identity first, and then
+ * structurally through {@link Automaton#equals(Object)}. When the cache is
+ * full, the least recently used entry is evicted. The cache also stores
+ * canonical instances of minimized automata (see
+ * {@link #canonical(Automaton)}), so that equal minimization results are
+ * shared.<br>
+ * <br>
+ * Since results are shared, the automata stored in the cache as results are
+ * frozen, and reject any modification (see {@link Automaton#isFrozen()}):
+ * {@link Automaton#copy()} should be used to obtain a modifiable automaton.
+ * Operands are instead left untouched: entries are keyed on frozen snapshots
+ * of the automata among them, so that modifying an operand after the
+ * operation does not affect the cache. A cache with capacity {@code 0} stores
+ * nothing, and thus freezes nothing.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public final class AutomataCache {
+
+	private static final String CANONICAL = "canonical";
+
+	private final Map<Key, Object> entries;
+
+	private int capacity;
+
+	private long hits;
+
+	private long misses;
+
+	/**
+	 * Builds a cache with the given capacity.
+	 * 
+	 * @param capacity the maximum number of entries of the cache
+	 */
+	public AutomataCache(
+			int capacity) {
+		this.capacity = capacity;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Key, Object> eldest) {
+				return size() > AutomataCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Yields the maximum number of entries of this cache.
+	 * 
+	 * @return the capacity
+	 */
+	public synchronized int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Sets the maximum number of entries of this cache, evicting the least
+	 * recently used entries if needed. A capacity of {@code 0} disables the
+	 * cache.
+	 * 
+	 * @param capacity the new capacity
+	 */
+	public synchronized void setCapacity(
+			int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("The capacity of the cache cannot be negative");
+		this.capacity = capacity;
+		Iterator<Key> it = entries.keySet().iterator();
+		while (entries.size() > capacity && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	/**
+	 * Yields the number of lookups that found a cached result.
+	 * 
+	 * @return the number of hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Yields the number of lookups that did not find a cached result.
+	 * 
+	 * @return the number of misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Yields the number of entries currently in this cache.
+	 * 
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Removes all entries from this cache, and resets its counters.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Yields the result of the given operation on the given operands, either
+	 * by retrieving it from this cache or by computing it through
+	 * {@code operation}. The computation happens outside of any lock, so that
+	 * operations can use the cache recursively. When the result is stored, it
+	 * is frozen if it is an automaton, while automata among the operands are
+	 * replaced in the key by frozen copies.
+	 * 
+	 * @param <R>       the type of the result
+	 * @param name      the name of the operation
+	 * @param operation the computation of the result, executed on a miss
+	 * @param operands  the operands of the operation, including any
+	 *                      parameter that can change its result
+	 * 
+	 * @return the result of the operation
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> R compute(
+			String name,
+			Supplier<R> operation,
+			Object... operands) {
+		synchronized (this) {
+			if (capacity == 0)
+				return operation.get();
+
+			Key key = new Key(name, operands);
+			Object cached = entries.get(key);
+			if (cached != null) {
+				hits++;
+				return (R) cached;
+			}
+			misses++;
+		}
+
+		R result = operation.get();
+		Key key = new Key(name, snapshot(operands));
+		synchronized (this) {
+			if (capacity > 0) {
+				freeze(result);
+				entries.put(key, result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Yields the canonical instance of the given automaton, that is, the first
+	 * automaton equal to {@code automaton} that has been passed to this method
+	 * and that is still cached. If there is no such automaton,
+	 * {@code automaton} becomes the canonical one, and it is frozen.
+	 * 
+	 * @param <A>       the type of automaton
+	 * @param automaton the automaton
+	 * 
+	 * @return the canonical instance
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <A extends Automaton<A, ?>> A canonical(
+			A automaton) {
+		if (capacity == 0)
+			return automaton;
+
+		Key key = new Key(CANONICAL, new Object[] { automaton });
+		Object cached = entries.putIfAbsent(key, automaton);
+		if (cached != null)
+			return (A) cached;
+		automaton.freeze();
+		return automaton;
+	}
+
+	private static void freeze(
+			Object obj) {
+		if (obj instanceof Automaton)
+			((Automaton<?, ?>) obj).freeze();
+	}
+
+	private static Object[] snapshot(
+			Object[] operands) {
+		Object[] snapshot = operands.clone();
+		for (int i = 0; i < snapshot.length; i++)
+			if (snapshot[i] instanceof Automaton && !((Automaton<?, ?>) snapshot[i]).isFrozen()) {
+				Automaton<?, ?> copy = ((Automaton<?, ?>) snapshot[i]).copy();
+				copy.freeze();
+				snapshot[i] = copy;
+			}
+		return snapshot;
+	}
+
+	private static final class Key {
+
+		private final String name;
+
+		private final Object[] operands;
+
+		private final int hash;
+
+		private Key(
+				String name,
+				Object[] operands) {
+			this.name = name;
+			this.operands = operands;
+			this.hash = 31 * name.hashCode() + Arrays.hashCode(operands);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(
+				Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			Key other = (Key) obj;
+			if (hash != other.hash || !name.equals(other.name) || operands.length != other.operands.length)
+				return false;
+			for (int i = 0; i < operands.length; i++)
+				// equals of automata checks identity first
+				if (!operands[i].equals(other.operands[i]))
+					return false;
+			return true;
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package it.unive.lisa.util.datastructures.automaton;
 
+import it.unive.lisa.conf.LiSAConfiguration;
 import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
+import it.unive.lisa.util.collections.workset.LIFOWorkingSet;
 import it.unive.lisa.util.collections.workset.WorkingSet;
 import it.unive.lisa.util.datastructures.regex.Atom;
 import it.unive.lisa.util.datastructures.regex.EmptySet;
@@ -22,6 +24,7 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.Stack;
 import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
@@ -40,29 +43,70 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 		implements
 		AutomataFactory<A, T> {
 
+	/**
+	 * The algorithm used by {@link #minimize()}. Both algorithms yield minimal
+	 * automata, but they number their states differently: since the textual
+	 * representation of automata depends on such numbering, the default is
+	 * {@link Minimization#BRZOZOWSKI}.
+	 */
+	public static Minimization MINIMIZATION = Minimization.BRZOZOWSKI;
+
+	/**
+	 * The cache of the results of {@link #minimize(Minimization)},
+	 * {@link #union(Automaton)}, {@link #isContained(Automaton)}, and
+	 * {@link #widening(int)}, that also stores the canonical instances of
+	 * minimal automata. Results stored in the cache are frozen (see
+	 * {@link #isFrozen()}). The cache is cleared at the beginning of each
+	 * analysis, and its capacity is set to
+	 * {@link LiSAConfiguration#automataCacheSize}.
+	 */
+	public static final AutomataCache CACHE = new AutomataCache(LiSAConfiguration.DEFAULT_AUTOMATA_CACHE_SIZE);
+
 	/**
 	 * The states of this automaton.
 	 */
 	protected final SortedSet<State> states;
 
 	/**
-	 * The transitions of this automaton.
+	 * The transitions of this automaton. Modifications should happen through
+	 * {@link #addTransition(Transition)} and
+	 * {@link #removeTransitions(Set)}, that keep the index of transitions
+	 * updated: other modifications are detected only if they change the
+	 * number of transitions.
 	 */
 	protected final SortedSet<Transition<T>> transitions;
 
+	/**
+	 * The index of {@link #transitions} by source and destination state,
+	 * lazily built on first access. Frozen automata can be shared between
+	 * threads (e.g., by parallel analyses) and are never modified, but they
+	 * still build this index lazily: the field is volatile so that an index
+	 * built by one thread is safely published to the others. Concurrent
+	 * builds yield equal indexes, so it does not matter which one is kept.
+	 */
+	private volatile TransitionIndex<T> index;
+
 	/**
 	 * Flag that tracks if this automaton is deterministic. If
 	 * {@link Optional#isPresent()} returns {@code false}, then it is unknown if
-	 * this automaton is deterministic or not.
+	 * this automaton is deterministic or not. This is volatile since it is
+	 * lazily computed also on frozen automata, as {@link #index}.
 	 */
-	protected Optional<Boolean> deterministic;
+	protected volatile Optional<Boolean> deterministic;
 
 	/**
 	 * Flag that tracks if this automaton has been minimized. If
 	 * {@link Optional#isPresent()} returns {@code false}, then it is unknown if
-	 * this automaton is minimum or not.
+	 * this automaton is minimum or not. This is volatile since it is lazily
+	 * computed also on frozen automata, as {@link #index}.
+	 */
+	protected volatile Optional<Boolean> minimized;
+
+	/**
+	 * Whether or not this automaton is shared through {@link #CACHE}, and thus
+	 * cannot be modified anymore.
 	 */
-	protected Optional<Boolean> minimized;
+	private volatile boolean frozen;
 
 	/**
 	 * Builds an empty automaton.
@@ -100,7 +144,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 * @return the set of states
 	 */
 	public SortedSet<State> getStates() {
-		return states;
+		return frozen ? Collections.unmodifiableSortedSet(states) : states;
 	}
 
 	/**
@@ -109,7 +153,31 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 * @return the set of transitions
 	 */
 	public SortedSet<Transition<T>> getTransitions() {
-		return transitions;
+		return frozen ? Collections.unmodifiableSortedSet(transitions) : transitions;
+	}
+
+	/**
+	 * Yields whether or not this automaton is frozen, that is, if it is shared
+	 * through {@link #CACHE} and it cannot be modified anymore. Frozen
+	 * automata reject any modification with an {@link IllegalStateException}:
+	 * {@link #copy()} yields a modifiable automaton equal to this one.
+	 * 
+	 * @return {@code true} if this automaton is frozen
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	/**
+	 * Freezes this automaton, preventing any further modification.
+	 */
+	void freeze() {
+		frozen = true;
+	}
+
+	private void ensureModifiable() {
+		if (frozen)
+			throw new IllegalStateException("Cached automata cannot be modified: use copy() to obtain a modifiable one");
 	}
 
 	/**
@@ -122,6 +190,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public void addState(
 			State s) {
+		ensureModifiable();
 		if (states.stream().filter(ss -> ss.getId() == s.getId()).findAny().isPresent())
 			throw new IllegalArgumentException("A state with id " + s.getId() + " aready exists");
 		states.add(s);
@@ -152,7 +221,9 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public void addTransition(
 			Transition<T> t) {
-		transitions.add(t);
+		ensureModifiable();
+		if (transitions.add(t) && index != null)
+			index.add(t);
 		this.deterministic = Optional.empty();
 		this.minimized = Optional.empty();
 	}
@@ -165,7 +236,10 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public void removeTransitions(
 			Set<Transition<T>> ts) {
-		transitions.removeAll(ts);
+		ensureModifiable();
+		for (Transition<T> t : ts)
+			if (transitions.remove(t) && index != null)
+				index.remove(t);
 		this.deterministic = Optional.empty();
 		this.minimized = Optional.empty();
 	}
@@ -177,37 +251,444 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public void removeStates(
 			Set<State> ts) {
+		ensureModifiable();
 		states.removeAll(ts);
 		this.deterministic = Optional.empty();
 		this.minimized = Optional.empty();
 	}
 
 	/**
-	 * Yields a minimal automaton equivalent to this one through Brzozowski's
+	 * Yields a minimal automaton equivalent to this one through the algorithm
+	 * selected by {@link #MINIMIZATION}. <br>
+	 * <br>
+	 * This automaton is never modified.
+	 * 
+	 * @return a minimal automaton equivalent to this one
+	 */
+	public A minimize() {
+		return minimize(MINIMIZATION);
+	}
+
+	/**
+	 * Yields a minimal automaton equivalent to this one through the given
 	 * minimization algorithm. <br>
 	 * <br>
 	 * This automaton is never modified.
 	 * 
+	 * @param algorithm the minimization algorithm to use
+	 * 
 	 * @return a minimal automaton equivalent to this one
 	 */
 	@SuppressWarnings("unchecked")
-	public A minimize() {
+	public A minimize(
+			Minimization algorithm) {
 		if (minimized.isPresent() && minimized.get())
 			return (A) this;
+		return CACHE.compute("minimize", () -> CACHE.canonical(minimizeAux(algorithm)), this, algorithm);
+	}
+
+	@SuppressWarnings("unchecked")
+	private A minimizeAux(
+			Minimization algorithm) {
 		A a = (A) this;
 		if (!isDeterministic())
 			a = determinize();
 
-		a = a.reverse().determinize();
-		a = a.removeUnreachableStates();
-		a = a.reverse().determinize();
-		a = a.removeUnreachableStates();
+		if (algorithm == Minimization.HOPCROFT)
+			a = ((Automaton<A, T>) a).hopcroft();
+		else {
+			a = a.reverse().determinize();
+			a = a.removeUnreachableStates();
+			a = a.reverse().determinize();
+			a = a.removeUnreachableStates();
+		}
 
 		a.deterministic = Optional.of(true);
 		a.minimized = Optional.of(true);
 		return a;
 	}
 
+	/**
+	 * Minimizes this automaton, that must be deterministic, through Hopcroft's
+	 * partition refinement algorithm. The automaton is first trimmed of the
+	 * states that are unreachable or that cannot reach a final state, and is
+	 * then completed with a single dead state that is removed after the
+	 * refinement. States of the resulting automaton are numbered in
+	 * breadth-first order from the initial state, following transitions
+	 * ordered by symbol: this makes the minimal automaton unique, that is,
+	 * minimizing automata recognizing the same language yields equal
+	 * automata.
+	 * 
+	 * @return the minimal automaton
+	 */
+	private A hopcroft() {
+		State init = getInitialState();
+		SortedSet<State> trimmed = init == null ? new TreeSet<>() : reachableFrom(init);
+		trimmed.retainAll(coReachable());
+		if (init == null || !trimmed.contains(init)) {
+			// no string is recognized
+			SortedSet<State> st = new TreeSet<>();
+			st.add(new State(0, true, false));
+			return from(st, new TreeSet<>());
+		}
+
+		// dense numbering of states and symbols, with the dead state being n
+		int n = trimmed.size();
+		Map<State, Integer> ids = new HashMap<>(n * 2);
+		State[] byId = new State[n];
+		for (State s : trimmed) {
+			byId[ids.size()] = s;
+			ids.put(s, ids.size());
+		}
+		List<T> symbols = new ArrayList<>();
+		Map<T, Integer> symIds = new HashMap<>();
+		for (Transition<T> t : transitions)
+			if (ids.containsKey(t.getSource()) && ids.containsKey(t.getDestination())
+					&& !symIds.containsKey(t.getSymbol())) {
+				symIds.put(t.getSymbol(), -1);
+				symbols.add(t.getSymbol());
+			}
+		Collections.sort(symbols);
+		for (int i = 0; i < symbols.size(); i++)
+			symIds.put(symbols.get(i), i);
+
+		int k = symbols.size();
+		int[][] delta = new int[n + 1][k];
+		for (int[] row : delta)
+			Arrays.fill(row, n);
+		for (Transition<T> t : transitions) {
+			Integer src = ids.get(t.getSource()), dest = ids.get(t.getDestination());
+			if (src != null && dest != null)
+				delta[src][symIds.get(t.getSymbol())] = dest;
+		}
+
+		// inverse transitions, stored as adjacency arrays
+		int[][][] inverse = new int[k][n + 1][];
+		for (int c = 0; c < k; c++) {
+			int[] count = new int[n + 1];
+			for (int q = 0; q <= n; q++)
+				count[delta[q][c]]++;
+			for (int q = 0; q <= n; q++)
+				inverse[c][q] = new int[count[q]];
+			for (int q = 0; q <= n; q++) {
+				int dest = delta[q][c];
+				inverse[c][dest][--count[dest]] = q;
+			}
+		}
+
+		boolean[] finals = new boolean[n + 1];
+		for (int q = 0; q < n; q++)
+			finals[q] = byId[q].isFinal();
+		Partition partition = new Partition(n + 1, finals);
+
+		// pending splitters, as block * k + symbol
+		WorkingSet<Integer> pending = FIFOWorkingSet.mk();
+		boolean[] isPending = new boolean[(n + 1) * Math.max(k, 1)];
+		int smaller = partition.blocks() == 1 || partition.size(0) <= partition.size(1) ? 0 : 1;
+		for (int c = 0; c < k; c++) {
+			pending.push(smaller * k + c);
+			isPending[smaller * k + c] = true;
+		}
+
+		while (!pending.isEmpty()) {
+			int splitter = pending.pop();
+			int block = splitter / k, c = splitter % k;
+			isPending[splitter] = false;
+
+			for (int q : partition.members(block))
+				for (int pred : inverse[c][q])
+					partition.mark(pred);
+
+			for (int[] split : partition.split())
+				// split[0] has been split, leaving split[1] as a new block
+				for (int d = 0; d < k; d++) {
+					int old = split[0] * k + d;
+					int added = split[1] * k + d;
+					if (isPending[old] || partition.size(split[1]) <= partition.size(split[0])) {
+						isPending[added] = true;
+						pending.push(added);
+					} else {
+						isPending[old] = true;
+						pending.push(old);
+					}
+				}
+		}
+
+		// breadth-first renumbering from the initial state
+		int dead = partition.blockOf(n);
+		int[] newIds = new int[partition.blocks()];
+		Arrays.fill(newIds, -1);
+		State[] newStates = new State[partition.blocks()];
+		int initBlock = partition.blockOf(ids.get(init));
+		newIds[initBlock] = 0;
+		newStates[initBlock] = new State(0, true, init.isFinal());
+		int next = 1;
+		List<Integer> order = new ArrayList<>();
+		order.add(initBlock);
+		SortedSet<State> sts = new TreeSet<>();
+		SortedSet<Transition<T>> ts = new TreeSet<>();
+		for (int i = 0; i < order.size(); i++) {
+			int block = order.get(i);
+			sts.add(newStates[block]);
+			int repr = partition.members(block)[0];
+			for (int c = 0; c < k; c++) {
+				int dest = partition.blockOf(delta[repr][c]);
+				if (dest == dead)
+					continue;
+				if (newIds[dest] == -1) {
+					newIds[dest] = next++;
+					newStates[dest] = new State(newIds[dest], false, finals[partition.members(dest)[0]]);
+					order.add(dest);
+				}
+				ts.add(new Transition<>(newStates[block], newStates[dest], symbols.get(c)));
+			}
+		}
+
+		return from(sts, ts);
+	}
+
+	/**
+	 * A partition of the integers in {@code [0, n)} in blocks, supporting the
+	 * marking of elements and the splitting of blocks into their marked and
+	 * unmarked elements. Elements are stored in a single array, where each
+	 * block is a contiguous slice and marked elements are moved at the
+	 * beginning of their block.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	private static final class Partition {
+
+		private final int[] elements;
+
+		private final int[] location;
+
+		private final int[] blockOf;
+
+		private final int[] first;
+
+		private final int[] end;
+
+		private final int[] marked;
+
+		private final List<Integer> touched = new ArrayList<>();
+
+		private int blocks;
+
+		private Partition(
+				int n,
+				boolean[] initial) {
+			elements = new int[n];
+			location = new int[n];
+			blockOf = new int[n];
+			first = new int[n];
+			end = new int[n];
+			marked = new int[n];
+
+			// elements with initial[e] == true go in the first block
+			int pos = 0;
+			for (int pass = 0; pass < 2; pass++) {
+				int start = pos;
+				for (int e = 0; e < n; e++)
+					if (initial[e] == (pass == 0)) {
+						elements[pos] = e;
+						location[e] = pos++;
+						blockOf[e] = blocks;
+					}
+				if (pos > start) {
+					first[blocks] = start;
+					marked[blocks] = start;
+					end[blocks++] = pos;
+				}
+			}
+		}
+
+		private int blocks() {
+			return blocks;
+		}
+
+		private int size(
+				int block) {
+			return end[block] - first[block];
+		}
+
+		private int blockOf(
+				int e) {
+			return blockOf[e];
+		}
+
+		private int[] members(
+				int block) {
+			return Arrays.copyOfRange(elements, first[block], end[block]);
+		}
+
+		private void mark(
+				int e) {
+			int block = blockOf[e];
+			int pos = location[e];
+			int boundary = marked[block];
+			if (pos < boundary)
+				// already marked
+				return;
+
+			if (boundary == first[block])
+				touched.add(block);
+			elements[pos] = elements[boundary];
+			location[elements[pos]] = pos;
+			elements[boundary] = e;
+			location[e] = boundary;
+			marked[block]++;
+		}
+
+		private List<int[]> split() {
+			List<int[]> splits = new ArrayList<>();
+			for (int block : touched) {
+				if (marked[block] == end[block]) {
+					// all elements are marked: nothing to split
+					marked[block] = first[block];
+					continue;
+				}
+
+				int created = blocks++;
+				first[created] = first[block];
+				end[created] = marked[block];
+				marked[created] = first[created];
+				first[block] = end[created];
+				marked[block] = first[block];
+				for (int i = first[created]; i < end[created]; i++)
+					blockOf[elements[i]] = created;
+				splits.add(new int[] { block, created });
+			}
+			touched.clear();
+			return splits;
+		}
+	}
+
+	/**
+	 * Yields the states that can be reached from {@code start}, including
+	 * {@code start} itself.
+	 * 
+	 * @param start the starting state
+	 * 
+	 * @return the reachable states
+	 */
+	private SortedSet<State> reachableFrom(
+			State start) {
+		SortedSet<State> result = new TreeSet<>();
+		WorkingSet<State> ws = FIFOWorkingSet.mk();
+		result.add(start);
+		ws.push(start);
+		while (!ws.isEmpty())
+			for (Transition<T> t : index().outgoing(ws.pop()))
+				if (result.add(t.getDestination()))
+					ws.push(t.getDestination());
+		return result;
+	}
+
+	/**
+	 * Yields the states from which at least one final state can be reached.
+	 * 
+	 * @return the co-reachable states
+	 */
+	private Set<State> coReachable() {
+		Set<State> result = new HashSet<>();
+		WorkingSet<State> ws = FIFOWorkingSet.mk();
+		for (State s : states)
+			if (s.isFinal()) {
+				result.add(s);
+				ws.push(s);
+			}
+		while (!ws.isEmpty())
+			for (Transition<T> t : index().ingoing(ws.pop()))
+				if (result.add(t.getSource()))
+					ws.push(t.getSource());
+		return result;
+	}
+
+	/**
+	 * Yields the index of the transitions of this automaton, (re)building it if
+	 * it does not exist or if {@link #transitions} has been modified without
+	 * using {@link #addTransition(Transition)} and
+	 * {@link #removeTransitions(Set)}.
+	 * 
+	 * @return the index
+	 */
+	private TransitionIndex<T> index() {
+		// the field is read once, since other threads might replace it
+		TransitionIndex<T> current = index;
+		if (current == null || current.size != transitions.size()) {
+			current = new TransitionIndex<>(transitions);
+			index = current;
+		}
+		return current;
+	}
+
+	/**
+	 * An index of transitions by source state, by source state and symbol
+	 * (that is, an adjacency table yielding the successors of a state through
+	 * a given symbol), and by destination state.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 * 
+	 * @param <T> the type of symbols on transitions
+	 */
+	private static final class TransitionIndex<T extends TransitionSymbol<T>> {
+
+		private final Map<State, SortedSet<Transition<T>>> outgoing = new HashMap<>();
+
+		private final Map<State, Map<T, SortedSet<State>>> successors = new HashMap<>();
+
+		private final Map<State, SortedSet<Transition<T>>> ingoing = new HashMap<>();
+
+		private int size;
+
+		private TransitionIndex(
+				Set<Transition<T>> transitions) {
+			for (Transition<T> t : transitions)
+				add(t);
+		}
+
+		private void add(
+				Transition<T> t) {
+			outgoing.computeIfAbsent(t.getSource(), s -> new TreeSet<>()).add(t);
+			ingoing.computeIfAbsent(t.getDestination(), s -> new TreeSet<>()).add(t);
+			successors.computeIfAbsent(t.getSource(), s -> new HashMap<>())
+					.computeIfAbsent(t.getSymbol(), s -> new TreeSet<>())
+					.add(t.getDestination());
+			size++;
+		}
+
+		private void remove(
+				Transition<T> t) {
+			outgoing.get(t.getSource()).remove(t);
+			ingoing.get(t.getDestination()).remove(t);
+			Map<T, SortedSet<State>> succ = successors.get(t.getSource());
+			SortedSet<State> dests = succ.get(t.getSymbol());
+			dests.remove(t.getDestination());
+			if (dests.isEmpty())
+				succ.remove(t.getSymbol());
+			size--;
+		}
+
+		private SortedSet<Transition<T>> outgoing(
+				State s) {
+			return outgoing.getOrDefault(s, Collections.emptySortedSet());
+		}
+
+		private SortedSet<Transition<T>> ingoing(
+				State s) {
+			return ingoing.getOrDefault(s, Collections.emptySortedSet());
+		}
+
+		private Set<State> successors(
+				State s,
+				T symbol) {
+			Map<T, SortedSet<State>> succ = successors.get(s);
+			if (succ == null)
+				return Collections.emptySet();
+			return succ.getOrDefault(symbol, Collections.emptySortedSet());
+		}
+	}
+
 	/**
 	 * Yields the set of all outgoing transitions from the given state.
 	 * 
@@ -217,7 +698,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public SortedSet<Transition<T>> getOutgoingTransitionsFrom(
 			State s) {
-		return new TreeSet<>(transitions.stream().filter(t -> t.getSource().equals(s)).collect(Collectors.toSet()));
+		return new TreeSet<>(index().outgoing(s));
 	}
 
 	/**
@@ -229,8 +710,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public SortedSet<Transition<T>> getIngoingTransitionsFrom(
 			State s) {
-		return new TreeSet<>(
-				transitions.stream().filter(t -> t.getDestination().equals(s)).collect(Collectors.toSet()));
+		return new TreeSet<>(index().ingoing(s));
 	}
 
 	/**
@@ -295,7 +775,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 
 		do {
 			for (State s : ws)
-				for (Transition<T> t : getOutgoingTransitionsFrom(s))
+				for (Transition<T> t : index().outgoing(s))
 					temp.add(t.getDestination());
 
 			temp.removeAll(reachableStates);
@@ -355,21 +835,14 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	public SortedSet<State> epsilonClosure(
 			State s) {
 		SortedSet<State> paths = new TreeSet<>();
-		SortedSet<State> previous = new TreeSet<>();
-		SortedSet<State> partial;
+		WorkingSet<State> ws = FIFOWorkingSet.mk();
 		paths.add(s);
+		ws.push(s);
 
-		while (!paths.equals(previous)) {
-			previous = new TreeSet<>(paths);
-			partial = new TreeSet<>();
-
-			for (State reached : paths)
-				for (Transition<T> t : getOutgoingTransitionsFrom(reached))
-					if (t.isEpsilonTransition())
-						partial.add(t.getDestination());
-
-			paths.addAll(partial);
-		}
+		while (!ws.isEmpty())
+			for (Transition<T> t : index().outgoing(ws.pop()))
+				if (t.isEpsilonTransition() && paths.add(t.getDestination()))
+					ws.push(t.getDestination());
 
 		return paths;
 	}
@@ -408,9 +881,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 			T sym) {
 		SortedSet<State> solution = new TreeSet<>();
 		for (State s : set)
-			for (Transition<T> t : getOutgoingTransitionsFrom(s))
-				if (t.getSymbol().equals(sym))
-					solution.add(t.getDestination());
+			solution.addAll(index().successors(s, sym));
 
 		return solution;
 	}
@@ -446,7 +917,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 		SortedSet<T> result = new TreeSet<>();
 
 		for (State s : states)
-			for (Transition<T> t : getOutgoingTransitionsFrom(s))
+			for (Transition<T> t : index().outgoing(s))
 				if (!t.getSymbol().isEpsilon())
 					result.add(t.getSymbol());
 
@@ -465,7 +936,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 			State state) {
 		SortedSet<T> result = new TreeSet<>();
 
-		for (Transition<T> t : getOutgoingTransitionsFrom(state))
+		for (Transition<T> t : index().outgoing(state))
 			if (!t.getSymbol().isEpsilon())
 				result.add(t.getSymbol());
 
@@ -491,7 +962,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 
 		deterministic = Optional.of(false);
 		for (State s : states) {
-			Set<Transition<T>> outgoingTranisitions = getOutgoingTransitionsFrom(s);
+			Set<Transition<T>> outgoingTranisitions = index().outgoing(s);
 			for (Transition<T> t : outgoingTranisitions)
 				if (t.getSymbol().isEpsilon())
 					return false;
@@ -579,7 +1050,11 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 			A other) {
 		if (this == other)
 			return (A) this;
+		return CACHE.compute("union", () -> unionAux(other), this, other);
+	}
 
+	private A unionAux(
+			A other) {
 		SortedSet<State> sts = new TreeSet<>();
 		SortedSet<Transition<T>> ts = new TreeSet<>();
 
@@ -661,7 +1136,7 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	public SortedSet<State> getNextStates(
 			State node) {
 		SortedSet<State> neighbors = new TreeSet<>();
-		for (Transition<T> edge : getOutgoingTransitionsFrom(node))
+		for (Transition<T> edge : index().outgoing(node))
 			neighbors.add(edge.getDestination());
 
 		return neighbors;
@@ -772,7 +1247,12 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 
 	/**
 	 * Returns the Automaton that accepts the language that is the intersection
-	 * between the language of {@code this} and another Automaton.
+	 * between the language of {@code this} and another Automaton. The product
+	 * of the two automata is explored on-the-fly starting from the pairs of
+	 * initial states, so that only reachable pairs of states are built (and
+	 * numbered in the order they are discovered). Pairs of transitions are
+	 * combined through
+	 * {@link #intersectSymbols(TransitionSymbol, TransitionSymbol)}.
 	 *
 	 * @param other the Automaton used for intersection with this.
 	 * 
@@ -786,31 +1266,64 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 		if (this == other)
 			return (A) this;
 
-		int code = 0;
-		Map<State, Pair<State, State>> stateMapping = new HashMap<>();
+		Automaton<A, T> o = other;
 		SortedSet<State> newStates = new TreeSet<>();
 		SortedSet<Transition<T>> newDelta = new TreeSet<Transition<T>>();
+		Map<Pair<State, State>, State> stateMapping = new HashMap<>();
+		WorkingSet<Pair<State, State>> ws = FIFOWorkingSet.mk();
+		Function<Pair<State, State>, State> mk = pair -> {
+			State s1 = pair.getLeft(), s2 = pair.getRight();
+			State s = new State(newStates.size(), s1.isInitial() && s2.isInitial(), s1.isFinal() && s2.isFinal());
+			newStates.add(s);
+			ws.push(pair);
+			return s;
+		};
+
+		for (State s1 : getInitialStates())
+			for (State s2 : o.getInitialStates())
+				stateMapping.computeIfAbsent(Pair.of(s1, s2), mk);
+
+		if (newStates.isEmpty())
+			return emptyLanguage();
 
-		for (State s1 : states)
-			for (State s2 : other.states) {
-				State s = new State(code++, s1.isInitial() && s2.isInitial(), s1.isFinal() && s2.isFinal());
-				stateMapping.put(s, Pair.of(s1, s2));
-				newStates.add(s);
-			}
-
-		for (Transition<T> t1 : transitions) {
-			for (Transition<T> t2 : other.transitions) {
-				if (t1.getSymbol().equals(t2.getSymbol())) {
-					State from = getStateFromPair(stateMapping, Pair.of(t1.getSource(), t2.getSource()));
-					State to = getStateFromPair(stateMapping, Pair.of(t1.getDestination(), t2.getDestination()));
-					newDelta.add(new Transition<T>(from, to, t1.getSymbol()));
+		while (!ws.isEmpty()) {
+			Pair<State, State> pair = ws.pop();
+			State from = stateMapping.get(pair);
+			for (Transition<T> t1 : index().outgoing(pair.getLeft()))
+				for (Transition<T> t2 : o.index().outgoing(pair.getRight())) {
+					T symbol = intersectSymbols(t1.getSymbol(), t2.getSymbol());
+					if (symbol != null) {
+						Pair<State, State> dest = Pair.of(t1.getDestination(), t2.getDestination());
+						newDelta.add(new Transition<T>(from, stateMapping.computeIfAbsent(dest, mk), symbol));
+					}
 				}
-			}
 		}
 
 		return from(newStates, newDelta).minimize();
 	}
 
+	/**
+	 * Yields the symbol recognized by the transition of the intersection of
+	 * two automata that is built from a transition of the first automaton
+	 * recognizing {@code first} and a transition of the second automaton
+	 * recognizing {@code second}, or {@code null} if the two transitions
+	 * cannot be combined. This method is used by {@link #intersection(Automaton)}
+	 * and {@link #isContained(Automaton)}, and yields {@code first} if the two
+	 * symbols are equal, and {@code null} otherwise.
+	 * 
+	 * @param first  the symbol recognized by the transition of the first
+	 *                   automaton
+	 * @param second the symbol recognized by the transition of the second
+	 *                   automaton
+	 * 
+	 * @return the symbol of the combined transition, or {@code null}
+	 */
+	protected T intersectSymbols(
+			T first,
+			T second) {
+		return first.equals(second) ? first : null;
+	}
+
 	/**
 	 * Given a pair of states, yields the state associated to the pair in the
 	 * given state mapping.
@@ -845,7 +1358,20 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	/**
 	 * Yields {@code true} if and only if {@code this} is contained into
 	 * {@code other}, that is, if the language recognized by the intersection
-	 * between {@code this} and the complement of {@code other} is empty.
+	 * between {@code this} and the complement of {@code other} is empty. <br>
+	 * <br>
+	 * The complement is never built: instead, the states of {@code this} are
+	 * explored together with the sets of states of {@code other} that can be
+	 * reached reading the same strings (that is, the states of the
+	 * determinization of {@code other}), stopping as soon as a final state of
+	 * {@code this} is paired with a set containing no final state. Pairs whose
+	 * set includes the one of an already explored pair with the same state of
+	 * {@code this} are discarded, since they cannot lead to a counterexample
+	 * that the latter cannot reach (that is, explored sets form an antichain).
+	 * Transitions are matched with
+	 * {@link #intersectSymbols(TransitionSymbol, TransitionSymbol)} against the
+	 * common alphabet of the two automata, as the intersection with the
+	 * complement would do.
 	 * 
 	 * @param other the other automaton
 	 * 
@@ -853,11 +1379,57 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public boolean isContained(
 			A other) {
-		SortedSet<T> commonAlphabet = commonAlphabet(other);
-		A complement = other.complement(commonAlphabet);
-		A intersection = intersection(complement);
-		A minimal = intersection.minimize();
-		return minimal.acceptsEmptyLanguage();
+		return CACHE.compute("isContained", () -> isContainedAux(other), this, other);
+	}
+
+	private boolean isContainedAux(
+			A other) {
+		Automaton<A, T> o = other;
+		SortedSet<T> sigma = commonAlphabet(other);
+		Map<State, List<Set<State>>> antichain = new HashMap<>();
+		WorkingSet<Pair<State, Set<State>>> ws = LIFOWorkingSet.mk();
+
+		Set<State> initial = o.epsilonClosure(o.getInitialStates());
+		for (State s : getInitialStates())
+			if (!explore(antichain, ws, s, initial))
+				return false;
+
+		while (!ws.isEmpty()) {
+			Pair<State, Set<State>> top = ws.pop();
+			for (Transition<T> t : index().outgoing(top.getLeft()))
+				if (t.isEpsilonTransition()) {
+					if (!explore(antichain, ws, t.getDestination(), top.getRight()))
+						return false;
+				} else
+					for (T symbol : sigma)
+						if (!symbol.isEpsilon() && intersectSymbols(t.getSymbol(), symbol) != null) {
+							Set<State> next = o.epsilonClosure(o.nextStatesNFA(top.getRight(), symbol));
+							if (!explore(antichain, ws, t.getDestination(), next))
+								return false;
+						}
+		}
+
+		return true;
+	}
+
+	private static boolean explore(
+			Map<State, List<Set<State>>> antichain,
+			WorkingSet<Pair<State, Set<State>>> ws,
+			State state,
+			Set<State> reached) {
+		if (state.isFinal() && !containsFinalState(reached))
+			// counterexample
+			return false;
+
+		List<Set<State>> minimal = antichain.computeIfAbsent(state, s -> new LinkedList<>());
+		for (Set<State> m : minimal)
+			if (reached.containsAll(m))
+				return true;
+
+		minimal.removeIf(m -> m.containsAll(reached));
+		minimal.add(reached);
+		ws.push(Pair.of(state, reached));
+		return true;
 	}
 
 	/**
@@ -1023,6 +1595,11 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 	 */
 	public A widening(
 			int n) {
+		return CACHE.compute("widening", () -> wideningAux(n), this, n);
+	}
+
+	private A wideningAux(
+			int n) {
 		Map<SortedSet<T>, SortedSet<State>> powerStates = new HashMap<>();
 		Map<State, SortedSet<T>> languages = new HashMap<>();
 		SortedSet<State> newStates = new TreeSet<>();
@@ -1203,9 +1780,9 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 		if (a.getInitialStates().isEmpty())
 			return EmptySet.INSTANCE;
 
-		// automaton that accepts only the empty string
+		// automaton that accepts only the empty string, or no string at all
 		if (a.states.size() == 1 && a.transitions.size() == 0)
-			return Atom.EPSILON;
+			return a.states.first().isFinal() ? Atom.EPSILON : EmptySet.INSTANCE;
 
 		// automaton with one state -> cyclic automaton
 		if (a.states.size() == 1) {
@@ -1318,8 +1895,8 @@ public abstract class Automaton<A extends Automaton<A, T>, T extends TransitionS
 			State s2) {
 		SortedSet<Transition<T>> result = new TreeSet<>();
 
-		for (Transition<T> t : this.transitions)
-			if (t.getSource().equals(s1) && t.getDestination().equals(s2))
+		for (Transition<T> t : index().outgoing(s1))
+			if (t.getDestination().equals(s2))
 				result.add(t);
 
 		return result;
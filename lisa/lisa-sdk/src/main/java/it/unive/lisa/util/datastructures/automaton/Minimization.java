@@ -0,0 +1,25 @@
+package it.unive.lisa.util.datastructures.automaton;
+
+/**
+ * The algorithms that can be used to minimize an {@link Automaton}.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ */
+public enum Minimization {
+
+	/**
+	 * Brzozowski's algorithm, that determinizes the reverse of the reverse of
+	 * the automaton. Its cost can be exponential in the number of states of
+	 * the automaton, even when the latter is deterministic.
+	 */
+	BRZOZOWSKI,
+
+	/**
+	 * Hopcroft's partition refinement algorithm, that runs in
+	 * {@code O(k n log n)} time on a deterministic automaton with {@code n}
+	 * states over {@code k} symbols. Minimal automata produced by this
+	 * algorithm have their states numbered in breadth-first order, and are
+	 * thus equal if they recognize the same language.
+	 */
+	HOPCROFT;
+}
@@ -43,6 +43,11 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 	 */
 	protected final boolean forceFullEvaluation;
 
+	/**
+	 * The observer to notify of the events of the fixpoint, if any.
+	 */
+	protected final FixpointObserver<G, N> observer;
+
 	/**
 	 * Builds a fixpoint for the given {@link Graph}.
 	 * 
@@ -54,8 +59,27 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 	public BackwardFixpoint(
 			G graph,
 			boolean forceFullEvaluation) {
+		this(graph, forceFullEvaluation, null);
+	}
+
+	/**
+	 * Builds a fixpoint for the given {@link Graph}.
+	 * 
+	 * @param graph               the source graph
+	 * @param forceFullEvaluation whether or not the fixpoint should evaluate
+	 *                                all nodes independently of the fixpoint
+	 *                                implementation
+	 * @param observer            the {@link FixpointObserver} to notify of the
+	 *                                events of the fixpoint (can be
+	 *                                {@code null})
+	 */
+	public BackwardFixpoint(
+			G graph,
+			boolean forceFullEvaluation,
+			FixpointObserver<G, N> observer) {
 		this.graph = graph;
 		this.forceFullEvaluation = forceFullEvaluation;
+		this.observer = observer;
 	}
 
 	/**
@@ -109,6 +133,24 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 			Fixpoint.FixpointImplementation<N, E, T> implementation,
 			Map<N, T> initialResult)
 			throws FixpointException {
+		if (observer == null)
+			return run(startingPoints, ws, implementation, initialResult);
+
+		observer.fixpointStarted(graph);
+		long start = System.nanoTime();
+		try {
+			return run(startingPoints, ws, implementation, initialResult);
+		} finally {
+			observer.fixpointEnded(graph, System.nanoTime() - start);
+		}
+	}
+
+	private Map<N, T> run(
+			Map<N, T> startingPoints,
+			WorkingSet<N> ws,
+			Fixpoint.FixpointImplementation<N, E, T> implementation,
+			Map<N, T> initialResult)
+			throws FixpointException {
 		Map<N, T> result = initialResult == null ? new HashMap<>(graph.getNodesCount()) : new HashMap<>(initialResult);
 		startingPoints.keySet().forEach(ws::push);
 
@@ -130,7 +172,7 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 				throw new FixpointException("'" + current + "' does not have an entry state");
 
 			try {
-				newApprox = implementation.semantics(current, exitstate);
+				newApprox = semantics(current, exitstate, implementation);
 			} catch (Exception e) {
 				throw new FixpointException(format(ERROR, "computing semantics", current, graph), e);
 			}
@@ -157,11 +199,44 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 			} catch (Exception e) {
 				throw new FixpointException(format(ERROR, "updating result", current, graph), e);
 			}
+
+			if (observer != null)
+				observer.workingSetSize(graph, ws.size());
 		}
 
 		return result;
 	}
 
+	/**
+	 * Computes the semantics of the given node through
+	 * {@link Fixpoint.FixpointImplementation#semantics(Object, Object)},
+	 * notifying the {@link #observer} if any.
+	 * 
+	 * @param node           the node under evaluation
+	 * @param exitstate      the exit state of the node
+	 * @param implementation the fixpoint implementation
+	 * 
+	 * @return the entry state of the node
+	 * 
+	 * @throws Exception if something goes wrong during the computation
+	 */
+	protected T semantics(
+			N node,
+			T exitstate,
+			Fixpoint.FixpointImplementation<N, E, T> implementation)
+			throws Exception {
+		if (observer == null)
+			return implementation.semantics(node, exitstate);
+
+		observer.beforeSemantics(graph, node);
+		long start = System.nanoTime();
+		try {
+			return implementation.semantics(node, exitstate);
+		} finally {
+			observer.afterSemantics(graph, node, System.nanoTime() - start);
+		}
+	}
+
 	/**
 	 * Yields the exit state for the given node.
 	 * 
@@ -196,13 +271,17 @@ public class BackwardFixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>,
 				}
 			}
 
-		T exitstate = startstate;
+		if (states.isEmpty())
+			return startstate;
+
+		T exitstate;
 		try {
-			for (T s : states)
-				if (exitstate == null)
-					exitstate = s;
-				else
-					exitstate = implementation.union(node, exitstate, s);
+			if (startstate != null)
+				exitstate = implementation.unionAll(node, startstate, states);
+			else if (states.size() == 1)
+				exitstate = states.get(0);
+			else
+				exitstate = implementation.unionAll(node, states.get(0), states.subList(1, states.size()));
 		} catch (Exception e) {
 			throw new FixpointException(format(ERROR, "creating entry state", node, graph), e);
 		}
@@ -42,6 +42,11 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 	 */
 	protected final boolean forceFullEvaluation;
 
+	/**
+	 * The observer to notify of the events of the fixpoint, if any.
+	 */
+	protected final FixpointObserver<G, N> observer;
+
 	/**
 	 * Builds a fixpoint for the given {@link Graph}.
 	 * 
@@ -53,8 +58,27 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 	public Fixpoint(
 			G graph,
 			boolean forceFullEvaluation) {
+		this(graph, forceFullEvaluation, null);
+	}
+
+	/**
+	 * Builds a fixpoint for the given {@link Graph}.
+	 * 
+	 * @param graph               the source graph
+	 * @param forceFullEvaluation whether or not the fixpoint should evaluate
+	 *                                all nodes independently of the fixpoint
+	 *                                implementation
+	 * @param observer            the {@link FixpointObserver} to notify of the
+	 *                                events of the fixpoint (can be
+	 *                                {@code null})
+	 */
+	public Fixpoint(
+			G graph,
+			boolean forceFullEvaluation,
+			FixpointObserver<G, N> observer) {
 		this.graph = graph;
 		this.forceFullEvaluation = forceFullEvaluation;
+		this.observer = observer;
 	}
 
 	/**
@@ -132,6 +156,37 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 				T right)
 				throws Exception;
 
+		/**
+		 * Given a node and a non-empty list of states, computes the union of
+		 * all of them, as {@link #union(Object, Object, Object)} would do when
+		 * applied pairwise.<br>
+		 * <br>
+		 * This callback is invoked in place of
+		 * {@link #union(Object, Object, Object)} when the entry state of a node
+		 * has to be computed by merging several states. The default
+		 * implementation folds the states through
+		 * {@link #union(Object, Object, Object)}, and implementers can override
+		 * it to merge all states in a single pass.
+		 * 
+		 * @param node   the node where the computation takes place
+		 * @param first  the first state
+		 * @param others the other states
+		 * 
+		 * @return the union of the states
+		 * 
+		 * @throws Exception if something goes wrong during the computation
+		 */
+		default T unionAll(
+				N node,
+				T first,
+				List<T> others)
+				throws Exception {
+			T result = first;
+			for (T other : others)
+				result = union(node, result, other);
+			return result;
+		}
+
 		/**
 		 * Given a node and two states, joins the states (i.e. least upper bound
 		 * <i>or</i> widening) together.<br>
@@ -233,6 +288,24 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 			FixpointImplementation<N, E, T> implementation,
 			Map<N, T> initialResult)
 			throws FixpointException {
+		if (observer == null)
+			return run(startingPoints, ws, implementation, initialResult);
+
+		observer.fixpointStarted(graph);
+		long start = System.nanoTime();
+		try {
+			return run(startingPoints, ws, implementation, initialResult);
+		} finally {
+			observer.fixpointEnded(graph, System.nanoTime() - start);
+		}
+	}
+
+	private Map<N, T> run(
+			Map<N, T> startingPoints,
+			WorkingSet<N> ws,
+			FixpointImplementation<N, E, T> implementation,
+			Map<N, T> initialResult)
+			throws FixpointException {
 		Map<N, T> result = initialResult == null ? new HashMap<>(graph.getNodesCount()) : new HashMap<>(initialResult);
 		startingPoints.keySet().forEach(ws::push);
 
@@ -254,7 +327,7 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 				throw new FixpointException("'" + current + "' does not have an entry state");
 
 			try {
-				newApprox = implementation.semantics(current, entrystate);
+				newApprox = semantics(current, entrystate, implementation);
 			} catch (Exception e) {
 				throw new FixpointException(format(ERROR, "computing semantics", current, graph), e);
 			}
@@ -281,11 +354,44 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 			} catch (Exception e) {
 				throw new FixpointException(format(ERROR, "updating result", current, graph), e);
 			}
+
+			if (observer != null)
+				observer.workingSetSize(graph, ws.size());
 		}
 
 		return result;
 	}
 
+	/**
+	 * Computes the semantics of the given node through
+	 * {@link FixpointImplementation#semantics(Object, Object)}, notifying the
+	 * {@link #observer} if any.
+	 * 
+	 * @param node           the node under evaluation
+	 * @param entrystate     the entry state of the node
+	 * @param implementation the fixpoint implementation
+	 * 
+	 * @return the exit state of the node
+	 * 
+	 * @throws Exception if something goes wrong during the computation
+	 */
+	protected T semantics(
+			N node,
+			T entrystate,
+			FixpointImplementation<N, E, T> implementation)
+			throws Exception {
+		if (observer == null)
+			return implementation.semantics(node, entrystate);
+
+		observer.beforeSemantics(graph, node);
+		long start = System.nanoTime();
+		try {
+			return implementation.semantics(node, entrystate);
+		} finally {
+			observer.afterSemantics(graph, node, System.nanoTime() - start);
+		}
+	}
+
 	/**
 	 * Yields the entry state for the given node.
 	 * 
@@ -320,13 +426,17 @@ public class Fixpoint<G extends Graph<G, N, E>, N extends Node<G, N, E>, E exten
 				}
 			}
 
-		T entrystate = startstate;
+		if (states.isEmpty())
+			return startstate;
+
+		T entrystate;
 		try {
-			for (T s : states)
-				if (entrystate == null)
-					entrystate = s;
-				else
-					entrystate = implementation.union(node, entrystate, s);
+			if (startstate != null)
+				entrystate = implementation.unionAll(node, startstate, states);
+			else if (states.size() == 1)
+				entrystate = states.get(0);
+			else
+				entrystate = implementation.unionAll(node, states.get(0), states.subList(1, states.size()));
 		} catch (Exception e) {
 			throw new FixpointException(format(ERROR, "creating entry state", node, graph), e);
 		}
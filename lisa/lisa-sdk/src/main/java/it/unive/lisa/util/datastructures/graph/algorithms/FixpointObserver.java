@@ -0,0 +1,147 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import it.unive.lisa.util.datastructures.graph.Graph;
+
+/**
+ * An observer of the execution of {@link Fixpoint}s and
+ * {@link BackwardFixpoint}s, that gets notified of the events happening while
+ * the fixpoint iterates over a graph. Observers can be used to profile
+ * analyses (e.g., counting the evaluations of each node, or measuring the time
+ * spent joining states). All callbacks do nothing by default. Fixpoints that
+ * are not given an observer do not compute any of the information passed to
+ * the callbacks, including timings.<br>
+ * <br>
+ * Since fixpoints can be nested (e.g., an interprocedural analysis computing
+ * the fixpoint of a callee while evaluating a call), callbacks for a graph can
+ * be received between {@link #beforeSemantics(Object, Object)} and
+ * {@link #afterSemantics(Object, Object, long)} of a node of another graph.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <G> the type of the observed {@link Graph}s
+ * @param <N> the type of the nodes of the observed graphs
+ */
+public interface FixpointObserver<G, N> {
+
+	/**
+	 * Callback invoked when a fixpoint over the given graph starts.
+	 * 
+	 * @param graph the graph
+	 */
+	default void fixpointStarted(
+			G graph) {
+	}
+
+	/**
+	 * Callback invoked when a fixpoint over the given graph ends, either
+	 * normally or due to an exception.
+	 * 
+	 * @param graph the graph
+	 * @param nanos the time spent in the fixpoint, in nanoseconds
+	 */
+	default void fixpointEnded(
+			G graph,
+			long nanos) {
+	}
+
+	/**
+	 * Callback invoked right before the semantics of the given node is
+	 * evaluated.
+	 * 
+	 * @param graph the graph containing the node
+	 * @param node  the node
+	 */
+	default void beforeSemantics(
+			G graph,
+			N node) {
+	}
+
+	/**
+	 * Callback invoked right after the semantics of the given node has been
+	 * evaluated, either normally or due to an exception.
+	 * 
+	 * @param graph the graph containing the node
+	 * @param node  the node
+	 * @param nanos the time spent evaluating the semantics, in nanoseconds
+	 */
+	default void afterSemantics(
+			G graph,
+			N node,
+			long nanos) {
+	}
+
+	/**
+	 * Callback invoked after the result of a new evaluation of the given node
+	 * has been joined with the one of a previous iteration.
+	 * 
+	 * @param graph    the graph containing the node
+	 * @param node     the node
+	 * @param widening whether the states have been joined through widening
+	 *                     instead of least upper bound
+	 * @param nanos    the time spent joining the states, in nanoseconds
+	 */
+	default void statesJoined(
+			G graph,
+			N node,
+			boolean widening,
+			long nanos) {
+	}
+
+	/**
+	 * Callback invoked after the result of a new evaluation of the given node
+	 * has been used to refine the one of a previous iteration, while
+	 * traversing a descending chain.
+	 * 
+	 * @param graph     the graph containing the node
+	 * @param node      the node
+	 * @param narrowing whether the states have been refined through narrowing
+	 *                      instead of greatest lower bound
+	 * @param nanos     the time spent refining the states, in nanoseconds
+	 */
+	default void statesRefined(
+			G graph,
+			N node,
+			boolean narrowing,
+			long nanos) {
+	}
+
+	/**
+	 * Callback invoked after each iteration of a fixpoint, with the number of
+	 * nodes waiting to be processed.
+	 * 
+	 * @param graph the graph
+	 * @param size  the size of the working set
+	 */
+	default void workingSetSize(
+			G graph,
+			int size) {
+	}
+
+	/**
+	 * Callback invoked when an analysis looks for an already computed result
+	 * of the given graph to use as result of a call, instead of computing a new
+	 * fixpoint over it.
+	 * 
+	 * @param graph the target graph of the call
+	 * @param hit   whether or not an already computed result has been used
+	 */
+	default void callResultLookup(
+			G graph,
+			boolean hit) {
+	}
+
+	/**
+	 * Callback invoked when the targets of the given call are looked up among
+	 * the ones already resolved by the call graph, before resolving them.
+	 * 
+	 * @param graph the graph containing the call
+	 * @param call  the node of the call being resolved
+	 * @param hit   whether or not the targets had already been resolved for
+	 *                  the same runtime types of the parameters
+	 */
+	default void callResolutionLookup(
+			G graph,
+			N call,
+			boolean hit) {
+	}
+}
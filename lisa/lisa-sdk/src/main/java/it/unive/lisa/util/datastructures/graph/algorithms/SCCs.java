@@ -8,6 +8,7 @@ import it.unive.lisa.util.datastructures.graph.Node;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -40,7 +41,7 @@ public class SCCs<G extends Graph<G, N, E>, N extends Node<G, N, E>, E extends E
 	 * Builds the SCCs. To run the algorithm, use {@link #build(Graph)}.
 	 */
 	public SCCs() {
-		sccs = new HashSet<>();
+		sccs = new LinkedHashSet<>();
 	}
 
 	/**
@@ -84,7 +85,8 @@ public class SCCs<G extends Graph<G, N, E>, N extends Node<G, N, E>, E extends E
 	 * returned value can also be accessed later through {@link #getSCCs()}.
 	 * Note that the returned value contains <b>all</b> components, including
 	 * trivial single-node ones. This also holds for the value returned by
-	 * {@link #getSCCs()}.
+	 * {@link #getSCCs()}. Components are iterated in reverse topological
+	 * order: each component comes after all the ones reachable from it.
 	 * 
 	 * @param graph the graph whose sccs are to be computed
 	 * 
@@ -98,9 +100,10 @@ public class SCCs<G extends Graph<G, N, E>, N extends Node<G, N, E>, E extends E
 		Map<N, Integer> indexes = new HashMap<>();
 		Map<N, Integer> lowlinks = new HashMap<>();
 		WorkingSet<N> ws = LIFOWorkingSet.mk();
+		Set<N> onStack = new HashSet<>();
 		for (N n : graph.getNodes())
 			if (!indexes.containsKey(n))
-				index = strongconnect(graph, indexes, lowlinks, index, ws, n);
+				index = strongconnect(graph, indexes, lowlinks, index, ws, onStack, n);
 
 		return sccs;
 	}
@@ -111,24 +114,27 @@ public class SCCs<G extends Graph<G, N, E>, N extends Node<G, N, E>, E extends E
 			Map<N, Integer> lowlinks,
 			int index,
 			WorkingSet<N> ws,
+			Set<N> onStack,
 			N v) {
 		indexes.put(v, index);
 		lowlinks.put(v, index);
 		index++;
 		ws.push(v);
+		onStack.add(v);
 
 		for (N w : graph.followersOf(v))
 			if (!indexes.containsKey(w)) {
-				index = strongconnect(graph, indexes, lowlinks, index, ws, w);
+				index = strongconnect(graph, indexes, lowlinks, index, ws, onStack, w);
 				lowlinks.put(v, Math.min(lowlinks.get(v), lowlinks.get(w)));
-			} else if (ws.getContents().contains(w))
+			} else if (onStack.contains(w))
 				lowlinks.put(v, Math.min(lowlinks.get(v), indexes.get(w)));
 
-		if (lowlinks.get(v) == indexes.get(v)) {
+		if (lowlinks.get(v).equals(indexes.get(v))) {
 			Set<N> scc = new HashSet<>();
 			N w = null;
 			do {
 				w = ws.pop();
+				onStack.remove(w);
 				scc.add(w);
 			} while (w != v);
 			sccs.add(scc);
@@ -0,0 +1,284 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import it.unive.lisa.util.datastructures.graph.Edge;
+import it.unive.lisa.util.datastructures.graph.Graph;
+import it.unive.lisa.util.datastructures.graph.Node;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An algorithm that computes a weak topological ordering (WTO) of a graph. A
+ * WTO is a hierarchical ordering of the nodes of the graph, where nodes that
+ * are part of a cycle are grouped in nested components, each identified by a
+ * <i>head</i>. Given an edge {@code u -> v}, {@code u} comes before {@code v}
+ * in the ordering unless {@code v} is the head of a component containing
+ * {@code u}: heads thus form a set of widening points that cuts every cycle of
+ * the graph. This is implemented through Bourdoncle's algorithm, visiting the
+ * graph starting from its entrypoints first and then from all other nodes not
+ * yet visited.<br>
+ * <br>
+ * Iterating over the nodes following the ordering, and stabilizing each
+ * component before moving past it, corresponds to Bourdoncle's <i>recursive
+ * iteration strategy</i>.
+ * 
+ * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+ * 
+ * @param <G> the type of the target {@link Graph}s
+ * @param <N> the type of {@link Node}s in the target graphs
+ * @param <E> the type of {@link Edge}s in the target graphs
+ * 
+ * @see <a href="https://doi.org/10.1007/BFb0039704">F. Bourdoncle, Efficient
+ *          chaotic iteration strategies with widenings</a>
+ */
+public class WeakTopologicalOrder<G extends Graph<G, N, E>, N extends Node<G, N, E>, E extends Edge<G, N, E>> {
+
+	private final List<N> order;
+
+	private final Map<N, Integer> positions;
+
+	private final Map<N, Integer> componentEnds;
+
+	/**
+	 * Builds the ordering. To run the algorithm, use {@link #build(Graph)}.
+	 */
+	public WeakTopologicalOrder() {
+		order = new ArrayList<>();
+		positions = new HashMap<>();
+		componentEnds = new HashMap<>();
+	}
+
+	/**
+	 * Yields the nodes of the graph passed to the last call to
+	 * {@link #build(Graph)}, sorted following the weak topological ordering.
+	 * 
+	 * @return the sorted nodes
+	 */
+	public List<N> getOrder() {
+		return Collections.unmodifiableList(order);
+	}
+
+	/**
+	 * Yields the position of the given node in the ordering, or {@code -1} if
+	 * the node was not part of the graph passed to the last call to
+	 * {@link #build(Graph)}.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return the position of the node
+	 */
+	public int getPosition(
+			N node) {
+		return positions.getOrDefault(node, -1);
+	}
+
+	/**
+	 * Yields the heads of the components of the ordering, that is, the nodes
+	 * where cycles of the graph are entered.
+	 * 
+	 * @return the heads
+	 */
+	public Set<N> getHeads() {
+		return Collections.unmodifiableSet(componentEnds.keySet());
+	}
+
+	/**
+	 * Yields {@code true} if the given node is the head of a component.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	public boolean isHead(
+			N node) {
+		return componentEnds.containsKey(node);
+	}
+
+	/**
+	 * Builds the weak topological ordering of the given graph. The returned
+	 * value can also be accessed later through {@link #getOrder()}.
+	 * 
+	 * @param graph the graph to sort
+	 * 
+	 * @return the nodes of the graph, sorted following the ordering
+	 */
+	public List<N> build(
+			G graph) {
+		order.clear();
+		positions.clear();
+		componentEnds.clear();
+
+		Map<N, Integer> dfn = new HashMap<>();
+		Deque<N> stack = new LinkedList<>();
+		LinkedList<Element<N>> partition = new LinkedList<>();
+		int[] num = new int[] { 0 };
+		for (N entry : graph.getEntrypoints())
+			if (dfn.getOrDefault(entry, 0) == 0)
+				visit(graph, entry, dfn, stack, num, partition);
+		for (N node : graph.getNodes())
+			if (dfn.getOrDefault(node, 0) == 0)
+				visit(graph, node, dfn, stack, num, partition);
+
+		for (Element<N> element : partition)
+			flatten(element);
+
+		return getOrder();
+	}
+
+	private void visit(
+			G graph,
+			N root,
+			Map<N, Integer> dfn,
+			Deque<N> stack,
+			int[] num,
+			LinkedList<Element<N>> partition) {
+		// the recursion of Bourdoncle's algorithm is simulated through an
+		// explicit stack of frames, to avoid overflowing the call stack on
+		// large graphs
+		Deque<Frame<N>> frames = new ArrayDeque<>();
+		frames.push(enter(graph, root, dfn, stack, num, partition));
+		while (!frames.isEmpty()) {
+			Frame<N> frame = frames.peek();
+			if (frame.followers.hasNext()) {
+				N follower = frame.followers.next();
+				int min = dfn.getOrDefault(follower, 0);
+				if (min == 0)
+					frames.push(enter(graph, follower, dfn, stack, num,
+							frame.nested == null ? frame.partition : frame.nested));
+				else if (frame.nested == null)
+					frame.update(min);
+				continue;
+			}
+
+			if (frame.nested != null)
+				// the followers of the head of a component have been visited
+				frame.partition.addFirst(new Element<>(frame.vertex, frame.nested));
+			else if (frame.head == dfn.get(frame.vertex)) {
+				dfn.put(frame.vertex, Integer.MAX_VALUE);
+				N element = stack.pop();
+				if (frame.loop) {
+					while (element != frame.vertex) {
+						dfn.put(element, 0);
+						element = stack.pop();
+					}
+					// the vertex is the head of a component: its followers
+					// are visited again to build the component
+					frame.nested = new LinkedList<>();
+					frame.followers = graph.followersOf(frame.vertex).iterator();
+					continue;
+				}
+				frame.partition.addFirst(new Element<>(frame.vertex, null));
+			}
+
+			frames.pop();
+			Frame<N> caller = frames.peek();
+			if (caller != null && caller.nested == null)
+				caller.update(frame.head);
+		}
+	}
+
+	private Frame<N> enter(
+			G graph,
+			N vertex,
+			Map<N, Integer> dfn,
+			Deque<N> stack,
+			int[] num,
+			LinkedList<Element<N>> partition) {
+		stack.push(vertex);
+		int head = ++num[0];
+		dfn.put(vertex, head);
+		return new Frame<>(vertex, graph.followersOf(vertex).iterator(), head, partition);
+	}
+
+	private void flatten(
+			Element<N> element) {
+		positions.put(element.node, order.size());
+		order.add(element.node);
+		if (element.nested == null)
+			return;
+
+		for (Element<N> nested : element.nested)
+			flatten(nested);
+		componentEnds.put(element.node, order.size() - 1);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		Deque<Integer> open = new LinkedList<>();
+		for (int i = 0; i < order.size(); i++) {
+			N node = order.get(i);
+			if (i > 0)
+				builder.append(" ");
+			if (isHead(node)) {
+				builder.append("(");
+				open.push(componentEnds.get(node));
+			}
+			builder.append(node);
+			while (!open.isEmpty() && open.peek() == i) {
+				builder.append(")");
+				open.pop();
+			}
+		}
+		return builder.toString();
+	}
+
+	private static class Frame<N> {
+
+		private final N vertex;
+
+		private final LinkedList<Element<N>> partition;
+
+		private Iterator<N> followers;
+
+		private int head;
+
+		private boolean loop;
+
+		/**
+		 * The elements of the component headed by {@link #vertex}, non-null
+		 * only while building such component.
+		 */
+		private LinkedList<Element<N>> nested;
+
+		private Frame(
+				N vertex,
+				Iterator<N> followers,
+				int head,
+				LinkedList<Element<N>> partition) {
+			this.vertex = vertex;
+			this.followers = followers;
+			this.head = head;
+			this.partition = partition;
+		}
+
+		private void update(
+				int min) {
+			if (min <= head) {
+				head = min;
+				loop = true;
+			}
+		}
+	}
+
+	private static class Element<N> {
+
+		private final N node;
+
+		private final List<Element<N>> nested;
+
+		private Element(
+				N node,
+				List<Element<N>> nested) {
+			this.node = node;
+			this.nested = nested;
+		}
+	}
+}
@@ -5,12 +5,14 @@ import it.unive.lisa.util.collections.CollectionUtilities.SortedSetCollector;
 import it.unive.lisa.util.datastructures.graph.Edge;
 import it.unive.lisa.util.datastructures.graph.Node;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -39,10 +41,23 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	private static final String EDGE_SIMPLIFY_ERROR = "Cannot simplify an edge with class ";
 
 	/**
-	 * The list of nodes.
+	 * The list of nodes. Removed nodes leave a {@code null} tombstone in their
+	 * slot, so that the offsets of the other nodes do not change: tombstones
+	 * are discarded by {@link #compact()}.
 	 */
 	private final List<N> nodes;
 
+	/**
+	 * Mapping from each node to its offset inside {@link #nodes}, kept aligned
+	 * with it on every insertion and removal.
+	 */
+	private final Map<N, Integer> positions;
+
+	/**
+	 * The number of tombstones in {@link #nodes}.
+	 */
+	private int removed;
+
 	/**
 	 * The list of indexes of the nodes that are cutoff points for sequential
 	 * execution, meaning that its follower in {@link #nodes} is not a follower
@@ -61,6 +76,13 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	private final E sequentialSingleton;
 
+	/**
+	 * The dense, offset-indexed adjacency of this list, lazily computed on the
+	 * first query for followers or predecessors and discarded whenever nodes or
+	 * edges are added or removed.
+	 */
+	private volatile Adjacency adjacency;
+
 	/**
 	 * Builds a new list. Offsets of nodes added to this list will be set
 	 * automatically.
@@ -89,7 +111,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 			E sequentialSingleton,
 			boolean computeOffsets) {
 		this.sequentialSingleton = sequentialSingleton;
-		nodes = new LinkedList<>();
+		nodes = new ArrayList<>();
+		positions = new HashMap<>();
 		cutoff = new HashSet<>();
 		extraEdges = new HashMap<>();
 	}
@@ -102,7 +125,9 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	public NodeList(
 			NodeList<G, N, E> other) {
 		sequentialSingleton = other.sequentialSingleton;
-		nodes = new LinkedList<>(other.nodes);
+		nodes = new ArrayList<>(other.nodes);
+		positions = new HashMap<>(other.positions);
+		removed = other.removed;
 		cutoff = new HashSet<>(other.cutoff);
 		extraEdges = new HashMap<>();
 		for (Entry<N, NodeEdges<G, N, E>> entry : other.extraEdges.entrySet())
@@ -130,13 +155,20 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 		if (size != 0)
 			cutoff.add(size - 1);
 		nodes.add(node);
+		positions.put(node, size);
+		adjacency = null;
 	}
 
 	/**
 	 * Removes the given node from the list, together with all its connected
 	 * edges. Note that to prevent its predecessor and its follower in the list
 	 * to become sequentially connected, a cutoff will be introduced if not
-	 * already present.
+	 * already present.<br>
+	 * <br>
+	 * The slot of the removed node is left as a tombstone, so that removals
+	 * do not shift the offsets of the other nodes: the list is compacted when
+	 * tombstones outnumber the nodes, making removals amortized constant
+	 * time.
 	 * 
 	 * @param node the node to remove
 	 */
@@ -145,38 +177,103 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 		if (!containsNode(node))
 			return;
 
-		int target = nodes.indexOf(node);
+		int target = indexOf(node);
 		NodeEdges<G, N, E> edges = extraEdges.get(node);
 		if (edges != null) {
 			Set<E> union = new HashSet<>(edges.ingoing);
 			union.addAll(edges.outgoing);
 			union.forEach(this::removeEdge);
-			cutoff.remove(target);
 		}
 
-		nodes.remove(node);
-		// need to shift all successive cutoff back by one
-		List<Integer> interesting = cutoff.stream().filter(i -> i >= target).sorted().collect(Collectors.toList());
-		cutoff.removeAll(interesting);
-		interesting.forEach(i -> cutoff.add(i - 1));
-
-		if (target != 0)
-			if (target != nodes.size()) { // we don't remove 1 since we want to
-											// compare wrt the 'old' position
-				N pred = nodes.get(target - 1);
-				N succ = nodes.get(target); // before was at target+1
-				NodeEdges<G, N, E> predEdges = extraEdges.get(pred);
-				if (predEdges != null) {
-					E seq = sequentialSingleton.newInstance(pred, succ);
-					if (predEdges.outgoing.contains(seq)) {
+		nodes.set(target, null);
+		positions.remove(node);
+		cutoff.remove(target);
+		removed++;
+		adjacency = null;
+		if (removed > nodes.size() / 2)
+			compact();
+	}
+
+	/**
+	 * Discards the tombstones of {@link #nodes}, re-numbering the remaining
+	 * nodes. Nodes that were separated only by tombstones become adjacent: a
+	 * cutoff is introduced between them, unless they were connected by an
+	 * explicit sequential edge, that is then encoded in the list.
+	 */
+	private void compact() {
+		if (removed == 0)
+			return;
+
+		List<N> live = new ArrayList<>(nodes.size() - removed);
+		Set<Integer> cuts = new HashSet<>();
+		int last = -1;
+		for (int i = 0; i < nodes.size(); i++) {
+			N node = nodes.get(i);
+			if (node == null)
+				continue;
+
+			if (last != -1) {
+				int pos = live.size() - 1;
+				if (last == i - 1) {
+					if (cutoff.contains(last))
+						cuts.add(pos);
+				} else {
+					N pred = live.get(pos);
+					E seq = sequentialSingleton.newInstance(pred, node);
+					NodeEdges<G, N, E> predEdges = extraEdges.get(pred);
+					if (predEdges != null && predEdges.outgoing.contains(seq))
 						// sequential edge can be encoded in the list
-						removeEdge(seq);
-						cutoff.remove(target - 1);
-					} else
-						cutoff.add(target - 1);
-				} else
-					cutoff.add(target - 1);
+						removeExtraEdge(seq);
+					else
+						cuts.add(pos);
+				}
 			}
+
+			live.add(node);
+			last = i;
+		}
+		if (last != -1 && cutoff.contains(last))
+			cuts.add(live.size() - 1);
+
+		nodes.clear();
+		nodes.addAll(live);
+		positions.clear();
+		for (int i = 0; i < nodes.size(); i++)
+			positions.put(nodes.get(i), i);
+		cutoff.clear();
+		cutoff.addAll(cuts);
+		removed = 0;
+		adjacency = null;
+	}
+
+	/**
+	 * Yields this list if it has no tombstones, or a compacted copy of it
+	 * otherwise. This is used to compare and print lists without modifying
+	 * them.
+	 * 
+	 * @return a list without tombstones
+	 */
+	private NodeList<G, N, E> compacted() {
+		if (removed == 0)
+			return this;
+		NodeList<G, N, E> copy = new NodeList<>(this);
+		copy.compact();
+		return copy;
+	}
+
+	/**
+	 * Yields {@code true} if the node at the given offset is sequentially
+	 * followed by the next node of {@link #nodes}, that is, if both slots hold
+	 * a node and no cutoff separates them.
+	 * 
+	 * @param idx the offset
+	 * 
+	 * @return {@code true} if that condition holds
+	 */
+	private boolean hasSequentialFollower(
+			int idx) {
+		return idx >= 0 && idx < nodes.size() - 1 && !cutoff.contains(idx)
+				&& nodes.get(idx) != null && nodes.get(idx + 1) != null;
 	}
 
 	/**
@@ -185,7 +282,13 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 * @return the collection of nodes
 	 */
 	public final Collection<N> getNodes() {
-		return new ArrayList<>(nodes);
+		if (removed == 0)
+			return new ArrayList<>(nodes);
+		List<N> result = new ArrayList<>(nodes.size() - removed);
+		for (N node : nodes)
+			if (node != null)
+				result.add(node);
+		return result;
 	}
 
 	/**
@@ -199,14 +302,15 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public void addEdge(
 			E e) {
-		int src = nodes.indexOf(e.getSource());
+		int src = indexOf(e.getSource());
 		if (src == -1)
 			throw new UnsupportedOperationException("The source node is not in the graph");
 
-		int dest = nodes.indexOf(e.getDestination());
+		int dest = indexOf(e.getDestination());
 		if (dest == -1)
 			throw new UnsupportedOperationException("The destination node is not in the graph");
 
+		adjacency = null;
 		if (e.isUnconditional() && src == dest - 1)
 			// just remove the cutoff
 			cutoff.remove(src);
@@ -223,17 +327,23 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public void removeEdge(
 			E e) {
-		int src = nodes.indexOf(e.getSource());
-		int dest = nodes.indexOf(e.getDestination());
+		int src = indexOf(e.getSource());
+		int dest = indexOf(e.getDestination());
 		if (src == -1 || dest == -1)
 			return;
 
+		adjacency = null;
 		if (e.isUnconditional() && src == dest - 1)
 			// just add the cutoff
 			cutoff.add(src);
 
 		// the edge might still be inside the extraEdges
 		// if this method has been invoked by removeNode
+		removeExtraEdge(e);
+	}
+
+	private void removeExtraEdge(
+			E e) {
 		NodeEdges<G, N, E> edges = extraEdges.get(e.getSource());
 		if (edges != null) {
 			edges.outgoing.remove(e);
@@ -262,8 +372,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	public final E getEdgeConnecting(
 			N source,
 			N destination) {
-		int src = nodes.indexOf(source);
-		int dest = nodes.indexOf(destination);
+		int src = indexOf(source);
+		int dest = indexOf(destination);
 		if (src == -1 || dest == -1)
 			return null;
 
@@ -293,8 +403,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	public Collection<E> getEdgesConnecting(
 			N source,
 			N destination) {
-		int src = nodes.indexOf(source);
-		int dest = nodes.indexOf(destination);
+		int src = indexOf(source);
+		int dest = indexOf(destination);
 		if (src == -1 || dest == -1)
 			return Collections.emptySet();
 
@@ -320,12 +430,12 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public final Collection<E> getIngoingEdges(
 			N node) {
-		int src = nodes.indexOf(node);
+		int src = indexOf(node);
 		if (src == -1)
 			return Collections.emptySet();
 
 		Set<E> result = new HashSet<>();
-		if (src != 0 && !cutoff.contains(src - 1))
+		if (hasSequentialFollower(src - 1))
 			result.add(sequentialSingleton.newInstance(nodes.get(src - 1), node));
 
 		NodeEdges<G, N, E> edges = extraEdges.get(node);
@@ -344,12 +454,12 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public final Collection<E> getOutgoingEdges(
 			N node) {
-		int src = nodes.indexOf(node);
+		int src = indexOf(node);
 		if (src == -1)
 			return Collections.emptySet();
 
 		Set<E> result = new HashSet<>();
-		if (src != nodes.size() - 1 && !cutoff.contains(src))
+		if (hasSequentialFollower(src))
 			result.add(sequentialSingleton.newInstance(node, nodes.get(src + 1)));
 
 		NodeEdges<G, N, E> edges = extraEdges.get(node);
@@ -370,7 +480,7 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 				.distinct()
 				.collect(Collectors.toSet());
 		for (int i = 0; i < nodes.size() - 1; i++)
-			if (!cutoff.contains(i))
+			if (hasSequentialFollower(i))
 				result.add(sequentialSingleton.newInstance(nodes.get(i), nodes.get(i + 1)));
 		return result;
 	}
@@ -388,19 +498,11 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public final Collection<N> followersOf(
 			N node) {
-		int src = nodes.indexOf(node);
+		int src = indexOf(node);
 		if (src == -1)
 			throw new IllegalArgumentException("'" + node + "' is not in the graph");
 
-		Set<N> result = new HashSet<>();
-		if (src != nodes.size() - 1 && !cutoff.contains(src))
-			result.add(nodes.get(src + 1));
-
-		NodeEdges<G, N, E> edges = extraEdges.get(node);
-		if (edges != null)
-			result.addAll(edges.outgoing.stream().map(Edge::getDestination).collect(Collectors.toSet()));
-
-		return result.isEmpty() ? Collections.emptySet() : result;
+		return getAdjacency().followers.get(src);
 	}
 
 	/**
@@ -416,19 +518,40 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public final Collection<N> predecessorsOf(
 			N node) {
-		int src = nodes.indexOf(node);
+		int src = indexOf(node);
 		if (src == -1)
 			throw new IllegalArgumentException("'" + node + "' is not in the graph");
 
-		Set<N> result = new HashSet<>();
-		if (src != 0 && !cutoff.contains(src - 1))
-			result.add(nodes.get(src - 1));
+		return getAdjacency().predecessors.get(src);
+	}
 
-		NodeEdges<G, N, E> edges = extraEdges.get(node);
-		if (edges != null)
-			result.addAll(edges.ingoing.stream().map(Edge::getSource).collect(Collectors.toSet()));
+	/**
+	 * Yields the offset of the given node inside {@link #nodes}, or {@code -1}
+	 * if the node is not part of this list.
+	 * 
+	 * @param node the node
+	 * 
+	 * @return the offset of the node
+	 */
+	private int indexOf(
+			N node) {
+		Integer idx = positions.get(node);
+		return idx == null ? -1 : idx;
+	}
 
-		return result.isEmpty() ? Collections.emptySet() : result;
+	/**
+	 * Yields the dense adjacency of this list, computing it if it has been
+	 * invalidated by a modification since the last query.
+	 * 
+	 * @return the adjacency
+	 */
+	private Adjacency getAdjacency() {
+		Adjacency adj = adjacency;
+		if (adj == null) {
+			adj = new Adjacency();
+			adjacency = adj;
+		}
+		return adj;
 	}
 
 	/**
@@ -513,6 +636,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 
 			removeNode(t);
 		}
+
+		compact();
 	}
 
 	/**
@@ -524,7 +649,7 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public boolean containsNode(
 			N node) {
-		return nodes.contains(node);
+		return positions.containsKey(node);
 	}
 
 	/**
@@ -536,8 +661,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 */
 	public boolean containsEdge(
 			E edge) {
-		int src = nodes.indexOf(edge.getSource());
-		int dest = nodes.indexOf(edge.getDestination());
+		int src = indexOf(edge.getSource());
+		int dest = indexOf(edge.getDestination());
 		if (src == -1 || dest == -1)
 			return false;
 
@@ -560,6 +685,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 
 	@Override
 	public int hashCode() {
+		if (removed != 0)
+			return compacted().hashCode();
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((cutoff == null) ? 0 : cutoff.hashCode());
@@ -578,6 +705,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 		if (getClass() != obj.getClass())
 			return false;
 		NodeList<?, ?, ?> other = (NodeList<?, ?, ?>) obj;
+		if (removed != 0 || other.removed != 0)
+			return compacted().equals(other.compacted());
 		if (cutoff == null) {
 			if (other.cutoff != null)
 				return false;
@@ -598,6 +727,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 
 	@Override
 	public String toString() {
+		if (removed != 0)
+			return compacted().toString();
 		StringBuilder res = new StringBuilder();
 		for (int i = 0; i < nodes.size(); i++) {
 
@@ -648,7 +779,7 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 		if (containsNode(root))
 			add.add(root);
 		else {
-			for (N n : nodes)
+			for (N n : getNodes())
 				if (n.equals(root))
 					add.add(n);
 		}
@@ -679,7 +810,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 * @return the entries nodes
 	 */
 	public Collection<N> getEntries() {
-		return nodes.stream().filter(nodes -> predecessorsOf(nodes).isEmpty()).collect(new SortedSetCollector<>());
+		return getNodes().stream().filter(nodes -> predecessorsOf(nodes).isEmpty())
+				.collect(new SortedSetCollector<>());
 	}
 
 	/**
@@ -689,7 +821,8 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	 * @return the exit nodes
 	 */
 	public Collection<N> getExits() {
-		return nodes.stream().filter(nodes -> followersOf(nodes).isEmpty()).collect(new SortedSetCollector<>());
+		return getNodes().stream().filter(nodes -> followersOf(nodes).isEmpty())
+				.collect(new SortedSetCollector<>());
 	}
 
 	/**
@@ -770,20 +903,20 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 			throws ProgramValidationException {
 		// all edges should be connected to statements inside the list
 		for (N node : nodes) {
-			NodeEdges<G, N, E> edges = extraEdges.get(node);
+			NodeEdges<G, N, E> edges = node == null ? null : extraEdges.get(node);
 			if (edges == null)
 				continue;
 
 			for (E in : edges.ingoing)
-				validateEdge(nodes, in);
+				validateEdge(in);
 
 			for (E out : edges.outgoing)
-				validateEdge(nodes, out);
+				validateEdge(out);
 
 			// no deadcode
-			int idx = nodes.indexOf(node);
+			int idx = indexOf(node);
 			if (edges.ingoing.isEmpty()
-					&& (idx == 0 || cutoff.contains(idx - 1))
+					&& !hasSequentialFollower(idx - 1)
 					&& !entrypoints.contains(node))
 				throw new ProgramValidationException(
 						"Unreachable node that is not marked as entrypoint: " + node);
@@ -791,17 +924,65 @@ public class NodeList<G extends CodeGraph<G, N, E>, N extends CodeNode<G, N, E>,
 	}
 
 	private void validateEdge(
-			Collection<N> nodes,
 			E edge)
 			throws ProgramValidationException {
-		if (!nodes.contains(edge.getSource()))
+		if (!containsNode(edge.getSource()))
 			throw new ProgramValidationException("Invalid edge: '" + edge
 					+ "' originates in a node that is not part of the graph");
-		else if (!nodes.contains(edge.getDestination()))
+		else if (!containsNode(edge.getDestination()))
 			throw new ProgramValidationException("Invalid edge: '" + edge
 					+ "' reaches a node that is not part of the graph");
 	}
 
+	/**
+	 * The offset-indexed followers and predecessors of the nodes of a list,
+	 * frozen at the time of creation. Each entry is an unmodifiable,
+	 * array-backed view that is shared among all callers.
+	 */
+	private final class Adjacency {
+		private final List<Collection<N>> followers;
+		private final List<Collection<N>> predecessors;
+
+		private Adjacency() {
+			int size = nodes.size();
+			List<Set<N>> follows = new ArrayList<>(size);
+			List<Set<N>> preds = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				follows.add(new LinkedHashSet<>());
+				preds.add(new LinkedHashSet<>());
+			}
+
+			for (int i = 0; i < size - 1; i++)
+				if (hasSequentialFollower(i)) {
+					follows.get(i).add(nodes.get(i + 1));
+					preds.get(i + 1).add(nodes.get(i));
+				}
+
+			for (Entry<N, NodeEdges<G, N, E>> entry : extraEdges.entrySet()) {
+				int idx = indexOf(entry.getKey());
+				for (E out : entry.getValue().outgoing)
+					follows.get(idx).add(out.getDestination());
+				for (E in : entry.getValue().ingoing)
+					preds.get(idx).add(in.getSource());
+			}
+
+			followers = freeze(follows);
+			predecessors = freeze(preds);
+		}
+
+		@SuppressWarnings("unchecked")
+		private List<Collection<N>> freeze(
+				List<Set<N>> sets) {
+			List<Collection<N>> result = new ArrayList<>(sets.size());
+			for (Set<N> set : sets)
+				if (set.isEmpty())
+					result.add(Collections.emptyList());
+				else
+					result.add(Collections.unmodifiableList(Arrays.asList((N[]) set.toArray(new CodeNode[set.size()]))));
+			return result;
+		}
+	}
+
 	/**
 	 * Utility class for representing the edges tied to a node, split into two
 	 * sets: ingoing and outgoing.
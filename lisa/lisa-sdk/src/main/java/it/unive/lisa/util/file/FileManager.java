@@ -1,9 +1,13 @@
 package it.unive.lisa.util.file;
 
+import it.unive.lisa.outputs.serializableGraph.BinaryGraph;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
@@ -19,7 +23,7 @@ import org.apache.commons.io.IOUtils;
 
 /**
  * A file manager that provides standard functionalities for communicating with
- * the file system.
+ * the file system. Files can be created concurrently by different threads.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
@@ -29,9 +33,9 @@ public class FileManager {
 
 	private final Collection<String> createdFiles = new TreeSet<>();
 
-	private boolean usedPlainCytoscape = false;
+	private volatile boolean usedPlainCytoscape = false;
 
-	private boolean usedCompoundCytoscape = false;
+	private volatile boolean usedCompoundCytoscape = false;
 
 	/**
 	 * Builds a new manager that will produce files in the given
@@ -196,6 +200,26 @@ public class FileManager {
 		mkOutputFile(cleanupCFGName(name) + ".html", false, filler);
 	}
 
+	/**
+	 * Creates a binary file with the given name, appending the
+	 * {@value BinaryGraph#EXTENSION} extension. The name will be stripped of
+	 * any characters that might cause problems in the file name. The given
+	 * name will be joined with the workdir used to initialize this file
+	 * manager, thus raising an exception if {@code name} is absolute.
+	 * {@code filler} will then be used to write to the stream.
+	 * 
+	 * @param name   the name of the file to create
+	 * @param filler the callback to write to the file
+	 * 
+	 * @throws IOException if something goes wrong while creating the file
+	 */
+	public void mkBinaryGraphFile(
+			String name,
+			StreamWriteAction filler)
+			throws IOException {
+		mkBinaryFile(null, cleanupCFGName(name) + "." + BinaryGraph.EXTENSION, filler);
+	}
+
 	/**
 	 * A functional interface for a write operation that can throw
 	 * {@link IOException}s.
@@ -216,6 +240,26 @@ public class FileManager {
 				throws IOException;
 	}
 
+	/**
+	 * A functional interface for a binary write operation that can throw
+	 * {@link IOException}s.
+	 * 
+	 * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
+	 */
+	@FunctionalInterface
+	public interface StreamWriteAction {
+		/**
+		 * Performs the operation on the given stream.
+		 * 
+		 * @param stream the object to use for writing
+		 * 
+		 * @throws IOException if an error happens while writing
+		 */
+		void perform(
+				OutputStream stream)
+				throws IOException;
+	}
+
 	/**
 	 * Creates a UTF-8 encoded file with the given name. If name is a path, all
 	 * missing directories will be created as well. The given name will be
@@ -262,20 +306,59 @@ public class FileManager {
 			boolean bom,
 			WriteAction filler)
 			throws IOException {
+		File file = prepareFile(path, name);
+		try (Writer writer = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8.newEncoder()))) {
+			if (bom)
+				writer.write('\ufeff');
+			filler.perform(writer);
+		}
+	}
+
+	/**
+	 * Creates a binary file with the given name. If name is a path, all
+	 * missing directories will be created as well. The given name will be
+	 * joined with the workdir used to initialize this file manager, thus
+	 * raising an exception if {@code name} is absolute. {@code filler} will
+	 * then be used to write to the stream.
+	 * 
+	 * @param path   the sub-path, relative to the workdir, where the file
+	 *                   should be created
+	 * @param name   the name of the file to create
+	 * @param filler the callback to write to the file
+	 * 
+	 * @throws IOException if something goes wrong while creating or writing to
+	 *                         the file
+	 */
+	public void mkBinaryFile(
+			String path,
+			String name,
+			StreamWriteAction filler)
+			throws IOException {
+		File file = prepareFile(path, name);
+		try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
+			filler.perform(stream);
+		}
+	}
+
+	private File prepareFile(
+			String path,
+			String name)
+			throws IOException {
 		File parent = workdir;
 		if (path != null)
 			parent = new File(workdir, cleanFileName(path, true));
 		File file = new File(parent, cleanFileName(name, false));
 
-		if (!parent.exists() && !parent.mkdirs())
+		// another thread might create the directories concurrently
+		if (!parent.exists() && !parent.mkdirs() && !parent.isDirectory())
 			throw new IOException("Unable to create directory structure for " + file);
 
-		createdFiles.add(FilenameUtils.separatorsToUnix(workdir.toPath().relativize(file.toPath()).toString()));
-		try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8.newEncoder())) {
-			if (bom)
-				writer.write('\ufeff');
-			filler.perform(writer);
+		String relative = FilenameUtils.separatorsToUnix(workdir.toPath().relativize(file.toPath()).toString());
+		synchronized (createdFiles) {
+			createdFiles.add(relative);
 		}
+		return file;
 	}
 
 	private final static int[] illegalChars = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19,
@@ -1,12 +1,19 @@
 package it.unive.lisa.util.numeric;
 
-import it.unive.lisa.util.collections.CollectionUtilities;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
 /**
  * A wrapper around {@link BigDecimal} to represent the mathematical concept of
- * a number, that can be also plus or minus infinity, in a convenient way.
+ * a number, that can be also plus or minus infinity, in a convenient way.<br>
+ * <br>
+ * Integral numbers that fit into a {@code long} are stored as primitive values
+ * instead of {@link BigDecimal}s, and arithmetic on them does not allocate
+ * intermediate objects. Results are promoted to {@link BigDecimal} only when
+ * an operation overflows or yields a non-integral value. The representation is
+ * canonical: a number whose {@link BigDecimal} form has scale {@code 0} and
+ * fits into a {@code long} is always stored as a primitive value, so that
+ * equality is unaffected by how a number has been built.
  * 
  * @author <a href="mailto:luca.negrini@unive.it">Luca Negrini</a>
  */
@@ -43,8 +50,31 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public static final MathNumber NaN = new MathNumber((byte) 3);
 
+	/**
+	 * Shared instances for small integral numbers.
+	 */
+	private static final MathNumber[] SMALL = new MathNumber[256];
+
+	static {
+		for (int i = 0; i < SMALL.length; i++)
+			SMALL[i] = i == 128 ? ZERO : i == 129 ? ONE : i == 127 ? MINUS_ONE : new MathNumber(i - 128);
+	}
+
+	/**
+	 * The value of this number, if it is finite and not {@link #small}.
+	 */
 	private final BigDecimal number;
 
+	/**
+	 * The value of this number, if {@link #small}.
+	 */
+	private final long value;
+
+	/**
+	 * Whether or not this number is stored in {@link #value}.
+	 */
+	private final boolean small;
+
 	/**
 	 * -1, 0, or 1 as this number is negative, zero, or positive. 3 means NaN.
 	 */
@@ -57,7 +87,9 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public MathNumber(
 			long number) {
-		this.number = BigDecimal.valueOf(number);
+		this.number = null;
+		this.value = number;
+		this.small = true;
 		this.sign = number > 0 ? (byte) 1 : number == 0 ? (byte) 0 : (byte) -1;
 	}
 
@@ -68,8 +100,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public MathNumber(
 			double number) {
-		this.number = BigDecimal.valueOf(number);
-		this.sign = number > 0 ? (byte) 1 : number == 0 ? (byte) 0 : (byte) -1;
+		this(BigDecimal.valueOf(number));
 	}
 
 	/**
@@ -79,23 +110,66 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public MathNumber(
 			BigDecimal number) {
-		this.number = number;
+		this.small = number.scale() == 0 && number.unscaledValue().bitLength() < Long.SIZE;
+		this.number = small ? null : number;
+		this.value = small ? number.longValue() : 0;
 		this.sign = number.signum() > 0 ? (byte) 1 : number.signum() == 0 ? (byte) 0 : (byte) -1;
 	}
 
 	private MathNumber(
 			byte sign) {
 		this.number = null;
+		this.value = 0;
+		this.small = false;
 		this.sign = sign;
 	}
 
+	/**
+	 * Yields a math number representing the given value, reusing a shared
+	 * instance if possible.
+	 * 
+	 * @param value the value
+	 * 
+	 * @return the math number
+	 */
+	private static MathNumber of(
+			long value) {
+		if (value >= -128 && value < 128)
+			return SMALL[(int) value + 128];
+		return new MathNumber(value);
+	}
+
+	/**
+	 * Yields the {@link BigDecimal} representation of this finite number.
+	 * 
+	 * @return the representation
+	 */
+	private BigDecimal big() {
+		return small ? BigDecimal.valueOf(value) : number;
+	}
+
+	/**
+	 * Compares the values of this number and of {@code other}, assuming that
+	 * both are finite.
+	 * 
+	 * @param other the other number
+	 * 
+	 * @return the comparison result
+	 */
+	private int compareFinite(
+			MathNumber other) {
+		if (small && other.small)
+			return Long.compare(value, other.value);
+		return big().compareTo(other.big());
+	}
+
 	/**
 	 * Yields {@code true} if this number is minus infinity.
 	 * 
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean isMinusInfinity() {
-		return number == null && isNegative();
+		return number == null && !small && isNegative();
 	}
 
 	/**
@@ -104,7 +178,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	 * @return {@code true} if that condition holds
 	 */
 	public boolean isPlusInfinity() {
-		return number == null && isPositive();
+		return number == null && !small && isPositive();
 	}
 
 	/**
@@ -136,7 +210,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public boolean is(
 			int n) {
-		return number != null && number.equals(new BigDecimal(n));
+		// numbers with scale 0 that fit into a long are always small
+		return small && value == n;
 	}
 
 	/**
@@ -213,7 +288,14 @@ public class MathNumber implements Comparable<MathNumber> {
 			// this is finite
 			return other;
 
-		return cached(new MathNumber(number.add(other.number)));
+		if (small && other.small) {
+			long r = value + other.value;
+			// overflow iff both operands have a sign different from the result
+			if (((value ^ r) & (other.value ^ r)) >= 0)
+				return of(r);
+		}
+
+		return cached(new MathNumber(big().add(other.big())));
 	}
 
 	/**
@@ -241,7 +323,15 @@ public class MathNumber implements Comparable<MathNumber> {
 			// this is finite
 			return other.multiply(MINUS_ONE);
 
-		return cached(new MathNumber(number.subtract(other.number)));
+		if (small && other.small) {
+			long r = value - other.value;
+			// overflow iff the operands have different signs, and the result
+			// has a sign different from the first one
+			if (((value ^ other.value) & (value ^ r)) >= 0)
+				return of(r);
+		}
+
+		return cached(new MathNumber(big().subtract(other.big())));
 	}
 
 	/**
@@ -277,7 +367,16 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (isZero() || other.isZero())
 			return ZERO;
 
-		return cached(new MathNumber(number.multiply(other.number)));
+		if (small && other.small) {
+			long hi = Math.multiplyHigh(value, other.value);
+			long lo = value * other.value;
+			// no overflow iff the high bits only extend the sign of the low
+			// ones
+			if ((hi == 0 && lo >= 0) || (hi == -1 && lo < 0))
+				return of(lo);
+		}
+
+		return cached(new MathNumber(big().multiply(other.big())));
 	}
 
 	/**
@@ -308,12 +407,23 @@ public class MathNumber implements Comparable<MathNumber> {
 			else
 				return MINUS_INFINITY;
 
-		return cached(new MathNumber(number.divide(other.number, 100, RoundingMode.HALF_UP).stripTrailingZeros()));
+		if (small && other.small && (value != Long.MIN_VALUE || other.value != -1) && value % other.value == 0) {
+			long q = value / other.value;
+			// trailing zeros are stripped by the general case, yielding a
+			// negative scale that cannot be represented as a long
+			if (q % 10 != 0)
+				return of(q);
+		}
+
+		return cached(new MathNumber(big().divide(other.big(), 100, RoundingMode.HALF_UP).stripTrailingZeros()));
 	}
 
 	@Override
 	public int compareTo(
 			MathNumber other) {
+		if (small && other.small)
+			return Long.compare(value, other.value);
+
 		if (equals(other))
 			return 0;
 
@@ -336,7 +446,7 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (isPlusInfinity() || other.isMinusInfinity())
 			return 1;
 
-		return CollectionUtilities.nullSafeCompare(true, number, other.number, BigDecimal::compareTo);
+		return compareFinite(other);
 	}
 
 	/**
@@ -359,7 +469,8 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (other.isMinusInfinity() || isPlusInfinity())
 			return other;
 
-		return cached(new MathNumber(number.min(other.number)));
+		// as BigDecimal.min, this is returned if the numbers are equal
+		return cached(compareFinite(other) <= 0 ? this : other);
 	}
 
 	/**
@@ -382,7 +493,8 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (isMinusInfinity() || other.isPlusInfinity())
 			return other;
 
-		return cached(new MathNumber(number.max(other.number)));
+		// as BigDecimal.max, this is returned if the numbers are equal
+		return cached(compareFinite(other) >= 0 ? this : other);
 	}
 
 	/**
@@ -394,6 +506,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public boolean leq(
 			MathNumber other) {
+		if (small && other.small)
+			return value <= other.value;
 		return this.max(other).equals(other);
 	}
 
@@ -406,6 +520,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public boolean gt(
 			MathNumber other) {
+		if (small && other.small)
+			return value > other.value;
 		return geq(other) && !equals(other);
 	}
 
@@ -418,6 +534,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public boolean lt(
 			MathNumber other) {
+		if (small && other.small)
+			return value < other.value;
 		return leq(other) && !equals(other);
 	}
 
@@ -430,6 +548,8 @@ public class MathNumber implements Comparable<MathNumber> {
 	 */
 	public boolean geq(
 			MathNumber other) {
+		if (small && other.small)
+			return value >= other.value;
 		return this.max(other).equals(this);
 	}
 
@@ -449,7 +569,10 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (isMinusInfinity())
 			return PLUS_INFINITY;
 
-		return cached(new MathNumber(number.abs()));
+		if (small && value != Long.MIN_VALUE)
+			return value < 0 ? of(-value) : this;
+
+		return cached(new MathNumber(big().abs()));
 	}
 
 	/**
@@ -461,7 +584,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	 * @return this number rounded up towards plus infinity
 	 */
 	public MathNumber roundUp() {
-		if (isInfinite() || isNaN())
+		if (isInfinite() || isNaN() || small)
 			return this;
 		return cached(new MathNumber(number.setScale(0, RoundingMode.CEILING)));
 	}
@@ -475,7 +598,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	 * @return this number rounded down towards minus infinity
 	 */
 	public MathNumber roundDown() {
-		if (isInfinite() || isNaN())
+		if (isInfinite() || isNaN() || small)
 			return this;
 		return cached(new MathNumber(number.setScale(0, RoundingMode.FLOOR)));
 	}
@@ -491,7 +614,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	public int toInt() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
-		return number.intValue();
+		return small ? (int) value : number.intValue();
 	}
 
 	/**
@@ -505,7 +628,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	public double toDouble() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
-		return number.doubleValue();
+		return small ? value : number.doubleValue();
 	}
 
 	/**
@@ -519,7 +642,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	public byte toByte() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
-		return number.byteValue();
+		return small ? (byte) value : number.byteValue();
 	}
 
 	/**
@@ -533,7 +656,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	public short toShort() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
-		return number.shortValue();
+		return small ? (short) value : number.shortValue();
 	}
 
 	/**
@@ -547,7 +670,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	public float toFloat() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
-		return number.floatValue();
+		return small ? value : number.floatValue();
 	}
 
 	/**
@@ -561,7 +684,7 @@ public class MathNumber implements Comparable<MathNumber> {
 	public long toLong() throws MathNumberConversionException {
 		if (isNaN() || isInfinite())
 			throw new MathNumberConversionException(this);
-		return number.longValue();
+		return small ? value : number.longValue();
 	}
 
 	@Override
@@ -569,6 +692,8 @@ public class MathNumber implements Comparable<MathNumber> {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((number == null) ? 0 : number.hashCode());
+		result = prime * result + Long.hashCode(value);
+		result = prime * result + (small ? 1231 : 1237);
 		result = prime * result + sign;
 		return result;
 	}
@@ -583,6 +708,8 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (getClass() != obj.getClass())
 			return false;
 		MathNumber other = (MathNumber) obj;
+		if (small != other.small || value != other.value)
+			return false;
 		if (number == null) {
 			if (other.number != null)
 				return false;
@@ -595,6 +722,8 @@ public class MathNumber implements Comparable<MathNumber> {
 
 	@Override
 	public String toString() {
+		if (small)
+			return Long.toString(value);
 		return isNaN() ? "NaN" : isMinusInfinity() ? "-Inf" : isPlusInfinity() ? "+Inf" : number.toString();
 	}
 
@@ -620,6 +749,6 @@ public class MathNumber implements Comparable<MathNumber> {
 		if (isMinusInfinity())
 			throw new IllegalStateException();
 
-		return number;
+		return big();
 	}
 }
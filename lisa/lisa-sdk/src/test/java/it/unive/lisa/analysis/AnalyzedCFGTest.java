@@ -1,22 +1,33 @@
 package it.unive.lisa.analysis;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 import it.unive.lisa.TestAbstractState;
 import it.unive.lisa.TestInterproceduralAnalysis;
 import it.unive.lisa.TestLanguageFeatures;
 import it.unive.lisa.TestTypeSystem;
 import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.interprocedural.InterproceduralAnalysis;
 import it.unive.lisa.interprocedural.UniqueScope;
 import it.unive.lisa.program.ClassUnit;
 import it.unive.lisa.program.Program;
 import it.unive.lisa.program.SourceCodeLocation;
 import it.unive.lisa.program.cfg.CFG;
 import it.unive.lisa.program.cfg.CodeMemberDescriptor;
+import it.unive.lisa.program.cfg.controlFlow.ControlFlowExtractor;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Ret;
 import it.unive.lisa.program.cfg.statement.Return;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.VariableRef;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import org.junit.Test;
 
 public class AnalyzedCFGTest {
@@ -137,4 +148,180 @@ public class AnalyzedCFGTest {
 		assertEquals(state, res.getAnalysisStateAfter(x));
 		assertEquals(state, res.getAnalysisStateBefore(x));
 	}
+
+	@Test
+	public void testDemandDrivenUnwinding() throws SemanticException {
+		SourceCodeLocation unknown = new SourceCodeLocation("unknown", 0, 0);
+		CFG cfg = new CFG(new CodeMemberDescriptor(unknown, unit, false, "loop"));
+		VariableRef source = new VariableRef(cfg, new SourceCodeLocation("unknown", 1, 0), "x");
+		VariableRef cond = new VariableRef(cfg, new SourceCodeLocation("unknown", 2, 0), "c");
+		VariableRef body1 = new VariableRef(cfg, new SourceCodeLocation("unknown", 3, 0), "y");
+		VariableRef body2 = new VariableRef(cfg, new SourceCodeLocation("unknown", 4, 0), "z");
+		Ret end = new Ret(cfg, new SourceCodeLocation("unknown", 5, 0));
+		cfg.addNode(source, true);
+		cfg.addNode(cond);
+		cfg.addNode(body1);
+		cfg.addNode(body2);
+		cfg.addNode(end);
+		cfg.addEdge(new SequentialEdge(source, cond));
+		cfg.addEdge(new TrueEdge(cond, body1));
+		cfg.addEdge(new SequentialEdge(body1, body2));
+		cfg.addEdge(new SequentialEdge(body2, cond));
+		cfg.addEdge(new FalseEdge(cond, end));
+		cfg.extractControlFlowStructures(new ControlFlowExtractor());
+		cfg.computeBasicBlocks();
+
+		AnalysisState<TestAbstractState> state = new AnalysisState<>(
+				new TestAbstractState(),
+				new ExpressionSet());
+
+		LiSAConfiguration conf = new LiSAConfiguration();
+		FixpointConfiguration full = new FixpointConfiguration(conf);
+		conf.demandDrivenUnwinding = true;
+		conf.unwindingCacheSize = 1;
+		FixpointConfiguration demand = new FixpointConfiguration(conf);
+
+		Map<Statement, AnalysisState<TestAbstractState>> entries = Map.of(source, state);
+		OptimizedAnalyzedCFG<TestAbstractState> reference = new OptimizedAnalyzedCFG<>(
+				cfg,
+				new UniqueScope(),
+				state,
+				entries,
+				Map.of(),
+				new TestInterproceduralAnalysis<>());
+		AnalysisState<TestAbstractState> condPost = reference.getUnwindedAnalysisStateAfter(cond, full);
+		AnalysisState<TestAbstractState> endPost = reference.getUnwindedAnalysisStateAfter(end, full);
+
+		// with the loop condition stored, blocks are unwinded one by one;
+		// without it, the cycle forces a full unwinding
+		List<Map<Statement, AnalysisState<TestAbstractState>>> stored = List.of(
+				Map.of(cond, condPost, end, endPost),
+				Map.of(end, endPost));
+		for (Map<Statement, AnalysisState<TestAbstractState>> results : stored) {
+			OptimizedAnalyzedCFG<TestAbstractState> expected = new OptimizedAnalyzedCFG<>(
+					cfg,
+					new UniqueScope(),
+					state,
+					entries,
+					results,
+					new TestInterproceduralAnalysis<>());
+			OptimizedAnalyzedCFG<TestAbstractState> actual = new OptimizedAnalyzedCFG<>(
+					cfg,
+					new UniqueScope(),
+					state,
+					entries,
+					results,
+					new TestInterproceduralAnalysis<>());
+
+			for (Statement st : List.of(body2, source, body1, body2, cond, end))
+				assertEquals(expected.getUnwindedAnalysisStateAfter(st, full),
+						actual.getUnwindedAnalysisStateAfter(st, demand));
+		}
+	}
+
+	@Test
+	public void testDemandDrivenUnwindingFromStoredResults() throws SemanticException {
+		SourceCodeLocation unknown = new SourceCodeLocation("unknown", 0, 0);
+		CFG cfg = new CFG(new CodeMemberDescriptor(unknown, unit, false, "straight"));
+		CountingRef first = new CountingRef(cfg, 1, "x");
+		CountingRef second = new CountingRef(cfg, 2, "y");
+		CountingRef stored = new CountingRef(cfg, 3, "z");
+		CountingRef third = new CountingRef(cfg, 4, "w");
+		Ret end = new Ret(cfg, new SourceCodeLocation("unknown", 5, 0));
+		cfg.addNode(first, true);
+		cfg.addNode(second);
+		cfg.addNode(stored);
+		cfg.addNode(third);
+		cfg.addNode(end);
+		cfg.addEdge(new SequentialEdge(first, second));
+		cfg.addEdge(new SequentialEdge(second, stored));
+		cfg.addEdge(new SequentialEdge(stored, third));
+		cfg.addEdge(new SequentialEdge(third, end));
+		cfg.computeBasicBlocks();
+
+		AnalysisState<TestAbstractState> state = new AnalysisState<>(
+				new TestAbstractState(),
+				new ExpressionSet());
+
+		LiSAConfiguration conf = new LiSAConfiguration();
+		FixpointConfiguration full = new FixpointConfiguration(conf);
+		conf.demandDrivenUnwinding = true;
+		FixpointConfiguration demand = new FixpointConfiguration(conf);
+
+		Map<Statement, AnalysisState<TestAbstractState>> entries = Map.of(first, state);
+		OptimizedAnalyzedCFG<TestAbstractState> reference = new OptimizedAnalyzedCFG<>(
+				cfg,
+				new UniqueScope(),
+				state,
+				entries,
+				Map.of(),
+				new TestInterproceduralAnalysis<>());
+		Map<Statement, AnalysisState<TestAbstractState>> results = Map.of(
+				stored,
+				reference.getUnwindedAnalysisStateAfter(stored, full));
+
+		OptimizedAnalyzedCFG<TestAbstractState> actual = new OptimizedAnalyzedCFG<>(
+				cfg,
+				new UniqueScope(),
+				state,
+				entries,
+				results,
+				new TestInterproceduralAnalysis<>());
+		List<CountingRef> refs = List.of(first, second, stored, third);
+		refs.forEach(ref -> ref.executions = 0);
+
+		// the statements following the stored one start from its result
+		assertEquals(reference.getUnwindedAnalysisStateAfter(third, full),
+				actual.getUnwindedAnalysisStateAfter(third, demand));
+		assertEquals(List.of(0, 0, 0, 1), refs.stream().map(ref -> ref.executions).collect(Collectors.toList()));
+
+		// while the preceding ones do not reach it
+		assertEquals(reference.getUnwindedAnalysisStateAfter(second, full),
+				actual.getUnwindedAnalysisStateAfter(second, demand));
+		assertEquals(List.of(1, 1, 0, 1), refs.stream().map(ref -> ref.executions).collect(Collectors.toList()));
+
+		// failures are not hidden behind a full unwinding
+		third.failing = true;
+		OptimizedAnalyzedCFG<TestAbstractState> failing = new OptimizedAnalyzedCFG<>(
+				cfg,
+				new UniqueScope(),
+				state,
+				entries,
+				results,
+				new TestInterproceduralAnalysis<>());
+		try {
+			failing.getUnwindedAnalysisStateAfter(end, demand);
+			fail("The failure of the semantics has not been propagated");
+		} catch (SemanticException e) {
+			assertEquals(CountingRef.FAILURE, e.getMessage());
+		}
+	}
+
+	private static class CountingRef extends VariableRef {
+
+		private static final String FAILURE = "failing semantics";
+
+		private int executions;
+
+		private boolean failing;
+
+		private CountingRef(
+				CFG cfg,
+				int line,
+				String name) {
+			super(cfg, new SourceCodeLocation("unknown", line, 0), name);
+		}
+
+		@Override
+		public <A extends AbstractState<A>> AnalysisState<A> forwardSemantics(
+				AnalysisState<A> entryState,
+				InterproceduralAnalysis<A> interprocedural,
+				StatementStore<A> expressions)
+				throws SemanticException {
+			executions++;
+			if (failing)
+				throw new SemanticException(FAILURE);
+			return super.forwardSemantics(entryState, interprocedural, expressions);
+		}
+	}
 }
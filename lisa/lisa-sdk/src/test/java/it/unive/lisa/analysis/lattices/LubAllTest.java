@@ -0,0 +1,116 @@
+package it.unive.lisa.analysis.lattices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import it.unive.lisa.analysis.Lattice;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.util.collections.PersistentHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+public class LubAllTest {
+
+	private static GenericSetLattice<Integer> set(
+			Integer... elements) {
+		return new GenericSetLattice<>(Set.of(elements));
+	}
+
+	private static GenericMapLattice<String, GenericSetLattice<Integer>> map(
+			Map<String, GenericSetLattice<Integer>> function) {
+		return new GenericMapLattice<>(set(0).top(), function);
+	}
+
+	private static <L extends Lattice<L>> L lubs(
+			L first,
+			Collection<L> others)
+			throws SemanticException {
+		L result = first;
+		for (L other : others)
+			result = result.lub(other);
+		return result;
+	}
+
+	private static <L extends Lattice<L>> L glbs(
+			L first,
+			Collection<L> others)
+			throws SemanticException {
+		L result = first;
+		for (L other : others)
+			result = result.glb(other);
+		return result;
+	}
+
+	@Test
+	public void testSets() throws SemanticException {
+		GenericSetLattice<Integer> first = set(1, 2, 3);
+		List<GenericSetLattice<Integer>> others = List.of(set(2, 3, 4), first.bottom(), set(3, 5), set(2, 3));
+		assertEquals(lubs(first, others), first.lubAll(others));
+		assertEquals(glbs(first, others), first.glbAll(others));
+		assertEquals(set(1, 2, 3, 4, 5), first.lubAll(others));
+	}
+
+	@Test
+	public void testBaseCases() throws SemanticException {
+		GenericSetLattice<Integer> first = set(1);
+		GenericSetLattice<Integer> top = first.top();
+		GenericSetLattice<Integer> bottom = first.bottom();
+		assertSame(first, first.lubAll(new ArrayList<>()));
+		assertSame(first, bottom.lubAll(List.of(first, bottom)));
+		assertSame(top, first.lubAll(List.of(set(2), top)));
+		assertSame(bottom, first.glbAll(List.of(set(1, 2), bottom)));
+		assertSame(first, top.glbAll(List.of(first, top)));
+	}
+
+	@Test
+	public void testFunctions() throws SemanticException {
+		GenericMapLattice<String, GenericSetLattice<Integer>> first = map(Map.of("x", set(1), "y", set(2)));
+		List<GenericMapLattice<String, GenericSetLattice<Integer>>> others = List.of(
+				map(Map.of("x", set(3))),
+				map(Map.of("y", set(4), "z", set(5))),
+				first.bottom(),
+				map(Map.of("x", set(1, 6), "y", set(2))));
+		assertEquals(lubs(first, others), first.lubAll(others));
+		assertEquals(glbs(first, others), first.glbAll(others));
+	}
+
+	@Test
+	public void testSharedFunctions() throws SemanticException {
+		Map<String, GenericSetLattice<Integer>> plain = new HashMap<>();
+		for (int i = 0; i < 100; i++)
+			plain.put("k" + i, set(i));
+		GenericMapLattice<String, GenericSetLattice<Integer>> base = map(new PersistentHashMap<>(plain));
+		GenericMapLattice<String, GenericSetLattice<Integer>> first = base.putState("k1", set(1, 2))
+				.putState("a", set(3));
+		GenericMapLattice<String, GenericSetLattice<Integer>> second = base.putState("k1", set(4))
+				.putState("k2", set(5))
+				.putState("b", set(6));
+		GenericMapLattice<String, GenericSetLattice<Integer>> third = base.putState("k3", set(7));
+
+		// the same functions backed by plain maps are lifted key by key
+		GenericMapLattice<String, GenericSetLattice<Integer>> firstPlain = map(new HashMap<>(first.getMap()));
+		GenericMapLattice<String, GenericSetLattice<Integer>> secondPlain = map(new HashMap<>(second.getMap()));
+		GenericMapLattice<String, GenericSetLattice<Integer>> thirdPlain = map(new HashMap<>(third.getMap()));
+
+		GenericMapLattice<String, GenericSetLattice<Integer>> lub = first.lub(second);
+		assertEquals(firstPlain.lub(secondPlain), lub);
+		assertEquals(firstPlain.glb(secondPlain), first.glb(second));
+		assertEquals(firstPlain.widening(secondPlain), first.widening(second));
+		assertEquals(set(1, 2, 4), lub.getState("k1"));
+		assertEquals(set(2, 5), lub.getState("k2"));
+		// mappings shared by both operands are not lifted
+		assertSame(base.getState("k50"), lub.getState("k50"));
+
+		List<GenericMapLattice<String, GenericSetLattice<Integer>>> others = List.of(second, third);
+		GenericMapLattice<String, GenericSetLattice<Integer>> all = first.lubAll(others);
+		assertEquals(firstPlain.lubAll(List.of(secondPlain, thirdPlain)), all);
+		assertEquals(lubs(first, others), all);
+		assertEquals(glbs(first, others), first.glbAll(others));
+		assertSame(base.getState("k50"), all.getState("k50"));
+	}
+}
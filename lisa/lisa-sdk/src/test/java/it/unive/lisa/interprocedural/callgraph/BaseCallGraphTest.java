@@ -1,14 +1,18 @@
 package it.unive.lisa.interprocedural.callgraph;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import it.unive.lisa.TestCallGraph;
 import it.unive.lisa.TestLanguageFeatures;
 import it.unive.lisa.TestTypeSystem;
+import it.unive.lisa.analysis.symbols.NameSymbol;
 import it.unive.lisa.analysis.symbols.SymbolAliasing;
 import it.unive.lisa.program.Application;
+import it.unive.lisa.program.ClassUnit;
+import it.unive.lisa.program.CompilationUnit;
 import it.unive.lisa.program.Program;
 import it.unive.lisa.program.ProgramValidationException;
 import it.unive.lisa.program.SourceCodeLocation;
@@ -17,6 +21,7 @@ import it.unive.lisa.program.cfg.CodeMember;
 import it.unive.lisa.program.cfg.CodeMemberDescriptor;
 import it.unive.lisa.program.cfg.Parameter;
 import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.fixpoints.FixpointMetrics;
 import it.unive.lisa.program.cfg.statement.Ret;
 import it.unive.lisa.program.cfg.statement.VariableRef;
 import it.unive.lisa.program.cfg.statement.call.CFGCall;
@@ -27,9 +32,11 @@ import it.unive.lisa.type.BooleanType;
 import it.unive.lisa.type.StringType;
 import it.unive.lisa.type.Type;
 import it.unive.lisa.type.TypeSystem;
+import it.unive.lisa.type.UnitType;
 import it.unive.lisa.type.Untyped;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import org.junit.Test;
 
@@ -75,6 +82,39 @@ public class BaseCallGraphTest {
 		}
 	}
 
+	private final class ClsType implements UnitType {
+
+		private final ClassUnit unit;
+
+		private ClsType(
+				ClassUnit unit) {
+			this.unit = unit;
+		}
+
+		@Override
+		public CompilationUnit getUnit() {
+			return unit;
+		}
+
+		@Override
+		public Type commonSupertype(
+				Type other) {
+			return canBeAssignedTo(other) ? other : Untyped.INSTANCE;
+		}
+
+		@Override
+		public boolean canBeAssignedTo(
+				Type other) {
+			return other instanceof ClsType && unit.isInstanceOf(((ClsType) other).unit);
+		}
+
+		@Override
+		public Set<Type> allInstances(
+				TypeSystem types) {
+			return Collections.singleton(this);
+		}
+	}
+
 	/**
 	 * @see <a href="https://github.com/lisa-analyzer/lisa/issues/145">#145</a>
 	 */
@@ -168,4 +208,310 @@ public class BaseCallGraphTest {
 		assertEquals(1, callees.size());
 		assertSame(cfg2_2, callees.iterator().next());
 	}
+
+	private static CFGCall call(
+			CFG caller,
+			CFG target,
+			int line) {
+		CodeMemberDescriptor descr = caller.getDescriptor();
+		return new CFGCall(caller, new SourceCodeLocation(descr.getName(), line, 0), CallType.STATIC,
+				descr.getUnit().getName(), target.getDescriptor().getName(), List.of(target));
+	}
+
+	@Test
+	public void testRecursionIndex() throws CallGraphConstructionException {
+		CallGraph cg = new TestCallGraph();
+		Program p = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+
+		CFG cfg1 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake1", 0, 0), p, false, "cfg1"));
+		CFG cfg2 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake2", 0, 0), p, false, "cfg2"));
+		CFG cfg3 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake3", 0, 0), p, false, "cfg3"));
+		CFG cfg4 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake4", 0, 0), p, false, "cfg4"));
+		p.addCodeMember(cfg1);
+		p.addCodeMember(cfg2);
+		p.addCodeMember(cfg3);
+		p.addCodeMember(cfg4);
+		cg.init(new Application(p));
+
+		CFGCall c12 = call(cfg1, cfg2, 1);
+		CFGCall c23 = call(cfg2, cfg3, 1);
+		CFGCall c34 = call(cfg3, cfg4, 1);
+		CFGCall c42 = call(cfg4, cfg2, 1);
+		CFGCall c33 = call(cfg3, cfg3, 2);
+
+		cg.registerCall(c12);
+		cg.registerCall(c23);
+		cg.registerCall(c34);
+		assertFalse(cg.isRecursive(c12));
+		assertFalse(cg.isRecursive(c23));
+		assertTrue(cg.getRecursions().isEmpty());
+
+		cg.registerCall(c42);
+		assertFalse(cg.isRecursive(c12));
+		assertTrue(cg.isRecursive(c23));
+		assertTrue(cg.isRecursive(c34));
+		assertTrue(cg.isRecursive(c42));
+		assertEquals(Set.of(Set.of(cfg2, cfg3, cfg4)), cg.getRecursions());
+		assertSame(cg.getRecursions(), cg.getRecursions());
+		assertEquals(1, cg.getRecursionsContaining(cfg3).size());
+		assertTrue(cg.getRecursionsContaining(cfg1).isEmpty());
+
+		// callees come first, and the index is kept until components change
+		List<Collection<CodeMember>> components = cg.getComponents();
+		assertEquals(List.of(Set.of(cfg2, cfg3, cfg4), Set.of(cfg1)), components);
+		assertSame(components, cg.getComponents());
+		assertSame(cg.getComponentOf(cfg2), cg.getComponentOf(cfg4));
+		assertEquals(Set.of(cfg1), cg.getComponentOf(cfg1));
+		cg.registerCall(c12);
+		assertSame(components, cg.getComponents());
+
+		// not registered yet, but still recursive
+		assertTrue(cg.isRecursive(c33));
+		cg.registerCall(c33);
+		assertTrue(cg.isRecursive(c33));
+		assertSame(components, cg.getComponents());
+	}
+
+	@Test
+	public void testIncrementalRecursions() throws CallGraphConstructionException {
+		CallGraph cg = new TestCallGraph();
+		Program p = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+
+		CFG[] cfgs = new CFG[6];
+		for (int i = 0; i < cfgs.length; i++) {
+			cfgs[i] = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake" + i, 0, 0), p, false,
+					"cfg" + i));
+			p.addCodeMember(cfgs[i]);
+		}
+		cg.init(new Application(p));
+		CallGraphNode[] nodes = new CallGraphNode[cfgs.length];
+		for (int i = 0; i < cfgs.length; i++) {
+			nodes[i] = new CallGraphNode(cg, cfgs[i]);
+			cg.addNode(nodes[i]);
+		}
+
+		// a chain 0 -> 1 -> ... -> 5, queried after each new edge
+		for (int i = 0; i < cfgs.length - 1; i++) {
+			cg.addEdge(new CallGraphEdge(nodes[i], nodes[i + 1]));
+			for (int j = 0; j <= i; j++)
+				assertFalse(cg.isRecursive(call(cfgs[j], cfgs[j + 1], 1)));
+			assertTrue(cg.getRecursions().isEmpty());
+		}
+
+		// 3 -> 1 closes the cycle 1 -> 2 -> 3 -> 1
+		cg.addEdge(new CallGraphEdge(nodes[3], nodes[1]));
+		assertTrue(cg.isRecursive(call(cfgs[1], cfgs[2], 1)));
+		assertTrue(cg.isRecursive(call(cfgs[3], cfgs[1], 1)));
+		assertFalse(cg.isRecursive(call(cfgs[0], cfgs[1], 1)));
+		assertFalse(cg.isRecursive(call(cfgs[3], cfgs[4], 1)));
+		assertEquals(Set.of(cfgs[1], cfgs[2], cfgs[3]), cg.getComponentOf(cfgs[2]));
+		Collection<CodeMember> first = cg.getComponentOf(cfgs[1]);
+
+		// edges that do not close a cycle leave the components untouched
+		cg.addEdge(new CallGraphEdge(nodes[0], nodes[5]));
+		cg.addEdge(new CallGraphEdge(nodes[2], nodes[4]));
+		assertSame(first, cg.getComponentOf(cfgs[3]));
+		assertFalse(cg.isRecursive(call(cfgs[2], cfgs[4], 1)));
+
+		// 5 -> 2 merges 4 and 5 into the existing component, but not 0
+		cg.addEdge(new CallGraphEdge(nodes[5], nodes[2]));
+		assertTrue(cg.isRecursive(call(cfgs[2], cfgs[4], 1)));
+		assertTrue(cg.isRecursive(call(cfgs[4], cfgs[5], 1)));
+		assertFalse(cg.isRecursive(call(cfgs[0], cfgs[5], 1)));
+		assertEquals(Set.of(cfgs[1], cfgs[2], cfgs[3], cfgs[4], cfgs[5]), cg.getComponentOf(cfgs[1]));
+		assertSame(cg.getComponentOf(cfgs[1]), cg.getComponentOf(cfgs[5]));
+		assertEquals(Set.of(cfgs[0]), cg.getComponentOf(cfgs[0]));
+		assertEquals(1, cg.getRecursions().size());
+
+		// self loops are recursions on their own
+		cg.addEdge(new CallGraphEdge(nodes[0], nodes[0]));
+		assertTrue(cg.isRecursive(call(cfgs[0], cfgs[0], 2)));
+		assertEquals(2, cg.getRecursions().size());
+		assertEquals(List.of(Set.of(cfgs[1], cfgs[2], cfgs[3], cfgs[4], cfgs[5]), Set.of(cfgs[0])),
+				cg.getComponents());
+	}
+
+	@Test
+	public void testComponentsReordering() throws CallGraphConstructionException {
+		CallGraph cg = new TestCallGraph();
+		Program p = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+
+		CFG[] cfgs = new CFG[4];
+		CallGraphNode[] nodes = new CallGraphNode[cfgs.length];
+		for (int i = 0; i < cfgs.length; i++) {
+			cfgs[i] = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake" + i, 0, 0), p, false,
+					"cfg" + i));
+			p.addCodeMember(cfgs[i]);
+		}
+		cg.init(new Application(p));
+		for (int i = 0; i < cfgs.length; i++) {
+			nodes[i] = new CallGraphNode(cg, cfgs[i]);
+			cg.addNode(nodes[i]);
+		}
+
+		// edges against the order in which nodes have been added
+		cg.addEdge(new CallGraphEdge(nodes[3], nodes[2]));
+		cg.addEdge(new CallGraphEdge(nodes[2], nodes[1]));
+		cg.addEdge(new CallGraphEdge(nodes[1], nodes[0]));
+		assertTrue(cg.getRecursions().isEmpty());
+		List<Collection<CodeMember>> components = cg.getComponents();
+		assertEquals(List.of(Set.of(cfgs[0]), Set.of(cfgs[1]), Set.of(cfgs[2]), Set.of(cfgs[3])), components);
+
+		// edges that respect the order leave the components untouched
+		cg.addEdge(new CallGraphEdge(nodes[3], nodes[0]));
+		assertSame(components, cg.getComponents());
+
+		// 0 -> 2 closes the cycle 2 -> 1 -> 0 -> 2
+		cg.addEdge(new CallGraphEdge(nodes[0], nodes[2]));
+		assertEquals(Set.of(Set.of(cfgs[0], cfgs[1], cfgs[2])), cg.getRecursions());
+		assertEquals(List.of(Set.of(cfgs[0], cfgs[1], cfgs[2]), Set.of(cfgs[3])), cg.getComponents());
+		assertSame(cg.getComponentOf(cfgs[0]), cg.getComponents().get(0));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAliasedTargets() throws CallResolutionException, ProgramValidationException,
+			CallGraphConstructionException {
+		CallGraph cg = new TestCallGraph();
+		Program p = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+
+		CFG cfg1 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake1", 0, 0), p, false, "cfg1"));
+		UnresolvedCall call = new UnresolvedCall(cfg1, new SourceCodeLocation("fake1", 1, 0), CallType.STATIC,
+				p.getName(), "foo");
+		cfg1.addNode(call, true);
+		Ret ret = new Ret(cfg1, new SourceCodeLocation("fake1", 3, 0));
+		cfg1.addNode(ret, false);
+		cfg1.addEdge(new SequentialEdge(call, ret));
+
+		CFG cfg2 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake2", 0, 0), p, false, "cfg2"));
+		cfg2.addNode(new Ret(cfg2, new SourceCodeLocation("fake2", 1, 0)), true);
+		p.addCodeMember(cfg1);
+		p.addCodeMember(cfg2);
+		p.getFeatures().getProgramValidationLogic().validateAndFinalize(p);
+		cg.init(new Application(p));
+
+		// without aliasing, there is no code member named foo
+		Call resolved = cg.resolve(call, new Set[0], new SymbolAliasing());
+		assertFalse(resolved instanceof CFGCall);
+
+		UnresolvedCall call2 = new UnresolvedCall(cfg1, new SourceCodeLocation("fake1", 2, 0), CallType.STATIC,
+				p.getName(), "foo");
+		SymbolAliasing aliasing = new SymbolAliasing().alias(new NameSymbol("cfg2"), new NameSymbol("foo"));
+		resolved = cg.resolve(call2, new Set[0], aliasing);
+		assertEquals(Collections.singleton(cfg2), ((CFGCall) resolved).getTargets());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testResolutionLookups() throws CallResolutionException, ProgramValidationException,
+			CallGraphConstructionException {
+		CallGraph cg = new TestCallGraph();
+		FixpointMetrics metrics = new FixpointMetrics();
+		cg.setObserver(metrics);
+		Program p = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+
+		CFG cfg1 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake1", 0, 0), p, false, "cfg1"));
+		UnresolvedCall call = new UnresolvedCall(cfg1, new SourceCodeLocation("fake1", 1, 0), CallType.STATIC,
+				p.getName(), "cfg2");
+		cfg1.addNode(call, true);
+		Ret ret = new Ret(cfg1, new SourceCodeLocation("fake1", 2, 0));
+		cfg1.addNode(ret, false);
+		cfg1.addEdge(new SequentialEdge(call, ret));
+
+		CFG cfg2 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake2", 0, 0), p, false, "cfg2"));
+		cfg2.addNode(new Ret(cfg2, new SourceCodeLocation("fake2", 1, 0)), true);
+		p.addCodeMember(cfg1);
+		p.addCodeMember(cfg2);
+		p.getFeatures().getProgramValidationLogic().validateAndFinalize(p);
+		cg.init(new Application(p));
+
+		Call first = cg.resolve(call, new Set[0], new SymbolAliasing());
+		assertSame(first, cg.resolve(call, new Set[0], new SymbolAliasing()));
+		assertEquals(1, metrics.getCallResolutionHits());
+		assertEquals(1, metrics.getCallResolutionMisses());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testOverriddenNameMatching() throws CallResolutionException, ProgramValidationException,
+			CallGraphConstructionException {
+		CallGraph cg = new TestCallGraph() {
+			@Override
+			public boolean matchCodeMemberName(
+					UnresolvedCall call,
+					String qualifier,
+					String name) {
+				// case-insensitive language
+				return name.equalsIgnoreCase(call.getTargetName());
+			}
+		};
+		Program p = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+
+		CFG cfg1 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake1", 0, 0), p, false, "cfg1"));
+		UnresolvedCall call = new UnresolvedCall(cfg1, new SourceCodeLocation("fake1", 1, 0), CallType.STATIC,
+				p.getName(), "foo");
+		cfg1.addNode(call, true);
+		Ret ret = new Ret(cfg1, new SourceCodeLocation("fake1", 2, 0));
+		cfg1.addNode(ret, false);
+		cfg1.addEdge(new SequentialEdge(call, ret));
+
+		CFG cfg2 = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("fake2", 0, 0), p, false, "FOO"));
+		cfg2.addNode(new Ret(cfg2, new SourceCodeLocation("fake2", 1, 0)), true);
+		p.addCodeMember(cfg1);
+		p.addCodeMember(cfg2);
+		p.getFeatures().getProgramValidationLogic().validateAndFinalize(p);
+		cg.init(new Application(p));
+
+		// the index by name must not hide members matched by the override
+		Call resolved = cg.resolve(call, new Set[0], new SymbolAliasing());
+		assertEquals(Collections.singleton(cfg2), ((CFGCall) resolved).getTargets());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testInstanceTargets() throws CallResolutionException, ProgramValidationException,
+			CallGraphConstructionException {
+		CallGraph cg = new TestCallGraph();
+		Program p = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+		SourceCodeLocation loc = new SourceCodeLocation("fake", 0, 0);
+
+		ClassUnit a = new ClassUnit(loc, p, "A", false);
+		ClassUnit b = new ClassUnit(loc, p, "B", false);
+		b.addAncestor(a);
+		ClsType aType = new ClsType(a);
+		ClsType bType = new ClsType(b);
+		p.addUnit(a);
+		p.addUnit(b);
+
+		CFG am = new CFG(new CodeMemberDescriptor(loc, a, true, "m", new Parameter(loc, "this", aType)));
+		CFG an = new CFG(new CodeMemberDescriptor(loc, a, true, "n", new Parameter(loc, "this", aType)));
+		CFG bm = new CFG(new CodeMemberDescriptor(loc, b, true, "m", new Parameter(loc, "this", bType)));
+		for (CFG cfg : List.of(am, an, bm)) {
+			cfg.addNode(new Ret(cfg, loc), true);
+			((CompilationUnit) cfg.getDescriptor().getUnit()).addInstanceCodeMember(cfg);
+		}
+
+		CFG main = new CFG(new CodeMemberDescriptor(loc, p, false, "main"));
+		UnresolvedCall callM = new UnresolvedCall(main, new SourceCodeLocation("main", 1, 0), CallType.INSTANCE,
+				"", "m", new VariableRef(main, new SourceCodeLocation("main", 1, 1), "x", aType));
+		UnresolvedCall callN = new UnresolvedCall(main, new SourceCodeLocation("main", 2, 0), CallType.INSTANCE,
+				"", "n", new VariableRef(main, new SourceCodeLocation("main", 2, 1), "y", bType));
+		main.addNode(callM, true);
+		main.addNode(callN);
+		main.addEdge(new SequentialEdge(callM, callN));
+		Ret ret = new Ret(main, new SourceCodeLocation("main", 3, 0));
+		main.addNode(ret);
+		main.addEdge(new SequentialEdge(callN, ret));
+		p.addCodeMember(main);
+		p.getFeatures().getProgramValidationLogic().validateAndFinalize(p);
+		cg.init(new Application(p));
+
+		CFGCall resolved = (CFGCall) cg.resolve(callM, new Set[] { Collections.singleton(aType) },
+				new SymbolAliasing());
+		assertEquals(Collections.singleton(am), resolved.getTargets());
+
+		// n is only defined in the superclass
+		resolved = (CFGCall) cg.resolve(callN, new Set[] { Collections.singleton(bType) }, new SymbolAliasing());
+		assertEquals(Collections.singleton(an), resolved.getTargets());
+	}
 }
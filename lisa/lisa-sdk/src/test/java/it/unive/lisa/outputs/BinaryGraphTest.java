@@ -0,0 +1,207 @@
+package it.unive.lisa.outputs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.TestLanguageFeatures;
+import it.unive.lisa.TestTypeSystem;
+import it.unive.lisa.outputs.compare.JsonReportComparer;
+import it.unive.lisa.outputs.compare.JsonReportComparer.DiffAlgorithm;
+import it.unive.lisa.outputs.compare.JsonReportComparer.REPORTED_COMPONENT;
+import it.unive.lisa.outputs.compare.JsonReportComparer.REPORT_TYPE;
+import it.unive.lisa.outputs.json.JsonReport;
+import it.unive.lisa.outputs.serializableGraph.BinaryGraph;
+import it.unive.lisa.outputs.serializableGraph.BinaryGraph.Compression;
+import it.unive.lisa.outputs.serializableGraph.SerializableArray;
+import it.unive.lisa.outputs.serializableGraph.SerializableCFG;
+import it.unive.lisa.outputs.serializableGraph.SerializableGraph;
+import it.unive.lisa.outputs.serializableGraph.SerializableObject;
+import it.unive.lisa.outputs.serializableGraph.SerializableString;
+import it.unive.lisa.outputs.serializableGraph.SerializableValue;
+import it.unive.lisa.program.ClassUnit;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeMemberDescriptor;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Assignment;
+import it.unive.lisa.program.cfg.statement.Return;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryGraphTest {
+
+	private static final ClassUnit unit = new ClassUnit(SyntheticLocation.INSTANCE,
+			new Program(new TestLanguageFeatures(), new TestTypeSystem()), "Testing", false);
+
+	private File root;
+
+	@Before
+	public void createFolder() throws IOException {
+		root = Files.createTempDirectory("lisa-binary").toFile();
+	}
+
+	@After
+	public void deleteFolder() throws IOException {
+		FileUtils.deleteDirectory(root);
+	}
+
+	private static CFG cfg() {
+		CFG cfg = new CFG(new CodeMemberDescriptor(SyntheticLocation.INSTANCE, unit, false, "binary"));
+		VariableRef c1 = new VariableRef(cfg, SyntheticLocation.INSTANCE, "1");
+		VariableRef c2 = new VariableRef(cfg, SyntheticLocation.INSTANCE, "2");
+		VariableRef lvar = new VariableRef(cfg, SyntheticLocation.INSTANCE, "l");
+		VariableRef xvar = new VariableRef(cfg, SyntheticLocation.INSTANCE, "x");
+		Assignment condition = new Assignment(cfg, SyntheticLocation.INSTANCE, c1, c2);
+		Assignment a1 = new Assignment(cfg, SyntheticLocation.INSTANCE, lvar, c1);
+		Return ret = new Return(cfg, SyntheticLocation.INSTANCE, xvar);
+		cfg.addNode(condition, true);
+		cfg.addNode(a1);
+		cfg.addNode(ret);
+		cfg.addEdge(new TrueEdge(condition, a1));
+		cfg.addEdge(new FalseEdge(condition, ret));
+		cfg.addEdge(new SequentialEdge(a1, ret));
+		return cfg;
+	}
+
+	private static BiFunction<CFG, Statement, SerializableValue> labeler(
+			String changed) {
+		return (
+				g,
+				st) -> {
+			if (st instanceof VariableRef)
+				return null;
+			TreeMap<String, String> props = new TreeMap<>();
+			props.put("kind", st.getClass().getSimpleName());
+			List<SerializableValue> elements = new ArrayList<>();
+			elements.add(new SerializableString(new TreeMap<>(), st.toString()));
+			elements.add(new SerializableString(props, st instanceof Return ? changed : "same"));
+			TreeMap<String, SerializableValue> fields = new TreeMap<>();
+			fields.put("values", new SerializableArray(new TreeMap<>(), elements));
+			fields.put("text", new SerializableString(new TreeMap<>(), "è " + st));
+			return new SerializableObject(props, fields);
+		};
+	}
+
+	private File write(
+			String dir,
+			SerializableGraph graph,
+			Compression compression)
+			throws IOException {
+		File parent = new File(root, dir);
+		parent.mkdirs();
+		File file = new File(parent, "graph." + BinaryGraph.EXTENSION);
+		try (OutputStream stream = new FileOutputStream(file)) {
+			BinaryGraph.write(graph, stream, compression);
+		}
+		return file;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		SerializableGraph graph = SerializableCFG.fromCFG(cfg(), labeler("a"));
+		BinaryGraph plain = BinaryGraph.read(write("plain", graph, Compression.NONE));
+		BinaryGraph deflated = BinaryGraph.read(write("deflated", graph, Compression.DEFLATE));
+
+		assertEquals(graph, plain.toSerializableGraph());
+		assertEquals(graph, deflated.toSerializableGraph());
+		assertEquals(graph.getName(), plain.getName());
+		assertEquals(plain.getStructureHash(), deflated.getStructureHash());
+		assertEquals(plain.getDescriptionHashes(), deflated.getDescriptionHashes());
+		assertEquals(graph.getDescriptions().size(), plain.getDescriptionHashes().size());
+
+		int id = graph.getDescriptions().first().getNodeId();
+		assertEquals(graph.getDescriptions().first(), plain.getNodeDescription(id));
+		assertEquals(graph.getNodes().first(), plain.getNode(graph.getNodes().first().getId()));
+		assertNull(plain.getNode(-1));
+		assertNull(plain.getNodeDescription(-1));
+
+		SerializableGraph structure = SerializableCFG.fromCFG(cfg());
+		BinaryGraph noDescs = BinaryGraph.read(write("nodescs", structure, Compression.NONE));
+		assertEquals(structure, noDescs.toSerializableGraph());
+		assertEquals(plain.getStructureHash(), noDescs.getStructureHash());
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotABinaryGraph() throws IOException {
+		BinaryGraph.read(ByteBuffer.wrap("{ \"name\": \"json\" }".getBytes()));
+	}
+
+	@Test
+	public void testHashComparison() throws IOException {
+		SerializableGraph first = SerializableCFG.fromCFG(cfg(), labeler("a"));
+		SerializableGraph second = SerializableCFG.fromCFG(cfg(), labeler("b"));
+		BinaryGraph left = BinaryGraph.read(write("first", first, Compression.NONE));
+		BinaryGraph right = BinaryGraph.read(write("second", second, Compression.DEFLATE));
+		write("third", first, Compression.DEFLATE);
+
+		assertEquals(left.getStructureHash(), right.getStructureHash());
+		assertNotEquals(left.getDescriptionHashes(), right.getDescriptionHashes());
+
+		JsonReport report = JsonReport.read(new StringReader("{ \"warnings\": [], \"files\": [ \"graph."
+				+ BinaryGraph.EXTENSION + "\" ], \"info\": {}, \"configuration\": {} }"));
+		List<String> diffs = new ArrayList<>();
+		DiffAlgorithm algorithm = new DiffAlgorithm() {
+
+			@Override
+			public void report(
+					REPORTED_COMPONENT component,
+					REPORT_TYPE type,
+					Collection<?> reported) {
+			}
+
+			@Override
+			public void fileDiff(
+					String first,
+					String second,
+					String message) {
+				diffs.add(message);
+			}
+
+			@Override
+			public void infoDiff(
+					String key,
+					String first,
+					String second) {
+			}
+
+			@Override
+			public void configurationDiff(
+					String key,
+					String first,
+					String second) {
+			}
+		};
+
+		assertTrue(JsonReportComparer.compare(report, report, new File(root, "first"), new File(root, "third"),
+				algorithm));
+		assertTrue(diffs.isEmpty());
+
+		assertFalse(JsonReportComparer.compare(report, report, new File(root, "first"), new File(root, "second"),
+				algorithm));
+		// only the return statement has a different description
+		assertEquals(1, diffs.size());
+		assertTrue(diffs.get(0).contains("return x"));
+	}
+}
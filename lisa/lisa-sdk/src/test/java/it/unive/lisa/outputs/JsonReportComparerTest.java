@@ -0,0 +1,233 @@
+package it.unive.lisa.outputs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.outputs.compare.JsonReportComparer;
+import it.unive.lisa.outputs.compare.JsonReportComparer.DiffAlgorithm;
+import it.unive.lisa.outputs.compare.JsonReportComparer.REPORTED_COMPONENT;
+import it.unive.lisa.outputs.compare.JsonReportComparer.REPORT_TYPE;
+import it.unive.lisa.outputs.json.JsonReport;
+import it.unive.lisa.outputs.serializableGraph.SerializableEdge;
+import it.unive.lisa.outputs.serializableGraph.SerializableGraph;
+import it.unive.lisa.outputs.serializableGraph.SerializableNode;
+import it.unive.lisa.outputs.serializableGraph.SerializableNodeDescription;
+import it.unive.lisa.outputs.serializableGraph.SerializableString;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JsonReportComparerTest {
+
+	private static final int FILES = 20;
+
+	private File root;
+
+	@Before
+	public void createFolder() throws IOException {
+		root = Files.createTempDirectory("lisa-compare").toFile();
+	}
+
+	@After
+	public void deleteFolder() throws IOException {
+		FileUtils.deleteDirectory(root);
+	}
+
+	private static class Recorder implements DiffAlgorithm {
+
+		private final int threads;
+
+		private final List<String> diffs = Collections.synchronizedList(new ArrayList<>());
+
+		private final Set<Thread> callers = Collections.synchronizedSet(new HashSet<>());
+
+		private Recorder(
+				int threads) {
+			this.threads = threads;
+		}
+
+		@Override
+		public void report(
+				REPORTED_COMPONENT component,
+				REPORT_TYPE type,
+				Collection<?> reported) {
+		}
+
+		@Override
+		public void fileDiff(
+				String first,
+				String second,
+				String message) {
+			callers.add(Thread.currentThread());
+			diffs.add(new File(first).getName() + ": " + message);
+		}
+
+		@Override
+		public boolean customFileCompare(
+				File expected,
+				File actual) {
+			callers.add(Thread.currentThread());
+			diffs.add(expected.getName() + ": custom");
+			return true;
+		}
+
+		@Override
+		public void infoDiff(
+				String key,
+				String first,
+				String second) {
+		}
+
+		@Override
+		public void configurationDiff(
+				String key,
+				String first,
+				String second) {
+		}
+
+		@Override
+		public int getComparisonThreads() {
+			return threads;
+		}
+	}
+
+	private void graph(
+			String dir,
+			int index,
+			String label)
+			throws IOException {
+		SerializableGraph graph = new SerializableGraph();
+		graph.addNode(new SerializableNode(0, Collections.emptyList(), "first"));
+		graph.addNode(new SerializableNode(1, Collections.emptyList(), "second"));
+		graph.addEdge(new SerializableEdge(0, 1, "SequentialEdge"));
+		graph.addNodeDescription(new SerializableNodeDescription(0, new SerializableString(new TreeMap<>(), "a")));
+		graph.addNodeDescription(new SerializableNodeDescription(1, new SerializableString(new TreeMap<>(), label)));
+		file(dir, "graph" + index + ".json", writer -> graph.dump(writer));
+	}
+
+	private void file(
+			String dir,
+			String name,
+			Filler filler)
+			throws IOException {
+		File parent = new File(root, dir);
+		parent.mkdirs();
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(parent, name)),
+				StandardCharsets.UTF_8)) {
+			filler.write(writer);
+		}
+	}
+
+	private interface Filler {
+		void write(
+				Writer writer)
+				throws IOException;
+	}
+
+	private List<String> compare(
+			JsonReport report,
+			int threads,
+			boolean expected)
+			throws IOException {
+		Recorder recorder = new Recorder(threads);
+		assertEquals(expected, JsonReportComparer.compare(report, report, new File(root, "first"),
+				new File(root, "second"), recorder));
+		// all outcomes are reported by the thread that started the comparison
+		assertTrue(recorder.callers.isEmpty() || recorder.callers.equals(Set.of(Thread.currentThread())));
+		return recorder.diffs;
+	}
+
+	@Test
+	public void testParallelComparison() throws IOException {
+		StringBuilder files = new StringBuilder();
+		for (int i = 0; i < FILES; i++) {
+			graph("first", i, "b");
+			graph("second", i, i % 3 == 0 ? "c" : "b");
+			files.append("\"graph").append(i).append(".json\", ");
+		}
+		// identical custom files are not compared through the algorithm
+		file("first", "notes.txt", writer -> writer.write("notes"));
+		file("second", "notes.txt", writer -> writer.write("notes"));
+		files.append("\"notes.txt\"");
+
+		JsonReport report = JsonReport.read(new StringReader("{ \"warnings\": [], \"files\": [ " + files
+				+ " ], \"info\": {}, \"configuration\": {} }"));
+
+		List<String> sequential = compare(report, 1, false);
+		assertEquals((FILES + 2) / 3, sequential.size());
+		for (int threads = 2; threads <= 8; threads *= 2)
+			assertEquals(sequential, compare(report, threads, false));
+	}
+
+	@Test
+	public void testParallelCustomComparison() throws IOException {
+		StringBuilder files = new StringBuilder();
+		for (int i = 0; i < FILES; i++) {
+			if (i % 2 == 0) {
+				graph("first", i, "b");
+				graph("second", i, i % 4 == 0 ? "c" : "b");
+				files.append("\"graph").append(i).append(".json\"");
+			} else {
+				String content = "notes" + i;
+				file("first", "notes" + i + ".txt", writer -> writer.write(content));
+				file("second", "notes" + i + ".txt", writer -> writer.write(content + "!"));
+				files.append("\"notes").append(i).append(".txt\"");
+			}
+			if (i < FILES - 1)
+				files.append(", ");
+		}
+
+		JsonReport report = JsonReport.read(new StringReader("{ \"warnings\": [], \"files\": [ " + files
+				+ " ], \"info\": {}, \"configuration\": {} }"));
+
+		// custom comparisons are interleaved with graph ones, in file order
+		List<String> sequential = compare(report, 1, false);
+		assertEquals(FILES / 2 + (FILES + 3) / 4, sequential.size());
+		for (int threads = 2; threads <= 8; threads *= 2)
+			assertEquals(sequential, compare(report, threads, false));
+	}
+
+	@Test
+	public void testIdenticalFiles() throws IOException {
+		StringBuilder files = new StringBuilder();
+		for (int i = 0; i < FILES; i++) {
+			graph("first", i, "b");
+			graph("second", i, "b");
+			if (i > 0)
+				files.append(", ");
+			files.append("\"graph").append(i).append(".json\"");
+		}
+
+		JsonReport report = JsonReport.read(new StringReader("{ \"warnings\": [], \"files\": [ " + files
+				+ " ], \"info\": {}, \"configuration\": {} }"));
+		assertTrue(compare(report, 1, true).isEmpty());
+		assertTrue(compare(report, 4, true).isEmpty());
+
+		// files that differ only in their layout are still equal graphs
+		System.setProperty("lisa.json.indent", "true");
+		try {
+			graph("second", 0, "b");
+		} finally {
+			System.clearProperty("lisa.json.indent");
+		}
+		assertFalse(FileUtils.contentEquals(new File(root, "first/graph0.json"), new File(root, "second/graph0.json")));
+		assertTrue(compare(report, 4, true).isEmpty());
+	}
+}
@@ -8,6 +8,8 @@ import it.unive.lisa.outputs.serializableGraph.SerializableCFG;
 import it.unive.lisa.outputs.serializableGraph.SerializableEdge;
 import it.unive.lisa.outputs.serializableGraph.SerializableGraph;
 import it.unive.lisa.outputs.serializableGraph.SerializableNode;
+import it.unive.lisa.outputs.serializableGraph.SerializableString;
+import it.unive.lisa.outputs.serializableGraph.SerializableValue;
 import it.unive.lisa.program.ClassUnit;
 import it.unive.lisa.program.Program;
 import it.unive.lisa.program.SyntheticLocation;
@@ -21,11 +23,16 @@ import it.unive.lisa.program.cfg.statement.Assignment;
 import it.unive.lisa.program.cfg.statement.Return;
 import it.unive.lisa.program.cfg.statement.Statement;
 import it.unive.lisa.program.cfg.statement.VariableRef;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.BiFunction;
 import org.junit.Test;
 
 public class SerializableGraphTest {
@@ -33,6 +40,10 @@ public class SerializableGraphTest {
 	private static final ClassUnit unit = new ClassUnit(SyntheticLocation.INSTANCE,
 			new Program(new TestLanguageFeatures(), new TestTypeSystem()), "Testing", false);
 
+	private static final BiFunction<CFG, Statement, SerializableValue> LABELER = (
+			g,
+			st) -> st instanceof VariableRef ? null : new SerializableString(new TreeMap<>(), st.toString());
+
 	private static void addNode(
 			SortedSet<SerializableNode> nodes,
 			Statement st,
@@ -454,4 +465,74 @@ public class SerializableGraphTest {
 		assertEquals(expected, graph);
 	}
 
+	private static String dump(
+			SerializableGraph graph)
+			throws IOException {
+		StringWriter writer = new StringWriter();
+		graph.dump(writer);
+		return writer.toString();
+	}
+
+	private static String dump(
+			CFG cfg,
+			BiFunction<CFG, Statement, SerializableValue> labeler)
+			throws IOException {
+		StringWriter writer = new StringWriter();
+		SerializableCFG.dump(cfg, labeler, writer);
+		return writer.toString();
+	}
+
+	private static CFG streamingCFG() {
+		CFG cfg = new CFG(new CodeMemberDescriptor(SyntheticLocation.INSTANCE, unit, false, "streaming"));
+		VariableRef c1 = new VariableRef(cfg, SyntheticLocation.INSTANCE, "1");
+		VariableRef c2 = new VariableRef(cfg, SyntheticLocation.INSTANCE, "2");
+		VariableRef lvar = new VariableRef(cfg, SyntheticLocation.INSTANCE, "l");
+		VariableRef xvar = new VariableRef(cfg, SyntheticLocation.INSTANCE, "x");
+		Assignment condition = new Assignment(cfg, SyntheticLocation.INSTANCE, c1, c2);
+		Assignment a1 = new Assignment(cfg, SyntheticLocation.INSTANCE, lvar, c1);
+		Return ret = new Return(cfg, SyntheticLocation.INSTANCE, xvar);
+		cfg.addNode(condition, true);
+		cfg.addNode(a1);
+		cfg.addNode(ret);
+		cfg.addEdge(new TrueEdge(condition, a1));
+		cfg.addEdge(new FalseEdge(condition, ret));
+		cfg.addEdge(new SequentialEdge(a1, ret));
+		return cfg;
+	}
+
+	@Test
+	public void testStreamingDump() throws IOException {
+		CFG cfg = streamingCFG();
+
+		assertEquals(dump(SerializableCFG.fromCFG(cfg)), dump(cfg, null));
+		assertEquals(dump(SerializableCFG.fromCFG(cfg, LABELER)), dump(cfg, LABELER));
+
+		System.setProperty("lisa.json.indent", "true");
+		try {
+			assertEquals(dump(SerializableCFG.fromCFG(cfg, LABELER)), dump(cfg, LABELER));
+		} finally {
+			System.clearProperty("lisa.json.indent");
+		}
+	}
+
+	@Test
+	public void testStreamingGraphs() throws IOException {
+		CFG cfg = streamingCFG();
+
+		for (BiFunction<CFG, Statement, SerializableValue> labeler : Arrays.asList(null, LABELER)) {
+			SerializableGraph graph = SerializableCFG.fromCFG(cfg, labeler);
+
+			StringWriter expected = new StringWriter();
+			StringWriter actual = new StringWriter();
+			graph.toDot().dump(expected);
+			SerializableCFG.dumpDot(cfg, labeler, actual);
+			assertEquals(expected.toString(), actual.toString());
+
+			expected = new StringWriter();
+			actual = new StringWriter();
+			graph.toGraphml(false).dump(expected);
+			SerializableCFG.dumpGraphml(cfg, labeler, false, actual);
+			assertEquals(expected.toString(), actual.toString());
+		}
+	}
 }
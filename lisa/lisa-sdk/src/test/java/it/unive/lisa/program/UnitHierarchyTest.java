@@ -0,0 +1,139 @@
+package it.unive.lisa.program;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.TestLanguageFeatures;
+import it.unive.lisa.TestTypeSystem;
+import it.unive.lisa.type.Type;
+import it.unive.lisa.type.Untyped;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+public class UnitHierarchyTest {
+
+	private final Program program = new Program(new TestLanguageFeatures(), new TestTypeSystem());
+
+	private final ClassUnit object = clazz("Object");
+
+	private final ClassUnit a = clazz("A", object);
+
+	private final ClassUnit b = clazz("B", a);
+
+	private final ClassUnit c = clazz("C", a);
+
+	private final ClassUnit unrelated = clazz("Unrelated", object);
+
+	private final InterfaceUnit i = iface("I");
+
+	private final InterfaceUnit j = iface("J", i);
+
+	private final InterfaceUnit k = iface("K");
+
+	{
+		b.addInterface(j);
+		c.addInterface(i);
+		unrelated.addInterface(k);
+	}
+
+	private final List<CompilationUnit> all = List.of(object, a, b, c, unrelated, i, j, k);
+
+	private ClassUnit clazz(
+			String name,
+			ClassUnit... supers) {
+		ClassUnit unit = new ClassUnit(new SourceCodeLocation("unknown", 0, 0), program, name, false);
+		for (ClassUnit sup : supers)
+			unit.addSuperclass(sup);
+		program.addUnit(unit);
+		return unit;
+	}
+
+	private InterfaceUnit iface(
+			String name,
+			InterfaceUnit... supers) {
+		InterfaceUnit unit = new InterfaceUnit(new SourceCodeLocation("unknown", 0, 0), program, name, false);
+		for (InterfaceUnit sup : supers)
+			unit.addSuperinterface(sup);
+		program.addUnit(unit);
+		return unit;
+	}
+
+	private Map<String, Boolean> relation() {
+		Map<String, Boolean> result = new HashMap<>();
+		for (CompilationUnit first : all)
+			for (CompilationUnit second : all)
+				result.put(first + "<:" + second, first.isInstanceOf(second));
+		return result;
+	}
+
+	@Test
+	public void testSubtyping() throws ProgramValidationException {
+		Map<String, Boolean> expected = relation();
+		assertNull(a.getHierarchy());
+		program.getFeatures().getProgramValidationLogic().validateAndFinalize(program);
+
+		UnitHierarchy hierarchy = a.getHierarchy();
+		assertNotNull(hierarchy);
+		for (CompilationUnit unit : all) {
+			assertSame(hierarchy, unit.getHierarchy());
+			assertTrue(hierarchy.covers(unit));
+		}
+
+		assertEquals(expected, relation());
+		for (CompilationUnit first : all)
+			for (CompilationUnit second : all)
+				assertEquals(first + " <: " + second, second.getInstances().contains(first),
+						hierarchy.isInstanceOf(first, second));
+	}
+
+	@Test
+	public void testCommonAncestor() throws ProgramValidationException {
+		program.getFeatures().getProgramValidationLogic().validateAndFinalize(program);
+		UnitHierarchy hierarchy = a.getHierarchy();
+
+		assertSame(a, hierarchy.getCommonAncestor(b, c));
+		assertSame(a, hierarchy.getCommonAncestor(c, b));
+		assertSame(object, hierarchy.getCommonAncestor(b, unrelated));
+		assertSame(a, hierarchy.getCommonAncestor(a, b));
+		assertSame(i, hierarchy.getCommonAncestor(j, c));
+		assertNull(hierarchy.getCommonAncestor(i, k));
+		assertNull(hierarchy.getCommonAncestor(b, k));
+		// memoized results are the same
+		assertSame(a, hierarchy.getCommonAncestor(b, c));
+	}
+
+	@Test
+	public void testInstances() throws ProgramValidationException {
+		program.getFeatures().getProgramValidationLogic().validateAndFinalize(program);
+		UnitHierarchy hierarchy = a.getHierarchy();
+
+		Map<Unit, Type> types = new HashMap<>();
+		Set<Type> instances = hierarchy.getInstances(i, unit -> types.computeIfAbsent(unit, u -> Untyped.INSTANCE));
+		assertEquals(Set.of(Untyped.INSTANCE), instances);
+		assertEquals(Set.of(b, c, i, j), types.keySet());
+		// the second invocation does not convert units again
+		types.clear();
+		assertSame(instances, hierarchy.getInstances(i, unit -> types.computeIfAbsent(unit, u -> Untyped.INSTANCE)));
+		assertTrue(types.isEmpty());
+	}
+
+	@Test
+	public void testInvalidation() throws ProgramValidationException {
+		program.getFeatures().getProgramValidationLogic().validateAndFinalize(program);
+		UnitHierarchy hierarchy = a.getHierarchy();
+		assertFalse(unrelated.isInstanceOf(i));
+
+		unrelated.addInterface(i);
+		assertFalse(hierarchy.covers(unrelated));
+		assertFalse(hierarchy.covers(a));
+		assertNull(unrelated.getHierarchy());
+		assertTrue(unrelated.isInstanceOf(i));
+	}
+}
@@ -352,4 +352,36 @@ public class CFGSimplificationTest {
 		first.simplify();
 		first.validate();
 	}
+
+	@Test
+	public void testScopesAfterSimplification() {
+		SourceCodeLocation unknown = new SourceCodeLocation("unknown", 0, 0);
+		ClassUnit unit = new ClassUnit(unknown, new Program(new TestLanguageFeatures(), new TestTypeSystem()), "foo",
+				false);
+		CFG cfg = new CFG(new CodeMemberDescriptor(unknown, unit, true, "foo"));
+		Assignment assign = new Assignment(cfg, unknown,
+				new VariableRef(cfg, unknown, "y"),
+				new VariableRef(cfg, unknown, "a"));
+		NoOp noop = new NoOp(cfg, unknown);
+		Return ret = new Return(cfg, unknown, new VariableRef(cfg, unknown, "x"));
+		cfg.addNode(assign, true);
+		cfg.addNode(noop);
+		cfg.addNode(ret);
+		cfg.addEdge(new SequentialEdge(assign, noop));
+		cfg.addEdge(new SequentialEdge(noop, ret));
+		cfg.getDescriptor().addVariable(new VariableTableEntry(unknown, 0, assign, noop, "y"));
+
+		assertEquals(1, cfg.getVariablesStartingScopeAt(assign).size());
+		assertEquals("y", cfg.getVariablesEndingScopeAt(noop).iterator().next().getName());
+		assertTrue(cfg.getVariablesEndingScopeAt(ret).isEmpty());
+
+		// the scope end is moved forward to the return
+		cfg.simplify();
+		assertTrue(cfg.getVariablesEndingScopeAt(noop).isEmpty());
+		assertEquals("y", cfg.getVariablesEndingScopeAt(ret).iterator().next().getName());
+
+		// new variables are indexed as well
+		cfg.getDescriptor().addVariable(new VariableTableEntry(unknown, 0, null, ret, "z"));
+		assertEquals(2, cfg.getVariablesEndingScopeAt(ret).size());
+	}
 }
@@ -2,6 +2,9 @@ package it.unive.lisa.program.cfg;
 
 import static it.unive.lisa.util.collections.CollectionUtilities.collect;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -29,6 +32,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import org.junit.Test;
 
 public class ConditionalsExtractionTest {
@@ -440,4 +445,65 @@ public class ConditionalsExtractionTest {
 		assertTrue("No guards registered for inner expression", cfg.getGuards(inner).contains(condition));
 		assertTrue("No guards registered for resolved call", cfg.getGuards(resolved).contains(condition));
 	}
+
+	@Test
+	public void testStructureQueries() {
+		SourceCodeLocation unknown = new SourceCodeLocation("unknown", 0, 0);
+		CFG cfg = new CFG(new CodeMemberDescriptor(unknown, unit, false, "queries"));
+		VariableRef constant = new VariableRef(cfg, unknown, "a");
+		VariableRef loop_condition = new VariableRef(cfg, unknown, "b");
+		VariableRef if_condition = new VariableRef(cfg, unknown, "c");
+		Assignment if_a1 = new Assignment(cfg, unknown,
+				new VariableRef(cfg, unknown, "if_a1"),
+				constant);
+		Assignment if_a2 = new Assignment(cfg, unknown,
+				new VariableRef(cfg, unknown, "if_a2"),
+				constant);
+		Assignment loop_a1 = new Assignment(cfg, unknown,
+				new VariableRef(cfg, unknown, "loop_a1"),
+				constant);
+		Return ret = new Return(cfg, unknown, new VariableRef(cfg, unknown, "x"));
+
+		cfg.addNode(loop_condition, true);
+		cfg.addNode(if_condition);
+		cfg.addNode(if_a1);
+		cfg.addNode(if_a2);
+		cfg.addNode(loop_a1);
+		cfg.addNode(ret);
+
+		cfg.addEdge(new TrueEdge(loop_condition, if_condition));
+		cfg.addEdge(new TrueEdge(if_condition, if_a1));
+		cfg.addEdge(new FalseEdge(if_condition, if_a2));
+		cfg.addEdge(new SequentialEdge(if_a1, loop_a1));
+		cfg.addEdge(new SequentialEdge(if_a2, loop_a1));
+		cfg.addEdge(new SequentialEdge(loop_a1, loop_condition));
+		cfg.addEdge(new FalseEdge(loop_condition, ret));
+
+		assertNull(cfg.getControlFlowStructureOf(loop_condition));
+		assertFalse(cfg.isGuarded(if_a1));
+
+		// the index must be updated after the extraction
+		cfg.extractControlFlowStructures(new ControlFlowExtractor());
+		assertTrue(cfg.getControlFlowStructureOf(loop_condition) instanceof Loop);
+		assertTrue(cfg.getControlFlowStructureOf(if_condition) instanceof IfThenElse);
+		assertNull(cfg.getControlFlowStructureOf(if_a1));
+
+		assertEquals(Set.of(if_condition, loop_condition), new HashSet<>(cfg.getGuards(if_a1)));
+		assertEquals(List.of(loop_condition), cfg.getGuards(loop_a1));
+		assertEquals(List.of(loop_condition), cfg.getLoopGuards(if_a2));
+		assertEquals(List.of(if_condition), cfg.getIfThenElseGuards(if_a2));
+		assertTrue(cfg.getGuards(ret).isEmpty());
+
+		// the most recent guard is the one closest to the statement
+		assertSame(if_condition, cfg.getMostRecentGuard(if_a1));
+		assertSame(loop_condition, cfg.getMostRecentLoopGuard(if_a1));
+		assertSame(if_condition, cfg.getMostRecentIfThenElseGuard(if_a2));
+		assertSame(loop_condition, cfg.getMostRecentGuard(loop_a1));
+		assertNull(cfg.getMostRecentIfThenElseGuard(loop_a1));
+
+		assertTrue(cfg.isInsideLoop(if_a1));
+		assertTrue(cfg.isInsideIfThenElse(if_a1));
+		assertFalse(cfg.isInsideIfThenElse(loop_a1));
+		assertFalse(cfg.isGuarded(ret));
+	}
 }
@@ -0,0 +1,202 @@
+package it.unive.lisa.program.cfg.fixpoints;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unive.lisa.TestAbstractState;
+import it.unive.lisa.TestInterproceduralAnalysis;
+import it.unive.lisa.TestLanguageFeatures;
+import it.unive.lisa.TestTypeSystem;
+import it.unive.lisa.analysis.AnalysisState;
+import it.unive.lisa.analysis.AnalyzedCFG;
+import it.unive.lisa.analysis.SemanticException;
+import it.unive.lisa.analysis.lattices.ExpressionSet;
+import it.unive.lisa.conf.FixpointConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration;
+import it.unive.lisa.conf.LiSAConfiguration.DescendingPhaseType;
+import it.unive.lisa.interprocedural.UniqueScope;
+import it.unive.lisa.program.ClassUnit;
+import it.unive.lisa.program.Program;
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.cfg.CFG;
+import it.unive.lisa.program.cfg.CodeMemberDescriptor;
+import it.unive.lisa.program.cfg.controlFlow.ControlFlowExtractor;
+import it.unive.lisa.program.cfg.edge.FalseEdge;
+import it.unive.lisa.program.cfg.edge.SequentialEdge;
+import it.unive.lisa.program.cfg.edge.TrueEdge;
+import it.unive.lisa.program.cfg.statement.Ret;
+import it.unive.lisa.program.cfg.statement.Statement;
+import it.unive.lisa.program.cfg.statement.VariableRef;
+import it.unive.lisa.util.collections.workset.FIFOWorkingSet;
+import it.unive.lisa.util.datastructures.graph.algorithms.FixpointException;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class FixpointMetricsTest {
+
+	private static final ClassUnit unit = new ClassUnit(new SourceCodeLocation("unknown", 0, 0),
+			new Program(new TestLanguageFeatures(), new TestTypeSystem()), "Testing", false);
+
+	private static final AnalysisState<TestAbstractState> state = new AnalysisState<>(
+			new TestAbstractState(),
+			new ExpressionSet());
+
+	private final CFG cfg = new CFG(new CodeMemberDescriptor(new SourceCodeLocation("unknown", 0, 0), unit, false,
+			"loop"));
+
+	private final VariableRef source = new VariableRef(cfg, new SourceCodeLocation("unknown", 1, 0), "x");
+
+	private final VariableRef cond = new VariableRef(cfg, new SourceCodeLocation("unknown", 2, 0), "c");
+
+	private final VariableRef body = new VariableRef(cfg, new SourceCodeLocation("unknown", 3, 0), "y");
+
+	private final Ret end = new Ret(cfg, new SourceCodeLocation("unknown", 4, 0));
+
+	{
+		cfg.addNode(source, true);
+		cfg.addNode(cond);
+		cfg.addNode(body);
+		cfg.addNode(end);
+		cfg.addEdge(new SequentialEdge(source, cond));
+		cfg.addEdge(new TrueEdge(cond, body));
+		cfg.addEdge(new SequentialEdge(body, cond));
+		cfg.addEdge(new FalseEdge(cond, end));
+		cfg.extractControlFlowStructures(new ControlFlowExtractor());
+		cfg.computeBasicBlocks();
+	}
+
+	private AnalyzedCFG<TestAbstractState> analyze(
+			LiSAConfiguration conf)
+			throws FixpointException {
+		return cfg.fixpoint(state, new TestInterproceduralAnalysis<>(), FIFOWorkingSet.mk(),
+				new FixpointConfiguration(conf), new UniqueScope());
+	}
+
+	@Test
+	public void testMetrics() throws FixpointException, SemanticException, IOException {
+		LiSAConfiguration conf = new LiSAConfiguration();
+		conf.wideningThreshold = 0;
+		AnalyzedCFG<TestAbstractState> plain = analyze(conf);
+
+		FixpointMetrics metrics = new FixpointMetrics();
+		conf.fixpointObserver = metrics;
+		AnalyzedCFG<TestAbstractState> observed = analyze(conf);
+		for (Statement st : List.of(source, cond, body, end))
+			assertEquals(plain.getAnalysisStateAfter(st), observed.getAnalysisStateAfter(st));
+
+		assertEquals(1, metrics.getFixpoints(cfg));
+		// the loop condition is reached both from the entry and the body
+		assertEquals(2, metrics.getEvaluations(cond));
+		assertEquals(1, metrics.getEvaluations(source));
+		long evaluations = 0;
+		for (Statement st : List.of(source, cond, body, end))
+			evaluations += metrics.getEvaluations(st);
+		assertEquals(evaluations, metrics.getEvaluations(cfg));
+		assertEquals(1, metrics.getWidenings(cond));
+		assertEquals(1, metrics.getWidenings(cfg));
+		// the first evaluation of each statement has nothing to join with
+		assertEquals(evaluations - 4, metrics.getLubs(cfg) + metrics.getWidenings(cfg));
+		assertTrue(metrics.getMaxWorkingSetSize(cfg) >= 1);
+
+		StringWriter json = new StringWriter();
+		metrics.dump(json);
+		JsonNode tree = new ObjectMapper().readTree(json.toString());
+		assertEquals(evaluations, tree.get("totals").get("evaluations").asLong());
+		// no call has been resolved
+		assertEquals(0, tree.get("totals").get("callResolutionMisses").asLong());
+		JsonNode graph = tree.get("cfgs").get(cfg.getDescriptor().getFullSignatureWithParNames());
+		assertEquals(4, graph.get("statements").size());
+		assertEquals(String.valueOf(evaluations), metrics.toPropertyBag().get("evaluations"));
+
+		StringWriter folded = new StringWriter();
+		metrics.dumpFoldedStacks(folded);
+		String[] lines = folded.toString().split("\n");
+		// one line for the cfg itself, and one for each of its statements
+		assertEquals(5, lines.length);
+		for (String line : lines)
+			assertTrue(line.matches(".*loop.* [0-9]+"));
+	}
+
+	@Test
+	public void testDescendingPhase() throws FixpointException {
+		LiSAConfiguration conf = new LiSAConfiguration();
+		conf.descendingPhaseType = DescendingPhaseType.GLB;
+		FixpointMetrics metrics = new FixpointMetrics();
+		conf.fixpointObserver = metrics;
+		analyze(conf);
+		// one ascending and one descending fixpoint
+		assertEquals(2, metrics.getFixpoints(cfg));
+		// the descending phase refines the results of all statements
+		assertTrue(metrics.getGlbs(cfg) >= 4);
+		assertEquals(0, metrics.getNarrowings(cfg));
+
+		conf.descendingPhaseType = DescendingPhaseType.NARROWING;
+		metrics = new FixpointMetrics();
+		conf.fixpointObserver = metrics;
+		analyze(conf);
+		assertEquals(2, metrics.getFixpoints(cfg));
+		assertTrue(metrics.getGlbs(cfg) + metrics.getNarrowings(cfg) >= 4);
+	}
+
+	@Test
+	public void testBackward() throws FixpointException {
+		LiSAConfiguration conf = new LiSAConfiguration();
+		FixpointMetrics metrics = new FixpointMetrics();
+		conf.fixpointObserver = metrics;
+		cfg.backwardFixpoint(state, new TestInterproceduralAnalysis<>(), FIFOWorkingSet.mk(),
+				new FixpointConfiguration(conf), new UniqueScope());
+
+		assertEquals(1, metrics.getFixpoints(cfg));
+		// the loop condition is reached both from the exit and the body
+		assertEquals(2, metrics.getEvaluations(cond));
+		// the first evaluation of each statement has nothing to join with
+		assertEquals(metrics.getEvaluations(cfg) - 4, metrics.getLubs(cfg) + metrics.getWidenings(cfg));
+	}
+
+	@Test
+	public void testDisabled() throws FixpointException {
+		LiSAConfiguration conf = new LiSAConfiguration();
+		FixpointMetrics metrics = new FixpointMetrics();
+		analyze(conf);
+		assertEquals(0, metrics.getFixpoints(cfg));
+		assertEquals("unset", conf.toPropertyBag().get("fixpointObserver"));
+		conf.fixpointObserver = metrics;
+		assertEquals("FixpointMetrics", conf.toPropertyBag().get("fixpointObserver"));
+	}
+
+	@Test
+	public void testParallelFixpoints() throws InterruptedException, ExecutionException, IOException {
+		LiSAConfiguration conf = new LiSAConfiguration();
+		FixpointMetrics metrics = new FixpointMetrics();
+		conf.fixpointObserver = metrics;
+		int runs = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<AnalyzedCFG<TestAbstractState>>> futures = new ArrayList<>();
+			for (int i = 0; i < runs; i++)
+				futures.add(executor.submit(() -> analyze(conf)));
+			for (Future<AnalyzedCFG<TestAbstractState>> future : futures)
+				future.get();
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(runs, metrics.getFixpoints(cfg));
+		StringWriter folded = new StringWriter();
+		metrics.dumpFoldedStacks(folded);
+		// frames of different threads must not be nested into each other
+		String[] lines = folded.toString().split("\n");
+		assertEquals(5, lines.length);
+		for (String line : lines)
+			assertTrue(line.split(";").length <= 2);
+	}
+}
@@ -0,0 +1,180 @@
+package it.unive.lisa.symbolic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.program.SourceCodeLocation;
+import it.unive.lisa.program.SyntheticLocation;
+import it.unive.lisa.program.annotations.Annotation;
+import it.unive.lisa.program.annotations.Annotations;
+import it.unive.lisa.symbolic.value.BinaryExpression;
+import it.unive.lisa.symbolic.value.Constant;
+import it.unive.lisa.symbolic.value.PushAny;
+import it.unive.lisa.symbolic.value.UnaryExpression;
+import it.unive.lisa.symbolic.value.Variable;
+import it.unive.lisa.symbolic.value.operator.binary.ComparisonGe;
+import it.unive.lisa.symbolic.value.operator.binary.ComparisonLt;
+import it.unive.lisa.symbolic.value.operator.binary.NumericNonOverflowingAdd;
+import it.unive.lisa.symbolic.value.operator.unary.LogicalNegation;
+import it.unive.lisa.symbolic.value.operator.unary.NumericNegation;
+import it.unive.lisa.type.Untyped;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class SymbolicExpressionFactoryTest {
+
+	private static final SyntheticLocation LOC = SyntheticLocation.INSTANCE;
+
+	private static BinaryExpression sum(
+			SymbolicExpression left,
+			SymbolicExpression right) {
+		return new BinaryExpression(Untyped.INSTANCE, left, right, NumericNonOverflowingAdd.INSTANCE, LOC);
+	}
+
+	@Test
+	public void testSharing() {
+		SymbolicExpressionFactory factory = new SymbolicExpressionFactory();
+		BinaryExpression first = factory.mkBinary(Untyped.INSTANCE,
+				new Variable(Untyped.INSTANCE, "x", LOC),
+				new Constant(Untyped.INSTANCE, 5, LOC),
+				NumericNonOverflowingAdd.INSTANCE, LOC);
+		BinaryExpression second = factory.intern(sum(
+				factory.mkVariable(Untyped.INSTANCE, "x", LOC),
+				factory.mkConstant(Untyped.INSTANCE, 5, LOC)));
+
+		assertSame(first, second);
+		assertSame(first.getLeft(), factory.mkVariable(Untyped.INSTANCE, "x", LOC));
+		assertEquals(3, factory.size());
+
+		UnaryExpression neg = factory.mkUnary(Untyped.INSTANCE, second, NumericNegation.INSTANCE, LOC);
+		assertSame(first, neg.getExpression());
+		assertEquals(4, factory.size());
+
+		factory.clear();
+		assertEquals(0, factory.size());
+		BinaryExpression third = factory.intern(sum(
+				new Variable(Untyped.INSTANCE, "x", LOC),
+				new Constant(Untyped.INSTANCE, 5, LOC)));
+		assertNotSame(first, third);
+		assertEquals(first, third);
+		assertEquals(first.hashCode(), third.hashCode());
+	}
+
+	@Test
+	public void testSyntacticDifferencesAreKept() {
+		SymbolicExpressionFactory factory = new SymbolicExpressionFactory();
+		Variable x = factory.mkVariable(Untyped.INSTANCE, "x", LOC);
+		Variable annotated = factory.intern(new Variable(Untyped.INSTANCE, "x",
+				new Annotations(new Annotation("a")), LOC));
+		Variable elsewhere = factory.mkVariable(Untyped.INSTANCE, "x", new SourceCodeLocation("file", 1, 1));
+
+		// these are equal, but not syntactically identical
+		assertEquals(x, annotated);
+		assertEquals(x, elsewhere);
+		assertNotSame(x, annotated);
+		assertNotSame(x, elsewhere);
+		assertNotSame(factory.intern(sum(x, x)), factory.intern(sum(x, annotated)));
+	}
+
+	@Test
+	public void testUninternableOperands() {
+		SymbolicExpressionFactory factory = new SymbolicExpressionFactory();
+		PushAny any = new PushAny(Untyped.INSTANCE, LOC);
+		BinaryExpression expr = sum(any, new Constant(Untyped.INSTANCE, 1, LOC));
+		assertSame(any, factory.intern(any));
+		assertSame(expr, factory.intern(expr));
+		assertEquals(1, factory.size());
+	}
+
+	@Test
+	public void testSharedFactory() {
+		Variable x = SymbolicExpressionFactory.INSTANCE.mkVariable(Untyped.INSTANCE, "x", LOC);
+		Constant five = SymbolicExpressionFactory.INSTANCE.mkConstant(Untyped.INSTANCE, 5, LOC);
+		UnaryExpression not = new UnaryExpression(Untyped.INSTANCE,
+				new BinaryExpression(Untyped.INSTANCE, x, five, ComparisonLt.INSTANCE, LOC),
+				LogicalNegation.INSTANCE, LOC);
+
+		// expressions rewritten by LiSA are built through the shared factory
+		SymbolicExpression first = not.removeNegations();
+		SymbolicExpression second = not.removeNegations();
+		assertSame(first, second);
+		assertSame(first, SymbolicExpressionFactory.INSTANCE.intern(
+				new BinaryExpression(Untyped.INSTANCE, new Variable(Untyped.INSTANCE, "x", LOC),
+						new Constant(Untyped.INSTANCE, 5, LOC), ComparisonGe.INSTANCE, LOC)));
+	}
+
+	@Test
+	public void testModifiedVariablesAreNotShared() {
+		SymbolicExpressionFactory factory = new SymbolicExpressionFactory();
+		Variable x = factory.mkVariable(Untyped.INSTANCE, "x", LOC);
+		assertSame(x, factory.mkVariable(Untyped.INSTANCE, "x", LOC));
+
+		x.addAnnotation(new Annotation("a"));
+		Variable fresh = factory.mkVariable(Untyped.INSTANCE, "x", LOC);
+		assertNotSame(x, fresh);
+		assertTrue(fresh.getAnnotations().isEmpty());
+		assertSame(fresh, factory.mkVariable(Untyped.INSTANCE, "x", LOC));
+	}
+
+	@Test
+	public void testConcurrentInterning() throws InterruptedException, ExecutionException {
+		SymbolicExpressionFactory factory = new SymbolicExpressionFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<BinaryExpression>> results = new ArrayList<>();
+			for (int i = 0; i < 64; i++)
+				results.add(executor.submit(() -> factory.intern(sum(
+						new Variable(Untyped.INSTANCE, "x", LOC),
+						new Constant(Untyped.INSTANCE, 5, LOC)))));
+
+			BinaryExpression canonical = results.get(0).get();
+			for (Future<BinaryExpression> result : results)
+				assertSame(canonical, result.get());
+			assertEquals(3, factory.size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testCachedHashCodes() {
+		BinaryExpression left = sum(new Constant(Untyped.INSTANCE, 1, LOC), new Constant(Untyped.INSTANCE, 2, LOC));
+		BinaryExpression right = sum(new Constant(Untyped.INSTANCE, 1, LOC), new Constant(Untyped.INSTANCE, 3, LOC));
+		assertEquals(left.hashCode(), left.hashCode());
+		assertNotEquals(left, right);
+		assertEquals(left, sum(new Constant(Untyped.INSTANCE, 1, LOC), new Constant(Untyped.INSTANCE, 2, LOC)));
+	}
+
+	@Test
+	public void testWeakTable() {
+		SymbolicExpressionFactory factory = new SymbolicExpressionFactory(true);
+		for (int i = 0; i < 1000; i++)
+			factory.mkConstant(Untyped.INSTANCE, i, LOC);
+
+		// weak references are cleared only when the gc runs: we give it a
+		// few chances before failing
+		for (int i = 0; i < 10 && factory.size() > 0; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		assertTrue(factory.size() < 1000);
+
+		SymbolicExpressionFactory strong = new SymbolicExpressionFactory(false);
+		for (int i = 0; i < 1000; i++)
+			strong.mkConstant(Untyped.INSTANCE, i, LOC);
+		System.gc();
+		assertEquals(1000, strong.size());
+	}
+}
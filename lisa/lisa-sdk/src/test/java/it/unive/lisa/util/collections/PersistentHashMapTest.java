@@ -0,0 +1,152 @@
+package it.unive.lisa.util.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import org.junit.Test;
+
+public class PersistentHashMapTest {
+
+	private static final int LIMIT = 20000;
+
+	private static final Random random = new Random();
+
+	/**
+	 * A key with a poor hash function, used to force collisions.
+	 */
+	private static class Colliding {
+		private final int id;
+
+		private Colliding(
+				int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int hashCode() {
+			return id % 7;
+		}
+
+		@Override
+		public boolean equals(
+				Object obj) {
+			return obj instanceof Colliding && ((Colliding) obj).id == id;
+		}
+
+		@Override
+		public String toString() {
+			return "c" + id;
+		}
+	}
+
+	@Test
+	public void testRandomOperations() {
+		Map<Integer, Integer> expected = new HashMap<>();
+		PersistentHashMap<Integer, Integer> actual = new PersistentHashMap<>();
+		for (int i = 0; i < LIMIT; i++) {
+			int key = random.nextInt(LIMIT / 2);
+			if (random.nextInt(4) == 0)
+				assertEquals(expected.remove(key), actual.remove(key));
+			else
+				assertEquals(expected.put(key, i), actual.put(key, i));
+			assertEquals(expected.size(), actual.size());
+		}
+
+		assertEquals(expected, actual);
+		assertEquals(actual, expected);
+		assertEquals(expected.hashCode(), actual.hashCode());
+		for (Entry<Integer, Integer> entry : expected.entrySet())
+			assertEquals(entry.getValue(), actual.get(entry.getKey()));
+	}
+
+	@Test
+	public void testCollisions() {
+		Map<Colliding, Integer> expected = new HashMap<>();
+		PersistentHashMap<Colliding, Integer> actual = new PersistentHashMap<>();
+		for (int i = 0; i < 200; i++) {
+			expected.put(new Colliding(i), i);
+			actual.put(new Colliding(i), i);
+		}
+		assertEquals(expected, actual);
+
+		for (int i = 0; i < 200; i += 3) {
+			expected.remove(new Colliding(i));
+			actual.remove(new Colliding(i));
+		}
+		assertEquals(expected, actual);
+		assertFalse(actual.containsKey(new Colliding(0)));
+		assertTrue(actual.containsKey(new Colliding(1)));
+	}
+
+	@Test
+	public void testNulls() {
+		PersistentHashMap<String, String> map = new PersistentHashMap<>();
+		map.put(null, "a");
+		map.put("b", null);
+		assertEquals("a", map.get(null));
+		assertTrue(map.containsKey("b"));
+		assertNull(map.get("b"));
+		assertFalse(map.containsKey("c"));
+		assertEquals(2, map.size());
+		map.remove(null);
+		assertFalse(map.containsKey(null));
+		assertEquals(1, map.size());
+	}
+
+	@Test
+	public void testCopiesAreIndependent() {
+		PersistentHashMap<Integer, Integer> original = new PersistentHashMap<>();
+		for (int i = 0; i < 1000; i++)
+			original.put(i, i);
+
+		PersistentHashMap<Integer, Integer> copy = new PersistentHashMap<>(original);
+		assertTrue(copy.sharesStructureWith(original));
+		assertEquals(original, copy);
+		assertTrue(copy.divergingEntries(original).isEmpty());
+
+		copy.put(5, -5);
+		copy.remove(10);
+		copy.put(2000, 2000);
+		assertFalse(copy.sharesStructureWith(original));
+		assertEquals(Integer.valueOf(5), original.get(5));
+		assertEquals(Integer.valueOf(10), original.get(10));
+		assertFalse(original.containsKey(2000));
+		assertEquals(1000, original.size());
+		assertEquals(1000, copy.size());
+
+		List<Integer> diverging = new ArrayList<>();
+		for (Entry<Integer, Integer> entry : copy.divergingEntries(original))
+			diverging.add(entry.getKey());
+		assertTrue(diverging.contains(5));
+		assertTrue(diverging.contains(2000));
+		assertFalse(diverging.contains(10));
+		assertTrue(diverging.size() < copy.size());
+	}
+
+	@Test
+	public void testIteratorRemoval() {
+		PersistentHashMap<Integer, Integer> map = new PersistentHashMap<>();
+		for (int i = 0; i < 1000; i++)
+			map.put(i, i);
+
+		for (Iterator<Entry<Integer, Integer>> it = map.entrySet().iterator(); it.hasNext();)
+			if (it.next().getKey() % 2 == 0)
+				it.remove();
+
+		assertEquals(500, map.size());
+		for (int i = 0; i < 1000; i++)
+			assertEquals(i % 2 != 0, map.containsKey(i));
+
+		map.entrySet().iterator().next().setValue(-1);
+		assertTrue(map.containsValue(-1));
+	}
+}
@@ -403,4 +403,38 @@ public class BitExternalSetTest {
 		tmp.removeAll(set2);
 		verify(Set::equals, Pair.of(tmp, eset1.difference(eset2)));
 	}
+
+	@Test
+	public void testConversionAcrossCaches() {
+		ExternalSetCache<String> cache1 = new ExternalSetCache<>();
+		ExternalSetCache<String> cache2 = new ExternalSetCache<>();
+		cache2.mkSingletonSet("padding");
+		ExternalSet<String> eset1 = cache1.mkEmptySet();
+		Set<String> set1 = new HashSet<>();
+		populateSingle(new Set[] { set1, eset1 });
+
+		ExternalSet<String> eset2 = cache2.convert(eset1);
+		assertTrue(cache1.convert(eset1) == eset1);
+		verify(Set::equals, Pair.of(set1, eset1), Pair.of(set1, eset2));
+		assertEquals(set1.hashCode(), eset1.hashCode());
+		assertEquals(eset1.hashCode(), eset2.hashCode());
+	}
+
+	@Test
+	public void testConcurrentIndexing() throws InterruptedException {
+		ExternalSetCache<Integer> cache = new ExternalSetCache<>();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < ADD_LIMIT; i++)
+					assertEquals(Integer.valueOf(i), cache.get(cache.indexOfOrAdd(i)));
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+
+		assertEquals(ADD_LIMIT, cache.size());
+		assertEquals(ADD_LIMIT, new HashSet<>(cache.getAllElements()).size());
+	}
 }
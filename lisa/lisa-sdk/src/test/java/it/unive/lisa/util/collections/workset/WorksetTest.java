@@ -119,6 +119,34 @@ public class WorksetTest {
 		random(ConcurrentFIFOWorkingSet.mk(), false, true, "a", "b", "c", "d", "e", "f", "g", "h", "i");
 	}
 
+	@Test
+	public void WTOWsTest() {
+		// without an ordering, elements are popped in insertion order
+		linear(WTOWorkingSet.mk(), false, false, "a", "b", "c", "d", "e", "f", "g", "h", "i");
+		linear(WTOWorkingSet.mk(), false, false, "a", "b", "c", "a", "d", "e", "b", "f");
+		random(WTOWorkingSet.mk(), false, false, "a", "b", "c", "d", "e", "f", "g", "h", "i");
+
+		List<String> order = List.of("a", "b", "c", "d", "e");
+		WTOWorkingSet<String> ws = WTOWorkingSet.mk();
+		ws.push("z");
+		ws.push("d");
+		ws.setOrder(order::indexOf);
+		ws.push("b");
+		ws.push("e");
+		ws.push("a");
+		ws.push("b");
+		assertEquals(5, ws.size());
+		assertEquals("a", ws.pop());
+		ws.push("c");
+		assertEquals("b", ws.peek());
+		assertEquals("b", ws.pop());
+		assertEquals("c", ws.pop());
+		assertEquals("d", ws.pop());
+		assertEquals("e", ws.pop());
+		assertEquals("z", ws.pop());
+		assertTrue(ws.isEmpty());
+	}
+
 	interface Tester<T> {
 		@SuppressWarnings("unchecked")
 		void test(
@@ -0,0 +1,160 @@
+package it.unive.lisa.util.datastructures.automaton;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.Test;
+
+public class AutomataCacheTest {
+
+	private static TestAutomaton ab() {
+		State q0 = new State(0, true, false);
+		State q1 = new State(1, false, false);
+		State q2 = new State(2, false, true);
+		State q3 = new State(3, false, true);
+		return TestUtil.addEdges(TestUtil.build(q0, q1, q2, q3),
+				new Transition<>(q0, q1, new TestSymbol("a")),
+				new Transition<>(q1, q2, new TestSymbol("b")),
+				new Transition<>(q0, q3, new TestSymbol("b")));
+	}
+
+	private static Supplier<Object> counting(
+			AtomicInteger counter) {
+		return () -> {
+			counter.incrementAndGet();
+			return new Object();
+		};
+	}
+
+	@Test
+	public void testHitsAndMisses() {
+		AutomataCache cache = new AutomataCache(10);
+		AtomicInteger computed = new AtomicInteger();
+		TestAutomaton a = ab();
+
+		Object first = cache.compute("op", counting(computed), a, 1);
+		// structurally equal operands hit the cache
+		Object second = cache.compute("op", counting(computed), a.copy(), 1);
+		assertSame(first, second);
+		assertEquals(1, computed.get());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		// different operations or parameters do not
+		cache.compute("other", counting(computed), a, 1);
+		cache.compute("op", counting(computed), a, 2);
+		assertEquals(3, computed.get());
+		assertEquals(3, cache.size());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void testEviction() {
+		AutomataCache cache = new AutomataCache(2);
+		AtomicInteger computed = new AtomicInteger();
+		Object one = cache.compute("op", counting(computed), 1);
+		cache.compute("op", counting(computed), 2);
+		// using 1 makes 2 the least recently used entry
+		assertSame(one, cache.compute("op", counting(computed), 1));
+		cache.compute("op", counting(computed), 3);
+		assertEquals(2, cache.size());
+		assertEquals(3, computed.get());
+
+		assertSame(one, cache.compute("op", counting(computed), 1));
+		cache.compute("op", counting(computed), 2);
+		assertEquals(4, computed.get());
+
+		cache.setCapacity(1);
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getCapacity());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeCapacity() {
+		new AutomataCache(10).setCapacity(-1);
+	}
+
+	@Test
+	public void testDisabled() {
+		AutomataCache cache = new AutomataCache(0);
+		AtomicInteger computed = new AtomicInteger();
+		TestAutomaton a = ab();
+		assertNotSame(cache.compute("op", counting(computed), a), cache.compute("op", counting(computed), a));
+		assertEquals(2, computed.get());
+		assertEquals(0, cache.size());
+		assertNotSame(a, cache.canonical(a.copy()));
+	}
+
+	@Test
+	public void testCanonicalMinimization() {
+		TestAutomaton a = ab();
+		TestAutomaton b = ab();
+		assertNotSame(a, b);
+
+		TestAutomaton first = a.minimize();
+		assertSame(first, b.minimize());
+		assertSame(first, first.minimize());
+		assertSame(a.union(b), b.copy().union(a.copy()));
+	}
+
+	private static void assertRejected(
+			Class<? extends RuntimeException> expected,
+			Runnable modification) {
+		try {
+			modification.run();
+			fail("A frozen automaton has been modified");
+		} catch (RuntimeException e) {
+			assertSame(expected, e.getClass());
+		}
+	}
+
+	@Test
+	public void testFrozen() {
+		AutomataCache cache = new AutomataCache(10);
+		TestAutomaton a = ab();
+		TestAutomaton result = cache.compute("op", () -> new TestAutomaton("a"), a);
+		assertTrue(result.isFrozen());
+
+		State q = new State(4, false, false);
+		assertRejected(IllegalStateException.class, () -> result.addState(q));
+		assertRejected(IllegalStateException.class, () -> result.removeStates(Set.of(q)));
+		assertRejected(UnsupportedOperationException.class, () -> result.getTransitions().clear());
+
+		TestAutomaton copy = result.copy();
+		assertFalse(copy.isFrozen());
+		copy.addState(q);
+		assertEquals(result.getStates().size() + 1, copy.getStates().size());
+
+		// disabled caches share nothing
+		TestAutomaton b = ab();
+		TestAutomaton unshared = new AutomataCache(0).compute("op", () -> new TestAutomaton("a"), b);
+		assertFalse(unshared.isFrozen());
+	}
+
+	@Test
+	public void testOperandsAreSnapshotted() {
+		AutomataCache cache = new AutomataCache(10);
+		AtomicInteger computed = new AtomicInteger();
+		TestAutomaton a = ab();
+		Object first = cache.compute("op", counting(computed), a);
+
+		// operands are not frozen, and modifying them does not affect the
+		// entries they were used for
+		assertFalse(a.isFrozen());
+		a.addState(new State(4, false, false));
+		assertNotSame(first, cache.compute("op", counting(computed), a));
+		assertSame(first, cache.compute("op", counting(computed), ab()));
+		assertEquals(2, computed.get());
+	}
+}
@@ -1,6 +1,7 @@
 package it.unive.lisa.util.datastructures.automaton;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
 import java.util.SortedSet;
@@ -44,7 +45,17 @@ public class IntersectionTest {
 		// ab
 		TestAutomaton a2 = new TestAutomaton(states2, delta2);
 
-		assertEquals(a2, a.intersection(a2));
+		// same as a2, with states numbered in the order they are reached
+		State[] expSt = new State[3];
+		expSt[0] = new State(0, true, false);
+		expSt[1] = new State(1, false, false);
+		expSt[2] = new State(2, false, true);
+		TestAutomaton exp = TestUtil.addEdges(TestUtil.build(expSt),
+				new Transition<>(expSt[0], expSt[1], new TestSymbol("a")),
+				new Transition<>(expSt[1], expSt[2], new TestSymbol("b")));
+
+		assertEquals(exp, a.intersection(a2));
+		assertTrue(a2.isEqualTo(a.intersection(a2)));
 	}
 
 	@Test
@@ -78,6 +89,16 @@ public class IntersectionTest {
 
 		TestAutomaton a2 = new TestAutomaton(states2, delta2);
 
-		assertEquals(a2, a.intersection(a2));
+		// same as a2, with states numbered in the order they are reached
+		State[] expSt = new State[3];
+		expSt[0] = new State(0, true, false);
+		expSt[1] = new State(1, false, false);
+		expSt[2] = new State(2, false, true);
+		TestAutomaton exp = TestUtil.addEdges(TestUtil.build(expSt),
+				new Transition<>(expSt[0], expSt[1], new TestSymbol("a")),
+				new Transition<>(expSt[1], expSt[2], new TestSymbol("c")));
+
+		assertEquals(exp, a.intersection(a2));
+		assertTrue(a2.isEqualTo(a.intersection(a2)));
 	}
 }
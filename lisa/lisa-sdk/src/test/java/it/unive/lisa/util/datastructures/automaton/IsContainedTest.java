@@ -1,8 +1,10 @@
 package it.unive.lisa.util.datastructures.automaton;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
+import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import org.junit.Test;
@@ -97,4 +99,37 @@ public class IsContainedTest {
 		assertTrue(a2.isContained(a));
 		assertTrue(!a.isContained(a2));
 	}
+
+	private static TestAutomaton random(
+			Random random,
+			int size) {
+		SortedSet<State> states = new TreeSet<>();
+		State[] st = new State[size];
+		for (int i = 0; i < size; i++)
+			st[i] = new State(i, i == 0, random.nextInt(3) == 0);
+		Collections.addAll(states, st);
+
+		SortedSet<Transition<TestSymbol>> delta = new TreeSet<>();
+		for (int i = 0; i < size * 2; i++)
+			delta.add(new Transition<>(st[random.nextInt(size)], st[random.nextInt(size)],
+					new TestSymbol(String.valueOf("ab".charAt(random.nextInt(2))))));
+		return new TestAutomaton(states, delta);
+	}
+
+	@Test
+	public void testAgainstComplement() {
+		Random random = new Random(42);
+		int contained = 0;
+		for (int i = 0; i < 300; i++) {
+			TestAutomaton a = random(random, 2 + random.nextInt(5));
+			TestAutomaton b = random.nextBoolean() ? a.union(random(random, 2 + random.nextInt(5)))
+					: random(random, 2 + random.nextInt(5));
+			boolean expected = a.intersection(b.complement(a.commonAlphabet(b))).acceptsEmptyLanguage();
+			assertEquals(a.prettyPrint() + "\n" + b.prettyPrint(), expected, a.isContained(b));
+			if (expected)
+				contained++;
+		}
+		// both outcomes have been tested
+		assertTrue(contained > 0 && contained < 300);
+	}
 }
@@ -2,8 +2,10 @@ package it.unive.lisa.util.datastructures.automaton;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
+import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import org.junit.Test;
@@ -185,4 +187,78 @@ public class MinimizeTest {
 
 		assertSame(a, a.minimize());
 	}
+
+	private static TestAutomaton random(
+			Random random,
+			int size) {
+		SortedSet<State> states = new TreeSet<>();
+		State[] st = new State[size];
+		for (int i = 0; i < size; i++)
+			st[i] = new State(i, i == 0, random.nextInt(3) == 0);
+		Collections.addAll(states, st);
+
+		SortedSet<Transition<TestSymbol>> delta = new TreeSet<>();
+		for (int i = 0; i < size * 2; i++) {
+			// "" is epsilon
+			String symbol = random.nextInt(8) == 0 ? "" : String.valueOf("abc".charAt(random.nextInt(3)));
+			delta.add(new Transition<>(st[random.nextInt(size)], st[random.nextInt(size)], new TestSymbol(symbol)));
+		}
+		return new TestAutomaton(states, delta);
+	}
+
+	@Test
+	public void testHopcroftAgainstBrzozowski() {
+		Random random = new Random(12345);
+		for (int i = 0; i < 200; i++) {
+			TestAutomaton a = random(random, 2 + random.nextInt(8));
+			TestAutomaton hop = a.minimize(Minimization.HOPCROFT);
+			TestAutomaton brz = a.minimize(Minimization.BRZOZOWSKI);
+			if (brz.acceptsEmptyLanguage()) {
+				// brzozowski might remove all states in this case
+				assertTrue(a.prettyPrint(), hop.acceptsEmptyLanguage());
+				continue;
+			}
+			assertEquals(a.prettyPrint(), brz.getStates().size(), hop.getStates().size());
+			assertEquals(a.prettyPrint(), brz.getTransitions().size(), hop.getTransitions().size());
+			assertTrue(a.prettyPrint(), hop.isDeterministic());
+			// minimal automata are isomorphic: renumbering yields the same one
+			assertEquals(a.prettyPrint(), hop, brz.copy().minimize(Minimization.HOPCROFT));
+		}
+	}
+
+	@Test
+	public void testHopcroftIsCanonical() {
+		Random random = new Random(54321);
+		for (int i = 0; i < 200; i++) {
+			TestAutomaton a = random(random, 2 + random.nextInt(8));
+			TestAutomaton hop = a.minimize(Minimization.HOPCROFT);
+			// same language, different structure
+			TestAutomaton other = a.union(a.copy()).reverse().reverse();
+			assertEquals(a.prettyPrint(), hop, other.minimize(Minimization.HOPCROFT));
+			TestAutomaton brz = a.minimize(Minimization.BRZOZOWSKI).copy();
+			assertEquals(a.prettyPrint(), hop, brz.minimize(Minimization.HOPCROFT));
+		}
+	}
+
+	@Test
+	public void testHopcroftEmptyLanguage() {
+		SortedSet<State> states = new TreeSet<>();
+		SortedSet<Transition<TestSymbol>> delta = new TreeSet<>();
+		State[] st = new State[3];
+		st[0] = new State(0, true, false);
+		st[1] = new State(1, false, false);
+		st[2] = new State(2, false, true);
+		Collections.addAll(states, st);
+
+		delta.add(new Transition<>(st[0], st[1], new TestSymbol("a")));
+		delta.add(new Transition<>(st[1], st[0], new TestSymbol("a")));
+
+		TestAutomaton a = new TestAutomaton(states, delta);
+
+		TestAutomaton min = a.minimize(Minimization.HOPCROFT);
+		assertEquals(1, min.getStates().size());
+		assertTrue(min.getTransitions().isEmpty());
+		assertTrue(min.acceptsEmptyLanguage());
+		assertEquals(a.emptyLanguage(), min);
+	}
 }
@@ -0,0 +1,47 @@
+package it.unive.lisa.util.datastructures.automaton;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.junit.Test;
+
+public class TransitionIndexTest {
+
+	@Test
+	public void testIndexFollowsModifications() {
+		SortedSet<State> states = new TreeSet<>();
+		State[] st = new State[3];
+		st[0] = new State(0, true, false);
+		st[1] = new State(1, false, false);
+		st[2] = new State(2, false, true);
+		Collections.addAll(states, st);
+
+		TestAutomaton a = new TestAutomaton(states, new TreeSet<>());
+		Transition<TestSymbol> t01 = new Transition<>(st[0], st[1], new TestSymbol("a"));
+		Transition<TestSymbol> t02 = new Transition<>(st[0], st[2], new TestSymbol("a"));
+		Transition<TestSymbol> t12 = new Transition<>(st[1], st[2], new TestSymbol("b"));
+		a.addTransition(t01);
+		assertEquals(Collections.singleton(t01), a.getOutgoingTransitionsFrom(st[0]));
+
+		// the index has been built: these updates have to reach it
+		a.addTransition(t02);
+		a.addTransition(t12);
+		assertEquals(new TreeSet<>(Set.of(t01, t02)), a.getOutgoingTransitionsFrom(st[0]));
+		assertEquals(new TreeSet<>(Set.of(t02, t12)), a.getIngoingTransitionsFrom(st[2]));
+		assertEquals(new TreeSet<>(Set.of(st[1], st[2])), a.nextStatesNFA(Set.of(st[0]), new TestSymbol("a")));
+
+		a.removeTransitions(Set.of(t02));
+		assertEquals(Collections.singleton(t01), a.getOutgoingTransitionsFrom(st[0]));
+		assertEquals(Collections.singleton(t12), a.getIngoingTransitionsFrom(st[2]));
+		assertEquals(Collections.singleton(st[1]), a.nextStatesNFA(Set.of(st[0]), new TestSymbol("a")));
+
+		// direct modifications are detected through the size of the set
+		a.getTransitions().add(t02);
+		assertEquals(new TreeSet<>(Set.of(t01, t02)), a.getOutgoingTransitionsFrom(st[0]));
+		assertTrue(a.getOutgoingTransitionsFrom(st[2]).isEmpty());
+	}
+}
@@ -0,0 +1,171 @@
+package it.unive.lisa.util.datastructures.graph.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import it.unive.lisa.util.collections.workset.DuplicateFreeFIFOWorkingSet;
+import it.unive.lisa.util.collections.workset.WTOWorkingSet;
+import it.unive.lisa.util.collections.workset.WorkingSet;
+import it.unive.lisa.util.datastructures.graph.TestGraph;
+import it.unive.lisa.util.datastructures.graph.TestGraph.TestEdge;
+import it.unive.lisa.util.datastructures.graph.TestGraph.TestNode;
+import it.unive.lisa.util.datastructures.graph.algorithms.Fixpoint.FixpointImplementation;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.collections4.SetUtils;
+import org.junit.Test;
+
+public class WeakTopologicalOrderTest {
+
+	private static class CountingTester implements FixpointImplementation<TestNode, TestEdge, Set<TestNode>> {
+
+		private int evaluations = 0;
+
+		@Override
+		public Set<TestNode> semantics(
+				TestNode node,
+				Set<TestNode> entrystate)
+				throws Exception {
+			evaluations++;
+			Set<TestNode> res = new HashSet<>(entrystate);
+			res.add(node);
+			return res;
+		}
+
+		@Override
+		public Set<TestNode> traverse(
+				TestEdge edge,
+				Set<TestNode> entrystate)
+				throws Exception {
+			return entrystate;
+		}
+
+		@Override
+		public Set<TestNode> union(
+				TestNode node,
+				Set<TestNode> left,
+				Set<TestNode> right)
+				throws Exception {
+			return SetUtils.union(left, right);
+		}
+
+		@Override
+		public Set<TestNode> operation(
+				TestNode node,
+				Set<TestNode> approx,
+				Set<TestNode> old)
+				throws Exception {
+			return SetUtils.union(approx, old);
+		}
+
+		@Override
+		public boolean equality(
+				TestNode node,
+				Set<TestNode> approx,
+				Set<TestNode> old)
+				throws Exception {
+			return old.containsAll(approx);
+		}
+	}
+
+	private static TestNode[] nodes(
+			TestGraph graph,
+			int count) {
+		TestNode[] nodes = new TestNode[count];
+		for (int i = 0; i < count; i++) {
+			nodes[i] = new TestNode(i + 1);
+			graph.addNode(nodes[i], i == 0);
+		}
+		return nodes;
+	}
+
+	@Test
+	public void testNestedLoops() {
+		TestGraph graph = new TestGraph();
+		TestNode[] n = nodes(graph, 6);
+		graph.addEdge(new TestEdge(n[0], n[1]));
+		graph.addEdge(new TestEdge(n[1], n[2]));
+		graph.addEdge(new TestEdge(n[2], n[3]));
+		graph.addEdge(new TestEdge(n[3], n[2]));
+		graph.addEdge(new TestEdge(n[3], n[4]));
+		graph.addEdge(new TestEdge(n[4], n[1]));
+		graph.addEdge(new TestEdge(n[1], n[5]));
+
+		WeakTopologicalOrder<TestGraph, TestNode, TestEdge> wto = new WeakTopologicalOrder<>();
+		wto.build(graph);
+		assertEquals("1 (2 (3 4) 5) 6", wto.toString());
+		assertEquals(Set.of(n[1], n[2]), wto.getHeads());
+		for (int i = 0; i < n.length; i++)
+			assertEquals(i, wto.getPosition(n[i]));
+	}
+
+	@Test
+	public void testSelfLoopAndUnreachable() {
+		TestGraph graph = new TestGraph();
+		TestNode[] n = nodes(graph, 4);
+		graph.addEdge(new TestEdge(n[0], n[1]));
+		graph.addEdge(new TestEdge(n[1], n[1]));
+		graph.addEdge(new TestEdge(n[1], n[2]));
+		graph.addEdge(new TestEdge(n[3], n[2]));
+
+		WeakTopologicalOrder<TestGraph, TestNode, TestEdge> wto = new WeakTopologicalOrder<>();
+		wto.build(graph);
+		assertEquals(Set.of(n[1]), wto.getHeads());
+		assertEquals(4, wto.getOrder().size());
+		assertTrue(wto.getPosition(n[0]) < wto.getPosition(n[1]));
+		assertTrue(wto.getPosition(n[1]) < wto.getPosition(n[2]));
+		assertTrue(wto.getPosition(n[3]) < wto.getPosition(n[2]));
+		assertEquals(-1, wto.getPosition(new TestNode(42)));
+	}
+
+	private static int evaluations(
+			TestGraph graph,
+			TestNode entry,
+			WorkingSet<TestNode> ws)
+			throws FixpointException {
+		CountingTester tester = new CountingTester();
+		new Fixpoint<TestGraph, TestNode, TestEdge, Set<TestNode>>(graph, false).fixpoint(
+				Map.of(entry, Set.of()),
+				ws,
+				tester);
+		return tester.evaluations;
+	}
+
+	@Test
+	public void testEvaluationsAgainstFIFO() throws FixpointException {
+		// three nested loops, followed by a sequence of statements: each loop
+		// goes from its head to a node that enters the inner loop, and the
+		// inner loop exits to a node that jumps back to the head
+		TestGraph graph = new TestGraph();
+		int depth = 3;
+		int tail = 10;
+		TestNode[] n = nodes(graph, depth * 3 + 1 + tail);
+		graph.addEdge(new TestEdge(n[0], n[1]));
+		for (int d = 0; d < depth; d++) {
+			TestNode head = n[1 + d * 3];
+			TestNode pre = n[2 + d * 3];
+			TestNode post = n[3 + d * 3];
+			graph.addEdge(new TestEdge(head, pre));
+			if (d == depth - 1)
+				graph.addEdge(new TestEdge(pre, post));
+			else {
+				graph.addEdge(new TestEdge(pre, n[4 + d * 3]));
+				graph.addEdge(new TestEdge(n[4 + d * 3], post));
+			}
+			graph.addEdge(new TestEdge(post, head));
+		}
+		graph.addEdge(new TestEdge(n[1], n[depth * 3 + 1]));
+		for (int i = depth * 3 + 1; i < n.length - 1; i++)
+			graph.addEdge(new TestEdge(n[i], n[i + 1]));
+
+		WeakTopologicalOrder<TestGraph, TestNode, TestEdge> order = new WeakTopologicalOrder<>();
+		order.build(graph);
+		WTOWorkingSet<TestNode> wto = WTOWorkingSet.mk();
+		wto.setOrder(order::getPosition);
+
+		int fifoEvaluations = evaluations(graph, n[0], DuplicateFreeFIFOWorkingSet.mk());
+		int wtoEvaluations = evaluations(graph, n[0], wto);
+		assertTrue(wtoEvaluations < fifoEvaluations);
+	}
+}
@@ -571,6 +571,44 @@ public class NodeListTest {
 		verify(adj, nodes, edges, matrix, entries, exits, "after removing " + removed.toString());
 	}
 
+	@Test
+	public void testCodeNodeMassRemoval() {
+		NodeList<TestCodeGraph, TestCodeNode, TestCodeEdge> matrix = new NodeList<>(new TestCodeEdge(null, null));
+		List<TestCodeNode> nodes = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			TestCodeNode node = new TestCodeNode(i);
+			nodes.add(node);
+			matrix.addNode(node);
+		}
+		for (int i = 0; i < 9; i++)
+			matrix.addEdge(new TestCodeEdge(nodes.get(i), nodes.get(i + 1)));
+		matrix.addEdge(new TestCodeEdge(nodes.get(9), nodes.get(0)));
+
+		// removing odd nodes one at a time, reconnecting the even ones
+		for (int i = 1; i < 10; i += 2) {
+			matrix.removeNode(nodes.get(i));
+			matrix.addEdge(new TestCodeEdge(nodes.get(i - 1), nodes.get((i + 1) % 10)));
+			assertFalse(matrix.containsNode(nodes.get(i)));
+			assertTrue(isEqualCollection(Set.of(nodes.get((i + 1) % 10)), matrix.followersOf(nodes.get(i - 1))));
+		}
+
+		NodeList<TestCodeGraph, TestCodeNode, TestCodeEdge> expected = new NodeList<>(new TestCodeEdge(null, null));
+		for (int i = 0; i < 10; i += 2)
+			expected.addNode(nodes.get(i));
+		for (int i = 0; i < 10; i += 2)
+			expected.addEdge(new TestCodeEdge(nodes.get(i), nodes.get((i + 2) % 10)));
+
+		assertEquals(expected, matrix);
+		assertEquals(expected.hashCode(), matrix.hashCode());
+		assertEquals(expected.toString(), matrix.toString());
+		assertTrue(isEqualCollection(expected.getEdges(), matrix.getEdges()));
+		for (int i = 0; i < 10; i += 2) {
+			assertTrue(isEqualCollection(expected.followersOf(nodes.get(i)), matrix.followersOf(nodes.get(i))));
+			assertTrue(isEqualCollection(expected.predecessorsOf(nodes.get(i)),
+					matrix.predecessorsOf(nodes.get(i))));
+		}
+	}
+
 	private static <T> T random(
 			Collection<T> elements) {
 		int idx = rand.nextInt(elements.size());
@@ -609,4 +647,38 @@ public class NodeListTest {
 
 		verify(adj, nodes, edges, matrix, entries, exits, "after removing " + removed.toString());
 	}
+
+	@Test
+	public void testAdjacencyInvalidation() {
+		NodeList<TestCodeGraph, TestCodeNode, TestCodeEdge> matrix = new NodeList<>(new TestCodeEdge(null, null));
+		TestCodeNode one = new TestCodeNode(1);
+		TestCodeNode two = new TestCodeNode(2);
+		TestCodeNode three = new TestCodeNode(3);
+		matrix.addNode(one);
+		matrix.addNode(two);
+		matrix.addEdge(new TestCodeEdge(one, two));
+
+		assertTrue(isEqualCollection(Set.of(two), matrix.followersOf(one)));
+		assertTrue(matrix.followersOf(two).isEmpty());
+		boolean failed = false;
+		try {
+			matrix.followersOf(one).add(three);
+		} catch (UnsupportedOperationException e) {
+			failed = true;
+		}
+		assertTrue("Followers can be modified from the outside", failed);
+
+		matrix.addNode(three);
+		matrix.addEdge(new TestCodeEdge(one, three));
+		assertTrue(isEqualCollection(Set.of(two, three), matrix.followersOf(one)));
+		assertTrue(isEqualCollection(Set.of(one), matrix.predecessorsOf(three)));
+
+		matrix.removeNode(two);
+		assertTrue(isEqualCollection(Set.of(three), matrix.followersOf(one)));
+		assertTrue(isEqualCollection(Set.of(one), matrix.predecessorsOf(three)));
+
+		matrix.removeEdge(new TestCodeEdge(one, three));
+		assertTrue(matrix.followersOf(one).isEmpty());
+		assertTrue(matrix.predecessorsOf(three).isEmpty());
+	}
 }
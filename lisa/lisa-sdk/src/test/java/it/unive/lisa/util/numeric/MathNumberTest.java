@@ -7,7 +7,12 @@ import static it.unive.lisa.util.numeric.MathNumber.ONE;
 import static it.unive.lisa.util.numeric.MathNumber.PLUS_INFINITY;
 import static it.unive.lisa.util.numeric.MathNumber.ZERO;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
 import org.junit.Test;
 
 public class MathNumberTest {
@@ -212,4 +217,68 @@ public class MathNumberTest {
 		assertEquals("-inf max +inf != -inf", PLUS_INFINITY, MINUS_INFINITY.max(PLUS_INFINITY));
 		assertEquals("-inf max -inf != -inf", MINUS_INFINITY, MINUS_INFINITY.max(MINUS_INFINITY));
 	}
+
+	private static final long[] VALUES = { 0, 1, -1, 2, -3, 10, -100, 127, 128, -129, 1L << 31, -(1L << 32),
+			Long.MAX_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE, Long.MIN_VALUE + 1 };
+
+	private static MathNumber reference(
+			BigDecimal value) {
+		// the representation of the results of operations on big decimals
+		return value.signum() == 0 ? ZERO : new MathNumber(value);
+	}
+
+	@Test
+	public void testLongArithmetic() {
+		for (long l : VALUES)
+			for (long r : VALUES) {
+				MathNumber left = new MathNumber(l), right = new MathNumber(r);
+				BigDecimal bl = BigDecimal.valueOf(l), br = BigDecimal.valueOf(r);
+				String msg = l + " op " + r;
+				assertEquals(msg, reference(bl.add(br)), left.add(right));
+				assertEquals(msg, reference(bl.subtract(br)), left.subtract(right));
+				assertEquals(msg, reference(bl.multiply(br)), left.multiply(right));
+				if (r != 0) {
+					MathNumber div = left.divide(right);
+					BigDecimal expected = bl.divide(br, 100, RoundingMode.HALF_UP).stripTrailingZeros();
+					assertEquals(msg, reference(expected), div);
+					assertEquals(msg, reference(expected).toString(), div.toString());
+				}
+				assertEquals(msg, Integer.signum(bl.compareTo(br)), Integer.signum(left.compareTo(right)));
+				assertEquals(msg, bl.compareTo(br) <= 0, left.leq(right));
+				assertEquals(msg, bl.compareTo(br) < 0, left.lt(right));
+				assertEquals(msg, new MathNumber(bl.min(br)), left.min(right));
+				assertEquals(msg, new MathNumber(bl.max(br)), left.max(right));
+			}
+	}
+
+	@Test
+	public void testRepresentation() throws MathNumberConversionException {
+		// integral numbers are equal independently of how they are built
+		for (long l : VALUES) {
+			MathNumber n = new MathNumber(l);
+			MathNumber big = new MathNumber(new BigDecimal(BigInteger.valueOf(l)));
+			assertEquals(n, big);
+			assertEquals(n.hashCode(), big.hashCode());
+			assertEquals(String.valueOf(l), n.toString());
+			assertEquals(BigDecimal.valueOf(l), n.getNumber());
+			assertEquals(l, n.toLong());
+			assertEquals((int) l, n.toInt());
+			assertEquals((double) l, n.toDouble(), 0);
+			assertEquals(reference(BigDecimal.valueOf(l).abs()), n.abs());
+		}
+
+		// numbers with a different scale are still different
+		assertNotEquals(ONE, new MathNumber(1.0));
+		assertEquals("1.0", new MathNumber(1.0).toString());
+		assertEquals(0, ONE.compareTo(new MathNumber(1.0)));
+		assertEquals(ONE, new MathNumber(1.5).roundDown());
+		assertEquals(new MathNumber(2), new MathNumber(1.5).roundUp());
+
+		// overflowing operations are promoted
+		MathNumber max = new MathNumber(Long.MAX_VALUE);
+		assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE), max.add(ONE).getNumber());
+		assertTrue(max.add(ONE).gt(max));
+		assertEquals(max, max.add(ONE).subtract(ONE));
+		assertEquals(new BigDecimal("0.5"), ONE.divide(new MathNumber(2)).getNumber());
+	}
 }